@@ -0,0 +1,108 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH result files produced with {@code -rf json}, benchmark by benchmark, and fails when a benchmark of the current run is
+ * slower than in the baseline by more than the given percentage (10% by default).
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar org.sonar.java.benchmarks.BaselineComparison baseline.json current.json [threshold]
+ * </pre>
+ */
+public final class BaselineComparison {
+
+  private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+  private BaselineComparison() {
+    // main class
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: BaselineComparison <baseline.json> <current.json> [threshold percent]");
+      System.exit(2);
+    }
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+    int regressions = compare(scores(Paths.get(args[0])), scores(Paths.get(args[1])), threshold, System.out);
+    if (regressions > 0) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * @return the number of benchmarks slower than the baseline by more than the threshold
+   */
+  static int compare(Map<String, Double> baseline, Map<String, Double> current, double thresholdPercent, PrintStream out) {
+    int regressions = 0;
+    for (Map.Entry<String, Double> entry : current.entrySet()) {
+      Double baselineScore = baseline.get(entry.getKey());
+      if (baselineScore == null) {
+        out.printf(Locale.ROOT, "%-100s %12.3f  (new)%n", entry.getKey(), entry.getValue());
+        continue;
+      }
+      double change = (entry.getValue() - baselineScore) * 100.0 / baselineScore;
+      boolean regression = change > thresholdPercent;
+      if (regression) {
+        regressions++;
+      }
+      out.printf(Locale.ROOT, "%-100s %12.3f %+8.1f%%%s%n", entry.getKey(), entry.getValue(), change, regression ? "  REGRESSION" : "");
+    }
+    return regressions;
+  }
+
+  /**
+   * Scores are times per operation (the benchmarks use {@code Mode.AverageTime}), by benchmark name and parameters.
+   */
+  static Map<String, Double> scores(Path jmhResults) throws IOException {
+    Map<String, Double> scores = new TreeMap<>();
+    try (Reader reader = Files.newBufferedReader(jmhResults, StandardCharsets.UTF_8)) {
+      JsonArray results = JsonParser.parseReader(reader).getAsJsonArray();
+      for (JsonElement element : results) {
+        JsonObject result = element.getAsJsonObject();
+        StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+        JsonObject params = result.getAsJsonObject("params");
+        if (params != null) {
+          Map<String, String> sortedParams = new TreeMap<>();
+          params.entrySet().forEach(param -> sortedParams.put(param.getKey(), param.getValue().getAsString()));
+          sortedParams.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+        }
+        scores.put(key.toString(), result.getAsJsonObject("primaryMetric").get("score").getAsDouble());
+      }
+    }
+    return scores;
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.model.JParser;
+import org.sonar.java.model.JParserConfig;
+import org.sonar.java.model.JavaTree;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Access to the fixtures shared by the benchmarks: the sources checked in under {@code src/main/resources/fixtures}, and the production
+ * sources of java-frontend copied next to them at build time.
+ */
+final class Fixtures {
+
+  static final JavaVersion JAVA_VERSION = JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION;
+
+  private Fixtures() {
+    // utility class
+  }
+
+  static String source(String name) {
+    try (InputStream input = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+      if (input == null) {
+        throw new IllegalArgumentException("Unknown fixture: " + name);
+      }
+      return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static JavaTree.CompilationUnitTreeImpl parse(String name, String source) {
+    return JParser.parse(JParserConfig.Mode.FILE_BY_FILE.create(JAVA_VERSION, Collections.emptyList()).astParser(), JAVA_VERSION.toString(), name, source);
+  }
+
+  static InputFile inputFile(String name, String source) {
+    return TestInputFileBuilder.create("java-benchmarks", "fixtures/" + name)
+      .setLanguage("java")
+      .setCharset(StandardCharsets.UTF_8)
+      .setContents(source)
+      .build();
+  }
+
+  static JavaFileScannerContext context(JavaTree.CompilationUnitTreeImpl tree, InputFile inputFile) {
+    return new DefaultJavaFileScannerContext(tree, inputFile, tree.sema, null, JAVA_VERSION, true, false);
+  }
+
+  static List<MethodTree> methods(JavaTree.CompilationUnitTreeImpl tree) {
+    return tree.kindIndex().nodesOfKind(Tree.Kind.METHOD).stream()
+      .map(MethodTree.class::cast)
+      .filter(method -> method.block() != null)
+      .collect(Collectors.toList());
+  }
+
+}
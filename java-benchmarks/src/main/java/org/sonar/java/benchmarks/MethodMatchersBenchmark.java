@@ -0,0 +1,102 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.model.JavaTree;
+import org.sonar.plugins.java.api.semantic.MethodMatchers;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * {@link MethodMatchers#matches(MethodInvocationTree)} on all the invocations of a file, for matchers similar to the ones of the checks:
+ * evaluated one by one as separate checks do, or combined with {@link MethodMatchers#or}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MethodMatchersBenchmark {
+
+  private static final String[] TYPES = {"java.lang.Object", "java.lang.String", "java.util.List", "java.util.Map", "java.util.Collection",
+    "java.util.Optional", "java.util.stream.Stream", "java.io.InputStream", "java.lang.StringBuilder", "java.util.Set"};
+  private static final String[] NAMES = {"equals", "hashCode", "toString", "get", "add", "put", "isEmpty", "stream", "of", "contains",
+    "append", "size", "forEach", "map", "collect", "read", "close", "getClass", "length", "substring"};
+
+  @Param({"CFG.java", "DependencyAwareFileOrdering.java"})
+  public String fixture;
+
+  private final List<MethodMatchers> matchers = new ArrayList<>();
+  private MethodMatchers combinedMatchers;
+  private List<MethodInvocationTree> invocations;
+
+  @Setup
+  public void setup() {
+    JavaTree.CompilationUnitTreeImpl tree = Fixtures.parse(fixture, Fixtures.source(fixture));
+    invocations = new ArrayList<>();
+    tree.kindIndex().nodesOfKind(Tree.Kind.METHOD_INVOCATION).forEach(invocation -> invocations.add((MethodInvocationTree) invocation));
+    for (int i = 0; i < NAMES.length; i++) {
+      matchers.add(MethodMatchers.create().ofSubTypes(TYPES[i % TYPES.length]).names(NAMES[i]).withAnyParameters().build());
+      matchers.add(MethodMatchers.create().ofTypes(TYPES[(i + 3) % TYPES.length]).names(NAMES[i], NAMES[(i + 1) % NAMES.length])
+        .addWithoutParametersMatcher().build());
+    }
+    combinedMatchers = MethodMatchers.or(matchers);
+  }
+
+  @Benchmark
+  public int separateMatchers() {
+    int matches = 0;
+    for (MethodInvocationTree invocation : invocations) {
+      for (MethodMatchers matcher : matchers) {
+        if (matcher.matches(invocation)) {
+          matches++;
+        }
+      }
+    }
+    return matches;
+  }
+
+  @Benchmark
+  public int combinedMatchers() {
+    int matches = 0;
+    for (MethodInvocationTree invocation : invocations) {
+      if (combinedMatchers.matches(invocation)) {
+        matches++;
+      }
+    }
+    return matches;
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.SonarRuntime;
+import org.sonar.api.internal.SonarRuntimeImpl;
+import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition;
+import org.sonar.api.server.rule.RulesDefinition;
+import org.sonar.api.utils.Version;
+import org.sonar.plugins.java.JavaRulesDefinition;
+import org.sonar.plugins.java.JavaSonarWayProfile;
+
+/**
+ * Definition of the rules and of the built-in profile, as done when SonarLint or a scanner starts. The cold benchmarks measure a single
+ * definition in a fresh JVM, including the loading of the check classes and of the rule resources, which dominates the startup.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PluginStartupBenchmark {
+
+  private static final SonarRuntime SONARLINT_RUNTIME = SonarRuntimeImpl.forSonarLint(Version.create(9, 3));
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1)
+  @Fork(10)
+  public RulesDefinition.Context coldDefinition() {
+    return defineRulesAndProfile();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @Warmup(iterations = 5)
+  @Measurement(iterations = 5)
+  @Fork(1)
+  public RulesDefinition.Context warmDefinition() {
+    return defineRulesAndProfile();
+  }
+
+  private static RulesDefinition.Context defineRulesAndProfile() {
+    RulesDefinition.Context rulesContext = new RulesDefinition.Context();
+    new JavaRulesDefinition(SONARLINT_RUNTIME).define(rulesContext);
+    new JavaSonarWayProfile().define(new BuiltInQualityProfilesDefinition.Context());
+    return rulesContext;
+  }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.java.model.ExpressionUtils;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.regex.RegexCache;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonarsource.analyzer.commons.regex.ast.FlagSet;
+
+/**
+ * Parsing of the regular expressions found in a file through {@link RegexCache}, as done for the regex checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RegexBenchmark {
+
+  private static final Set<String> REGEX_METHODS = new HashSet<>(Arrays.asList("compile", "matches", "replaceAll", "replaceFirst", "split"));
+
+  @Param({"Regexes.java"})
+  public String fixture;
+
+  private LiteralTree[] regexes;
+
+  @Setup
+  public void setup() {
+    JavaTree.CompilationUnitTreeImpl tree = Fixtures.parse(fixture, Fixtures.source(fixture));
+    List<LiteralTree> literals = new ArrayList<>();
+    for (Tree node : tree.kindIndex().nodesOfKind(Tree.Kind.METHOD_INVOCATION)) {
+      MethodInvocationTree invocation = (MethodInvocationTree) node;
+      if (REGEX_METHODS.contains(ExpressionUtils.methodName(invocation).name())
+        && !invocation.arguments().isEmpty()
+        && invocation.arguments().get(0).is(Tree.Kind.STRING_LITERAL)) {
+        literals.add((LiteralTree) invocation.arguments().get(0));
+      }
+    }
+    regexes = literals.toArray(new LiteralTree[0]);
+  }
+
+  @Benchmark
+  public void parseRegexes(Blackhole blackhole) {
+    // the cache only lives for one file during an analysis
+    RegexCache regexCache = new RegexCache();
+    for (LiteralTree regex : regexes) {
+      blackhole.consume(regexCache.getRegexForLiterals(new FlagSet(), regex));
+    }
+  }
+
+}
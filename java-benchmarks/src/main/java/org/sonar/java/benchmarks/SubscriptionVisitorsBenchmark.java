@@ -0,0 +1,111 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.model.VisitorsBridge;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Dispatch of the nodes of a file to many subscription visitors by {@link VisitorsBridge#visitFile}, as done for the checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SubscriptionVisitorsBenchmark {
+
+  private static final List<Tree.Kind> KINDS = Arrays.asList(Tree.Kind.METHOD_INVOCATION, Tree.Kind.IDENTIFIER, Tree.Kind.MEMBER_SELECT,
+    Tree.Kind.METHOD, Tree.Kind.CLASS, Tree.Kind.VARIABLE, Tree.Kind.IF_STATEMENT, Tree.Kind.STRING_LITERAL, Tree.Kind.NEW_CLASS,
+    Tree.Kind.RETURN_STATEMENT, Tree.Kind.LAMBDA_EXPRESSION, Tree.Kind.BLOCK);
+
+  @Param({"CFG.java", "DependencyAwareFileOrdering.java"})
+  public String fixture;
+
+  @Param({"50"})
+  public int visitors;
+
+  private JavaTree.CompilationUnitTreeImpl tree;
+  private VisitorsBridge visitorsBridge;
+
+  @Setup
+  public void setup() {
+    String source = Fixtures.source(fixture);
+    tree = Fixtures.parse(fixture, source);
+    InputFile inputFile = Fixtures.inputFile(fixture, source);
+    List<CountingVisitor> countingVisitors = new ArrayList<>();
+    for (int i = 0; i < visitors; i++) {
+      countingVisitors.add(new CountingVisitor(Arrays.asList(KINDS.get(i % KINDS.size()), KINDS.get((i * 7 + 3) % KINDS.size()))));
+    }
+    visitorsBridge = new VisitorsBridge(countingVisitors, Collections.emptyList(), null, Fixtures.JAVA_VERSION);
+    visitorsBridge.setCurrentFile(inputFile);
+  }
+
+  @Benchmark
+  public void visitFile() {
+    visitorsBridge.visitFile(tree, false);
+  }
+
+  private static class CountingVisitor extends IssuableSubscriptionVisitor {
+
+    private final List<Tree.Kind> nodesToVisit;
+    private int visitedNodes;
+
+    CountingVisitor(List<Tree.Kind> nodesToVisit) {
+      this.nodesToVisit = nodesToVisit;
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return nodesToVisit;
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      visitedNodes++;
+    }
+
+    @Override
+    public void leaveNode(Tree tree) {
+      visitedNodes--;
+    }
+  }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.JavaResourceLocator;
+import org.sonar.plugins.surefire.SurefireJavaParser;
+
+/**
+ * Ingestion of a directory of surefire XML reports by {@link SurefireJavaParser}, from the parsing of the reports to the saving of the
+ * measures. The reports are generated at setup, one per test class, each test case having captured some output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SurefireIngestionBenchmark {
+
+  private static final int TEST_CASES_PER_REPORT = 20;
+
+  @Param({"500"})
+  public int reports;
+
+  @Param({"0", "10"})
+  public int outputKBPerTestCase;
+
+  @Param({"1", "4"})
+  public int parallelism;
+
+  private Path reportsDir;
+  private File baseDir;
+  private SurefireJavaParser parser;
+
+  @Setup
+  public void setup() throws IOException {
+    reportsDir = Files.createTempDirectory("surefire-reports");
+    baseDir = Files.createTempDirectory("surefire-project").toFile();
+    StringBuilder outputLine = new StringBuilder();
+    while (outputLine.length() < 1024) {
+      outputLine.append("12:00:00.000 [main] DEBUG org.example.Service - processing request\n");
+    }
+    String output = outputLine.substring(0, 1024);
+    for (int report = 0; report < reports; report++) {
+      writeReport(report, output);
+    }
+    parser = new SurefireJavaParser(new BenchmarkResourceLocator());
+  }
+
+  private void writeReport(int report, String output) throws IOException {
+    String className = "org.example.BenchmarkTest" + report;
+    try (Writer writer = Files.newBufferedWriter(reportsDir.resolve("TEST-" + className + ".xml"), StandardCharsets.UTF_8)) {
+      writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      writer.write("<testsuite name=\"" + className + "\" tests=\"" + TEST_CASES_PER_REPORT + "\" time=\"1.0\">\n");
+      for (int i = 0; i < TEST_CASES_PER_REPORT; i++) {
+        writer.write("  <testcase classname=\"" + className + "\" name=\"test" + i + "\" time=\"0.01\">\n");
+        if (i % 10 == 1) {
+          writer.write("    <failure message=\"expected true\" type=\"java.lang.AssertionError\">java.lang.AssertionError: expected true\n"
+            + "\tat " + className + ".test" + i + "(BenchmarkTest.java:" + i + ")</failure>\n");
+        }
+        writer.write("    <system-out><![CDATA[");
+        for (int kb = 0; kb < outputKBPerTestCase; kb++) {
+          writer.write(output);
+        }
+        writer.write("]]></system-out>\n");
+        writer.write("  </testcase>\n");
+      }
+      writer.write("</testsuite>\n");
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    for (Path dir : new Path[] {reportsDir, baseDir.toPath()}) {
+      try (Stream<Path> files = Files.walk(dir)) {
+        files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+      }
+    }
+  }
+
+  @Benchmark
+  public SensorContextTester collect() {
+    SensorContextTester context = SensorContextTester.create(baseDir);
+    context.settings().setProperty(SurefireJavaParser.SUREFIRE_PARALLELISM_KEY, parallelism);
+    parser.collect(context, Collections.singletonList(reportsDir.toFile()), true);
+    return context;
+  }
+
+  private static class BenchmarkResourceLocator implements JavaResourceLocator {
+
+    private final Map<String, InputFile> inputFiles = new HashMap<>();
+
+    @CheckForNull
+    @Override
+    public InputFile findResourceByClassName(String className) {
+      return inputFiles.computeIfAbsent(className, name -> new TestInputFileBuilder("benchmark", name.replace('.', '/') + ".java").build());
+    }
+
+    @Override
+    public Collection<File> classFilesToAnalyze() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<File> classpath() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      // no file to scan
+    }
+  }
+
+}
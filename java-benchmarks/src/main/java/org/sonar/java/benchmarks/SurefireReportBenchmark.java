@@ -0,0 +1,95 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sonar.plugins.surefire.StaxParser;
+import org.sonar.plugins.surefire.data.UnitTestIndex;
+
+/**
+ * Parsing of a surefire XML report by {@link StaxParser}. The report is generated at setup, with one failure or error every ten test
+ * cases.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SurefireReportBenchmark {
+
+  @Param({"100", "5000"})
+  public int testCases;
+
+  private File report;
+
+  @Setup
+  public void setup() throws IOException {
+    report = Files.createTempFile("TEST-benchmark", ".xml").toFile();
+    try (Writer writer = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8)) {
+      writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      writer.write("<testsuite name=\"org.example.BenchmarkTest\" tests=\"" + testCases + "\" time=\"1.0\">\n");
+      writer.write("  <properties><property name=\"java.version\" value=\"11\"/></properties>\n");
+      for (int i = 0; i < testCases; i++) {
+        writer.write("  <testcase classname=\"org.example.BenchmarkTest" + (i % 20) + "\" name=\"test" + i + "\" time=\"0.01\"");
+        if (i % 10 == 1) {
+          writer.write("><failure message=\"expected true\" type=\"java.lang.AssertionError\">java.lang.AssertionError: expected true\n"
+            + "\tat org.example.BenchmarkTest.test" + i + "(BenchmarkTest.java:" + i + ")</failure></testcase>\n");
+        } else if (i % 10 == 2) {
+          writer.write("><error message=\"boom\" type=\"java.lang.IllegalStateException\">java.lang.IllegalStateException: boom</error></testcase>\n");
+        } else {
+          writer.write("/>\n");
+        }
+      }
+      writer.write("</testsuite>\n");
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(report.toPath());
+  }
+
+  @Benchmark
+  public UnitTestIndex parse() throws XMLStreamException {
+    UnitTestIndex index = new UnitTestIndex();
+    new StaxParser(index).parse(report);
+    return index;
+  }
+
+}
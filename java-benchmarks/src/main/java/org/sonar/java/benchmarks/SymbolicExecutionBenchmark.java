@@ -0,0 +1,72 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.se.ExplodedGraphWalker;
+import org.sonar.java.se.SymbolicExecutionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+
+/**
+ * Symbolic execution of all the methods of a file ({@link ExplodedGraphWalker#visitMethod} driven by the
+ * {@link SymbolicExecutionVisitor}), with the mandatory SE checks only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SymbolicExecutionBenchmark {
+
+  @Param({"CFG.java", "DependencyAwareFileOrdering.java"})
+  public String fixture;
+
+  private JavaFileScannerContext context;
+
+  @Setup
+  public void setup() {
+    String source = Fixtures.source(fixture);
+    JavaTree.CompilationUnitTreeImpl tree = Fixtures.parse(fixture, source);
+    context = Fixtures.context(tree, Fixtures.inputFile(fixture, source));
+  }
+
+  @Benchmark
+  public SymbolicExecutionVisitor visitMethods() {
+    // method behaviors are kept by the visitor: a new one is used for each run, as for a new analysis
+    SymbolicExecutionVisitor visitor = new SymbolicExecutionVisitor(Collections.emptyList());
+    visitor.scanFile(context);
+    return visitor;
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.model.SyntacticEquivalence;
+import org.sonar.plugins.java.api.tree.BlockTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * {@link SyntacticEquivalence#areEquivalent(Tree, Tree)} on all the pairs of statements of each block of a file, as done by the checks
+ * looking for duplicated code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SyntacticEquivalenceBenchmark {
+
+  @Param({"CFG.java", "DependencyAwareFileOrdering.java"})
+  public String fixture;
+
+  private final List<List<StatementTree>> blocks = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    JavaTree.CompilationUnitTreeImpl tree = Fixtures.parse(fixture, Fixtures.source(fixture));
+    tree.kindIndex().nodesOfKind(Tree.Kind.BLOCK).forEach(block -> blocks.add(((BlockTree) block).body()));
+  }
+
+  @Benchmark
+  public int compareStatements() {
+    int equivalentPairs = 0;
+    for (List<StatementTree> statements : blocks) {
+      for (int i = 0; i < statements.size(); i++) {
+        for (int j = i + 1; j < statements.size(); j++) {
+          if (SyntacticEquivalence.areEquivalent(statements.get(i), statements.get(j))) {
+            equivalentPairs++;
+          }
+        }
+      }
+    }
+    return equivalentPairs;
+  }
+
+}
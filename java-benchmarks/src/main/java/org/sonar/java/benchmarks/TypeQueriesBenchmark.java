@@ -0,0 +1,109 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.model.JavaTree;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * {@link Type#isSubtypeOf(String)}, {@link Type#isSubtypeOf(Type)} and {@link Type#erasure()} on the types of all the method invocations
+ * and identifiers of a file, against types commonly looked for by the checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TypeQueriesBenchmark {
+
+  private static final String[] SUPER_TYPES = {"java.lang.Object", "java.lang.CharSequence", "java.lang.Iterable", "java.util.Collection",
+    "java.util.List", "java.util.Map", "java.lang.AutoCloseable", "java.lang.Throwable", "java.lang.RuntimeException", "java.lang.Number"};
+
+  @Param({"CFG.java", "DependencyAwareFileOrdering.java"})
+  public String fixture;
+
+  private final List<Type> types = new ArrayList<>();
+  private final List<Type> superTypes = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    JavaTree.CompilationUnitTreeImpl tree = Fixtures.parse(fixture, Fixtures.source(fixture));
+    tree.kindIndex().nodesOfKind(Tree.Kind.METHOD_INVOCATION).forEach(invocation -> types.add(((ExpressionTree) invocation).symbolType()));
+    tree.kindIndex().nodesOfKind(Tree.Kind.IDENTIFIER).forEach(identifier -> types.add(((ExpressionTree) identifier).symbolType()));
+    for (String superType : SUPER_TYPES) {
+      superTypes.add(tree.sema.getClassType(superType));
+    }
+  }
+
+  @Benchmark
+  public int subtypeOfName() {
+    int subtypes = 0;
+    for (Type type : types) {
+      for (String superType : SUPER_TYPES) {
+        if (type.isSubtypeOf(superType)) {
+          subtypes++;
+        }
+      }
+    }
+    return subtypes;
+  }
+
+  @Benchmark
+  public int subtypeOfType() {
+    int subtypes = 0;
+    for (Type type : types) {
+      for (Type superType : superTypes) {
+        if (type.isSubtypeOf(superType)) {
+          subtypes++;
+        }
+      }
+    }
+    return subtypes;
+  }
+
+  @Benchmark
+  public int erasure() {
+    int parameterized = 0;
+    for (Type type : types) {
+      if (type.erasure() != type) {
+        parameterized++;
+      }
+    }
+    return parameterized;
+  }
+
+}
@@ -0,0 +1,26 @@
+package fixtures;
+
+import java.util.regex.Pattern;
+
+class Regexes {
+
+  static final Pattern EMAIL = Pattern.compile("^[\\w.+-]+@[\\w-]+(\\.[\\w-]+)*\\.[a-zA-Z]{2,}$");
+  static final Pattern IPV4 = Pattern.compile("^((25[0-5]|2[0-4]\\d|[01]?\\d\\d?)\\.){3}(25[0-5]|2[0-4]\\d|[01]?\\d\\d?)$");
+  static final Pattern DATE = Pattern.compile("(?<year>\\d{4})-(?<month>0[1-9]|1[0-2])-(?<day>0[1-9]|[12]\\d|3[01])");
+  static final Pattern IDENTIFIER = Pattern.compile("[\\p{javaJavaIdentifierStart}][\\p{javaJavaIdentifierPart}]*");
+  static final Pattern QUOTED = Pattern.compile("\"([^\"\\\\]|\\\\.)*\"");
+  static final Pattern HEX_COLOR = Pattern.compile("#(?:[0-9a-fA-F]{3}){1,2}\\b");
+  static final Pattern URL = Pattern.compile("https?://(www\\.)?[-a-zA-Z0-9@:%._+~#=]{1,256}\\.[a-zA-Z0-9()]{1,6}\\b([-a-zA-Z0-9()@:%_+.~#?&/=]*)");
+  static final Pattern WHITESPACES = Pattern.compile("\\s+|\\t+|(\\r?\\n)+");
+  static final Pattern LOOKAROUND = Pattern.compile("(?<=\\$)\\d+(?:\\.\\d{2})?(?!\\d)");
+  static final Pattern BACK_REFERENCE = Pattern.compile("<(\\w+)[^>]*>.*?</\\1>", Pattern.DOTALL);
+  static final Pattern CASE_INSENSITIVE = Pattern.compile("(?i)select\\s+.*\\s+from\\s+\\w+(\\s+where\\s+.*)?");
+  static final Pattern ALTERNATION = Pattern.compile("(alpha|beta|gamma|delta|epsilon|zeta|eta|theta|iota|kappa|lambda|mu)+");
+
+  boolean matches(String input) {
+    return input.matches("[a-z]+(-[a-z]+)*")
+      || input.replaceAll("(\\d)(?=(\\d{3})+$)", "$1,").isEmpty()
+      || input.split("\\s*[,;]\\s*").length > 1;
+  }
+
+}
@@ -19,10 +19,10 @@
  */
 package org.sonar.java.checks;
 
+import java.util.Collections;
+import java.util.List;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.JavaFileScanner;
-import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.CatchTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
@@ -32,21 +32,16 @@ import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonar.plugins.java.api.tree.UnionTypeTree;
 
 @Rule(key = "S1696")
-public class CatchNPECheck extends BaseTreeVisitor implements JavaFileScanner {
-
-  private JavaFileScannerContext context;
+public class CatchNPECheck extends IssuableSubscriptionVisitor {
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    this.context = context;
-    scan(context.getTree());
+  public List<Kind> nodesToVisit() {
+    return Collections.singletonList(Kind.CATCH);
   }
 
   @Override
-  public void visitCatch(CatchTree tree) {
-    super.visitCatch(tree);
-
-    Tree typeTree = tree.parameter().type();
+  public void visitNode(Tree tree) {
+    Tree typeTree = ((CatchTree) tree).parameter().type();
 
     if (typeTree.is(Kind.UNION_TYPE)) {
       ((UnionTypeTree) typeTree).typeAlternatives().forEach(this::checkType);
@@ -84,7 +79,7 @@ public class CatchNPECheck extends BaseTreeVisitor implements JavaFileScanner {
   }
 
   private void addIssue(IdentifierTree tree) {
-    context.reportIssue(this, tree, "Avoid catching NullPointerException.");
+    reportIssue(tree, "Avoid catching NullPointerException.");
   }
 
 }
@@ -79,7 +79,7 @@ public class DeadStoreCheck extends IssuableSubscriptionVisitor {
 
     Symbol.MethodSymbol methodSymbol = methodTree.symbol();
     CFG cfg = (CFG) methodTree.cfg();
-    LiveVariables liveVariables = LiveVariables.analyze(cfg);
+    LiveVariables liveVariables = cfg.liveVariables();
     // Liveness analysis provides information only for block boundaries, so we should do analysis between elements within blocks
     for (CFG.Block block : cfg.blocks()) {
       checkElements(block, liveVariables.getOut(block), methodSymbol);
@@ -20,12 +20,12 @@
 package org.sonar.java.checks;
 
 import java.util.Collections;
+import java.util.List;
 import org.sonar.check.Rule;
 import org.sonar.java.model.ExpressionUtils;
 import org.sonar.java.model.SyntacticEquivalence;
-import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.IfStatementTree;
@@ -33,27 +33,23 @@ import org.sonar.plugins.java.api.tree.StatementTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 @Rule(key = "S1862")
-public class DuplicateConditionIfElseIfCheck extends BaseTreeVisitor implements JavaFileScanner {
-
-  private JavaFileScannerContext context;
+public class DuplicateConditionIfElseIfCheck extends IssuableSubscriptionVisitor {
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    this.context = context;
-
-    scan(context.getTree());
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.IF_STATEMENT);
   }
 
   @Override
-  public void visitIfStatement(IfStatementTree tree) {
-    ExpressionTree condition = tree.condition();
+  public void visitNode(Tree tree) {
+    IfStatementTree ifStatementTree = (IfStatementTree) tree;
+    ExpressionTree condition = ifStatementTree.condition();
 
-    StatementTree statement = tree.elseStatement();
+    StatementTree statement = ifStatementTree.elseStatement();
     while (statement != null && statement.is(Tree.Kind.IF_STATEMENT)) {
       IfStatementTree ifStatement = (IfStatementTree) statement;
       if (areTriviallyEquivalent(condition, ifStatement.condition())) {
-        context.reportIssue(
-          this,
+        reportIssue(
           ifStatement.condition(),
           "This branch can not be reached because the condition duplicates a previous condition in the same sequence of \"if/else if\" statements",
           Collections.singletonList(new JavaFileScannerContext.Location("Original", condition)),
@@ -62,8 +58,6 @@ public class DuplicateConditionIfElseIfCheck extends BaseTreeVisitor implements
       }
       statement = ifStatement.elseStatement();
     }
-
-    super.visitIfStatement(tree);
   }
 
   private static boolean areTriviallyEquivalent(ExpressionTree condition1, ExpressionTree condition2) {
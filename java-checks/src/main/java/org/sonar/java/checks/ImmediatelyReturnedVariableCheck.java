@@ -19,6 +19,7 @@
  */
 package org.sonar.java.checks;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.CheckForNull;
@@ -28,41 +29,37 @@ import org.sonar.java.checks.helpers.QuickFixHelper;
 import org.sonarsource.analyzer.commons.collections.MapBuilder;
 import org.sonar.java.reporting.JavaQuickFix;
 import org.sonar.java.reporting.JavaTextEdit;
-import org.sonar.plugins.java.api.JavaFileScanner;
-import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
 import org.sonar.plugins.java.api.tree.ReturnStatementTree;
 import org.sonar.plugins.java.api.tree.StatementTree;
 import org.sonar.plugins.java.api.tree.ThrowStatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonar.plugins.java.api.tree.VariableTree;
 
 import static org.sonar.java.reporting.AnalyzerMessage.textSpanBetween;
 
 @Rule(key = "S1488")
-public class ImmediatelyReturnedVariableCheck extends BaseTreeVisitor implements JavaFileScanner {
+public class ImmediatelyReturnedVariableCheck extends IssuableSubscriptionVisitor {
 
   private static final Map<Kind, String> MESSAGE_KEYS = MapBuilder.<Kind, String>newMap()
     .put(Kind.THROW_STATEMENT, "throw")
     .put(Kind.RETURN_STATEMENT, "return")
     .build();
 
-  private JavaFileScannerContext context;
   private String lastTypeForMessage;
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    this.context = context;
-    scan(context.getTree());
+  public List<Kind> nodesToVisit() {
+    return Arrays.asList(Kind.BLOCK, Kind.INITIALIZER, Kind.STATIC_INITIALIZER);
   }
 
   @Override
-  public void visitBlock(BlockTree tree) {
-    super.visitBlock(tree);
-    List<StatementTree> statements = tree.body();
+  public void visitNode(Tree tree) {
+    List<StatementTree> statements = ((BlockTree) tree).body();
     int size = statements.size();
     if (size < 2) {
       return;
@@ -19,10 +19,10 @@
  */
 package org.sonar.java.checks;
 
+import java.util.Arrays;
+import java.util.List;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.JavaFileScanner;
-import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
@@ -30,23 +30,21 @@ import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.VariableTree;
 
 @Rule(key = "S1213")
-public class IncorrectOrderOfMembersCheck extends BaseTreeVisitor implements JavaFileScanner {
+public class IncorrectOrderOfMembersCheck extends IssuableSubscriptionVisitor {
 
   private static final String[] NAMES = {"static variable", "variable", "constructor", "method"};
 
-  private JavaFileScannerContext context;
-
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    this.context = context;
-    scan(context.getTree());
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.RECORD, Tree.Kind.ANNOTATION_TYPE);
   }
 
   @Override
-  public void visitClass(ClassTree tree) {
+  public void visitNode(Tree tree) {
+    List<Tree> members = ((ClassTree) tree).members();
     int prev = 0;
-    for (int i = 0; i < tree.members().size(); i++) {
-      final Tree member = tree.members().get(i);
+    for (int i = 0; i < members.size(); i++) {
+      final Tree member = members.get(i);
       final int priority;
       IdentifierTree identifier;
       if (member.is(Tree.Kind.VARIABLE)) {
@@ -67,13 +65,11 @@ public class IncorrectOrderOfMembersCheck extends BaseTreeVisitor implements Jav
         continue;
       }
       if (priority < prev) {
-        context.reportIssue(this, identifier, "Move this " + NAMES[priority] + " to comply with Java Code Conventions.");
+        reportIssue(identifier, "Move this " + NAMES[priority] + " to comply with Java Code Conventions.");
       } else {
         prev = priority;
       }
     }
-
-    super.visitClass(tree);
   }
 
 }
@@ -19,11 +19,12 @@
  */
 package org.sonar.java.checks;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.ForEachStatement;
 import org.sonar.plugins.java.api.tree.ForStatementTree;
@@ -34,18 +35,30 @@ import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.WhileStatementTree;
 
 @Rule(key = "S3973")
-public class IndentationAfterConditionalCheck extends BaseTreeVisitor implements JavaFileScanner {
-
-  private JavaFileScannerContext context;
+public class IndentationAfterConditionalCheck extends IssuableSubscriptionVisitor {
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    this.context = context;
-    scan(context.getTree());
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.IF_STATEMENT, Tree.Kind.WHILE_STATEMENT, Tree.Kind.FOR_STATEMENT, Tree.Kind.FOR_EACH_STATEMENT);
   }
 
   @Override
-  public void visitIfStatement(IfStatementTree tree) {
+  public void visitNode(Tree tree) {
+    if (tree.is(Tree.Kind.IF_STATEMENT)) {
+      visitIfStatement((IfStatementTree) tree);
+    } else if (tree.is(Tree.Kind.WHILE_STATEMENT)) {
+      WhileStatementTree whileStatement = (WhileStatementTree) tree;
+      checkForReport(whileStatement.statement(), whileStatement.whileKeyword(), whileStatement.closeParenToken(), whileStatement.whileKeyword().text());
+    } else if (tree.is(Tree.Kind.FOR_STATEMENT)) {
+      ForStatementTree forStatement = (ForStatementTree) tree;
+      checkForReport(forStatement.statement(), forStatement.forKeyword(), forStatement.closeParenToken(), forStatement.forKeyword().text());
+    } else {
+      ForEachStatement forEachStatement = (ForEachStatement) tree;
+      checkForReport(forEachStatement.statement(), forEachStatement.forKeyword(), forEachStatement.closeParenToken(), forEachStatement.forKeyword().text());
+    }
+  }
+
+  private void visitIfStatement(IfStatementTree tree) {
     Tree parentTree = tree.parent();
     if (parentTree.is(Tree.Kind.IF_STATEMENT) && tree.equals(((IfStatementTree) parentTree).elseStatement())) {
       checkForReport(tree.thenStatement(), getAcceptableStartOfElse((IfStatementTree) parentTree), tree.closeParenToken(), tree.ifKeyword().firstToken().text());
@@ -56,25 +69,6 @@ public class IndentationAfterConditionalCheck extends BaseTreeVisitor implements
     if (elseKeyword != null && !tree.elseStatement().is(Tree.Kind.IF_STATEMENT)) {
       checkForReport(tree.elseStatement(), getAcceptableStartOfElse(tree), elseKeyword, elseKeyword.firstToken().text());
     }
-    super.visitIfStatement(tree);
-  }
-
-  @Override
-  public void visitWhileStatement(WhileStatementTree tree) {
-    super.visitWhileStatement(tree);
-    checkForReport(tree.statement(), tree.whileKeyword(), tree.closeParenToken(), tree.whileKeyword().text());
-  }
-
-  @Override
-  public void visitForStatement(ForStatementTree tree) {
-    super.visitForStatement(tree);
-    checkForReport(tree.statement(), tree.forKeyword(), tree.closeParenToken(), tree.forKeyword().text());
-  }
-
-  @Override
-  public void visitForEachStatement(ForEachStatement tree) {
-    super.visitForEachStatement(tree);
-    checkForReport(tree.statement(), tree.forKeyword(), tree.closeParenToken(), tree.forKeyword().text());
   }
 
   private static Tree getAcceptableStartOfElse(IfStatementTree ifStatement) {
@@ -20,18 +20,18 @@
 package org.sonar.java.checks;
 
 import java.util.Collections;
+import java.util.List;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 import org.sonar.java.ast.visitors.LinesOfCodeVisitor;
-import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
 
 @Rule(key = "S5612")
-public class LambdaTooBigCheck extends BaseTreeVisitor implements JavaFileScanner {
+public class LambdaTooBigCheck extends IssuableSubscriptionVisitor {
 
   private static final int DEFAULT_MAX = 10;
 
@@ -40,16 +40,14 @@ public class LambdaTooBigCheck extends BaseTreeVisitor implements JavaFileScanne
     defaultValue = "" + DEFAULT_MAX)
   public int max = DEFAULT_MAX;
 
-  private JavaFileScannerContext context;
-
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    this.context = context;
-    scan(context.getTree());
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.LAMBDA_EXPRESSION);
   }
 
   @Override
-  public void visitLambdaExpression(LambdaExpressionTree lambdaExpressionTree) {
+  public void visitNode(Tree tree) {
+    LambdaExpressionTree lambdaExpressionTree = (LambdaExpressionTree) tree;
     int lines = getNumberOfLines(lambdaExpressionTree);
     if (lines > max) {
       SyntaxToken firstToken = lambdaExpressionTree.firstToken();
@@ -58,7 +56,6 @@ public class LambdaTooBigCheck extends BaseTreeVisitor implements JavaFileScanne
       context.reportIssue(this, firstToken, lambdaExpressionTree.arrowToken(),
         "Reduce this lambda expression number of lines from " + lines + " to at most " + max + ".", Collections.singletonList(lastTokenLocation), null);
     }
-    super.visitLambdaExpression(lambdaExpressionTree);
   }
 
   private static int getNumberOfLines(Tree tree) {
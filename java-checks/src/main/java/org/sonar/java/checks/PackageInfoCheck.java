@@ -22,21 +22,28 @@ package org.sonar.java.checks;
 import java.io.File;
 import java.util.HashSet;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.sonar.check.Rule;
 import org.sonar.java.EndOfAnalysisCheck;
 import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.checks.helpers.ExpressionsHelper;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.PackageDeclarationTree;
 
 @Rule(key = "S1228")
-public class PackageInfoCheck implements JavaFileScanner, EndOfAnalysisCheck {
+public class PackageInfoCheck implements JavaFileScanner, EndOfAnalysisCheck, CacheableVisitor {
+
+  private static final String PACKAGE_DATA_KEY = "S1228.package";
 
   @VisibleForTesting
   final Set<String> missingPackageWithoutPackageFile = new HashSet<>();
   private final Set<String> knownPackageWithPackageFile = new HashSet<>();
   private JavaFileScannerContext context;
+  @Nullable
+  private FileAnalysisRecord fileRecord;
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
@@ -49,7 +56,27 @@ public class PackageInfoCheck implements JavaFileScanner, EndOfAnalysisCheck {
     }
 
     String packageName = ExpressionsHelper.concatenate(packageDeclaration.packageName());
+    if (fileRecord != null) {
+      fileRecord.addCheckData(PACKAGE_DATA_KEY, packageName);
+    }
+    checkPackage(context, packageName);
+  }
+
+  @Override
+  public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+    this.fileRecord = fileRecord;
+  }
+
+  /**
+   * Only the package name comes from the content of the file: the presence of "package-info.java" is checked again.
+   */
+  @Override
+  public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+    this.context = context;
+    fileRecord.checkData(PACKAGE_DATA_KEY).forEach(packageName -> checkPackage(context, packageName));
+  }
 
+  private void checkPackage(JavaFileScannerContext context, String packageName) {
     File parentFile = context.getInputFile().file().getParentFile();
     if (!new File(parentFile, "package-info.java").isFile()) {
       missingPackageWithoutPackageFile.add(packageName);
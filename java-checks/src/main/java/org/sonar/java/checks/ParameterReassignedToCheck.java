@@ -63,7 +63,7 @@ public class ParameterReassignedToCheck extends BaseTreeVisitor implements JavaF
       return;
     }
     CFG cfg = (CFG) tree.cfg();
-    LiveVariables analyze = LiveVariables.analyze(cfg);
+    LiveVariables analyze = cfg.liveVariables();
     Set<Symbol> live = analyze.getIn(cfg.entryBlock());
     for (VariableTree parameterTree : tree.parameters()) {
       if(!live.contains(parameterTree.symbol())) {
@@ -85,7 +85,7 @@ public class PrivateFieldUsedLocallyCheck extends IssuableSubscriptionVisitor {
 
   private static boolean isLiveInMethodEntry(Symbol privateFieldSymbol, MethodTree methodTree) {
     CFG cfg = (CFG) methodTree.cfg();
-    LiveVariables liveVariables = LiveVariables.analyzeWithFields(cfg);
+    LiveVariables liveVariables = cfg.liveVariablesWithFields();
     return liveVariables.getIn(cfg.entryBlock()).contains(privateFieldSymbol);
   }
 
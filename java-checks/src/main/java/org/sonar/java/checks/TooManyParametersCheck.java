@@ -23,10 +23,8 @@ import java.util.Arrays;
 import java.util.List;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
-import org.sonar.plugins.java.api.JavaFileScanner;
-import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.semantic.SymbolMetadata;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
@@ -35,7 +33,7 @@ import static org.sonar.java.checks.helpers.AnnotationsHelper.hasUnknownAnnotati
 
 @DeprecatedRuleKey(ruleKey = "S00107", repositoryKey = "squid")
 @Rule(key = "S107")
-public class TooManyParametersCheck extends BaseTreeVisitor implements JavaFileScanner {
+public class TooManyParametersCheck extends IssuableSubscriptionVisitor {
 
   private static final int DEFAULT_MAXIMUM = 7;
 
@@ -51,8 +49,6 @@ public class TooManyParametersCheck extends BaseTreeVisitor implements JavaFileS
     defaultValue = "" + DEFAULT_MAXIMUM)
   public int constructorMax = DEFAULT_MAXIMUM;
 
-  private JavaFileScannerContext context;
-
   private static final List<String> WHITE_LIST = Arrays.asList(
     "org.springframework.web.bind.annotation.RequestMapping",
     "org.springframework.web.bind.annotation.GetMapping",
@@ -70,29 +66,28 @@ public class TooManyParametersCheck extends BaseTreeVisitor implements JavaFileS
   );
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    this.context = context;
-    scan(context.getTree());
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR);
   }
 
   @Override
-  public void visitMethod(MethodTree tree) {
-    super.visitMethod(tree);
-    if (isOverriding(tree) || usesAuthorizedAnnotation(tree)) {
+  public void visitNode(Tree tree) {
+    MethodTree methodTree = (MethodTree) tree;
+    if (isOverriding(methodTree) || usesAuthorizedAnnotation(methodTree)) {
       return;
     }
     int max;
     String partialMessage;
-    if (tree.is(Tree.Kind.CONSTRUCTOR)) {
+    if (methodTree.is(Tree.Kind.CONSTRUCTOR)) {
       max = constructorMax;
       partialMessage = "Constructor";
     } else {
       max = maximum;
       partialMessage = "Method";
     }
-    int size = tree.parameters().size();
+    int size = methodTree.parameters().size();
     if (size > max) {
-      context.reportIssue(this, tree.simpleName(), partialMessage + " has " + size + " parameters, which is greater than " + max + " authorized.");
+      reportIssue(methodTree.simpleName(), partialMessage + " has " + size + " parameters, which is greater than " + max + " authorized.");
     }
   }
 
@@ -24,26 +24,57 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.sonar.check.Rule;
 import org.sonar.java.EndOfAnalysisCheck;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.checks.helpers.ExpressionsHelper;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.PackageDeclarationTree;
 
 @Rule(key = "S4032")
-public class UselessPackageInfoCheck implements JavaFileScanner, EndOfAnalysisCheck {
+public class UselessPackageInfoCheck implements JavaFileScanner, EndOfAnalysisCheck, CacheableVisitor {
+
+  private static final String PACKAGE_DATA_KEY = "S4032.package";
 
   private final Map<String, JavaFileScannerContext> unneededPackageInfoFiles = new HashMap<>();
   private final Set<String> knownPackagesWithOtherFiles = new HashSet<>();
+  @Nullable
+  private FileAnalysisRecord fileRecord;
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
     PackageDeclarationTree packageDeclaration = context.getTree().packageDeclaration();
     String packageName = packageDeclaration == null ? null : ExpressionsHelper.concatenate(packageDeclaration.packageName());
 
-    // default package or already processed package
-    if (packageName == null || knownPackagesWithOtherFiles.contains(packageName)) {
+    // default package
+    if (packageName == null) {
+      return;
+    }
+    if (fileRecord != null) {
+      fileRecord.addCheckData(PACKAGE_DATA_KEY, packageName);
+    }
+    checkPackage(context, packageName);
+  }
+
+  @Override
+  public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+    this.fileRecord = fileRecord;
+  }
+
+  /**
+   * Only the package name comes from the content of the file: the other files of the package directory are listed again.
+   */
+  @Override
+  public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+    fileRecord.checkData(PACKAGE_DATA_KEY).forEach(packageName -> checkPackage(context, packageName));
+  }
+
+  private void checkPackage(JavaFileScannerContext context, String packageName) {
+    // already processed package
+    if (knownPackagesWithOtherFiles.contains(packageName)) {
       return;
     }
 
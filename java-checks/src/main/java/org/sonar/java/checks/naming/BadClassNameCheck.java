@@ -19,20 +19,21 @@
  */
 package org.sonar.java.checks.naming;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import java.util.regex.Pattern;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
-import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "S00101", repositoryKey = "squid")
 @Rule(key = "S101")
-public class BadClassNameCheck extends BaseTreeVisitor implements JavaFileScanner {
+public class BadClassNameCheck extends IssuableSubscriptionVisitor {
 
   private static final String ISSUE_MESSAGE = "Rename this %s name to match the regular expression '%s'.";
   private static final String DEFAULT_FORMAT = "^[A-Z][a-zA-Z0-9]*$";
@@ -44,22 +45,25 @@ public class BadClassNameCheck extends BaseTreeVisitor implements JavaFileScanne
   public String format = DEFAULT_FORMAT;
 
   private Pattern pattern = null;
-  private JavaFileScannerContext context;
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.CLASS, Tree.Kind.RECORD);
+  }
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
     if (pattern == null) {
       pattern = Pattern.compile(format, Pattern.DOTALL);
     }
-    this.context = context;
-    scan(context.getTree());
+    super.setContext(context);
   }
 
   @Override
-  public void visitClass(ClassTree tree) {
-    if (tree.is(Tree.Kind.CLASS, Tree.Kind.RECORD) && tree.simpleName() != null && !pattern.matcher(tree.simpleName().name()).matches()) {
-      context.reportIssue(this, tree.simpleName(), String.format(ISSUE_MESSAGE, tree.kind().name().toLowerCase(Locale.ROOT), format));
+  public void visitNode(Tree tree) {
+    ClassTree classTree = (ClassTree) tree;
+    if (classTree.simpleName() != null && !pattern.matcher(classTree.simpleName().name()).matches()) {
+      reportIssue(classTree.simpleName(), String.format(ISSUE_MESSAGE, classTree.kind().name().toLowerCase(Locale.ROOT), format));
     }
-    super.visitClass(tree);
   }
 }
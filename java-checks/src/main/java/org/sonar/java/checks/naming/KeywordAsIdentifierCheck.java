@@ -19,35 +19,32 @@
  */
 package org.sonar.java.checks.naming;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.collections.SetUtils;
-import org.sonar.plugins.java.api.JavaFileScanner;
-import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.VariableTree;
 
 @Rule(key = "S1190")
-public class KeywordAsIdentifierCheck extends BaseTreeVisitor implements JavaFileScanner {
-
-  private JavaFileScannerContext context;
+public class KeywordAsIdentifierCheck extends IssuableSubscriptionVisitor {
 
   private static final Set<String> FORBIDDEN_IDENTIFIERS = SetUtils.immutableSetOf("enum", "_","assert");
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    this.context = context;
-    scan(context.getTree());
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.VARIABLE);
   }
 
   @Override
-  public void visitVariable(VariableTree tree) {
-    IdentifierTree simpleName = tree.simpleName();
+  public void visitNode(Tree tree) {
+    IdentifierTree simpleName = ((VariableTree) tree).simpleName();
     if (FORBIDDEN_IDENTIFIERS.contains(simpleName.name())) {
-      context.reportIssue(this, simpleName, "Use a different name than \"" + simpleName.name() + "\".");
+      reportIssue(simpleName, "Use a different name than \"" + simpleName.name() + "\".");
     }
-    super.visitVariable(tree);
   }
 
 }
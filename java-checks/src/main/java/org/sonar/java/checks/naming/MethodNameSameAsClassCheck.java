@@ -19,39 +19,36 @@
  */
 package org.sonar.java.checks.naming;
 
+import java.util.Arrays;
+import java.util.List;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.JavaFileScanner;
-import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 @Rule(key = "S1223")
-public class MethodNameSameAsClassCheck extends BaseTreeVisitor implements JavaFileScanner {
-
-  private JavaFileScannerContext context;
+public class MethodNameSameAsClassCheck extends IssuableSubscriptionVisitor {
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    this.context = context;
-    scan(context.getTree());
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.RECORD, Tree.Kind.ANNOTATION_TYPE);
   }
 
   @Override
-  public void visitClass(ClassTree tree) {
-    super.visitClass(tree);
-    IdentifierTree classSimpleName = tree.simpleName();
+  public void visitNode(Tree tree) {
+    ClassTree classTree = (ClassTree) tree;
+    IdentifierTree classSimpleName = classTree.simpleName();
     if (classSimpleName == null) {
       return;
     }
     String className = classSimpleName.name();
-    for (Tree member : tree.members()) {
+    for (Tree member : classTree.members()) {
       if (member.is(Tree.Kind.METHOD)) {
         IdentifierTree simpleName = ((MethodTree) member).simpleName();
         if (className.equals(simpleName.name())) {
-          context.reportIssue(this, simpleName, "Rename this method to prevent any misunderstanding or make it a constructor.");
+          reportIssue(simpleName, "Rename this method to prevent any misunderstanding or make it a constructor.");
         }
       }
     }
@@ -26,13 +26,17 @@ import java.util.Locale;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 import org.sonar.java.EndOfAnalysisCheck;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.model.DefaultJavaFileScannerContext;
 import org.sonar.java.model.ExpressionUtils;
 import org.sonar.java.reporting.AnalyzerMessage;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
@@ -44,7 +48,7 @@ import org.sonar.plugins.java.api.tree.Tree;
 import static org.sonar.plugins.java.api.semantic.MethodMatchers.ANY;
 
 @Rule(key = "S5693")
-public class ExcessiveContentRequestCheck extends IssuableSubscriptionVisitor implements EndOfAnalysisCheck {
+public class ExcessiveContentRequestCheck extends IssuableSubscriptionVisitor implements EndOfAnalysisCheck, CacheableVisitor {
 
   @RuleProperty(
     key = "fileUploadSizeLimit",
@@ -62,6 +66,9 @@ public class ExcessiveContentRequestCheck extends IssuableSubscriptionVisitor im
   private static final String MESSAGE_EXCEED_SIZE = "The content length limit of %d bytes is greater than the defined limit of %d; make sure it is safe here.";
   private static final String MESSAGE_SIZE_NOT_SET = "Make sure not setting any maximum content length limit is safe here.";
 
+  private static final String SIZE_SET_DATA_KEY = "S5693.sizeSet";
+  private static final String MULTIPART_CONSTRUCTOR_DATA_KEY = "S5693.multipartConstructor";
+
   private static final Pattern DATA_SIZE_PATTERN = Pattern.compile("^([+\\-]?\\d+)([a-zA-Z]{0,2})$");
 
   private static final String MULTIPART_RESOLVER = "org.springframework.web.multipart.commons.CommonsMultipartResolver";
@@ -108,6 +115,27 @@ public class ExcessiveContentRequestCheck extends IssuableSubscriptionVisitor im
 
   private final List<AnalyzerMessage> multipartConstructorIssues = new ArrayList<>();
   private boolean sizeSetSomewhere = false;
+  @Nullable
+  private FileAnalysisRecord fileRecord;
+
+  @Override
+  public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+    this.fileRecord = fileRecord;
+  }
+
+  @Override
+  public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+    setContext(context);
+    if (!fileRecord.checkData(SIZE_SET_DATA_KEY).isEmpty()) {
+      sizeSetSomewhere = true;
+    }
+    for (String location : fileRecord.checkData(MULTIPART_CONSTRUCTOR_DATA_KEY)) {
+      String[] range = location.split(" ");
+      AnalyzerMessage.TextSpan textSpan = new AnalyzerMessage.TextSpan(
+        Integer.parseInt(range[0]), Integer.parseInt(range[1]), Integer.parseInt(range[2]), Integer.parseInt(range[3]));
+      multipartConstructorIssues.add(new AnalyzerMessage(this, context.getInputFile(), textSpan, MESSAGE_SIZE_NOT_SET, 0));
+    }
+  }
 
   @Override
   public void endOfAnalysis() {
@@ -133,11 +161,19 @@ public class ExcessiveContentRequestCheck extends IssuableSubscriptionVisitor im
         // Create an issue that we will report only at the end of the analysis if the maximum size was never set.
         AnalyzerMessage analyzerMessage = defaultContext.createAnalyzerMessage(this, newClassTree, MESSAGE_SIZE_NOT_SET);
         multipartConstructorIssues.add(analyzerMessage);
+        if (fileRecord != null) {
+          AnalyzerMessage.TextSpan textSpan = analyzerMessage.primaryLocation();
+          fileRecord.addCheckData(MULTIPART_CONSTRUCTOR_DATA_KEY,
+            textSpan.startLine + " " + textSpan.startCharacter + " " + textSpan.endLine + " " + textSpan.endCharacter);
+        }
       }
     } else {
       MethodInvocationTree mit = (MethodInvocationTree) tree;
       if (METHODS_SETTING_MAX_SIZE.matches(mit)) {
         sizeSetSomewhere = true;
+        if (fileRecord != null) {
+          fileRecord.addCheckData(SIZE_SET_DATA_KEY, "true");
+        }
         getIfExceedSize(mit.arguments().get(0))
           .map(bytesExceeding ->
             defaultContext.createAnalyzerMessage(this, mit, String.format(MESSAGE_EXCEED_SIZE, bytesExceeding, fileUploadSizeLimit)))
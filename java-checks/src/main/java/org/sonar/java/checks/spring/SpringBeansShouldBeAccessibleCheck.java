@@ -29,12 +29,16 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.sonar.check.Rule;
 import org.sonar.java.EndOfAnalysisCheck;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonarsource.analyzer.commons.collections.SetUtils;
 import org.sonar.java.model.DefaultJavaFileScannerContext;
 import org.sonar.java.reporting.AnalyzerMessage;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.semantic.SymbolMetadata;
 import org.sonar.plugins.java.api.tree.ClassTree;
@@ -42,7 +46,7 @@ import org.sonar.plugins.java.api.tree.IdentifierTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 @Rule(key = "S4605")
-public class SpringBeansShouldBeAccessibleCheck extends IssuableSubscriptionVisitor implements EndOfAnalysisCheck {
+public class SpringBeansShouldBeAccessibleCheck extends IssuableSubscriptionVisitor implements EndOfAnalysisCheck, CacheableVisitor {
 
   private static final String MESSAGE_FORMAT = "'%s' is not reachable by @ComponentsScan or @SpringBootApplication. "
     + "Either move it to a package configured in @ComponentsScan or update your @ComponentsScan configuration.";
@@ -60,6 +64,12 @@ public class SpringBeansShouldBeAccessibleCheck extends IssuableSubscriptionVisi
 
   private static final String SPRING_BOOT_APP_ANNOTATION = "org.springframework.boot.autoconfigure.SpringBootApplication";
 
+  private static final String SCANNED_PACKAGE_DATA_KEY = "S4605.scannedPackage";
+  /**
+   * Recorded as "package startLine startCharacter endLine endCharacter className".
+   */
+  private static final String BEAN_DATA_KEY = "S4605.bean";
+
   /**
    * The key is the package name.
    * The value is a list of messages which are independent of Syntax Trees (to avoid memory leaks).
@@ -69,12 +79,32 @@ public class SpringBeansShouldBeAccessibleCheck extends IssuableSubscriptionVisi
    * These are the packages that will be scanned by Spring in search of components
    */
   private final Set<String> packagesScannedBySpring = new HashSet<>();
+  @Nullable
+  private FileAnalysisRecord fileRecord;
 
   @Override
   public List<Tree.Kind> nodesToVisit() {
     return Collections.singletonList(Tree.Kind.CLASS);
   }
 
+  @Override
+  public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+    this.fileRecord = fileRecord;
+  }
+
+  @Override
+  public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+    setContext(context);
+    packagesScannedBySpring.addAll(fileRecord.checkData(SCANNED_PACKAGE_DATA_KEY));
+    for (String bean : fileRecord.checkData(BEAN_DATA_KEY)) {
+      String[] values = bean.split(" ");
+      AnalyzerMessage.TextSpan textSpan = new AnalyzerMessage.TextSpan(
+        Integer.parseInt(values[1]), Integer.parseInt(values[2]), Integer.parseInt(values[3]), Integer.parseInt(values[4]));
+      AnalyzerMessage analyzerMessage = new AnalyzerMessage(this, context.getInputFile(), textSpan, String.format(MESSAGE_FORMAT, values[5]), 0);
+      messagesPerPackage.computeIfAbsent(values[0], k -> new ArrayList<>()).add(analyzerMessage);
+    }
+  }
+
   @Override
   public void endOfAnalysis() {
     DefaultJavaFileScannerContext defaultContext = (DefaultJavaFileScannerContext) context;
@@ -99,7 +129,7 @@ public class SpringBeansShouldBeAccessibleCheck extends IssuableSubscriptionVisi
     if (componentScanValues != null) {
       componentScanValues.forEach(this::addToScannedPackages);
     } else if (hasAnnotation(classSymbolMetadata, SPRING_BOOT_APP_ANNOTATION)) {
-      packagesScannedBySpring.addAll(targetedPackages(classPackageName, classSymbolMetadata));
+      targetedPackages(classPackageName, classSymbolMetadata).forEach(this::addScannedPackage);
     } else if (hasAnnotation(classSymbolMetadata, SPRING_BEAN_ANNOTATIONS)) {
       addMessageToMap(classPackageName, classTree.simpleName());
     }
@@ -132,6 +162,18 @@ public class SpringBeansShouldBeAccessibleCheck extends IssuableSubscriptionVisi
     DefaultJavaFileScannerContext defaultContext = (DefaultJavaFileScannerContext) context;
     AnalyzerMessage analyzerMessage = defaultContext.createAnalyzerMessage(this, classNameTree, String.format(MESSAGE_FORMAT, classNameTree.name()));
     messagesPerPackage.computeIfAbsent(classPackageName, k -> new ArrayList<>()).add(analyzerMessage);
+    if (fileRecord != null) {
+      AnalyzerMessage.TextSpan textSpan = analyzerMessage.primaryLocation();
+      fileRecord.addCheckData(BEAN_DATA_KEY, classPackageName + " " + textSpan.startLine + " " + textSpan.startCharacter + " "
+        + textSpan.endLine + " " + textSpan.endCharacter + " " + classNameTree.name());
+    }
+  }
+
+  private void addScannedPackage(String packageName) {
+    packagesScannedBySpring.add(packageName);
+    if (fileRecord != null) {
+      fileRecord.addCheckData(SCANNED_PACKAGE_DATA_KEY, packageName);
+    }
   }
 
   private void addToScannedPackages(SymbolMetadata.AnnotationValue annotationValue) {
@@ -141,7 +183,7 @@ public class SpringBeansShouldBeAccessibleCheck extends IssuableSubscriptionVisi
     if (annotationValue.value() instanceof Object[]) {
       for (Object o : (Object[]) annotationValue.value()) {
         if (o instanceof String) {
-          packagesScannedBySpring.add((String) o);
+          addScannedPackage((String) o);
         }
       }
     }
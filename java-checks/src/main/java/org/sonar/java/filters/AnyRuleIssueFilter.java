@@ -20,12 +20,11 @@
 package org.sonar.java.filters;
 
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
@@ -36,7 +35,7 @@ import org.sonar.plugins.java.api.tree.Tree;
 public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements JavaIssueFilter {
 
   private String componentKey;
-  private final Set<Integer> excludedLines = new HashSet<>();
+  private final LineRanges excludedLines = new LineRanges();
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
@@ -50,16 +49,28 @@ public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements Java
     return !(issue.componentKey().equals(componentKey) && excludedLines.contains(issue.line()));
   }
 
+  @Override
+  public void recordExcludedLines(FileAnalysisRecord fileRecord) {
+    String key = getClass().getName();
+    excludedLines.forEachRange((firstLine, lastLine) -> fileRecord.addCheckData(key, firstLine + " " + lastLine));
+  }
+
+  @Override
+  public void replayExcludedLines(InputFile inputFile, FileAnalysisRecord fileRecord) {
+    componentKey = inputFile.key();
+    excludedLines.clear();
+    for (String range : fileRecord.checkData(getClass().getName())) {
+      String[] lines = range.split(" ");
+      excludedLines.add(Integer.parseInt(lines[0]), Integer.parseInt(lines[1]));
+    }
+  }
+
   @Override
   public final Set<Class<? extends JavaCheck>> filteredRules() {
     return Collections.emptySet();
   }
 
   public void excludeLines(Tree tree) {
-    excludedLines.addAll(filteredLines(tree));
-  }
-
-  private static Set<Integer> filteredLines(Tree tree) {
     SyntaxToken firstSyntaxToken = tree.firstToken();
     SyntaxToken lastSyntaxToken = tree.lastToken();
     if (firstSyntaxToken != null && lastSyntaxToken != null) {
@@ -72,8 +83,7 @@ public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements Java
         startLine = trivias.get(0).range().start().line();
       }
 
-      return IntStream.rangeClosed(startLine, endLine).boxed().collect(Collectors.toSet());
+      excludedLines.add(startLine, endLine);
     }
-    return new HashSet<>();
   }
 }
@@ -19,17 +19,15 @@
  */
 package org.sonar.java.filters;
 
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.check.Rule;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
@@ -39,7 +37,7 @@ import org.sonar.plugins.java.api.tree.Tree;
 public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor implements JavaIssueFilter {
 
   private String componentKey;
-  private final Map<String, Set<Integer>> excludedLinesByRule;
+  private final Map<String, LineRanges> excludedLinesByRule;
   private final Map<Class<? extends JavaCheck>, String> rulesKeysByRulesClass;
 
   protected BaseTreeVisitorIssueFilter() {
@@ -71,10 +69,43 @@ public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor impleme
 
   @Override
   public boolean accept(FilterableIssue issue) {
-    return !(issue.componentKey().equals(componentKey) && excludedLinesByRule.getOrDefault(issue.ruleKey().rule(), new HashSet<>()).contains(issue.line()));
+    if (!issue.componentKey().equals(componentKey)) {
+      return true;
+    }
+    LineRanges excludedLines = excludedLinesByRule.get(issue.ruleKey().rule());
+    return excludedLines == null || !excludedLines.contains(issue.line());
+  }
+
+  /**
+   * Ranges are recorded as "first last ruleKey", the rule key being last as suppressed warnings can contain spaces.
+   */
+  @Override
+  public void recordExcludedLines(FileAnalysisRecord fileRecord) {
+    String key = getClass().getName();
+    excludedLinesByRule.forEach((ruleKey, lines) ->
+      lines.forEachRange((firstLine, lastLine) -> fileRecord.addCheckData(key, firstLine + " " + lastLine + " " + ruleKey)));
+  }
+
+  @Override
+  public void replayExcludedLines(InputFile inputFile, FileAnalysisRecord fileRecord) {
+    componentKey = inputFile.key();
+    excludedLinesByRule.clear();
+    for (String range : fileRecord.checkData(getClass().getName())) {
+      String[] values = range.split(" ", 3);
+      excludeLines(Integer.parseInt(values[0]), Integer.parseInt(values[1]), values[2]);
+    }
   }
 
+  /**
+   * @return a copy of the lines excluded for each rule
+   */
   public Map<String, Set<Integer>> excludedLinesByRule() {
+    Map<String, Set<Integer>> result = new HashMap<>();
+    excludedLinesByRule.forEach((ruleKey, lines) -> result.put(ruleKey, lines.lines()));
+    return result;
+  }
+
+  Map<String, LineRanges> excludedLineRangesByRule() {
     return excludedLinesByRule;
   }
 
@@ -95,7 +126,11 @@ public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor impleme
   }
 
   public void excludeLines(Set<Integer> lines, String ruleKey) {
-    computeFilteredLinesForRule(lines, ruleKey, true);
+    lines.forEach(line -> computeFilteredLinesForRule(line, line, ruleKey, true));
+  }
+
+  public void excludeLines(int firstLine, int lastLine, String ruleKey) {
+    computeFilteredLinesForRule(firstLine, lastLine, ruleKey, true);
   }
 
   public void excludeLines(@Nullable Tree tree, Class<? extends JavaCheck> rule) {
@@ -109,17 +144,19 @@ public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor impleme
     SyntaxToken firstSyntaxToken = tree.firstToken();
     SyntaxToken lastSyntaxToken = tree.lastToken();
     if (firstSyntaxToken != null && lastSyntaxToken != null) {
-      Set<Integer> filteredLines = IntStream.rangeClosed(firstSyntaxToken.range().start().line(),
-        lastSyntaxToken.range().start().line()).boxed().collect(Collectors.toSet());
-      computeFilteredLinesForRule(filteredLines, rulesKeysByRulesClass.get(filteredRule), excludeLine);
+      computeFilteredLinesForRule(firstSyntaxToken.range().start().line(), lastSyntaxToken.range().start().line(),
+        rulesKeysByRulesClass.get(filteredRule), excludeLine);
     }
   }
 
-  private void computeFilteredLinesForRule(Set<Integer> lines, String ruleKey, boolean excludeLine) {
+  private void computeFilteredLinesForRule(int firstLine, int lastLine, String ruleKey, boolean excludeLine) {
     if (excludeLine) {
-      excludedLinesByRule.computeIfAbsent(ruleKey, k -> new HashSet<>()).addAll(lines);
+      excludedLinesByRule.computeIfAbsent(ruleKey, k -> new LineRanges()).add(firstLine, lastLine);
     } else {
-      excludedLinesByRule.getOrDefault(ruleKey, Collections.emptySet()).removeAll(lines);
+      LineRanges excludedLines = excludedLinesByRule.get(ruleKey);
+      if (excludedLines != null) {
+        excludedLines.remove(firstLine, lastLine);
+      }
     }
   }
 }
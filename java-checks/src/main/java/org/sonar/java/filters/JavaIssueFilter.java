@@ -20,7 +20,9 @@
 package org.sonar.java.filters;
 
 import java.util.Set;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScanner;
 
@@ -29,4 +31,14 @@ public interface JavaIssueFilter extends JavaFileScanner {
   boolean accept(FilterableIssue issue);
 
   Set<Class<? extends JavaCheck>> filteredRules();
+
+  /**
+   * Records the lines excluded in the last scanned file, so that the issues replayed from the analysis cache are filtered the same way.
+   */
+  void recordExcludedLines(FileAnalysisRecord fileRecord);
+
+  /**
+   * Excludes again the lines recorded when the file was scanned for the last time, in place of scanning it.
+   */
+  void replayExcludedLines(InputFile inputFile, FileAnalysisRecord fileRecord);
 }
@@ -0,0 +1,118 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.filters;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+
+/**
+ * Set of lines stored as disjoint ranges, sorted by first line. Adding or removing a range costs a logarithmic number of steps in the
+ * number of ranges, whatever the number of lines, and looking up a line does not allocate.
+ */
+class LineRanges {
+
+  // first line -> last line (inclusive) of each range, ranges neither overlap nor touch each other
+  private final TreeMap<Integer, Integer> ranges = new TreeMap<>();
+
+  void add(int firstLine, int lastLine) {
+    if (firstLine > lastLine) {
+      return;
+    }
+    int first = firstLine;
+    int last = lastLine;
+    // merge with a range starting before, overlapping or touching the new one
+    Map.Entry<Integer, Integer> previous = ranges.floorEntry(first);
+    if (previous != null && previous.getValue() >= first - 1) {
+      first = previous.getKey();
+      last = Math.max(last, previous.getValue());
+    }
+    // merge with the ranges starting inside the new one or right after it
+    Map.Entry<Integer, Integer> next = ranges.ceilingEntry(first);
+    while (next != null && next.getKey() <= last + 1) {
+      last = Math.max(last, next.getValue());
+      ranges.remove(next.getKey());
+      next = ranges.higherEntry(next.getKey());
+    }
+    ranges.put(first, last);
+  }
+
+  void remove(int firstLine, int lastLine) {
+    if (firstLine > lastLine) {
+      return;
+    }
+    // split a range starting before the removed one
+    Map.Entry<Integer, Integer> previous = ranges.lowerEntry(firstLine);
+    if (previous != null && previous.getValue() >= firstLine) {
+      ranges.put(previous.getKey(), firstLine - 1);
+      if (previous.getValue() > lastLine) {
+        ranges.put(lastLine + 1, previous.getValue());
+        return;
+      }
+    }
+    // drop or shorten the ranges starting inside the removed one
+    Map.Entry<Integer, Integer> next = ranges.ceilingEntry(firstLine);
+    while (next != null && next.getKey() <= lastLine) {
+      ranges.remove(next.getKey());
+      if (next.getValue() > lastLine) {
+        ranges.put(lastLine + 1, next.getValue());
+        return;
+      }
+      next = ranges.higherEntry(next.getKey());
+    }
+  }
+
+  boolean contains(@Nullable Integer line) {
+    if (line == null) {
+      return false;
+    }
+    Map.Entry<Integer, Integer> range = ranges.floorEntry(line);
+    return range != null && range.getValue() >= line;
+  }
+
+  /**
+   * Calls the consumer with the first and last line of each range, in order.
+   */
+  void forEachRange(BiConsumer<Integer, Integer> consumer) {
+    ranges.forEach(consumer);
+  }
+
+  void clear() {
+    ranges.clear();
+  }
+
+  boolean isEmpty() {
+    return ranges.isEmpty();
+  }
+
+  Set<Integer> lines() {
+    Set<Integer> lines = new HashSet<>();
+    ranges.forEach((first, last) -> {
+      for (int line = first; line <= last; line++) {
+        lines.add(line);
+      }
+    });
+    return lines;
+  }
+
+}
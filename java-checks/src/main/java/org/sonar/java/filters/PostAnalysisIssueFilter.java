@@ -22,15 +22,20 @@ package org.sonar.java.filters;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.scan.issue.filter.IssueFilterChain;
 import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 
-public class PostAnalysisIssueFilter implements JavaFileScanner, SonarJavaIssueFilter {
+public class PostAnalysisIssueFilter implements JavaFileScanner, SonarJavaIssueFilter, CacheableVisitor {
 
   private List<JavaIssueFilter> issueFilters;
+  @Nullable
+  private FileAnalysisRecord fileRecord;
 
   @VisibleForTesting
   List<JavaIssueFilter> issueFilters() {
@@ -47,12 +52,29 @@ public class PostAnalysisIssueFilter implements JavaFileScanner, SonarJavaIssueF
 
   @Override
   public boolean accept(FilterableIssue issue, IssueFilterChain chain) {
-    return issueFilters().stream().allMatch(filter -> filter.accept(issue))
-      && chain.accept(issue);
+    for (JavaIssueFilter filter : issueFilters()) {
+      if (!filter.accept(issue)) {
+        return false;
+      }
+    }
+    return chain.accept(issue);
   }
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
     issueFilters().forEach(filter -> filter.scanFile(context));
+    if (fileRecord != null) {
+      issueFilters().forEach(filter -> filter.recordExcludedLines(fileRecord));
+    }
+  }
+
+  @Override
+  public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+    this.fileRecord = fileRecord;
+  }
+
+  @Override
+  public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+    issueFilters().forEach(filter -> filter.replayExcludedLines(context.getInputFile(), fileRecord));
   }
 }
@@ -25,12 +25,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.check.Rule;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.checks.CheckList;
 import org.sonar.java.checks.SuppressWarningsCheck;
 import org.sonarsource.analyzer.commons.collections.MapBuilder;
@@ -77,7 +77,7 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
         "java:S3985", "java:S2326", "java:S1144", "java:S1128", "java:S2583"))
       .build();
 
-  private final Map<String, Map<String, Set<Integer>>> excludedLinesByComponent = new HashMap<>();
+  private final Map<String, Map<String, LineRanges>> excludedLinesByComponent = new HashMap<>();
 
   private static final String SUPPRESS_WARNING_RULE_KEY = getSuppressWarningRuleKey();
 
@@ -95,7 +95,13 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
   @Override
   public void scanFile(JavaFileScannerContext context) {
     super.scanFile(context);
-    excludedLinesByComponent.put(getComponentKey(), new HashMap<>(excludedLinesByRule()));
+    excludedLinesByComponent.put(getComponentKey(), new HashMap<>(excludedLineRangesByRule()));
+  }
+
+  @Override
+  public void replayExcludedLines(InputFile inputFile, FileAnalysisRecord fileRecord) {
+    super.replayExcludedLines(inputFile, fileRecord);
+    excludedLinesByComponent.put(getComponentKey(), new HashMap<>(excludedLineRangesByRule()));
   }
 
   private static Map<String, RuleKey> getDeprecatedRuleKeys() {
@@ -115,14 +121,22 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
     return !issueShouldNotBeReported(issue, excludedLinesByComponent.getOrDefault(issue.componentKey(), Collections.emptyMap()));
   }
 
-  private static boolean issueShouldNotBeReported(FilterableIssue issue, Map<String, Set<Integer>> excludedLineByRule) {
+  private static boolean issueShouldNotBeReported(FilterableIssue issue, Map<String, LineRanges> excludedLineByRule) {
     RuleKey issueRuleKey = issue.ruleKey();
-    return excludedLineByRule.entrySet().stream().anyMatch(excludedRule -> {
-      String suppressedWarning = excludedRule.getKey();
-      return ("all".equals(suppressedWarning) || isRuleKey(suppressedWarning, issueRuleKey))
-        && !isSuppressWarningRule(issueRuleKey)
-        && excludedRule.getValue().contains(issue.line());
-    });
+    if (excludedLineByRule.isEmpty() || isSuppressWarningRule(issueRuleKey)) {
+      return false;
+    }
+    Integer line = issue.line();
+    for (Map.Entry<String, LineRanges> excludedRule : excludedLineByRule.entrySet()) {
+      // the line lookup is cheaper than parsing the suppressed warning as a rule key
+      if (excludedRule.getValue().contains(line)) {
+        String suppressedWarning = excludedRule.getKey();
+        if ("all".equals(suppressedWarning) || isRuleKey(suppressedWarning, issueRuleKey)) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   private static boolean isRuleKey(String rule, RuleKey ruleKey) {
@@ -172,9 +186,8 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
 
     if (startLine != -1) {
       int endLine = tree.lastToken().range().start().line();
-      Set<Integer> filteredlines = IntStream.rangeClosed(startLine, endLine).boxed().collect(Collectors.toSet());
       for (String rule : rules) {
-        excludeLines(filteredlines, rule);
+        excludeLines(startLine, endLine, rule);
       }
     }
   }
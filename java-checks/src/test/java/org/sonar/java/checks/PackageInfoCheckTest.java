@@ -21,9 +21,15 @@ package org.sonar.java.checks;
 
 import java.util.Set;
 import org.junit.jupiter.api.Test;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.checks.verifier.CheckVerifier;
+import org.sonar.java.checks.verifier.TestUtils;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.sonar.java.checks.verifier.TestUtils.testSourcesPath;
 
 class PackageInfoCheckTest {
@@ -50,4 +56,23 @@ class PackageInfoCheckTest {
     assertThat(set.iterator().next()).isEqualTo(expectedPackage);
   }
 
+  @Test
+  void replayed_files() {
+    String helloWorld = testSourcesPath("checks/packageInfo/nopackageinfo/HelloWorld.java");
+    PackageInfoCheck check = new PackageInfoCheck();
+    FileAnalysisRecord fileRecord = new FileAnalysisRecord();
+    check.recordTo(fileRecord);
+    CheckVerifier.newVerifier()
+      .onFiles(testSourcesPath("DefaultPackage.java"), helloWorld)
+      .withCheck(check)
+      .verifyIssueOnProject("Add a 'package-info.java' file to document the 'checks.packageInfo.nopackageinfo' package");
+
+    PackageInfoCheck replayingCheck = new PackageInfoCheck();
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    when(context.getInputFile()).thenReturn(TestUtils.inputFile(helloWorld));
+    replayingCheck.replay(context, fileRecord);
+    replayingCheck.endOfAnalysis();
+    verify(context).addIssueOnProject(replayingCheck, "Add a 'package-info.java' file to document the 'checks.packageInfo.nopackageinfo' package");
+  }
+
 }
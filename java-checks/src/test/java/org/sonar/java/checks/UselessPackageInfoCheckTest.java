@@ -20,8 +20,14 @@
 package org.sonar.java.checks;
 
 import org.junit.jupiter.api.Test;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.checks.verifier.CheckVerifier;
+import org.sonar.java.checks.verifier.TestUtils;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.sonar.java.checks.verifier.TestUtils.testSourcesPath;
 
 class UselessPackageInfoCheckTest {
@@ -60,6 +66,25 @@ class UselessPackageInfoCheckTest {
       .verifyNoIssues();
   }
 
+  @Test
+  void replayedFile() {
+    String packageInfo = testSourcesPath("checks/UselessPackageInfoCheck/packageWithNoOtherFiles/package-info.java");
+    UselessPackageInfoCheck check = new UselessPackageInfoCheck();
+    FileAnalysisRecord fileRecord = new FileAnalysisRecord();
+    check.recordTo(fileRecord);
+    CheckVerifier.newVerifier()
+      .onFile(packageInfo)
+      .withCheck(check)
+      .verifyIssueOnFile("Remove this package.");
+
+    UselessPackageInfoCheck replayingCheck = new UselessPackageInfoCheck();
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    when(context.getInputFile()).thenReturn(TestUtils.inputFile(packageInfo));
+    replayingCheck.replay(context, fileRecord);
+    replayingCheck.endOfAnalysis();
+    verify(context).addIssueOnFile(replayingCheck, "Remove this package.");
+  }
+
   @Test
   void defaultPackage() {
     CheckVerifier.newVerifier()
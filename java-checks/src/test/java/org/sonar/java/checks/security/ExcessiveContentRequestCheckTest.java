@@ -19,9 +19,22 @@
  */
 package org.sonar.java.checks.security;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.checks.verifier.CheckVerifier;
+import org.sonar.java.checks.verifier.TestUtils;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.reporting.AnalyzerMessage;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.sonar.java.checks.verifier.TestUtils.nonCompilingTestSourcesPath;
 import static org.sonar.java.checks.verifier.TestUtils.testSourcesPath;
 
@@ -61,6 +74,41 @@ class ExcessiveContentRequestCheckTest {
       .verifyIssues();
   }
 
+  @Test
+  void test_replayed_files() {
+    String sizeNotSet = testSourcesPath("checks/security/ExcessiveContentRequestCheck/ExcessiveContentRequestCheck_sizeNotSet.java");
+    ExcessiveContentRequestCheck check = new ExcessiveContentRequestCheck();
+    FileAnalysisRecord fileRecord = new FileAnalysisRecord();
+    check.recordTo(fileRecord);
+    CheckVerifier.newVerifier()
+      .onFile(sizeNotSet)
+      .withCheck(check)
+      .verifyIssues();
+
+    ExcessiveContentRequestCheck replayingCheck = new ExcessiveContentRequestCheck();
+    DefaultJavaFileScannerContext context = mock(DefaultJavaFileScannerContext.class);
+    when(context.getInputFile()).thenReturn(TestUtils.inputFile(sizeNotSet));
+    replayingCheck.replay(context, fileRecord);
+    replayingCheck.endOfAnalysis();
+    ArgumentCaptor<AnalyzerMessage> reported = ArgumentCaptor.forClass(AnalyzerMessage.class);
+    verify(context, times(2)).reportIssue(reported.capture());
+    List<AnalyzerMessage> messages = reported.getAllValues();
+    assertThat(messages).extracting(AnalyzerMessage::getLine).containsExactly(9, 14);
+    assertThat(messages).extracting(AnalyzerMessage::getMessage).containsOnly("Make sure not setting any maximum content length limit is safe here.");
+
+    FileAnalysisRecord sizeSetRecord = new FileAnalysisRecord();
+    check.recordTo(sizeSetRecord);
+    CheckVerifier.newVerifier()
+      .onFile(testSourcesPath("checks/security/ExcessiveContentRequestCheck/ExcessiveContentRequestCheck_setSize.java"))
+      .withCheck(check)
+      .verifyNoIssues();
+    DefaultJavaFileScannerContext otherContext = mock(DefaultJavaFileScannerContext.class);
+    replayingCheck.replay(otherContext, sizeSetRecord);
+    replayingCheck.replay(otherContext, fileRecord);
+    replayingCheck.endOfAnalysis();
+    verify(otherContext, never()).reportIssue(any());
+  }
+
   @Test
   void test_max_set_in_another_file() {
     // As soon as the size is set somewhere in the project, do not report an issue.
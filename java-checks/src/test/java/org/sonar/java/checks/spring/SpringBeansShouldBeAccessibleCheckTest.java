@@ -22,8 +22,17 @@ package org.sonar.java.checks.spring;
 import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.checks.verifier.CheckVerifier;
+import org.sonar.java.checks.verifier.TestUtils;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.reporting.AnalyzerMessage;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.sonar.java.checks.verifier.TestUtils.testSourcesPath;
 import static org.sonar.java.checks.verifier.TestUtils.nonCompilingTestSourcesPath;
 
@@ -56,6 +65,25 @@ class SpringBeansShouldBeAccessibleCheckTest {
       .verifyNoIssues();
   }
 
+  @Test
+  void testReplayedFiles() {
+    FileAnalysisRecord fileRecord = new FileAnalysisRecord();
+    fileRecord.addCheckData("S4605.scannedPackage", "packageA");
+    fileRecord.addCheckData("S4605.bean", "packageA 5 13 5 23 ComponentA");
+    fileRecord.addCheckData("S4605.bean", "packageC 7 13 7 23 ComponentC");
+
+    SpringBeansShouldBeAccessibleCheck check = new SpringBeansShouldBeAccessibleCheck();
+    DefaultJavaFileScannerContext context = mock(DefaultJavaFileScannerContext.class);
+    when(context.getInputFile()).thenReturn(TestUtils.inputFile(testSourcesPath(BASE_PATH + "componentScan/packageC/ComponentC.java")));
+    check.replay(context, fileRecord);
+    check.endOfAnalysis();
+
+    ArgumentCaptor<AnalyzerMessage> reported = ArgumentCaptor.forClass(AnalyzerMessage.class);
+    verify(context).reportIssue(reported.capture());
+    assertThat(reported.getValue().primaryLocation()).isEqualTo(new AnalyzerMessage.TextSpan(7, 13, 7, 23));
+    assertThat(reported.getValue().getMessage()).startsWith("'ComponentC' is not reachable by @ComponentsScan or @SpringBootApplication.");
+  }
+
   @Test
   void testSpringBootApplication() {
     final String testFolder = BASE_PATH + "springBootApplication/";
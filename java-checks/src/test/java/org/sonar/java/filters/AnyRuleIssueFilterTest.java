@@ -28,6 +28,7 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.java.ast.JavaAstScanner;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.checks.verifier.TestUtils;
 import org.sonar.java.model.JavaVersionImpl;
 import org.sonar.java.testing.VisitorsBridgeForTests;
@@ -129,6 +130,19 @@ class AnyRuleIssueFilterTest {
     assertThatIssueWillBeAccepted(14).isFalse();
   }
 
+  @Test
+  void excluded_lines_are_replayed() {
+    FileAnalysisRecord fileRecord = new FileAnalysisRecord();
+    filter.recordExcludedLines(fileRecord);
+
+    filter = new AnyRuleOnVariableIssueFilter();
+    filter.replayExcludedLines(INPUT_FILE, fileRecord);
+    assertThatIssueWillBeAccepted(4).isFalse();
+    assertThatIssueWillBeAccepted(6).isFalse();
+    assertThatIssueWillBeAccepted(8).isTrue();
+    assertThatIssueWillBeAccepted(14).isFalse();
+  }
+
   private AbstractBooleanAssert<?> assertThatIssueWillBeAccepted(@Nullable Integer line) {
     when(issue.line()).thenReturn(line);
     return assertThat(filter.accept(issue));
@@ -31,6 +31,7 @@ import org.sonar.api.rule.RuleKey;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.check.Rule;
 import org.sonar.java.ast.JavaAstScanner;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.checks.verifier.TestUtils;
 import org.sonar.java.model.JavaVersionImpl;
 import org.sonarsource.analyzer.commons.collections.SetUtils;
@@ -140,6 +141,18 @@ class BaseTreeVisitorIssueFilterTest {
     assertThatIssueWillBeAccepted(5).isTrue();
   }
 
+  @Test
+  void excluded_lines_are_replayed() {
+    FileAnalysisRecord fileRecord = new FileAnalysisRecord();
+    filter.recordExcludedLines(fileRecord);
+
+    filter = new FakeJavaIssueFilterOnClassAndVariable();
+    filter.replayExcludedLines(INPUT_FILE, fileRecord);
+    assertThat(filter.getComponentKey()).isEqualTo(INPUT_FILE.key());
+    assertThat(filter.excludedLinesByRule()).containsOnlyKeys(RULE_KEY);
+    assertThat(filter.excludedLinesByRule().get(RULE_KEY)).containsOnly(3, 4, 5, 6, 7, 8, 9, 10, 11, 15);
+  }
+
   private AbstractBooleanAssert<?> assertThatIssueWillBeAccepted(@Nullable Integer line) {
     when(issue.line()).thenReturn(line);
     return assertThat(filter.accept(issue));
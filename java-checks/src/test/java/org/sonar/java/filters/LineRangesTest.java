@@ -0,0 +1,84 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.filters;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LineRangesTest {
+
+  @Test
+  void overlapping_and_touching_ranges_are_merged() {
+    LineRanges ranges = new LineRanges();
+    assertThat(ranges.isEmpty()).isTrue();
+
+    ranges.add(10, 12);
+    ranges.add(3, 5);
+    ranges.add(6, 6);
+    ranges.add(11, 15);
+    ranges.add(20, 18);
+    assertThat(ranges.lines()).containsOnly(3, 4, 5, 6, 10, 11, 12, 13, 14, 15);
+
+    ranges.add(1, 20);
+    assertThat(ranges.lines()).hasSize(20);
+    ranges.add(4, 8);
+    assertThat(ranges.lines()).hasSize(20);
+  }
+
+  @Test
+  void removed_ranges_split_existing_ones() {
+    LineRanges ranges = new LineRanges();
+    ranges.add(1, 10);
+    ranges.remove(4, 5);
+    assertThat(ranges.lines()).containsOnly(1, 2, 3, 6, 7, 8, 9, 10);
+
+    ranges.add(20, 25);
+    ranges.remove(8, 21);
+    assertThat(ranges.lines()).containsOnly(1, 2, 3, 6, 7, 22, 23, 24, 25);
+
+    ranges.remove(1, 1);
+    ranges.remove(25, 30);
+    ranges.remove(12, 11);
+    assertThat(ranges.lines()).containsOnly(2, 3, 6, 7, 22, 23, 24);
+
+    ranges.remove(0, 100);
+    assertThat(ranges.isEmpty()).isTrue();
+  }
+
+  @Test
+  void contains() {
+    LineRanges ranges = new LineRanges();
+    assertThat(ranges.contains(1)).isFalse();
+    ranges.add(3, 5);
+    ranges.add(8, 8);
+    assertThat(ranges.contains(null)).isFalse();
+    assertThat(ranges.contains(2)).isFalse();
+    assertThat(ranges.contains(3)).isTrue();
+    assertThat(ranges.contains(5)).isTrue();
+    assertThat(ranges.contains(6)).isFalse();
+    assertThat(ranges.contains(8)).isTrue();
+    assertThat(ranges.contains(9)).isFalse();
+
+    ranges.clear();
+    assertThat(ranges.contains(3)).isFalse();
+  }
+
+}
@@ -29,6 +29,7 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.scan.issue.filter.IssueFilterChain;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.checks.verifier.TestUtils;
 import org.sonar.java.model.InternalSyntaxToken;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -104,6 +105,28 @@ class PostAnalysisIssueFilterTest {
     assertThat(postAnalysisIssueFilter.accept(fakeIssue, chain)).isFalse();
   }
 
+  @Test
+  void excluded_lines_are_recorded_and_replayed() {
+    IssueFilterChain chain = mock(IssueFilterChain.class);
+    when(chain.accept(ArgumentMatchers.any())).thenReturn(true);
+    when(fakeIssue.componentKey()).thenReturn(INPUT_FILE.key());
+    when(fakeIssue.line()).thenReturn(42);
+
+    FileAnalysisRecord fileRecord = new FileAnalysisRecord();
+    postAnalysisIssueFilter.recordTo(fileRecord);
+    postAnalysisIssueFilter.scanFile(context);
+    assertThat(postAnalysisIssueFilter.accept(fakeIssue, chain)).isTrue();
+
+    PostAnalysisIssueFilter replayingFilter = new PostAnalysisIssueFilter();
+    FileAnalysisRecord recordWithExcludedLine = new FileAnalysisRecord();
+    recordWithExcludedLine.addCheckData(GeneratedCodeFilter.class.getName(), "40 45");
+    replayingFilter.replay(context, recordWithExcludedLine);
+    assertThat(replayingFilter.accept(fakeIssue, chain)).isFalse();
+
+    replayingFilter.replay(context, fileRecord);
+    assertThat(replayingFilter.accept(fakeIssue, chain)).isTrue();
+  }
+
   @Test
   void issue_filter_should_scan_file_with_all_filters() {
     postAnalysisIssueFilter.scanFile(context);
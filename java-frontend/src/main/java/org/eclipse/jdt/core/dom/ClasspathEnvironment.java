@@ -0,0 +1,161 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.eclipse.jdt.core.dom;
+
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem.Classpath;
+import org.eclipse.jdt.internal.compiler.batch.Main;
+import org.eclipse.jdt.internal.compiler.util.Util;
+
+/**
+ * Classpath entries opened once and reused by all the batches parsed with the same classpath, where
+ * {@link ASTParser#createASTs(String[], String[], String[], FileASTRequestor, IProgressMonitor)} would open and index the JAR files again
+ * for each batch.
+ * <p>
+ * Entries keep lazily built caches which are not thread-safe: each batch leases entries which are not used by another batch, and gives
+ * them back once the ASTs created with them are not used anymore. All the entries are reset, releasing the JAR files, by {@link #close()}.
+ */
+public final class ClasspathEnvironment implements AutoCloseable {
+
+  private static final String[] NO_BINDING_KEYS = new String[0];
+
+  private final String[] classpath;
+  private final boolean includeRunningVMBootclasspath;
+  private final Deque<List<Classpath>> available = new ArrayDeque<>();
+  private final Set<List<Classpath>> opened = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  public ClasspathEnvironment(String[] classpath, boolean includeRunningVMBootclasspath) {
+    this.classpath = classpath.clone();
+    this.includeRunningVMBootclasspath = includeRunningVMBootclasspath;
+  }
+
+  /**
+   * @return entries not used by another batch, new ones being opened by the first {@link Lease#createASTs} when all of them are leased
+   */
+  public synchronized Lease lease() {
+    return new Lease(available.poll());
+  }
+
+  /**
+   * Resets all the opened entries, leased or not, closing their JAR files (see SONARJAVA-3609). Entries given back afterwards are not reused.
+   */
+  @Override
+  public synchronized void close() {
+    opened.forEach(ClasspathEnvironment::reset);
+    opened.clear();
+    available.clear();
+  }
+
+  synchronized int openedEntries() {
+    return opened.size();
+  }
+
+  private List<Classpath> openEntries() {
+    List<Classpath> entries = open();
+    synchronized (this) {
+      opened.add(entries);
+    }
+    return entries;
+  }
+
+  private synchronized void giveBack(List<Classpath> entries) {
+    if (opened.contains(entries)) {
+      available.push(entries);
+    } else {
+      reset(entries);
+    }
+  }
+
+  /**
+   * Same entries as {@code ASTParser#getClasspath()}, for an environment without source paths.
+   */
+  private List<Classpath> open() {
+    Main main = new Main(new PrintWriter(System.out), new PrintWriter(System.err), false, null, null);
+    ArrayList<Classpath> entries = new ArrayList<>();
+    try {
+      if (includeRunningVMBootclasspath) {
+        Util.collectRunningVMBootclasspath(entries);
+      }
+      for (String entry : classpath) {
+        main.processPathEntries(Main.DEFAULT_SIZE_CLASSPATH, entries, entry, null, false, false);
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("invalid environment settings", e);
+    }
+    if (main.pendingErrors != null && !main.pendingErrors.isEmpty()) {
+      throw new IllegalStateException("invalid environment settings");
+    }
+    return entries;
+  }
+
+  private static void reset(List<Classpath> entries) {
+    entries.forEach(Classpath::reset);
+  }
+
+  /**
+   * Entries leased by one batch. Running the lease gives them back to the environment, it is meant to replace the environment cleaner
+   * of the ASTs created with them.
+   */
+  public final class Lease implements Runnable {
+
+    @Nullable
+    private List<Classpath> entries;
+    private boolean givenBack = false;
+
+    private Lease(@Nullable List<Classpath> entries) {
+      this.entries = entries;
+    }
+
+    /**
+     * Same as {@link ASTParser#createASTs(String[], String[], String[], FileASTRequestor, IProgressMonitor)} with bindings recovery,
+     * resolving the bindings with the leased entries.
+     */
+    public void createASTs(Map<String, String> compilerOptions, String[] sourceFilePaths, String[] encodings, FileASTRequestor requestor,
+      IProgressMonitor monitor) {
+      if (entries == null) {
+        entries = openEntries();
+      }
+      CompilationUnitResolver.resolve(sourceFilePaths, encodings, NO_BINDING_KEYS, requestor, AST.getJLSLatest(), compilerOptions, entries,
+        ICompilationUnit.ENABLE_BINDINGS_RECOVERY, monitor);
+    }
+
+    @Override
+    public void run() {
+      synchronized (ClasspathEnvironment.this) {
+        if (!givenBack && entries != null) {
+          givenBack = true;
+          giveBack(entries);
+        }
+      }
+    }
+  }
+
+}
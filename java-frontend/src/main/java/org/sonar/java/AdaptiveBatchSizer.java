@@ -0,0 +1,140 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.annotations.VisibleForTesting;
+
+/**
+ * Computes the size of the next ECJ batch from the heap consumed by the previous one.
+ *
+ * The cost of a batch is measured as the heap needed per byte of source code (ASTs, bindings, converted trees, ...), from the peak of
+ * the used heap sampled after the analysis of each of its files. The next batch
+ * is sized so that this cost fits in the heap still available below {@link #TARGET_HEAP_USAGE}, and is halved when the previous batch
+ * spent more than {@link #MAX_GC_OVERHEAD} of its time in garbage collection.
+ */
+public class AdaptiveBatchSizer {
+
+  private static final Logger LOG = Loggers.get(AdaptiveBatchSizer.class);
+
+  static final double TARGET_HEAP_USAGE = 0.7;
+  static final double MAX_GC_OVERHEAD = 0.2;
+  private static final long MIN_BATCH_SIZE_IN_BYTES = 10_000L;
+  private static final int MAX_GROWTH_FACTOR = 4;
+
+  private final HeapMonitor heapMonitor;
+  private final long minBatchSizeInBytes;
+  private final long maxBatchSizeInBytes;
+
+  private long usedHeapBeforeBatch;
+  private long peakUsedHeap;
+  private long gcTimeBeforeBatch;
+  private long batchStartNanos;
+
+  public AdaptiveBatchSizer(long initialBatchSizeInBytes) {
+    this(new MXBeanHeapMonitor(), initialBatchSizeInBytes);
+  }
+
+  @VisibleForTesting
+  AdaptiveBatchSizer(HeapMonitor heapMonitor, long initialBatchSizeInBytes) {
+    this.heapMonitor = heapMonitor;
+    this.minBatchSizeInBytes = Math.min(MIN_BATCH_SIZE_IN_BYTES, initialBatchSizeInBytes);
+    this.maxBatchSizeInBytes = Math.max(minBatchSizeInBytes, initialBatchSizeInBytes * MAX_GROWTH_FACTOR);
+  }
+
+  public void startBatch() {
+    usedHeapBeforeBatch = heapMonitor.usedHeap();
+    peakUsedHeap = usedHeapBeforeBatch;
+    gcTimeBeforeBatch = heapMonitor.gcTimeMillis();
+    batchStartNanos = System.nanoTime();
+  }
+
+  /**
+   * Samples the heap used by the current batch. The heap is sampled as a whole: peaks of the different heap pools are not
+   * reached at the same time, and adding them up would overestimate the cost of the batch.
+   */
+  public void sampleHeap() {
+    peakUsedHeap = Math.max(peakUsedHeap, heapMonitor.usedHeap());
+  }
+
+  /**
+   * @param batchBytes size of the source files of the batch which just ended
+   * @param currentBatchSizeInBytes batch size used for the batch which just ended
+   * @return the batch size to use for the next batch
+   */
+  public long endBatch(long batchBytes, long currentBatchSizeInBytes) {
+    long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStartNanos));
+    double gcOverhead = (heapMonitor.gcTimeMillis() - gcTimeBeforeBatch) / (double) elapsedMillis;
+    sampleHeap();
+    long batchHeapUsage = peakUsedHeap - usedHeapBeforeBatch;
+    return nextBatchSize(batchBytes, batchHeapUsage, gcOverhead, currentBatchSizeInBytes);
+  }
+
+  @VisibleForTesting
+  long nextBatchSize(long batchBytes, long batchHeapUsage, double gcOverhead, long currentBatchSizeInBytes) {
+    double heapBytesPerSourceByte = Math.max(1.0, batchHeapUsage / (double) Math.max(1L, batchBytes));
+    long availableHeap = (long) (heapMonitor.maxHeap() * TARGET_HEAP_USAGE) - heapMonitor.usedHeap();
+    long nextBatchSize = (long) (Math.max(0L, availableHeap) / heapBytesPerSourceByte);
+    if (gcOverhead > MAX_GC_OVERHEAD) {
+      nextBatchSize = Math.min(nextBatchSize, currentBatchSizeInBytes / 2);
+    }
+    nextBatchSize = Math.max(minBatchSizeInBytes, Math.min(maxBatchSizeInBytes, nextBatchSize));
+    if (nextBatchSize != currentBatchSizeInBytes) {
+      LOG.info("Batch size changed from {} KB to {} KB (heap per source byte: {}, GC overhead: {}%).",
+        currentBatchSizeInBytes / 1_000L, nextBatchSize / 1_000L, (long) heapBytesPerSourceByte, (long) (gcOverhead * 100));
+    }
+    return nextBatchSize;
+  }
+
+  interface HeapMonitor {
+    long maxHeap();
+
+    long usedHeap();
+
+    long gcTimeMillis();
+  }
+
+  private static class MXBeanHeapMonitor implements HeapMonitor {
+
+    @Override
+    public long maxHeap() {
+      long max = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+      return max > 0 ? max : Runtime.getRuntime().maxMemory();
+    }
+
+    @Override
+    public long usedHeap() {
+      return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @Override
+    public long gcTimeMillis() {
+      return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+        .filter(time -> time > 0)
+        .sum();
+    }
+  }
+
+}
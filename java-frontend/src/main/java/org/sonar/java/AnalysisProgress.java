@@ -19,39 +19,64 @@
  */
 package org.sonar.java;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class AnalysisProgress {
   private final int totalFileCount;
+  /**
+   * Counts shared with the progress of the batches analyzed concurrently, see {@link #concurrentBatch()}.
+   */
+  private final AtomicInteger startedFileCount;
+  private final AtomicInteger analysedFileCount;
+  private final boolean concurrent;
   private int currentBatchSize;
-  private int analysedFileCount;
+  private boolean firstBatch;
 
   public AnalysisProgress(int totalFileCount) {
+    this(totalFileCount, new AtomicInteger(), new AtomicInteger(), false);
+  }
+
+  private AnalysisProgress(int totalFileCount, AtomicInteger startedFileCount, AtomicInteger analysedFileCount, boolean concurrent) {
     this.totalFileCount = totalFileCount;
+    this.startedFileCount = startedFileCount;
+    this.analysedFileCount = analysedFileCount;
+    this.concurrent = concurrent;
     currentBatchSize = 0;
-    analysedFileCount = 0;
+    firstBatch = true;
+  }
+
+  /**
+   * Progress of one batch analyzed concurrently with other batches, contributing to the global progress of this analysis.
+   * Batches ending in any order, such a progress is never the last batch: the end of the analysis has to be reported
+   * once all the batches are done.
+   */
+  public AnalysisProgress concurrentBatch() {
+    return new AnalysisProgress(totalFileCount, startedFileCount, analysedFileCount, true);
   }
 
   public void startBatch(int currentBatchSize) {
     this.currentBatchSize = currentBatchSize;
+    this.firstBatch = startedFileCount.getAndAdd(currentBatchSize) == 0;
   }
 
   public void endBatch() {
-    this.analysedFileCount += currentBatchSize;
+    this.analysedFileCount.addAndGet(currentBatchSize);
     this.currentBatchSize = 0;
   }
 
   public boolean isFirstBatch() {
-    return analysedFileCount == 0;
+    return firstBatch;
   }
 
   public boolean isLastBatch() {
-    return analysedFileCount + currentBatchSize == totalFileCount;
+    return !concurrent && analysedFileCount.get() + currentBatchSize == totalFileCount;
   }
 
   public double toGlobalPercentage(double currentBatchPercentage) {
     if (totalFileCount == 0) {
       return 0;
     }
-    double percentageDoneInPreviousBatches = analysedFileCount / (double) totalFileCount;
+    double percentageDoneInPreviousBatches = analysedFileCount.get() / (double) totalFileCount;
     double currentBatchFactor = currentBatchSize / (double) totalFileCount;
     return percentageDoneInPreviousBatches + currentBatchFactor * currentBatchPercentage;
   }
@@ -27,21 +27,26 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.java.classpath.ClasspathForMain;
 import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaResourceLocator;
 
-public class DefaultJavaResourceLocator implements JavaResourceLocator {
+public class DefaultJavaResourceLocator implements JavaResourceLocator, CacheableVisitor {
 
   private static final Logger LOG = Loggers.get(DefaultJavaResourceLocator.class);
 
   private final ClasspathForMain javaClasspath;
   @VisibleForTesting
   Map<String, InputFile> resourcesByClass;
+  @Nullable
+  private FileAnalysisRecord fileRecord;
 
   public DefaultJavaResourceLocator(ClasspathForMain javaClasspath) {
     this.javaClasspath = javaClasspath;
@@ -89,5 +94,19 @@ public class DefaultJavaResourceLocator implements JavaResourceLocator {
     JavaFilesCache javaFilesCache = new JavaFilesCache();
     javaFilesCache.scanFile(context);
     javaFilesCache.getClassNames().forEach(className -> resourcesByClass.put(className, inputFile));
+    if (fileRecord != null) {
+      fileRecord.addClassNames(javaFilesCache.getClassNames());
+    }
+  }
+
+  @Override
+  public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+    this.fileRecord = fileRecord;
+  }
+
+  @Override
+  public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+    InputFile inputFile = context.getInputFile();
+    fileRecord.classNames().forEach(className -> resourcesByClass.put(className, inputFile));
   }
 }
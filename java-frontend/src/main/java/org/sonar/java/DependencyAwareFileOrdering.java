@@ -0,0 +1,234 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.annotations.VisibleForTesting;
+
+/**
+ * Orders the files to scan so that files depending on each other end up in the same ECJ batch, or at least in consecutive ones.
+ *
+ * Only the header of each file (package and import declarations) is read, without parsing. Files are grouped by package, and packages
+ * importing each other (directly or through a cycle) form a cluster. Clusters are returned in dependency order: the packages a cluster
+ * depends on come first.
+ */
+public class DependencyAwareFileOrdering {
+
+  private static final Logger LOG = Loggers.get(DependencyAwareFileOrdering.class);
+
+  private static final Pattern PACKAGE_DECLARATION = Pattern.compile("^package\\s+([\\w.]+)\\s*;");
+  private static final Pattern IMPORT_DECLARATION = Pattern.compile("^import\\s+(static\\s+)?([\\w.]+)(\\.\\*)?\\s*;");
+
+  private DependencyAwareFileOrdering() {
+    // utility class
+  }
+
+  public static List<InputFile> order(List<InputFile> inputFiles) {
+    Map<String, List<InputFile>> filesByPackage = new LinkedHashMap<>();
+    Map<String, Set<String>> importedNames = new HashMap<>();
+    for (InputFile inputFile : inputFiles) {
+      FileHeader header = readHeader(inputFile);
+      filesByPackage.computeIfAbsent(header.packageName, p -> new ArrayList<>()).add(inputFile);
+      importedNames.computeIfAbsent(header.packageName, p -> new LinkedHashSet<>()).addAll(header.importedNames);
+    }
+    Map<String, Set<String>> packageDependencies = new HashMap<>();
+    importedNames.forEach((packageName, names) -> packageDependencies.put(packageName, dependencies(packageName, names, filesByPackage.keySet())));
+
+    List<List<String>> clusters = stronglyConnectedComponents(filesByPackage.keySet(), packageDependencies);
+    List<InputFile> result = new ArrayList<>(inputFiles.size());
+    for (List<String> cluster : clusters) {
+      cluster.forEach(packageName -> result.addAll(filesByPackage.get(packageName)));
+    }
+    LOG.debug("Ordered {} files from {} packages in {} clusters of dependent packages.", result.size(), filesByPackage.size(), clusters.size());
+    return result;
+  }
+
+  /**
+   * Imported names are either types, packages (on-demand imports) or members (static imports). The package they belong to is the
+   * longest prefix matching one of the analyzed packages.
+   */
+  private static Set<String> dependencies(String packageName, Set<String> importedNames, Set<String> knownPackages) {
+    Set<String> dependencies = new LinkedHashSet<>();
+    for (String importedName : importedNames) {
+      String candidate = importedName;
+      while (!knownPackages.contains(candidate) && candidate.lastIndexOf('.') > 0) {
+        candidate = candidate.substring(0, candidate.lastIndexOf('.'));
+      }
+      if (knownPackages.contains(candidate) && !candidate.equals(packageName)) {
+        dependencies.add(candidate);
+      }
+    }
+    return dependencies;
+  }
+
+  /**
+   * Iterative version of Tarjan's algorithm, to not depend on the stack size for large projects.
+   * Components are returned in reverse topological order: a component comes after all the components it depends on.
+   */
+  @VisibleForTesting
+  static List<List<String>> stronglyConnectedComponents(Iterable<String> nodes, Map<String, Set<String>> edges) {
+    Map<String, Integer> index = new HashMap<>();
+    Map<String, Integer> lowLink = new HashMap<>();
+    Set<String> onStack = new LinkedHashSet<>();
+    Deque<String> stack = new ArrayDeque<>();
+    List<List<String>> components = new ArrayList<>();
+
+    for (String root : nodes) {
+      if (index.containsKey(root)) {
+        continue;
+      }
+      Deque<Frame> callStack = new ArrayDeque<>();
+      callStack.push(new Frame(root, edges));
+      while (!callStack.isEmpty()) {
+        Frame frame = callStack.peek();
+        String node = frame.node;
+        if (!index.containsKey(node)) {
+          index.put(node, index.size());
+          lowLink.put(node, index.get(node));
+          stack.push(node);
+          onStack.add(node);
+        }
+        if (frame.successors.hasNext()) {
+          String successor = frame.successors.next();
+          if (!index.containsKey(successor)) {
+            callStack.push(new Frame(successor, edges));
+          } else if (onStack.contains(successor)) {
+            lowLink.put(node, Math.min(lowLink.get(node), index.get(successor)));
+          }
+          continue;
+        }
+        callStack.pop();
+        if (!callStack.isEmpty()) {
+          String parent = callStack.peek().node;
+          lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(node)));
+        }
+        if (lowLink.get(node).equals(index.get(node))) {
+          List<String> component = new ArrayList<>();
+          String member;
+          do {
+            member = stack.pop();
+            onStack.remove(member);
+            component.add(member);
+          } while (!member.equals(node));
+          components.add(component);
+        }
+      }
+    }
+    return components;
+  }
+
+  @VisibleForTesting
+  static FileHeader readHeader(InputFile inputFile) {
+    try {
+      return readHeader(inputFile.contents());
+    } catch (IOException e) {
+      LOG.debug("Unable to read the header of {}: {}", inputFile, e.getMessage());
+      return new FileHeader();
+    }
+  }
+
+  /**
+   * Reads package and import declarations, stopping at the first line which is neither a comment, an annotation nor one of them.
+   * Block comments can start, end or be followed by declarations anywhere on a line.
+   */
+  @VisibleForTesting
+  static FileHeader readHeader(String contents) throws IOException {
+    FileHeader header = new FileHeader();
+    try (BufferedReader reader = new BufferedReader(new StringReader(contents))) {
+      boolean inComment = false;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String rest = line.trim();
+        while (!rest.isEmpty()) {
+          if (inComment) {
+            int end = rest.indexOf("*/");
+            inComment = end < 0;
+            rest = inComment ? "" : rest.substring(end + 2).trim();
+          } else if (rest.startsWith("/*")) {
+            inComment = true;
+            rest = rest.substring(2);
+          } else if (rest.startsWith("//") || rest.startsWith("@")) {
+            rest = "";
+          } else {
+            rest = readDeclaration(rest, header);
+            if (rest == null) {
+              return header;
+            }
+          }
+        }
+      }
+    }
+    return header;
+  }
+
+  /**
+   * @return what follows the package or import declaration starting the given text, or null when it does not start with one of them
+   */
+  @CheckForNull
+  private static String readDeclaration(String text, FileHeader header) {
+    Matcher packageMatcher = PACKAGE_DECLARATION.matcher(text);
+    if (packageMatcher.find()) {
+      header.packageName = packageMatcher.group(1);
+      return text.substring(packageMatcher.end()).trim();
+    }
+    Matcher importMatcher = IMPORT_DECLARATION.matcher(text);
+    if (importMatcher.find()) {
+      header.importedNames.add(importMatcher.group(2));
+      return text.substring(importMatcher.end()).trim();
+    }
+    return null;
+  }
+
+  @VisibleForTesting
+  static class FileHeader {
+    String packageName = "";
+    final Set<String> importedNames = new LinkedHashSet<>();
+  }
+
+  private static class Frame {
+    private final String node;
+    private final Iterator<String> successors;
+
+    Frame(String node, Map<String, Set<String>> edges) {
+      this.node = node;
+      this.successors = edges.getOrDefault(node, Collections.emptySet()).iterator();
+    }
+  }
+
+}
@@ -27,11 +27,23 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -55,6 +67,8 @@ public class JavaFrontend {
 
   private static final Logger LOG = Loggers.get(JavaFrontend.class);
   private static final String BATCH_ERROR_MESSAGE = "Batch Mode failed, analysis of Java Files stopped.";
+  private static final Runnable NO_OP = () -> {
+  };
 
   private final JavaVersion javaVersion;
   private final SonarComponents sonarComponents;
@@ -62,6 +76,11 @@ public class JavaFrontend {
   private final JavaAstScanner astScanner;
   private final JavaAstScanner astScannerForTests;
   private final JavaAstScanner astScannerForGeneratedFiles;
+  /**
+   * Batch configurations by classpath, for the java version of this frontend, shared by all the batches of the scanners using the same
+   * classpath. They keep the JAR files of the classpath open between batches and are closed at the end of {@link #scan}.
+   */
+  private final Map<List<File>, JParserConfig> batchConfigs = new ConcurrentHashMap<>();
 
   public JavaFrontend(JavaVersion javaVersion, @Nullable SonarComponents sonarComponents, @Nullable Measurer measurer,
                       JavaResourceLocator javaResourceLocator, @Nullable SonarJavaIssueFilter postAnalysisIssueFilter, JavaCheck... visitors) {
@@ -135,14 +154,28 @@ public class JavaFrontend {
       scanAndMeasureTask(testFiles, astScannerForTests::scan, "Test");
       scanAndMeasureTask(generatedFiles, astScannerForGeneratedFiles::scan, "Generated");
     } else if (isAutoScan()) {
-      scanAsBatch(new AutoScanBatchContext(), sourceFiles, testFiles);
+      try {
+        scanAsBatch(new AutoScanBatchContext(), sourceFiles, testFiles);
+      } finally {
+        closeBatchConfigs();
+      }
     } else {
-      scanAsBatch(new DefaultBatchModeContext(astScanner, "Main"), sourceFiles);
-      scanAsBatch(new DefaultBatchModeContext(astScannerForTests, "Test"), testFiles);
-      scanAsBatch(new DefaultBatchModeContext(astScannerForGeneratedFiles, "Generated"), generatedFiles);
+      try {
+        scanAsBatch(new DefaultBatchModeContext(astScanner, "Main"), sourceFiles);
+        scanAsBatch(new DefaultBatchModeContext(astScannerForTests, "Test"), testFiles);
+        scanAsBatch(new DefaultBatchModeContext(astScannerForGeneratedFiles, "Generated"), generatedFiles);
+      } finally {
+        closeBatchConfigs();
+      }
     }
   }
 
+  private void closeBatchConfigs() {
+    // See SONARJAVA-3609, JAR files shared by the batches are released once all the files have been analyzed
+    batchConfigs.values().forEach(JParserConfig::close);
+    batchConfigs.clear();
+  }
+
   /**
    * Scans the files given as input in batch mode.
    *
@@ -161,6 +194,7 @@ public class JavaFrontend {
     }
     try {
       try {
+        files.removeIf(file -> context.selectScanner(file).replayFromCache(file));
         if (!files.isEmpty()) {
           scanInBatches(context, files);
         } else {
@@ -192,25 +226,245 @@ public class JavaFrontend {
     } else {
       long batchSize = batchModeSizeInKB * 1_000L;
       LOG.info(logUsingBatch + " with batch size " + batchModeSizeInKB + " KB.");
-      BatchGenerator generator = new BatchGenerator(allInputFiles.iterator(), batchSize);
+      List<InputFile> orderedInputFiles = allInputFiles;
+      if (isDependencyAwareBatchingEnabled()) {
+        Duration orderingDuration = PerformanceMeasure.start("DependencyOrdering");
+        orderedInputFiles = DependencyAwareFileOrdering.order(allInputFiles);
+        orderingDuration.stop();
+      }
+      BatchGenerator generator = new BatchGenerator(orderedInputFiles.iterator(), batchSize);
+      int parallelism = getParallelism();
+      int pipelineQueueSize = getPipelineQueueSize();
+      if (parallelism > 1) {
+        scanBatchesInParallel(context, generator, analysisProgress, parallelism);
+      } else if (pipelineQueueSize > 0) {
+        scanBatchesPipelined(context, generator, analysisProgress, pipelineQueueSize);
+      } else if (isAdaptiveBatchSizeEnabled()) {
+        scanBatchesWithAdaptiveSize(context, generator, analysisProgress);
+      } else {
+        while (generator.hasNext()) {
+          List<InputFile> batch = generator.next();
+          scanBatch(context, batch, analysisProgress);
+        }
+      }
+    }
+  }
+
+  private void scanBatchesWithAdaptiveSize(BatchModeContext context, BatchGenerator generator, AnalysisProgress analysisProgress) {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(generator.batchSizeInBytes());
+    while (generator.hasNext()) {
+      List<InputFile> batch = generator.next();
+      sizer.startBatch();
+      scanBatch(context, batch, analysisProgress, this::analysisCancelled, null, sizer::sampleHeap);
+      long batchBytes = batch.stream().mapToLong(inputFile -> inputFile.file().length()).sum();
+      generator.setBatchSizeInBytes(sizer.endBatch(batchBytes, generator.batchSizeInBytes()));
+    }
+  }
+
+  /**
+   * Parses the batches on a pool of workers, each worker using its own ECJ parser and environment.
+   * Checks and visitors are not guaranteed to be thread-safe: the conversion and analysis of the compilation units
+   * is serialized through a lock shared by all the workers, while ECJ resolution of the other batches goes on.
+   * When a batch fails, or the analysis is cancelled, the other workers stop at their next compilation unit and are awaited,
+   * so that no check is executed after the end of the analysis.
+   */
+  private void scanBatchesInParallel(BatchModeContext context, BatchGenerator generator, AnalysisProgress analysisProgress, int parallelism) {
+    LOG.info("Parsing batches using {} parallel workers.", parallelism);
+    Object analysisLock = new Object();
+    AtomicBoolean stopped = new AtomicBoolean();
+    BooleanSupplier isCanceled = () -> stopped.get() || analysisCancelled();
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      List<Future<?>> batchResults = new ArrayList<>();
+      while (generator.hasNext()) {
+        List<InputFile> batch = generator.next();
+        AnalysisProgress batchProgress = analysisProgress.concurrentBatch();
+        batchResults.add(executor.submit(() -> {
+          try {
+            // ECJ only checks for cancellation once a compilation unit has been analyzed
+            if (isCanceled.getAsBoolean()) {
+              throw new OperationCanceledException();
+            }
+            scanBatch(context, batch, batchProgress, isCanceled, analysisLock, NO_OP);
+          } catch (RuntimeException | Error e) {
+            stopped.set(true);
+            throw e;
+          }
+        }));
+      }
+      OperationCanceledException cancellation = null;
+      for (Future<?> batchResult : batchResults) {
+        try {
+          waitForBatch(batchResult);
+        } catch (OperationCanceledException e) {
+          // a batch can be cancelled because a later one failed, the failure is reported rather than the cancellation
+          cancellation = cancellation == null ? e : cancellation;
+        }
+      }
+      if (cancellation != null) {
+        throw cancellation;
+      }
+      ProgressMonitor.reportEndOfConcurrentBatches();
+    } finally {
+      stopped.set(true);
+      executor.shutdownNow();
+      awaitTermination(executor);
+    }
+  }
+
+  private static void awaitTermination(ExecutorService executor) {
+    try {
+      while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+        LOG.debug("Waiting for the parallel workers to stop.");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Parses and converts the batches on a dedicated thread, while the converted batches are analyzed on the current thread.
+   * Both stages are connected by a bounded queue: at most "queueCapacity" converted batches are waiting for analysis.
+   *
+   * ECJ environments are not thread-safe and are lazily used by the semantic of the converted files. A batch is only handed over
+   * once ECJ is done with it, so the analysis of a batch overlaps with the parsing of the next ones while each environment is only
+   * used by one thread at a time. The trees of a converted batch are kept until its analysis: pipelining costs memory, which
+   * is bounded by the batch size and the queue capacity.
+   */
+  private void scanBatchesPipelined(BatchModeContext context, BatchGenerator generator, AnalysisProgress analysisProgress, int queueCapacity) {
+    LOG.info("Pipelining parsing and analysis of batches, with at most {} converted batches waiting for analysis.", queueCapacity);
+    BlockingQueue<ParsedBatch> queue = new ArrayBlockingQueue<>(queueCapacity);
+    ExecutorService parsingStage = Executors.newSingleThreadExecutor();
+    long start = System.nanoTime();
+    try {
+      Future<Long> parsing = parsingStage.submit(() -> parseBatches(context, generator, analysisProgress, queue));
+      long analysisNanos = analyzeBatches(context, queue);
+      long parsingNanos = waitForBatch(parsing);
+      long overlappingNanos = Math.max(0L, parsingNanos + analysisNanos - (System.nanoTime() - start));
+      LOG.info("Parsing took {} ms and analysis {} ms, overlapping for {} ms.",
+        TimeUnit.NANOSECONDS.toMillis(parsingNanos), TimeUnit.NANOSECONDS.toMillis(analysisNanos), TimeUnit.NANOSECONDS.toMillis(overlappingNanos));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    } finally {
+      parsingStage.shutdownNow();
+    }
+  }
+
+  /**
+   * @return the time spent parsing, in nanoseconds
+   */
+  private long parseBatches(BatchModeContext context, BatchGenerator generator, AnalysisProgress analysisProgress, BlockingQueue<ParsedBatch> queue) {
+    // PerformanceMeasure is not thread-safe, only the analysis of each file is measured, on the analysis thread
+    JParserConfig config = batchConfig(context.getClasspath()).withoutPerformanceMeasures();
+    long parsingNanos = 0L;
+    try {
       while (generator.hasNext()) {
         List<InputFile> batch = generator.next();
-        scanBatch(context, batch, analysisProgress);
+        long batchStart = System.nanoTime();
+        analysisProgress.startBatch(batch.size());
+        ParsedBatch parsedBatch = new ParsedBatch();
+        config.parse(batch, this::analysisCancelled, analysisProgress, parsedBatch::add);
+        analysisProgress.endBatch();
+        parsingNanos += System.nanoTime() - batchStart;
+        queue.put(parsedBatch);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      endPipeline(queue);
+    }
+    return parsingNanos;
+  }
+
+  private static void endPipeline(BlockingQueue<ParsedBatch> queue) {
+    try {
+      queue.put(ParsedBatch.END_OF_ANALYSIS);
+    } catch (InterruptedException e) {
+      // only interrupted when the analysis stage is gone, nobody is waiting for the end of the pipeline anymore
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * @return the time spent analyzing, in nanoseconds
+   */
+  private static long analyzeBatches(BatchModeContext context, BlockingQueue<ParsedBatch> queue) throws InterruptedException {
+    long analysisNanos = 0L;
+    ParsedBatch batch = queue.take();
+    while (batch != ParsedBatch.END_OF_ANALYSIS) {
+      long batchStart = System.nanoTime();
+      Set<Runnable> environmentsCleaners = new HashSet<>();
+      for (int i = 0; i < batch.inputFiles.size(); i++) {
+        scanAsBatchCallback(batch.inputFiles.get(i), batch.results.get(i), context, environmentsCleaners);
       }
+      // The environments of a batch are released once all its files have been analyzed
+      environmentsCleaners.forEach(Runnable::run);
+      analysisNanos += System.nanoTime() - batchStart;
+      batch = queue.take();
+    }
+    return analysisNanos;
+  }
+
+  private static class ParsedBatch {
+    static final ParsedBatch END_OF_ANALYSIS = new ParsedBatch();
+
+    private final List<InputFile> inputFiles = new ArrayList<>();
+    private final List<JParserConfig.Result> results = new ArrayList<>();
+
+    private void add(InputFile inputFile, JParserConfig.Result result) {
+      inputFiles.add(inputFile);
+      results.add(result);
+    }
+  }
+
+  private static <T> T waitForBatch(Future<T> batchResult) {
+    try {
+      return batchResult.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new AnalysisException(BATCH_ERROR_MESSAGE, cause);
     }
   }
 
   private <T extends InputFile> void scanBatch(BatchModeContext context, List<T> batchFiles, AnalysisProgress analysisProgress) {
+    scanBatch(context, batchFiles, analysisProgress, this::analysisCancelled, null, NO_OP);
+  }
+
+  /**
+   * @param afterEachFile executed once the analysis of each file of the batch is done, while the environment of the batch is still alive
+   */
+  private <T extends InputFile> void scanBatch(BatchModeContext context, List<T> batchFiles, AnalysisProgress analysisProgress, BooleanSupplier isCanceled,
+    @Nullable Object analysisLock, Runnable afterEachFile) {
     analysisProgress.startBatch(batchFiles.size());
     Set<Runnable> environmentsCleaners = new HashSet<>();
-    JParserConfig.Mode.BATCH
-      .create(javaVersion, context.getClasspath())
-      .parse(batchFiles, this::analysisCancelled, analysisProgress, (input, result) -> scanAsBatchCallback(input, result, context, environmentsCleaners));
-    // Due to a bug in ECJ, JAR files remain locked after the analysis on Windows, we unlock them manually, at the end of each batches. See SONARJAVA-3609.
+    JParserConfig config = batchConfig(context.getClasspath());
+    if (analysisLock != null) {
+      config = config.withAnalysisLock(analysisLock);
+    }
+    config.parse(batchFiles, isCanceled, analysisProgress, (input, result) -> {
+      scanAsBatchCallback(input, result, context, environmentsCleaners);
+      afterEachFile.run();
+    });
+    // Releases the environments of the batch: the shared classpath entries are given back for the next batches, JAR files opened by
+    // batches falling back to file by file parsing are unlocked. See SONARJAVA-3609.
     environmentsCleaners.forEach(Runnable::run);
     analysisProgress.endBatch();
   }
 
+  private JParserConfig batchConfig(List<File> classpath) {
+    return batchConfigs.computeIfAbsent(classpath, cp -> JParserConfig.Mode.BATCH.create(javaVersion, cp));
+  }
+
   private static void scanAsBatchCallback(InputFile inputFile, JParserConfig.Result result, BatchModeContext context, Set<Runnable> environmentsCleaners) {
     JavaAstScanner scanner = context.selectScanner(inputFile);
     Duration duration = PerformanceMeasure.start(context.descriptor(inputFile));
@@ -301,7 +555,7 @@ public class JavaFrontend {
   }
 
   static class BatchGenerator {
-    public final long batchSizeInBytes;
+    private long batchSizeInBytes;
     private final Iterator<InputFile> source;
     private InputFile buffer = null;
 
@@ -315,6 +569,17 @@ public class JavaFrontend {
       return buffer != null || source.hasNext();
     }
 
+    public long batchSizeInBytes() {
+      return batchSizeInBytes;
+    }
+
+    /**
+     * Changes the size of the next batches.
+     */
+    public void setBatchSizeInBytes(long batchSizeInBytes) {
+      this.batchSizeInBytes = batchSizeInBytes;
+    }
+
     public List<InputFile> next() {
       List<InputFile> batch = clearBuffer();
       long batchSize = batch.isEmpty() ? 0L : batch.get(0).file().length();
@@ -357,6 +622,26 @@ public class JavaFrontend {
     return sonarComponents != null && sonarComponents.isAutoScan();
   }
 
+  @VisibleForTesting
+  int getParallelism() {
+    return sonarComponents == null ? 1 : sonarComponents.getParallelism();
+  }
+
+  @VisibleForTesting
+  boolean isDependencyAwareBatchingEnabled() {
+    return sonarComponents != null && sonarComponents.isDependencyAwareBatchingEnabled();
+  }
+
+  @VisibleForTesting
+  boolean isAdaptiveBatchSizeEnabled() {
+    return sonarComponents != null && sonarComponents.isAdaptiveBatchSizeEnabled();
+  }
+
+  @VisibleForTesting
+  int getPipelineQueueSize() {
+    return sonarComponents == null ? 0 : sonarComponents.getPipelineQueueSize();
+  }
+
   @VisibleForTesting
   long getBatchModeSizeInKB() {
     return sonarComponents == null ? -1L : sonarComponents.getBatchModeSizeInKB();
@@ -22,8 +22,15 @@ package org.sonar.java;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
@@ -33,78 +40,151 @@ import org.sonar.api.measures.Metric;
 import org.sonar.java.ast.visitors.CognitiveComplexityVisitor;
 import org.sonar.java.ast.visitors.CommentLinesVisitor;
 import org.sonar.java.ast.visitors.LinesOfCodeVisitor;
-import org.sonar.java.ast.visitors.StatementVisitor;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TryStatementTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
 
-public class Measurer extends SubscriptionVisitor {
+public class Measurer extends SubscriptionVisitor implements CacheableVisitor {
+
+  private static final Map<String, Metric<Integer>> FILE_METRICS = Stream.of(
+    CoreMetrics.CLASSES,
+    CoreMetrics.FUNCTIONS,
+    CoreMetrics.COMPLEXITY,
+    CoreMetrics.COMMENT_LINES,
+    CoreMetrics.STATEMENTS,
+    CoreMetrics.NCLOC,
+    CoreMetrics.COGNITIVE_COMPLEXITY)
+    .collect(Collectors.toMap(Metric::key, Function.identity()));
+
+  private static final Tree.Kind[] STATEMENT_KINDS = {
+    Tree.Kind.EMPTY_STATEMENT, Tree.Kind.EXPRESSION_STATEMENT, Tree.Kind.IF_STATEMENT, Tree.Kind.ASSERT_STATEMENT, Tree.Kind.SWITCH_STATEMENT,
+    Tree.Kind.WHILE_STATEMENT, Tree.Kind.DO_STATEMENT, Tree.Kind.FOR_STATEMENT, Tree.Kind.FOR_EACH_STATEMENT, Tree.Kind.BREAK_STATEMENT,
+    Tree.Kind.CONTINUE_STATEMENT, Tree.Kind.RETURN_STATEMENT, Tree.Kind.THROW_STATEMENT, Tree.Kind.SYNCHRONIZED_STATEMENT,
+    Tree.Kind.TRY_STATEMENT};
+
+  private static final Tree.Kind[] CLASS_KINDS = {Tree.Kind.CLASS, Tree.Kind.INTERFACE, Tree.Kind.ENUM, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.RECORD};
 
   private final SensorContext sensorContext;
   private final NoSonarFilter noSonarFilter;
+  private CommentLinesVisitor commentLinesVisitor;
+  private LinesOfCodeVisitor linesOfCodeVisitor;
   private InputFile sonarFile;
   private int methods;
   private final Deque<ClassTree> classTrees = new LinkedList<>();
   private int classes;
+  @Nullable
+  private FileAnalysisRecord fileRecord;
 
   public Measurer(SensorContext context, NoSonarFilter noSonarFilter) {
     this.sensorContext = context;
     this.noSonarFilter = noSonarFilter;
   }
 
-  public class TestFileMeasurer implements JavaFileScanner {
+  public class TestFileMeasurer implements JavaFileScanner, CacheableVisitor {
     @Override
     public void scanFile(JavaFileScannerContext context) {
       sonarFile = context.getInputFile();
       createCommentLineVisitorAndFindNoSonar(context);
     }
+
+    @Override
+    public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+      Measurer.this.fileRecord = fileRecord;
+    }
+
+    @Override
+    public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+      noSonarFilter.noSonarInFile(context.getInputFile(), fileRecord.noSonarLines());
+    }
   }
 
   @Override
   public List<Tree.Kind> nodesToVisit() {
     return Arrays.asList(Tree.Kind.CLASS, Tree.Kind.INTERFACE, Tree.Kind.ENUM, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.RECORD,
         Tree.Kind.NEW_CLASS, Tree.Kind.ENUM_CONSTANT,
-        Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR);
+        Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR,
+        Tree.Kind.TOKEN);
   }
 
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
     sonarFile = context.getInputFile();
-    CommentLinesVisitor commentLinesVisitor = createCommentLineVisitorAndFindNoSonar(context);
     if(isSonarLintContext()) {
       // No need to compute metrics on SonarLint side, but the no sonar filter is still required
+      createCommentLineVisitorAndFindNoSonar(context);
       return;
     }
     classTrees.clear();
     methods = 0;
     classes = 0;
+    commentLinesVisitor = new CommentLinesVisitor();
+    linesOfCodeVisitor = new LinesOfCodeVisitor();
     super.setContext(context);
+    // comment lines and lines of code are computed from the tokens visited in the same pass as classes and methods
     scanTree(context.getTree());
     //leave file.
+    registerNoSonarLines(commentLinesVisitor.noSonarLines());
     int fileComplexity = context.getComplexityNodes(context.getTree()).size();
     saveMetricOnFile(CoreMetrics.CLASSES, classes);
     saveMetricOnFile(CoreMetrics.FUNCTIONS, methods);
     saveMetricOnFile(CoreMetrics.COMPLEXITY, fileComplexity);
     saveMetricOnFile(CoreMetrics.COMMENT_LINES, commentLinesVisitor.commentLinesMetric());
-    saveMetricOnFile(CoreMetrics.STATEMENTS, new StatementVisitor().numberOfStatements(context.getTree()));
-    saveMetricOnFile(CoreMetrics.NCLOC, new LinesOfCodeVisitor().linesOfCode(context.getTree()));
+    saveMetricOnFile(CoreMetrics.STATEMENTS, numberOfStatements(context));
+    saveMetricOnFile(CoreMetrics.NCLOC, linesOfCodeVisitor.linesOfCode());
 
     saveMetricOnFile(CoreMetrics.COGNITIVE_COMPLEXITY, CognitiveComplexityVisitor.compilationUnitComplexity(context.getTree()));
   }
 
+  @Override
+  public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+    this.fileRecord = fileRecord;
+  }
+
+  @Override
+  public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+    noSonarFilter.noSonarInFile(context.getInputFile(), fileRecord.noSonarLines());
+    sonarFile = context.getInputFile();
+    fileRecord.measures().forEach((metricKey, value) -> {
+      Metric<Integer> metric = FILE_METRICS.get(metricKey);
+      if (metric != null) {
+        saveMetricOnFile(metric, value);
+      }
+    });
+  }
+
   private boolean isSonarLintContext() {
     return sensorContext.runtime().getProduct() == SonarProduct.SONARLINT;
   }
 
-  private CommentLinesVisitor createCommentLineVisitorAndFindNoSonar(JavaFileScannerContext context) {
-    CommentLinesVisitor commentLinesVisitor = new CommentLinesVisitor();
-    commentLinesVisitor.analyzeCommentLines(context.getTree());
-    noSonarFilter.noSonarInFile(sonarFile, commentLinesVisitor.noSonarLines());
-    return commentLinesVisitor;
+  private void createCommentLineVisitorAndFindNoSonar(JavaFileScannerContext context) {
+    CommentLinesVisitor noSonarVisitor = new CommentLinesVisitor();
+    noSonarVisitor.analyzeCommentLines(context.getTree());
+    registerNoSonarLines(noSonarVisitor.noSonarLines());
+  }
+
+  private void registerNoSonarLines(Set<Integer> noSonarLines) {
+    noSonarFilter.noSonarInFile(sonarFile, noSonarLines);
+    if (fileRecord != null) {
+      fileRecord.setNoSonarLines(noSonarLines);
+    }
+  }
+
+  @Override
+  public void visitToken(SyntaxToken syntaxToken) {
+    commentLinesVisitor.visitToken(syntaxToken);
+    linesOfCodeVisitor.visitToken(syntaxToken);
   }
 
   @Override
@@ -130,11 +210,67 @@ public class Measurer extends SubscriptionVisitor {
     }
   }
 
+  /**
+   * Statements of the file, looked up in the index of its nodes by kind. Declarations of local variables count as one statement,
+   * whatever the number of variables they declare, unlike the declarations of fields, parameters and variables of for loops.
+   */
+  private static int numberOfStatements(JavaFileScannerContext context) {
+    Tree tree = context.getTree();
+    int statements = 0;
+    for (Tree.Kind kind : STATEMENT_KINDS) {
+      statements += context.getDescendantsOfKind(tree, kind).size();
+    }
+    Set<Tree> variableTypes = new HashSet<>();
+    for (Tree variable : context.getDescendantsOfKind(tree, Tree.Kind.VARIABLE)) {
+      // variables declared together share their type
+      variableTypes.add(((VariableTree) variable).type());
+    }
+    for (Tree forStatement : context.getDescendantsOfKind(tree, Tree.Kind.FOR_STATEMENT)) {
+      statements -= removeVariables(((ForStatementTree) forStatement).initializer(), variableTypes);
+      statements -= removeVariables(((ForStatementTree) forStatement).update(), variableTypes);
+    }
+    for (Tree tryStatement : context.getDescendantsOfKind(tree, Tree.Kind.TRY_STATEMENT)) {
+      statements -= ((TryStatementTree) tryStatement).resourceList().size();
+      statements -= ((TryStatementTree) tryStatement).catches().size();
+    }
+    for (Tree.Kind kind : new Tree.Kind[] {Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR}) {
+      for (Tree method : context.getDescendantsOfKind(tree, kind)) {
+        ((MethodTree) method).parameters().forEach(parameter -> variableTypes.remove(parameter.type()));
+      }
+    }
+    for (Tree.Kind kind : CLASS_KINDS) {
+      for (Tree classTree : context.getDescendantsOfKind(tree, kind)) {
+        ((ClassTree) classTree).members().stream()
+          .filter(member -> member.is(Tree.Kind.VARIABLE))
+          .forEach(member -> variableTypes.remove(((VariableTree) member).type()));
+      }
+    }
+    return statements + variableTypes.size();
+  }
+
+  /**
+   * @return the number of statements which are not declarations of variables
+   */
+  private static int removeVariables(List<StatementTree> statements, Set<Tree> variableTypes) {
+    int otherStatements = 0;
+    for (StatementTree statement : statements) {
+      if (statement.is(Tree.Kind.VARIABLE)) {
+        variableTypes.remove(((VariableTree) statement).type());
+      } else {
+        otherStatements++;
+      }
+    }
+    return otherStatements;
+  }
+
   private static boolean isClassTree(Tree tree) {
-    return tree.is(Tree.Kind.CLASS, Tree.Kind.INTERFACE, Tree.Kind.ENUM, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.RECORD);
+    return tree.is(CLASS_KINDS);
   }
 
   private <T extends Serializable> void saveMetricOnFile(Metric<T> metric, T value) {
     sensorContext.<T>newMeasure().forMetric(metric).on(sonarFile).withValue(value).save();
+    if (fileRecord != null && value instanceof Integer) {
+      fileRecord.addMeasure(metric.key(), (Integer) value);
+    }
   }
 }
@@ -110,6 +110,15 @@ public class ProgressMonitor implements IProgressMonitor, Runnable {
     join();
   }
 
+  /**
+   * Reports the end of batches processed concurrently, whose monitors can not tell which batch ends last.
+   */
+  public static void reportEndOfConcurrentBatches() {
+    Logger logger = Loggers.get(ProgressMonitor.class);
+    logger.info("100% analyzed");
+    logger.info("Batch processing: Done.");
+  }
+
   @Override
   public boolean isCanceled() {
     if (isCanceled.getAsBoolean()) {
@@ -0,0 +1,290 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import org.sonar.api.utils.AnnotationUtils;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.check.Rule;
+import org.sonar.java.annotations.VisibleForTesting;
+
+/**
+ * Per-rule profile of the analysis: invocation count, cumulative wall time, CPU time and allocated bytes of each rule, distribution of
+ * the time spent by each rule on a file (p50 and p99) and slowest file of each rule.
+ *
+ * CPU time and allocated bytes are those of the analysis thread, as reported by the {@link ThreadMXBean}. They are reported as 0 when
+ * the JVM does not support their measurement. Percentiles are approximated with a logarithmic histogram, within 12.5%.
+ */
+public class RuleProfiler {
+
+  private static final Logger LOG = Loggers.get(RuleProfiler.class);
+
+  public static final String REPORT_FILE_NAME = "java-rule-profile.csv";
+
+  private static final Measure NO_MEASURE = () -> {
+  };
+
+  private static final Comparator<RuleStats> ORDER_BY_CPU_TIME_DESCENDING_AND_RULE_ASCENDING = (a, b) -> {
+    int compare = Long.compare(b.cpuNanos, a.cpuNanos);
+    return compare != 0 ? compare : a.rule.compareTo(b.rule);
+  };
+
+  @FunctionalInterface
+  public interface Measure {
+    void stop();
+  }
+
+  private final boolean enabled;
+  private final LongSupplier wallClock;
+  private final LongSupplier cpuClock;
+  private final LongSupplier allocationCounter;
+
+  private final Map<Object, RuleStats> statsByVisitor = new IdentityHashMap<>();
+  private final Map<String, RuleStats> statsByRule = new LinkedHashMap<>();
+  private final List<RuleStats> rulesOfCurrentFile = new ArrayList<>();
+
+  public RuleProfiler(boolean enabled) {
+    this(enabled, System::nanoTime, cpuClock(ManagementFactory.getThreadMXBean()), allocationCounter(ManagementFactory.getThreadMXBean()));
+  }
+
+  @VisibleForTesting
+  RuleProfiler(boolean enabled, LongSupplier wallClock, LongSupplier cpuClock, LongSupplier allocationCounter) {
+    this.enabled = enabled;
+    this.wallClock = wallClock;
+    this.cpuClock = cpuClock;
+    this.allocationCounter = allocationCounter;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts measuring an invocation of the given visitor. Measures of a visitor are reported under the key of its rule, or under the
+   * name of its class when it is not a rule.
+   */
+  public Measure start(Object visitor) {
+    if (!enabled) {
+      return NO_MEASURE;
+    }
+    RuleStats stats = statsByVisitor.computeIfAbsent(visitor, v -> statsByRule.computeIfAbsent(ruleKey(v), RuleStats::new));
+    long wallStart = wallClock.getAsLong();
+    long cpuStart = cpuClock.getAsLong();
+    long allocationStart = allocationCounter.getAsLong();
+    return () -> {
+      long allocated = allocationCounter.getAsLong() - allocationStart;
+      long cpu = cpuClock.getAsLong() - cpuStart;
+      long wall = wallClock.getAsLong() - wallStart;
+      if (stats.fileNanos < 0) {
+        stats.fileNanos = 0;
+        rulesOfCurrentFile.add(stats);
+      }
+      stats.record(wall, cpu, allocated);
+    };
+  }
+
+  /**
+   * Closes the measures of the file which has just been scanned.
+   */
+  public void endFile(String file) {
+    if (!enabled) {
+      return;
+    }
+    rulesOfCurrentFile.forEach(stats -> stats.endFile(file));
+    rulesOfCurrentFile.clear();
+  }
+
+  /**
+   * Writes the profile to {@link #REPORT_FILE_NAME} in the given directory, as CSV, rules being ordered by decreasing CPU time.
+   */
+  public void writeReport(File directory) {
+    if (!enabled || statsByRule.isEmpty()) {
+      return;
+    }
+    Path report = directory.toPath().resolve(REPORT_FILE_NAME);
+    try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+      writer.write(report());
+      LOG.info("Rule profiling report written to {}", report);
+    } catch (IOException e) {
+      LOG.warn("Unable to write the rule profiling report to {}: {}", report, e.getMessage());
+    }
+  }
+
+  @VisibleForTesting
+  String report() {
+    StringBuilder report = new StringBuilder("rule,invocations,files,cpu_ms,allocated_kb,wall_ms,p50_file_ms,p99_file_ms,slowest_file_ms,slowest_file\n");
+    statsByRule.values().stream()
+      .sorted(ORDER_BY_CPU_TIME_DESCENDING_AND_RULE_ASCENDING)
+      .forEach(stats -> report.append(String.format(Locale.ROOT, "%s,%d,%d,%.3f,%d,%.3f,%.3f,%.3f,%.3f,%s\n",
+        csv(stats.rule),
+        stats.invocations,
+        stats.fileCount,
+        millis(stats.cpuNanos),
+        stats.allocatedBytes / 1024,
+        millis(stats.wallNanos),
+        millis(stats.fileLatencies.percentile(0.50)),
+        millis(stats.fileLatencies.percentile(0.99)),
+        millis(stats.slowestFileNanos),
+        csv(stats.slowestFile))));
+    return report.toString();
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  private static String csv(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  private static String ruleKey(Object visitor) {
+    Rule annotation = AnnotationUtils.getAnnotation(visitor.getClass(), Rule.class);
+    if (annotation != null) {
+      return annotation.key();
+    }
+    return visitor.getClass().getName();
+  }
+
+  private static LongSupplier cpuClock(ThreadMXBean threadMXBean) {
+    if (threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled()) {
+      return threadMXBean::getCurrentThreadCpuTime;
+    }
+    return () -> 0L;
+  }
+
+  private static LongSupplier allocationCounter(ThreadMXBean threadMXBean) {
+    if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+      if (sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+        return () -> sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return () -> 0L;
+  }
+
+  private static class RuleStats {
+    private final String rule;
+    private final LatencyHistogram fileLatencies = new LatencyHistogram();
+    private long invocations;
+    private long wallNanos;
+    private long cpuNanos;
+    private long allocatedBytes;
+    private int fileCount;
+    // time spent on the current file, negative when the rule has not been invoked on it yet
+    private long fileNanos = -1;
+    private long slowestFileNanos;
+    private String slowestFile = "";
+
+    RuleStats(String rule) {
+      this.rule = rule;
+    }
+
+    void record(long wall, long cpu, long allocated) {
+      invocations++;
+      wallNanos += wall;
+      cpuNanos += cpu;
+      allocatedBytes += allocated;
+      fileNanos += wall;
+    }
+
+    void endFile(String file) {
+      fileCount++;
+      fileLatencies.add(fileNanos);
+      if (fileNanos > slowestFileNanos) {
+        slowestFileNanos = fileNanos;
+        slowestFile = file;
+      }
+      fileNanos = -1;
+    }
+  }
+
+  /**
+   * Histogram of durations in nanoseconds, with 8 buckets per power of 2.
+   */
+  @VisibleForTesting
+  static class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final int[] counts = new int[64 * SUB_BUCKETS];
+    private long count;
+    private long max;
+
+    void add(long nanos) {
+      long value = Math.max(0L, nanos);
+      counts[bucket(value)]++;
+      count++;
+      max = Math.max(max, value);
+    }
+
+    /**
+     * @return an upper bound of the given percentile (between 0 and 1) of the recorded durations, 0 when nothing was recorded.
+     */
+    long percentile(double percentile) {
+      long rank = Math.max(1L, (long) Math.ceil(percentile * count));
+      long cumulatedCount = 0;
+      for (int bucket = 0; bucket < counts.length; bucket++) {
+        cumulatedCount += counts[bucket];
+        if (cumulatedCount >= rank) {
+          return Math.min(upperBound(bucket), max);
+        }
+      }
+      return max;
+    }
+
+    private static int bucket(long value) {
+      if (value < SUB_BUCKETS) {
+        return (int) value;
+      }
+      int highestBit = 63 - Long.numberOfLeadingZeros(value);
+      int subBucket = (int) ((value >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+      return highestBit * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBound(int bucket) {
+      int highestBit = bucket / SUB_BUCKETS;
+      if (highestBit < SUB_BUCKET_BITS) {
+        return bucket;
+      }
+      long subBucket = (bucket % SUB_BUCKETS) + SUB_BUCKETS + 1L;
+      return (subBucket << (highestBit - SUB_BUCKET_BITS)) - 1;
+    }
+  }
+
+}
@@ -35,11 +35,13 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.LongSupplier;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.ScannerSide;
@@ -60,6 +62,7 @@ import org.sonar.api.utils.Version;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.classpath.ClasspathForMain;
 import org.sonar.java.classpath.ClasspathForTest;
 import org.sonar.java.exceptions.ApiMismatchException;
@@ -86,6 +89,52 @@ public class SonarComponents {
   public static final String SONAR_AUTOSCAN_CHECK_FILTERING = "sonar.internal.analysis.autoscan.filtering";
   public static final String SONAR_BATCH_SIZE_KEY = "sonar.java.experimental.batchModeSizeInKB";
   public static final String SONAR_FILE_BY_FILE = "sonar.java.fileByFile";
+  /**
+   * Number of ECJ batches parsed concurrently. Checks are still executed on one file at a time.
+   * By default (or when set to 1 or less), batches are parsed sequentially.
+   */
+  public static final String SONAR_PARALLELISM_KEY = "sonar.java.experimental.parallelism";
+  /**
+   * Maximum number of converted batches waiting for analysis when parsing and analysis of batches are pipelined.
+   * The trees of these batches are kept in memory until analyzed.
+   * By default (or when set to 0 or less), there is no pipelining. Ignored when batches are parsed in parallel.
+   */
+  public static final String SONAR_PIPELINE_QUEUE_SIZE_KEY = "sonar.java.experimental.pipelineQueueSize";
+  /**
+   * Enables the on-disk cache of analysis results, allowing to replay unchanged files without parsing them.
+   * The cache is stored in the working directory, which therefore has to be kept between analyses.
+   * Only the results of visitors able to replay them are cached (lines, highlighting, symbols, metrics), and issues never are: the cache
+   * is only used when all the other active rules are built-in checks skipped on unchanged files. Symbolic execution rules, for instance,
+   * are never skipped and disable the cache.
+   */
+  public static final String SONAR_ANALYSIS_CACHE_KEY = "sonar.java.experimental.analysisCache";
+  /**
+   * Enables the resizing of the batches during the analysis, depending on the heap consumed by the previous batches.
+   */
+  public static final String SONAR_ADAPTIVE_BATCH_SIZE_KEY = "sonar.java.experimental.adaptiveBatchSize";
+  /**
+   * Enables the ordering of the files before splitting them into batches, keeping packages depending on each other in the same batches.
+   */
+  public static final String SONAR_DEPENDENCY_AWARE_BATCHES_KEY = "sonar.java.experimental.dependencyAwareBatches";
+  /**
+   * Enables the reuse, when analyzing a file, of the method behaviors computed by symbolic execution for the files analyzed before it.
+   * Issues then depend on the order in which files are analyzed.
+   */
+  public static final String SONAR_SHARE_METHOD_BEHAVIORS_KEY = "sonar.java.experimental.shareMethodBehaviors";
+  /**
+   * Enables the persistence, in the working directory, of the method behaviors computed by symbolic execution. Persisted behaviors are
+   * used for methods declared in files analyzed later, until they are computed again, even when the method changed since they were
+   * computed. The working directory has to be kept between analyses. Implies {@link #SONAR_SHARE_METHOD_BEHAVIORS_KEY}.
+   */
+  public static final String SONAR_PERSIST_METHOD_BEHAVIORS_KEY = "sonar.java.experimental.persistMethodBehaviors";
+  /**
+   * Order in which symbolic execution explores the paths of a method: "dfs" (default) or "coverage".
+   */
+  public static final String SONAR_SE_EXPLORATION_STRATEGY_KEY = "sonar.java.experimental.symbolicExecutionStrategy";
+  /**
+   * Enables the measurement of the time and memory spent by each rule, reported at the end of the analysis in the working directory.
+   */
+  public static final String SONAR_RULE_PROFILING_KEY = "sonar.java.experimental.ruleProfiling";
   /**
    * Describes if an optimized analysis of unchanged by skipping some rules is enabled.
    * By default, the property is not set (null), leaving SQ/SC to decide whether to enable this behavior.
@@ -116,6 +165,11 @@ public class SonarComponents {
   private UnaryOperator<List<JavaCheck>> checkFilter = UnaryOperator.identity();
 
   private boolean alreadyLoggedSkipStatus = false;
+  private RuleProfiler ruleProfiler;
+  @Nullable
+  private InputFile recordedFile = null;
+  @Nullable
+  private FileAnalysisRecord issuesRecord = null;
 
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
                          ClasspathForMain javaClasspath, ClasspathForTest javaTestClasspath,
@@ -310,6 +364,61 @@ public class SonarComponents {
       issue.addFlow((InputFile) analyzerMessage.getInputComponent(), analyzerMessage.flows);
     }
     issue.save();
+    recordIssue(key, analyzerMessage, cost);
+  }
+
+  /**
+   * Records the issues reported on the given file into the given record, until the next call. Nothing is recorded when they are null.
+   */
+  public void recordIssuesTo(@Nullable InputFile inputFile, @Nullable FileAnalysisRecord fileRecord) {
+    this.recordedFile = inputFile;
+    this.issuesRecord = fileRecord;
+  }
+
+  /**
+   * Records an issue which has been saved, when it is reported on the file whose issues are recorded.
+   */
+  public void recordIssue(RuleKey key, AnalyzerMessage analyzerMessage, @Nullable Double cost) {
+    if (issuesRecord == null || recordedFile == null || !recordedFile.equals(analyzerMessage.getInputComponent())) {
+      return;
+    }
+    FileAnalysisRecord.Issue issue = new FileAnalysisRecord.Issue(key.toString(), analyzerMessage.getMessage(),
+      range(analyzerMessage.primaryLocation()), cost);
+    for (List<AnalyzerMessage> flow : analyzerMessage.flows) {
+      issue.addFlow(flow.stream()
+        .map(location -> new FileAnalysisRecord.Location(range(location.primaryLocation()), location.getMessage()))
+        .collect(Collectors.toList()));
+    }
+    issuesRecord.addIssue(issue);
+  }
+
+  /**
+   * Saves again the issues recorded when the given file was analyzed for the last time, only for the rules of the given checks.
+   */
+  public void replayIssues(InputFile inputFile, FileAnalysisRecord fileRecord, Map<RuleKey, JavaCheck> checksByRuleKey) {
+    for (FileAnalysisRecord.Issue recordedIssue : fileRecord.issues()) {
+      RuleKey key = RuleKey.parse(recordedIssue.ruleKey());
+      JavaCheck check = checksByRuleKey.get(key);
+      if (check != null) {
+        AnalyzerMessage analyzerMessage = new AnalyzerMessage(check, inputFile, textSpan(recordedIssue.range()), recordedIssue.message(), 0);
+        for (List<FileAnalysisRecord.Location> flow : recordedIssue.flows()) {
+          analyzerMessage.flows.add(flow.stream()
+            .map(location -> new AnalyzerMessage(check, inputFile, textSpan(location.range()), location.message(), 0))
+            .collect(Collectors.toList()));
+        }
+        reportIssue(analyzerMessage, key, inputFile, recordedIssue.cost());
+      }
+    }
+  }
+
+  @CheckForNull
+  private static int[] range(@Nullable AnalyzerMessage.TextSpan textSpan) {
+    return textSpan == null ? null : new int[] {textSpan.startLine, textSpan.startCharacter, textSpan.endLine, textSpan.endCharacter};
+  }
+
+  @CheckForNull
+  private static AnalyzerMessage.TextSpan textSpan(@Nullable int[] range) {
+    return range == null ? null : new AnalyzerMessage.TextSpan(range[0], range[1], range[2], range[3]);
   }
 
   public boolean reportAnalysisError(RecognitionException re, InputFile inputFile) {
@@ -382,6 +491,78 @@ public class SonarComponents {
     return config.getLong(SONAR_BATCH_SIZE_KEY).orElse(computeIdealBatchSize());
   }
 
+  /**
+   * Returns the number of batches that can be parsed concurrently, as read from configuration.
+   * Autoscan analyzes everything as a single batch, there is nothing to parallelize in this case.
+   * @return the parallelism, at least 1.
+   */
+  public int getParallelism() {
+    if (context == null || isAutoScan()) {
+      return 1;
+    }
+    return Math.max(1, context.config().getInt(SONAR_PARALLELISM_KEY).orElse(1));
+  }
+
+  /**
+   * Returns the capacity of the queue between the parsing and the analysis stages, as read from configuration.
+   * @return the queue capacity, or 0 when parsing and analysis are not pipelined.
+   */
+  public int getPipelineQueueSize() {
+    if (context == null || isAutoScan()) {
+      return 0;
+    }
+    return Math.max(0, context.config().getInt(SONAR_PIPELINE_QUEUE_SIZE_KEY).orElse(0));
+  }
+
+  public boolean isAdaptiveBatchSizeEnabled() {
+    return context != null && context.config().getBoolean(SONAR_ADAPTIVE_BATCH_SIZE_KEY).orElse(false);
+  }
+
+  public boolean isDependencyAwareBatchingEnabled() {
+    return context != null && context.config().getBoolean(SONAR_DEPENDENCY_AWARE_BATCHES_KEY).orElse(false);
+  }
+
+  public Optional<String> symbolicExecutionStrategy() {
+    return context == null ? Optional.empty() : context.config().get(SONAR_SE_EXPLORATION_STRATEGY_KEY);
+  }
+
+  public boolean isMethodBehaviorsSharingEnabled() {
+    return isMethodBehaviorsPersistenceEnabled()
+      || (context != null && !isSonarLintContext() && context.config().getBoolean(SONAR_SHARE_METHOD_BEHAVIORS_KEY).orElse(false));
+  }
+
+  public boolean isMethodBehaviorsPersistenceEnabled() {
+    return context != null && !isSonarLintContext() && context.config().getBoolean(SONAR_PERSIST_METHOD_BEHAVIORS_KEY).orElse(false);
+  }
+
+  public boolean isRuleProfilingEnabled() {
+    return context != null && context.config().getBoolean(SONAR_RULE_PROFILING_KEY).orElse(false);
+  }
+
+  /**
+   * @return the profiler shared by the scanners of the main, test and generated files, so that a single report covers the whole analysis.
+   */
+  public RuleProfiler ruleProfiler() {
+    if (ruleProfiler == null) {
+      ruleProfiler = new RuleProfiler(isRuleProfilingEnabled());
+    }
+    return ruleProfiler;
+  }
+
+  public boolean isAnalysisCacheEnabled() {
+    return context != null && !isSonarLintContext() && context.config().getBoolean(SONAR_ANALYSIS_CACHE_KEY).orElse(false);
+  }
+
+  /**
+   * @return a description of the active rules and their parameters, changing as soon as the quality profile changes.
+   */
+  public String activeRulesFingerprint() {
+    return context.activeRules().findAll().stream()
+      .map(activeRule -> activeRule.ruleKey() + new TreeMap<>(activeRule.params()).toString())
+      .sorted()
+      .collect(Collectors.joining(";"));
+  }
+
   private static long computeIdealBatchSize() {
     // We take a fraction of the total memory available though -Xmx.
     // If we assume that the average size of a file is 5KB and the average CI should have 1GB of memory,
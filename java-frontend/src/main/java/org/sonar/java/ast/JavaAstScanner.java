@@ -68,8 +68,9 @@ public class JavaAstScanner {
 
   public void scan(Iterable<? extends InputFile> inputFiles) {
     List<InputFile> filesNames = filterModuleInfo(inputFiles).collect(Collectors.toList());
-    AnalysisProgress analysisProgress = new AnalysisProgress(filesNames.size());
     try {
+      filesNames.removeIf(this::replayFromCache);
+      AnalysisProgress analysisProgress = new AnalysisProgress(filesNames.size());
       JParserConfig.Mode.FILE_BY_FILE
         .create(visitor.getJavaVersion(), visitor.getClasspath())
         .parse(filesNames,
@@ -96,6 +97,13 @@ public class JavaAstScanner {
       });
   }
 
+  /**
+   * @return true when the results of the file have been replayed from the analysis cache, meaning it does not need to be parsed.
+   */
+  public boolean replayFromCache(InputFile inputFile) {
+    return visitor.replayFromCache(inputFile);
+  }
+
   public void endOfAnalysis() {
     visitor.endOfAnalysis();
     logUndefinedTypes();
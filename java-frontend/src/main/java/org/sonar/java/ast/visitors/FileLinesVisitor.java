@@ -24,10 +24,13 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.java.SonarComponents;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.cfg.CFG;
 import org.sonar.java.model.ModifiersUtils;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -69,11 +72,13 @@ import static org.sonar.plugins.java.api.tree.Tree.Kind.WHILE_STATEMENT;
 /**
  * Saves information about lines directly into Sonar by using {@link FileLinesContext}.
  */
-public class FileLinesVisitor extends SubscriptionVisitor {
+public class FileLinesVisitor extends SubscriptionVisitor implements CacheableVisitor {
 
   private final SonarComponents sonarComponents;
   private final Set<Integer> linesOfCode = new HashSet<>();
   private final Set<Integer> executableLines = new HashSet<>();
+  @Nullable
+  private FileAnalysisRecord fileRecord;
 
   public FileLinesVisitor(SonarComponents sonarComponents) {
     this.sonarComponents = sonarComponents;
@@ -93,16 +98,32 @@ public class FileLinesVisitor extends SubscriptionVisitor {
   @Override
   public void scanFile(JavaFileScannerContext context) {
     super.scanFile(context);
-    InputFile currentFile = context.getInputFile();
+    saveLinesData(context.getInputFile(), linesOfCode, executableLines);
+    if (fileRecord != null) {
+      fileRecord.setLinesData(linesOfCode, executableLines);
+    }
+
+    linesOfCode.clear();
+    executableLines.clear();
+  }
+
+  private void saveLinesData(InputFile currentFile, Set<Integer> linesOfCode, Set<Integer> executableLines) {
     FileLinesContext fileLinesContext = sonarComponents.fileLinesContextFor(currentFile);
     for (int line = 1; line <= currentFile.lines(); line++) {
       fileLinesContext.setIntValue(CoreMetrics.NCLOC_DATA_KEY, line, linesOfCode.contains(line) ? 1 : 0);
       fileLinesContext.setIntValue(CoreMetrics.EXECUTABLE_LINES_DATA_KEY, line, executableLines.contains(line) ? 1 : 0);
     }
     fileLinesContext.save();
+  }
 
-    linesOfCode.clear();
-    executableLines.clear();
+  @Override
+  public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+    this.fileRecord = fileRecord;
+  }
+
+  @Override
+  public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+    saveLinesData(context.getInputFile(), fileRecord.linesOfCode(), fileRecord.executableLines());
   }
 
   @Override
@@ -35,6 +35,13 @@ public class LinesOfCodeVisitor extends SubscriptionVisitor{
   public int linesOfCode(Tree tree) {
     lines.clear();
     scanTree(tree);
+    return linesOfCode();
+  }
+
+  /**
+   * @return the lines of code of the tokens given to {@link #visitToken(SyntaxToken)} by another visitor.
+   */
+  public int linesOfCode() {
     return lines.size();
   }
 
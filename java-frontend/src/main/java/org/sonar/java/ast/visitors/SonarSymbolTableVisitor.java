@@ -20,8 +20,10 @@
 package org.sonar.java.ast.visitors;
 
 import java.util.List;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.sensor.symbol.NewSymbol;
 import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.model.JUtils;
 import org.sonar.java.model.declaration.VariableTreeImpl;
 import org.sonar.plugins.java.api.semantic.Symbol;
@@ -42,10 +44,17 @@ import org.sonar.plugins.java.api.tree.VariableTree;
 public class SonarSymbolTableVisitor extends BaseTreeVisitor {
 
   private final NewSymbolTable newSymbolTable;
+  @Nullable
+  private final FileAnalysisRecord fileRecord;
   private CompilationUnitTree outerClass;
 
   public SonarSymbolTableVisitor(NewSymbolTable newSymbolTable) {
+    this(newSymbolTable, null);
+  }
+
+  public SonarSymbolTableVisitor(NewSymbolTable newSymbolTable, @Nullable FileAnalysisRecord fileRecord) {
     this.newSymbolTable = newSymbolTable;
+    this.fileRecord = fileRecord;
   }
 
   @Override
@@ -123,11 +132,28 @@ public class SonarSymbolTableVisitor extends BaseTreeVisitor {
     NewSymbol newSymbol = newSymbolTable.newSymbol(
       range.start().line(), range.start().columnOffset(),
       range.end().line(), range.end().columnOffset());
+    int[] recordedRanges = fileRecord == null ? null : new int[4 * (usages.size() + 1)];
+    record(recordedRanges, 0, range);
+    int index = 1;
     for (IdentifierTree usage : usages) {
       range = usage.identifierToken().range();
       newSymbol.newReference(
         range.start().line(), range.start().columnOffset(),
         range.end().line(), range.end().columnOffset());
+      record(recordedRanges, index, range);
+      index++;
+    }
+    if (recordedRanges != null) {
+      fileRecord.addSymbol(recordedRanges);
+    }
+  }
+
+  private static void record(@Nullable int[] recordedRanges, int index, Range range) {
+    if (recordedRanges != null) {
+      recordedRanges[4 * index] = range.start().line();
+      recordedRanges[4 * index + 1] = range.start().columnOffset();
+      recordedRanges[4 * index + 2] = range.end().line();
+      recordedRanges[4 * index + 3] = range.end().columnOffset();
     }
   }
 
@@ -28,11 +28,14 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
 import org.sonar.api.batch.sensor.highlighting.TypeOfText;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.ast.api.JavaKeyword;
 import org.sonar.java.ast.api.JavaRestrictedKeyword;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.model.ModifiersUtils;
 import org.sonar.java.model.declaration.ClassTreeImpl;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -46,7 +49,7 @@ import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.YieldStatementTree;
 
-public class SyntaxHighlighterVisitor extends SubscriptionVisitor {
+public class SyntaxHighlighterVisitor extends SubscriptionVisitor implements CacheableVisitor {
 
   private final SonarComponents sonarComponents;
   private final Map<Tree.Kind, TypeOfText> typesByKind;
@@ -54,6 +57,8 @@ public class SyntaxHighlighterVisitor extends SubscriptionVisitor {
   private final Set<String> restrictedKeywords;
 
   private NewHighlighting highlighting;
+  @Nullable
+  private FileAnalysisRecord fileRecord;
   private boolean withinModule = false;
 
   public SyntaxHighlighterVisitor(SonarComponents sonarComponents) {
@@ -103,6 +108,23 @@ public class SyntaxHighlighterVisitor extends SubscriptionVisitor {
     highlighting.save();
   }
 
+  @Override
+  public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+    this.fileRecord = fileRecord;
+  }
+
+  @Override
+  public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+    NewHighlighting replayedHighlighting = sonarComponents.highlightableFor(context.getInputFile());
+    List<int[]> ranges = fileRecord.highlightingRanges();
+    List<TypeOfText> types = fileRecord.highlightingTypes();
+    for (int i = 0; i < ranges.size(); i++) {
+      int[] range = ranges.get(i);
+      replayedHighlighting.highlight(range[0], range[1], range[2], range[3], types.get(i));
+    }
+    replayedHighlighting.save();
+  }
+
   @Override
   public void visitNode(Tree tree) {
     switch (tree.kind()) {
@@ -152,9 +174,14 @@ public class SyntaxHighlighterVisitor extends SubscriptionVisitor {
   private void highlight(Tree from, Tree to, TypeOfText typeOfText) {
     Range first = from.firstToken().range();
     Range last = to.lastToken().range();
-    highlighting.highlight(
-      first.start().line(), first.start().columnOffset(),
-      last.end().line(), last.end().columnOffset(), typeOfText);
+    highlight(first.start().line(), first.start().columnOffset(), last.end().line(), last.end().columnOffset(), typeOfText);
+  }
+
+  private void highlight(int startLine, int startLineOffset, int endLine, int endLineOffset, TypeOfText typeOfText) {
+    highlighting.highlight(startLine, startLineOffset, endLine, endLineOffset, typeOfText);
+    if (fileRecord != null) {
+      fileRecord.addHighlighting(startLine, startLineOffset, endLine, endLineOffset, typeOfText);
+    }
   }
 
   @Override
@@ -187,7 +214,7 @@ public class SyntaxHighlighterVisitor extends SubscriptionVisitor {
     Range range = syntaxTrivia.range();
     boolean isJavadoc = syntaxTrivia.comment().startsWith("/**");
     TypeOfText typeOfText = isJavadoc ? TypeOfText.STRUCTURED_COMMENT : TypeOfText.COMMENT;
-    highlighting.highlight(
+    highlight(
       range.start().line(), range.start().columnOffset(),
       range.end().line(), range.end().columnOffset(), typeOfText);
   }
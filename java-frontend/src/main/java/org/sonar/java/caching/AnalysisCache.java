@@ -0,0 +1,94 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.caching;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.annotation.CheckForNull;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * On-disk cache of {@link FileAnalysisRecord}, keyed by the content of the files and a fingerprint of everything
+ * else which can change the results of the analysis (analyzer version, java version, classpath, active rules and their parameters).
+ * Entries of a fingerprint are stored in a directory named after its hash, which is only computed once: entries which are not valid
+ * anymore are never read again, as their directory can not be computed anymore.
+ */
+public class AnalysisCache {
+
+  private static final Logger LOG = Loggers.get(AnalysisCache.class);
+
+  public static final String CACHE_DIRECTORY_NAME = "java-analysis-cache";
+
+  private final Path cacheDirectory;
+  private int hitCount = 0;
+  private int missCount = 0;
+
+  public AnalysisCache(File workDir, String fingerprint) {
+    this.cacheDirectory = workDir.toPath().resolve(CACHE_DIRECTORY_NAME).resolve(CacheUtils.sha256(fingerprint));
+  }
+
+  @CheckForNull
+  public FileAnalysisRecord read(String fileContents) {
+    Path entry = entry(fileContents);
+    if (!Files.isRegularFile(entry)) {
+      missCount++;
+      return null;
+    }
+    try (InputStream inputStream = Files.newInputStream(entry);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream))) {
+      FileAnalysisRecord fileRecord = FileAnalysisRecord.readFrom(in);
+      hitCount++;
+      return fileRecord;
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Unable to read analysis cache entry {}: {}", entry, e.getMessage());
+      missCount++;
+      return null;
+    }
+  }
+
+  public void write(String fileContents, FileAnalysisRecord fileRecord) {
+    Path entry = entry(fileContents);
+    try {
+      CacheUtils.writeAtomically(entry, out -> fileRecord.writeTo(new DataOutputStream(out)));
+    } catch (IOException e) {
+      LOG.debug("Unable to write analysis cache entry {}: {}", entry, e.getMessage());
+    }
+  }
+
+  public int hitCount() {
+    return hitCount;
+  }
+
+  public int missCount() {
+    return missCount;
+  }
+
+  private Path entry(String fileContents) {
+    return cacheDirectory.resolve(CacheUtils.sha256(fileContents));
+  }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.caching;
+
+import javax.annotation.Nullable;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+
+/**
+ * Visitor whose results on a file can be recorded in the {@link AnalysisCache} and replayed later without parsing the file.
+ * A file is only replayed from the cache when all the visitors which would have scanned it are cacheable, or are checks without state
+ * between files: the issues they reported on the file are replayed from the cache as well.
+ */
+public interface CacheableVisitor extends JavaCheck {
+
+  /**
+   * Called before scanning a file.
+   * @param fileRecord where to record the results of the next scanned file, null when results are not recorded.
+   */
+  void recordTo(@Nullable FileAnalysisRecord fileRecord);
+
+  /**
+   * @return false when the results of the visitor on a file also depend on the other files scanned in the same analysis, in which
+   * case no file is replayed from the cache
+   */
+  default boolean canReplay() {
+    return true;
+  }
+
+  /**
+   * Saves again the results recorded when the file was scanned for the last time.
+   * @param context context of the replayed file, its tree is empty and it has no semantic model
+   */
+  void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord);
+
+}
@@ -0,0 +1,356 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.caching;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+
+/**
+ * Results of the cacheable visitors on one file, and issues reported on it by the checks, stored in a compact binary form by the
+ * {@link AnalysisCache}. Text ranges are stored as (start line, start column offset, end line, end column offset).
+ */
+public class FileAnalysisRecord {
+
+  private static final int FORMAT_VERSION = 2;
+
+  private final List<int[]> highlightingRanges = new ArrayList<>();
+  private final List<TypeOfText> highlightingTypes = new ArrayList<>();
+  private final List<int[]> symbols = new ArrayList<>();
+  private final Map<String, Integer> measures = new LinkedHashMap<>();
+  private final Set<Integer> linesOfCode = new LinkedHashSet<>();
+  private final Set<Integer> executableLines = new LinkedHashSet<>();
+  private final Set<Integer> noSonarLines = new LinkedHashSet<>();
+  private final List<String> classNames = new ArrayList<>();
+  private final List<Issue> issues = new ArrayList<>();
+  private final Map<String, List<String>> checkData = new LinkedHashMap<>();
+
+  public void addHighlighting(int startLine, int startLineOffset, int endLine, int endLineOffset, TypeOfText typeOfText) {
+    highlightingRanges.add(new int[] {startLine, startLineOffset, endLine, endLineOffset});
+    highlightingTypes.add(typeOfText);
+  }
+
+  public List<int[]> highlightingRanges() {
+    return Collections.unmodifiableList(highlightingRanges);
+  }
+
+  public List<TypeOfText> highlightingTypes() {
+    return Collections.unmodifiableList(highlightingTypes);
+  }
+
+  /**
+   * @param declarationAndReferences range of the declaration followed by the ranges of the references, 4 values per range
+   */
+  public void addSymbol(int[] declarationAndReferences) {
+    symbols.add(declarationAndReferences);
+  }
+
+  public List<int[]> symbols() {
+    return Collections.unmodifiableList(symbols);
+  }
+
+  public void addMeasure(String metricKey, int value) {
+    measures.put(metricKey, value);
+  }
+
+  public Map<String, Integer> measures() {
+    return Collections.unmodifiableMap(measures);
+  }
+
+  public void setLinesData(Collection<Integer> linesOfCode, Collection<Integer> executableLines) {
+    this.linesOfCode.clear();
+    this.linesOfCode.addAll(linesOfCode);
+    this.executableLines.clear();
+    this.executableLines.addAll(executableLines);
+  }
+
+  public Set<Integer> linesOfCode() {
+    return Collections.unmodifiableSet(linesOfCode);
+  }
+
+  public Set<Integer> executableLines() {
+    return Collections.unmodifiableSet(executableLines);
+  }
+
+  public void setNoSonarLines(Collection<Integer> noSonarLines) {
+    this.noSonarLines.clear();
+    this.noSonarLines.addAll(noSonarLines);
+  }
+
+  public Set<Integer> noSonarLines() {
+    return Collections.unmodifiableSet(noSonarLines);
+  }
+
+  public void addClassNames(Collection<String> classNames) {
+    this.classNames.addAll(classNames);
+  }
+
+  public List<String> classNames() {
+    return Collections.unmodifiableList(classNames);
+  }
+
+  public void addIssue(Issue issue) {
+    issues.add(issue);
+  }
+
+  public List<Issue> issues() {
+    return Collections.unmodifiableList(issues);
+  }
+
+  /**
+   * Adds a value to the data a check needs to replay the file, for checks which keep a state between files.
+   */
+  public void addCheckData(String key, String value) {
+    checkData.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+  }
+
+  public List<String> checkData(String key) {
+    return Collections.unmodifiableList(checkData.getOrDefault(key, Collections.emptyList()));
+  }
+
+  void writeTo(DataOutputStream out) throws IOException {
+    out.writeInt(FORMAT_VERSION);
+    out.writeInt(highlightingRanges.size());
+    for (int i = 0; i < highlightingRanges.size(); i++) {
+      writeInts(out, highlightingRanges.get(i));
+      out.writeUTF(highlightingTypes.get(i).name());
+    }
+    out.writeInt(symbols.size());
+    for (int[] symbol : symbols) {
+      writeInts(out, symbol);
+    }
+    out.writeInt(measures.size());
+    for (Map.Entry<String, Integer> measure : measures.entrySet()) {
+      out.writeUTF(measure.getKey());
+      out.writeInt(measure.getValue());
+    }
+    writeLines(out, linesOfCode);
+    writeLines(out, executableLines);
+    writeLines(out, noSonarLines);
+    out.writeInt(classNames.size());
+    for (String className : classNames) {
+      out.writeUTF(className);
+    }
+    out.writeInt(issues.size());
+    for (Issue issue : issues) {
+      issue.writeTo(out);
+    }
+    out.writeInt(checkData.size());
+    for (Map.Entry<String, List<String>> data : checkData.entrySet()) {
+      out.writeUTF(data.getKey());
+      out.writeInt(data.getValue().size());
+      for (String value : data.getValue()) {
+        out.writeUTF(value);
+      }
+    }
+  }
+
+  static FileAnalysisRecord readFrom(DataInputStream in) throws IOException {
+    int version = in.readInt();
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Unsupported cache format version: " + version);
+    }
+    FileAnalysisRecord fileRecord = new FileAnalysisRecord();
+    int highlightingCount = in.readInt();
+    for (int i = 0; i < highlightingCount; i++) {
+      fileRecord.highlightingRanges.add(readInts(in));
+      fileRecord.highlightingTypes.add(TypeOfText.valueOf(in.readUTF()));
+    }
+    int symbolCount = in.readInt();
+    for (int i = 0; i < symbolCount; i++) {
+      fileRecord.symbols.add(readInts(in));
+    }
+    int measureCount = in.readInt();
+    for (int i = 0; i < measureCount; i++) {
+      fileRecord.measures.put(in.readUTF(), in.readInt());
+    }
+    readLines(in, fileRecord.linesOfCode);
+    readLines(in, fileRecord.executableLines);
+    readLines(in, fileRecord.noSonarLines);
+    int classNameCount = in.readInt();
+    for (int i = 0; i < classNameCount; i++) {
+      fileRecord.classNames.add(in.readUTF());
+    }
+    int issueCount = in.readInt();
+    for (int i = 0; i < issueCount; i++) {
+      fileRecord.issues.add(Issue.readFrom(in));
+    }
+    int checkDataCount = in.readInt();
+    for (int i = 0; i < checkDataCount; i++) {
+      String key = in.readUTF();
+      int valueCount = in.readInt();
+      for (int j = 0; j < valueCount; j++) {
+        fileRecord.addCheckData(key, in.readUTF());
+      }
+    }
+    return fileRecord;
+  }
+
+  private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+    out.writeInt(values.length);
+    for (int value : values) {
+      out.writeInt(value);
+    }
+  }
+
+  private static int[] readInts(DataInputStream in) throws IOException {
+    int[] values = new int[in.readInt()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = in.readInt();
+    }
+    return values;
+  }
+
+  private static void writeLines(DataOutputStream out, Set<Integer> lines) throws IOException {
+    out.writeInt(lines.size());
+    for (Integer line : lines) {
+      out.writeInt(line);
+    }
+  }
+
+  private static void readLines(DataInputStream in, Set<Integer> lines) throws IOException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      lines.add(in.readInt());
+    }
+  }
+
+  /**
+   * Issue reported on the file by a check, with its primary location and its flows. The primary location is null for issues reported
+   * on the file itself, its start column offset is -1 for issues reported on a whole line.
+   */
+  public static class Issue {
+    private final String ruleKey;
+    private final String message;
+    @Nullable
+    private final int[] range;
+    @Nullable
+    private final Double cost;
+    private final List<List<Location>> flows = new ArrayList<>();
+
+    public Issue(String ruleKey, String message, @Nullable int[] range, @Nullable Double cost) {
+      this.ruleKey = ruleKey;
+      this.message = message;
+      this.range = range;
+      this.cost = cost;
+    }
+
+    public void addFlow(List<Location> flow) {
+      flows.add(flow);
+    }
+
+    public String ruleKey() {
+      return ruleKey;
+    }
+
+    public String message() {
+      return message;
+    }
+
+    @CheckForNull
+    public int[] range() {
+      return range;
+    }
+
+    @CheckForNull
+    public Double cost() {
+      return cost;
+    }
+
+    public List<List<Location>> flows() {
+      return Collections.unmodifiableList(flows);
+    }
+
+    private void writeTo(DataOutputStream out) throws IOException {
+      out.writeUTF(ruleKey);
+      out.writeUTF(message);
+      out.writeBoolean(range != null);
+      if (range != null) {
+        writeInts(out, range);
+      }
+      out.writeBoolean(cost != null);
+      if (cost != null) {
+        out.writeDouble(cost);
+      }
+      out.writeInt(flows.size());
+      for (List<Location> flow : flows) {
+        out.writeInt(flow.size());
+        for (Location location : flow) {
+          writeInts(out, location.range);
+          out.writeBoolean(location.message != null);
+          if (location.message != null) {
+            out.writeUTF(location.message);
+          }
+        }
+      }
+    }
+
+    private static Issue readFrom(DataInputStream in) throws IOException {
+      String ruleKey = in.readUTF();
+      String message = in.readUTF();
+      int[] range = in.readBoolean() ? readInts(in) : null;
+      Double cost = in.readBoolean() ? in.readDouble() : null;
+      Issue issue = new Issue(ruleKey, message, range, cost);
+      int flowCount = in.readInt();
+      for (int i = 0; i < flowCount; i++) {
+        int locationCount = in.readInt();
+        List<Location> flow = new ArrayList<>(locationCount);
+        for (int j = 0; j < locationCount; j++) {
+          int[] locationRange = readInts(in);
+          flow.add(new Location(locationRange, in.readBoolean() ? in.readUTF() : null));
+        }
+        issue.flows.add(flow);
+      }
+      return issue;
+    }
+  }
+
+  public static class Location {
+    private final int[] range;
+    @Nullable
+    private final String message;
+
+    public Location(int[] range, @Nullable String message) {
+      this.range = range;
+      this.message = message;
+    }
+
+    public int[] range() {
+      return range;
+    }
+
+    @CheckForNull
+    public String message() {
+      return message;
+    }
+  }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.cfg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Solver of "may" dataflow problems (facts are merged by union) over the blocks of a {@link CFG}, where the facts are elements with
+ * dense indexes, stored as bit vectors. Each block is described by the facts it generates and the facts it kills:
+ * <ul>
+ *   <li>forward problems (reaching definitions, for instance): in = union of the out of the predecessors, out = gen + (in - kill)</li>
+ *   <li>backward problems (live variables, for instance): out = union of the in of the successors and exception successors,
+ *   in = gen + (out - kill)</li>
+ * </ul>
+ * Blocks are processed with a work list, initially in reverse post-order of the direction of the problem, so that most blocks are
+ * processed after the blocks they depend on and the fixpoint is reached in a few passes.
+ */
+public final class BitVectorDataflow {
+
+  public enum Direction {
+    FORWARD,
+    BACKWARD
+  }
+
+  private final Map<CFG.Block, Integer> indexes;
+  private final BitSet[] in;
+  private final BitSet[] out;
+
+  private BitVectorDataflow(Map<CFG.Block, Integer> indexes, BitSet[] in, BitSet[] out) {
+    this.indexes = indexes;
+    this.in = in;
+    this.out = out;
+  }
+
+  /**
+   * Solves the problem defined by the gen and kill sets of each block. The returned sets must not be modified.
+   */
+  public static BitVectorDataflow solve(CFG cfg, Direction direction, Function<CFG.Block, BitSet> gen, Function<CFG.Block, BitSet> kill) {
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    int blockCount = blocks.size();
+    Map<CFG.Block, Integer> indexes = new IdentityHashMap<>(blockCount);
+    for (int i = 0; i < blockCount; i++) {
+      indexes.put(blocks.get(i), i);
+    }
+    BitSet[] genSets = new BitSet[blockCount];
+    BitSet[] killSets = new BitSet[blockCount];
+    BitSet[] in = new BitSet[blockCount];
+    BitSet[] out = new BitSet[blockCount];
+    int[][] dependencies = new int[blockCount][];
+    int[][] dependents = new int[blockCount][];
+    for (int i = 0; i < blockCount; i++) {
+      CFG.Block block = blocks.get(i);
+      genSets[i] = gen.apply(block);
+      killSets[i] = kill.apply(block);
+      in[i] = new BitSet();
+      out[i] = new BitSet();
+      if (direction == Direction.FORWARD) {
+        dependencies[i] = indexesOf(indexes, block.predecessors(), null);
+        dependents[i] = indexesOf(indexes, block.successors(), block.exceptions());
+      } else {
+        dependencies[i] = indexesOf(indexes, block.successors(), block.exceptions());
+        dependents[i] = indexesOf(indexes, block.predecessors(), null);
+      }
+    }
+    // for a forward problem, "in" holds the merged facts and "out" the transferred ones, and conversely for a backward problem
+    BitSet[] merged = direction == Direction.FORWARD ? in : out;
+    BitSet[] transferred = direction == Direction.FORWARD ? out : in;
+
+    Deque<Integer> workList = new ArrayDeque<>(blockCount);
+    boolean[] inWorkList = new boolean[blockCount];
+    for (int index : processingOrder(cfg, direction, indexes)) {
+      workList.addLast(index);
+      inWorkList[index] = true;
+    }
+    while (!workList.isEmpty()) {
+      int index = workList.removeFirst();
+      inWorkList[index] = false;
+
+      BitSet blockMerged = merged[index];
+      for (int dependency : dependencies[index]) {
+        blockMerged.or(transferred[dependency]);
+      }
+      BitSet newTransferred = (BitSet) blockMerged.clone();
+      newTransferred.andNot(killSets[index]);
+      newTransferred.or(genSets[index]);
+      if (newTransferred.equals(transferred[index])) {
+        continue;
+      }
+      transferred[index] = newTransferred;
+      for (int dependent : dependents[index]) {
+        if (!inWorkList[dependent]) {
+          inWorkList[dependent] = true;
+          workList.addLast(dependent);
+        }
+      }
+    }
+    return new BitVectorDataflow(indexes, in, out);
+  }
+
+  @CheckForNull
+  public BitSet in(CFG.Block block) {
+    Integer index = indexes.get(block);
+    return index == null ? null : in[index];
+  }
+
+  @CheckForNull
+  public BitSet out(CFG.Block block) {
+    Integer index = indexes.get(block);
+    return index == null ? null : out[index];
+  }
+
+  private static int[] indexesOf(Map<CFG.Block, Integer> indexes, Collection<CFG.Block> blocks, @Nullable Collection<CFG.Block> otherBlocks) {
+    List<Integer> result = new ArrayList<>(blocks.size());
+    addIndexes(indexes, blocks, result);
+    if (otherBlocks != null) {
+      addIndexes(indexes, otherBlocks, result);
+    }
+    return result.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static void addIndexes(Map<CFG.Block, Integer> indexes, Collection<CFG.Block> blocks, List<Integer> result) {
+    for (CFG.Block block : blocks) {
+      Integer index = indexes.get(block);
+      // blocks outside of the CFG do not contribute any fact
+      if (index != null) {
+        result.add(index);
+      }
+    }
+  }
+
+  /**
+   * Reverse post-order of the blocks reachable from the entry block, following the direction of the problem, then the unreachable
+   * blocks. For a backward problem, this is the post-order of the forward graph.
+   */
+  private static List<Integer> processingOrder(CFG cfg, Direction direction, Map<CFG.Block, Integer> indexes) {
+    int blockCount = indexes.size();
+    List<Integer> postOrder = new ArrayList<>(blockCount);
+    boolean[] visited = new boolean[blockCount];
+    Integer entry = indexes.get(cfg.entryBlock());
+    if (entry != null) {
+      // iterative depth first traversal, to not depend on the stack size for large methods
+      Deque<Frame> stack = new ArrayDeque<>();
+      visited[entry] = true;
+      stack.push(new Frame(entry, cfg.entryBlock()));
+      while (!stack.isEmpty()) {
+        Frame frame = stack.peek();
+        if (frame.successors.hasNext()) {
+          CFG.Block successorBlock = frame.successors.next();
+          Integer successor = indexes.get(successorBlock);
+          if (successor != null && !visited[successor]) {
+            visited[successor] = true;
+            stack.push(new Frame(successor, successorBlock));
+          }
+        } else {
+          stack.pop();
+          postOrder.add(frame.index);
+        }
+      }
+    }
+    List<Integer> order = new ArrayList<>(blockCount);
+    if (direction == Direction.FORWARD) {
+      for (int i = postOrder.size() - 1; i >= 0; i--) {
+        order.add(postOrder.get(i));
+      }
+    } else {
+      order.addAll(postOrder);
+    }
+    for (int i = 0; i < blockCount; i++) {
+      if (!visited[i]) {
+        order.add(i);
+      }
+    }
+    return order;
+  }
+
+  private static class Frame {
+    private final int index;
+    private final Iterator<CFG.Block> successors;
+
+    Frame(int index, CFG.Block block) {
+      this.index = index;
+      List<CFG.Block> forwardSuccessors = new ArrayList<>(block.successors());
+      forwardSuccessors.addAll(block.exceptions());
+      this.successors = forwardSuccessors.iterator();
+    }
+  }
+
+}
@@ -21,6 +21,7 @@ package org.sonar.java.cfg;
 
 import org.sonar.java.Preconditions;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -126,6 +127,13 @@ public class CFG implements ControlFlowGraph {
   private Map<String, Block> labelsBreakTarget = new HashMap<>();
   private Map<String, Block> labelsContinueTarget = new HashMap<>();
 
+  @Nullable
+  private LiveVariables liveVariables;
+  @Nullable
+  private LiveVariables liveVariablesWithFields;
+  @Nullable
+  private Map<Tree, CFGLoop> loops;
+
   private CFG(List<? extends Tree> trees, @Nullable Symbol.MethodSymbol symbol, boolean ignoreBreakAndContinue) {
     methodSymbol = symbol;
     this.ignoreBreakAndContinue = ignoreBreakAndContinue;
@@ -163,6 +171,36 @@ public class CFG implements ControlFlowGraph {
     return blocks;
   }
 
+  /**
+   * @return the live local variables and parameters of this CFG, computed on first call and shared by all its users.
+   */
+  public LiveVariables liveVariables() {
+    if (liveVariables == null) {
+      liveVariables = LiveVariables.analyze(this);
+    }
+    return liveVariables;
+  }
+
+  /**
+   * @return the live local variables, parameters and fields of this CFG, computed on first call and shared by all its users.
+   */
+  public LiveVariables liveVariablesWithFields() {
+    if (liveVariablesWithFields == null) {
+      liveVariablesWithFields = LiveVariables.analyzeWithFields(this);
+    }
+    return liveVariablesWithFields;
+  }
+
+  /**
+   * @return the loops of this CFG by loop statement, computed on first call and shared by all its users.
+   */
+  public Map<Tree, CFGLoop> loops() {
+    if (loops == null) {
+      loops = Collections.unmodifiableMap(CFGLoop.getCFGLoops(this));
+    }
+    return loops;
+  }
+
   public interface IBlock<T> {
     int id();
     List<T> elements();
@@ -20,7 +20,6 @@
 package org.sonar.java.cfg;
 
 import org.sonarsource.analyzer.commons.collections.ListUtils;
-import org.sonarsource.analyzer.commons.collections.SetUtils;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
@@ -35,23 +34,31 @@ import org.sonar.plugins.java.api.tree.VariableTree;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 
 import static org.sonar.java.model.JUtils.isLocalVariable;
 
+/**
+ * Variables which are live (read before being written) at the entry and at the exit of each block of a CFG. Symbols are given dense
+ * indexes and the analysis is solved on bit vectors by {@link BitVectorDataflow}. Sets of symbols are only created for the blocks
+ * which are queried.
+ */
 public class LiveVariables {
 
   private final CFG cfg;
+  private final boolean includeFields;
+  private final List<Symbol> symbols = new ArrayList<>();
+  private final Map<Symbol, Integer> symbolIndexes = new HashMap<>();
   private final Map<CFG.Block, Set<Symbol>> out = new HashMap<>();
   private final Map<CFG.Block, Set<Symbol>> in = new HashMap<>();
-  private final boolean includeFields;
+  private BitVectorDataflow dataflow;
 
   private LiveVariables(CFG cfg, boolean includeFields) {
     this.cfg = cfg;
@@ -59,11 +66,11 @@ public class LiveVariables {
   }
 
   public Set<Symbol> getOut(CFG.Block block) {
-    return out.get(block);
+    return out.computeIfAbsent(block, b -> symbols(dataflow.out(b)));
   }
 
   public Set<Symbol> getIn(CFG.Block block) {
-    return in.get(block);
+    return in.computeIfAbsent(block, b -> symbols(dataflow.in(b)));
   }
 
   /**
@@ -83,48 +90,48 @@ public class LiveVariables {
   private static LiveVariables analyze(CFG cfg, boolean includeFields) {
     LiveVariables liveVariables = new LiveVariables(cfg, includeFields);
     // Generate kill/gen for each block in isolation
-    Map<CFG.Block, Set<Symbol>> kill = new HashMap<>();
-    Map<CFG.Block, Set<Symbol>> gen = new HashMap<>();
+    Map<CFG.Block, BitSet> kill = new HashMap<>();
+    Map<CFG.Block, BitSet> gen = new HashMap<>();
     for (CFG.Block block : liveVariables.cfg.reversedBlocks()) {
       Set<Symbol> blockKill = new HashSet<>();
       Set<Symbol> blockGen = new HashSet<>();
       liveVariables.processBlockElements(block, blockKill, blockGen);
-      kill.put(block, blockKill);
-      gen.put(block, blockGen);
+      kill.put(block, liveVariables.bitSet(blockKill));
+      gen.put(block, liveVariables.bitSet(blockGen));
     }
-    liveVariables.analyzeCFG(liveVariables.in, kill, gen);
+    liveVariables.dataflow = BitVectorDataflow.solve(cfg, BitVectorDataflow.Direction.BACKWARD, gen::get, kill::get);
     // out of exit block are empty by definition.
-    if (!liveVariables.out.get(liveVariables.cfg.reversedBlocks().get(0)).isEmpty()) {
+    if (!liveVariables.dataflow.out(liveVariables.cfg.reversedBlocks().get(0)).isEmpty()) {
       throw new IllegalStateException("Out of exit block should be empty");
     }
-
-    // Make things immutable.
-    for (Map.Entry<CFG.Block, Set<Symbol>> blockSetEntry : liveVariables.out.entrySet()) {
-      blockSetEntry.setValue(Collections.unmodifiableSet(blockSetEntry.getValue()));
-    }
-
     return liveVariables;
   }
 
-  private void analyzeCFG(Map<CFG.Block, Set<Symbol>> in, Map<CFG.Block, Set<Symbol>> kill, Map<CFG.Block, Set<Symbol>> gen) {
-    Deque<CFG.Block> workList = new LinkedList<>();
-    workList.addAll(cfg.reversedBlocks());
-    while (!workList.isEmpty()) {
-      CFG.Block block = workList.removeFirst();
-
-      Set<Symbol> blockOut = out.computeIfAbsent(block, k -> new HashSet<>());
-      block.successors().stream().map(in::get).filter(Objects::nonNull).forEach(blockOut::addAll);
-      block.exceptions().stream().map(in::get).filter(Objects::nonNull).forEach(blockOut::addAll);
-      // in = gen and (out - kill)
-      Set<Symbol> newIn = new HashSet<>(gen.get(block));
-      newIn.addAll(SetUtils.difference(blockOut, kill.get(block)));
+  private BitSet bitSet(Set<Symbol> blockSymbols) {
+    BitSet bitSet = new BitSet();
+    for (Symbol symbol : blockSymbols) {
+      bitSet.set(symbolIndexes.computeIfAbsent(symbol, s -> {
+        symbols.add(s);
+        return symbols.size() - 1;
+      }));
+    }
+    return bitSet;
+  }
 
-      if (newIn.equals(in.get(block))) {
-        continue;
-      }
-      in.put(block, newIn);
-      block.predecessors().forEach(workList::addLast);
+  /**
+   * @return an unmodifiable set, results being shared by all the users of the CFG, or null for blocks which are not part of the CFG.
+   */
+  @CheckForNull
+  private Set<Symbol> symbols(@Nullable BitSet bitSet) {
+    if (bitSet == null) {
+      return null;
+    }
+    if (bitSet.isEmpty()) {
+      return Collections.emptySet();
     }
+    Set<Symbol> result = new HashSet<>(bitSet.cardinality() * 2);
+    bitSet.stream().forEach(index -> result.add(symbols.get(index)));
+    return Collections.unmodifiableSet(result);
   }
 
   private void processBlockElements(CFG.Block block, Set<Symbol> blockKill, Set<Symbol> blockGen) {
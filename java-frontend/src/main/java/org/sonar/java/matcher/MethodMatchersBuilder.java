@@ -21,7 +21,10 @@ package org.sonar.java.matcher;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -51,16 +54,25 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
   @Nullable
   private final Predicate<List<Type>> parametersPredicate;
 
+  /**
+   * Names accepted by the name predicate, or null when the predicate is not restricted to a known set of names.
+   */
+  @Nullable
+  private final Set<String> acceptedNames;
+
   public MethodMatchersBuilder() {
     this.typePredicate = null;
     this.namePredicate = null;
     this.parametersPredicate = null;
+    this.acceptedNames = null;
   }
 
-  private MethodMatchersBuilder(@Nullable Predicate<Type> typePredicate, @Nullable Predicate<String> namePredicate, @Nullable Predicate<List<Type>> parametersPredicate) {
+  private MethodMatchersBuilder(@Nullable Predicate<Type> typePredicate, @Nullable Predicate<String> namePredicate, @Nullable Predicate<List<Type>> parametersPredicate,
+    @Nullable Set<String> acceptedNames) {
     this.typePredicate = typePredicate;
     this.namePredicate = namePredicate;
     this.parametersPredicate = parametersPredicate;
+    this.acceptedNames = acceptedNames;
   }
 
   private static <T> Predicate<T> substituteAny(Predicate<T> predicate, String... elements) {
@@ -112,15 +124,17 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public NameBuilder ofType(Predicate<Type> typePredicate) {
-    return new MethodMatchersBuilder(or(this.typePredicate, typePredicate), namePredicate, parametersPredicate);
+    return new MethodMatchersBuilder(or(this.typePredicate, typePredicate), namePredicate, parametersPredicate, acceptedNames);
   }
 
   @Override
   public ParametersBuilder names(String... names) {
-    return name(substituteAnyAndCreateEfficientPredicate(
+    Predicate<String> predicate = substituteAnyAndCreateEfficientPredicate(
       names,
       name -> name::equals,
-      nameList -> nameList::contains));
+      nameList -> new HashSet<>(nameList)::contains);
+    Set<String> nameSet = new HashSet<>(Arrays.asList(names));
+    return name(predicate, nameSet.contains(ANY) ? null : nameSet);
   }
 
   @Override
@@ -135,7 +149,25 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public ParametersBuilder name(Predicate<String> namePredicate) {
-    return new MethodMatchersBuilder(typePredicate, or(this.namePredicate, namePredicate), parametersPredicate);
+    return name(namePredicate, null);
+  }
+
+  private ParametersBuilder name(Predicate<String> namePredicate, @Nullable Set<String> names) {
+    Set<String> newAcceptedNames = null;
+    if (names != null && (this.namePredicate == null || acceptedNames != null)) {
+      newAcceptedNames = new HashSet<>(names);
+      if (acceptedNames != null) {
+        newAcceptedNames.addAll(acceptedNames);
+      }
+    }
+    return new MethodMatchersBuilder(typePredicate, or(this.namePredicate, namePredicate), parametersPredicate, newAcceptedNames);
+  }
+
+  /**
+   * @return the names of the methods this matcher can match, or empty when any name can be matched.
+   */
+  Optional<Set<String>> acceptedNames() {
+    return Optional.ofNullable(acceptedNames).map(Collections::unmodifiableSet);
   }
 
   @Override
@@ -164,7 +196,7 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public ParametersBuilder addParametersMatcher(Predicate<List<Type>> parametersPredicate) {
-    return new MethodMatchersBuilder(typePredicate, namePredicate, or(this.parametersPredicate, parametersPredicate));
+    return new MethodMatchersBuilder(typePredicate, namePredicate, or(this.parametersPredicate, parametersPredicate), acceptedNames);
   }
 
   private static boolean exactMatchesParameters(List<Predicate<Type>> expectedTypes, List<Type> actualTypes) {
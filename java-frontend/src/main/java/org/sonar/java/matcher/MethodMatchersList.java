@@ -20,7 +20,14 @@
 package org.sonar.java.matcher;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.sonar.java.model.ExpressionUtils;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
@@ -28,37 +35,76 @@ import org.sonar.plugins.java.api.tree.MethodReferenceTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.NewClassTree;
 
+/**
+ * Combination of method matchers, matching when one of them matches.
+ *
+ * Matchers only accepting a known set of method names are indexed by name: for a given method, only the matchers accepting its name
+ * and the matchers accepting any name are tested.
+ */
 public class MethodMatchersList implements MethodMatchers {
 
-  private List<? extends MethodMatchers> matchers;
+  private final Map<String, List<MethodMatchers>> matchersByName = new HashMap<>();
+  private final List<MethodMatchers> matchersOfAnyName = new ArrayList<>();
 
   public MethodMatchersList(List<? extends MethodMatchers> matchers) {
-    this.matchers = new ArrayList<>(matchers);
+    matchers.forEach(this::add);
+  }
+
+  private void add(MethodMatchers matcher) {
+    if (matcher instanceof MethodMatchersList) {
+      MethodMatchersList list = (MethodMatchersList) matcher;
+      list.matchersByName.forEach((name, nameMatchers) -> matchersByName.computeIfAbsent(name, k -> new ArrayList<>()).addAll(nameMatchers));
+      matchersOfAnyName.addAll(list.matchersOfAnyName);
+      return;
+    }
+    if (matcher instanceof NoneMethodMatchers) {
+      return;
+    }
+    Optional<Set<String>> acceptedNames = matcher instanceof MethodMatchersBuilder ? ((MethodMatchersBuilder) matcher).acceptedNames() : Optional.empty();
+    if (acceptedNames.isPresent()) {
+      acceptedNames.get().forEach(name -> matchersByName.computeIfAbsent(name, k -> new ArrayList<>()).add(matcher));
+    } else {
+      matchersOfAnyName.add(matcher);
+    }
+  }
+
+  private boolean anyMatch(String name, Predicate<MethodMatchers> predicate) {
+    for (MethodMatchers matcher : matchersByName.getOrDefault(name, Collections.emptyList())) {
+      if (predicate.test(matcher)) {
+        return true;
+      }
+    }
+    for (MethodMatchers matcher : matchersOfAnyName) {
+      if (predicate.test(matcher)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
   public boolean matches(NewClassTree newClassTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(newClassTree));
+    return anyMatch(newClassTree.constructorSymbol().name(), matcher -> matcher.matches(newClassTree));
   }
 
   @Override
   public boolean matches(MethodInvocationTree mit) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(mit));
+    return anyMatch(ExpressionUtils.methodName(mit).symbol().name(), matcher -> matcher.matches(mit));
   }
 
   @Override
   public boolean matches(MethodTree methodTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(methodTree));
+    return anyMatch(methodTree.symbol().name(), matcher -> matcher.matches(methodTree));
   }
 
   @Override
   public boolean matches(MethodReferenceTree methodReferenceTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(methodReferenceTree));
+    return anyMatch(methodReferenceTree.method().symbol().name(), matcher -> matcher.matches(methodReferenceTree));
   }
 
   @Override
   public boolean matches(Symbol symbol) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(symbol));
+    return anyMatch(symbol.name(), matcher -> matcher.matches(symbol));
   }
 
 }
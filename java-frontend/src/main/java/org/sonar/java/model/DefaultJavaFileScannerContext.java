@@ -266,6 +266,11 @@ public class DefaultJavaFileScannerContext implements JavaFileScannerContext, Re
     return complexityVisitor.getNodes(tree);
   }
 
+  @Override
+  public List<Tree> getDescendantsOfKind(Tree tree, Tree.Kind kind) {
+    return this.tree.kindIndex().descendantsOfKind(tree, kind);
+  }
+
   protected static void throwIfEndOfAnalysisCheck(JavaCheck javaCheck) {
     if (javaCheck instanceof EndOfAnalysisCheck) {
       throw new UnsupportedOperationException("EndOfAnalysisCheck must only call reportIssue with AnalyzerMessage and must never pass a Tree reference.");
@@ -29,6 +29,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -68,30 +69,107 @@ public class GeneratedFile implements InputFile {
     smapFiles.add(smap);
   }
 
+  /**
+   * Lines of the generated file are mapped to lines of the source files by ranges of consecutive generated lines having the same mapping.
+   * Ranges are stored in arrays sorted by first generated line, and looked up by binary search.
+   */
   class SourceMapImpl implements SourceMap {
 
-    final Map<Integer, Location> lines = new HashMap<>();
+    private final InputFile[] sourceFiles;
+    // range i maps generated lines rangeStarts[i] to rangeEnds[i] to lines sourceStartLines[i] to sourceEndLines[i]
+    // of sourceFiles[sourceFileIndexes[i]]
+    private final int[] rangeStarts;
+    private final int[] rangeEnds;
+    private final int[] sourceFileIndexes;
+    private final int[] sourceStartLines;
+    private final int[] sourceEndLines;
 
     private SourceMapImpl() {
+      List<InputFile> files = new ArrayList<>();
+      Map<InputFile, Integer> fileIndexes = new HashMap<>();
+      int mappingCount = 0;
       for (SmapFile sm : smapFiles) {
         for (SmapFile.LineInfo lineInfo : sm.getLineSection()) {
-          sm.getInputFile(lineInfo.lineFileId).ifPresent(inputFile -> processLineInfo(inputFile, lineInfo));
+          if (sm.getInputFile(lineInfo.lineFileId).isPresent()) {
+            mappingCount += lineInfo.repeatCount * max(1, lineInfo.outputLineIncrement);
+          }
         }
       }
+      // each mapping of a generated line to a source line is sorted by generated line, then by order of declaration
+      long[] mappings = new long[mappingCount];
+      int[] mappedFiles = new int[mappingCount];
+      int[] mappedLines = new int[mappingCount];
+      int mapping = 0;
+      for (SmapFile sm : smapFiles) {
+        for (SmapFile.LineInfo lineInfo : sm.getLineSection()) {
+          Optional<InputFile> inputFile = sm.getInputFile(lineInfo.lineFileId);
+          if (inputFile.isPresent()) {
+            int fileIndex = fileIndexes.computeIfAbsent(inputFile.get(), file -> {
+              files.add(file);
+              return files.size() - 1;
+            });
+            mapping = addMappings(lineInfo, fileIndex, mapping, mappings, mappedFiles, mappedLines);
+          }
+        }
+      }
+      Arrays.sort(mappings);
+
+      sourceFiles = files.toArray(new InputFile[0]);
+      int[] starts = new int[mappingCount];
+      int[] ends = new int[mappingCount];
+      int[] fileIndexesOfRanges = new int[mappingCount];
+      int[] startLines = new int[mappingCount];
+      int[] endLines = new int[mappingCount];
+      int rangeCount = 0;
+      int i = 0;
+      while (i < mappingCount) {
+        int line = (int) (mappings[i] >>> 32);
+        // the first mapping of a line gives the source file, all of them give the source lines
+        int first = (int) mappings[i];
+        int fileIndex = mappedFiles[first];
+        int startLine = mappedLines[first];
+        int endLine = startLine;
+        for (i++; i < mappingCount && (int) (mappings[i] >>> 32) == line; i++) {
+          int other = (int) mappings[i];
+          startLine = min(startLine, mappedLines[other]);
+          endLine = max(endLine, mappedLines[other]);
+        }
+        int last = rangeCount - 1;
+        if (last >= 0 && ends[last] == line - 1
+          && fileIndexesOfRanges[last] == fileIndex && startLines[last] == startLine && endLines[last] == endLine) {
+          ends[last] = line;
+        } else {
+          starts[rangeCount] = line;
+          ends[rangeCount] = line;
+          fileIndexesOfRanges[rangeCount] = fileIndex;
+          startLines[rangeCount] = startLine;
+          endLines[rangeCount] = endLine;
+          rangeCount++;
+        }
+      }
+      rangeStarts = Arrays.copyOf(starts, rangeCount);
+      rangeEnds = Arrays.copyOf(ends, rangeCount);
+      sourceFileIndexes = Arrays.copyOf(fileIndexesOfRanges, rangeCount);
+      sourceStartLines = Arrays.copyOf(startLines, rangeCount);
+      sourceEndLines = Arrays.copyOf(endLines, rangeCount);
     }
 
-    private void processLineInfo(InputFile inputFile, SmapFile.LineInfo lineInfo) {
+    private int addMappings(SmapFile.LineInfo lineInfo, int fileIndex, int firstMapping, long[] mappings, int[] mappedFiles, int[] mappedLines) {
+      int mapping = firstMapping;
       for (int i = 0; i < lineInfo.repeatCount; i++) {
         int inputLine = lineInfo.inputStartLine + i;
-        LocationImpl location = new LocationImpl(inputFile, inputLine, inputLine);
         int outputStart = lineInfo.outputStartLine + (i * lineInfo.outputLineIncrement);
         int outputEnd = lineInfo.outputStartLine + ((i + 1) * lineInfo.outputLineIncrement) - 1;
         // when outputLineIncrement == 0, end will be less than start (looks like bug in spec)
         outputEnd = max(outputStart, outputEnd);
         for (int j = outputStart; j <= outputEnd; j++) {
-          lines.merge(j, location, LocationImpl::mergeLocations);
+          mappings[mapping] = ((long) j << 32) | mapping;
+          mappedFiles[mapping] = fileIndex;
+          mappedLines[mapping] = inputLine;
+          mapping++;
         }
       }
+      return mapping;
     }
 
     @Override
@@ -101,12 +179,30 @@ public class GeneratedFile implements InputFile {
 
     @VisibleForTesting
     Optional<Location> getLocation(int startLine, int endLine) {
-      Location startLoc = lines.get(startLine);
-      Location endLoc = lines.get(endLine);
-      if (startLoc == null || endLoc == null) {
+      int startRange = rangeOf(startLine);
+      int endRange = rangeOf(endLine);
+      if (startRange < 0 || endRange < 0) {
         return Optional.empty();
       }
-      return Optional.of(new LocationImpl(startLoc.file(), startLoc.startLine(), endLoc.endLine()));
+      InputFile file = sourceFiles[sourceFileIndexes[startRange]];
+      return Optional.of(new LocationImpl(file, sourceStartLines[startRange], sourceEndLines[endRange]));
+    }
+
+    @VisibleForTesting
+    int rangeCount() {
+      return rangeStarts.length;
+    }
+
+    /**
+     * @return the index of the range containing the given generated line, -1 when the line is not mapped
+     */
+    private int rangeOf(int line) {
+      int index = Arrays.binarySearch(rangeStarts, line);
+      if (index < 0) {
+        // index of the last range starting before the line
+        index = -index - 2;
+      }
+      return index >= 0 && line <= rangeEnds[index] ? index : -1;
     }
   }
 
@@ -137,12 +233,6 @@ public class GeneratedFile implements InputFile {
     public int endLine() {
       return endLine;
     }
-
-    private static Location mergeLocations(Location loc1, Location loc2) {
-      return new LocationImpl(loc1.file(),
-        min(loc1.startLine(), loc2.startLine()),
-        max(loc1.endLine(), loc2.endLine()));
-    }
   }
 
   @Override
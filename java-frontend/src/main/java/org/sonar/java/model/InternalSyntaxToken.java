@@ -21,38 +21,43 @@ package org.sonar.java.model;
 
 import java.util.List;
 import org.sonar.java.model.location.InternalPosition;
+import org.sonar.plugins.java.api.location.Position;
 import org.sonar.plugins.java.api.location.Range;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.TreeVisitor;
 
+/**
+ * Tokens only store their start position and their text. Their range is computed each time it is requested, instead of keeping a range
+ * and its end position alive for every token of the file.
+ */
 public class InternalSyntaxToken extends JavaTree implements SyntaxToken {
 
   private final List<SyntaxTrivia> trivias;
-  private final Range range;
+  private final Position start;
   private final String value;
   private final boolean isEOF;
 
   protected InternalSyntaxToken(InternalSyntaxToken internalSyntaxToken) {
     this.value = internalSyntaxToken.value;
-    this.range = internalSyntaxToken.range;
+    this.start = internalSyntaxToken.start;
     this.trivias = internalSyntaxToken.trivias;
     this.isEOF = internalSyntaxToken.isEOF;
   }
 
   public InternalSyntaxToken(int line, int columnOffset, String value, List<SyntaxTrivia> trivias, boolean isEOF) {
+    this.start = InternalPosition.atOffset(line, columnOffset);
     this.value = value;
     this.trivias = trivias;
     this.isEOF = isEOF;
-    range = value.startsWith("\"\"\"")
-      ? Range.at(InternalPosition.atOffset(line, columnOffset), value)
-      : Range.at(InternalPosition.atOffset(line, columnOffset), value.length());
   }
 
   @Override
   public Range range() {
-    return range;
+    return value.startsWith("\"\"\"")
+      ? Range.at(start, value)
+      : Range.at(start, value.length());
   }
 
   @Override
@@ -82,17 +87,17 @@ public class InternalSyntaxToken extends JavaTree implements SyntaxToken {
 
   @Override
   public int getLine() {
-    return range.start().line();
+    return start.line();
   }
 
   @Override
   public int line() {
-    return range.start().line();
+    return start.line();
   }
 
   @Override
   public int column() {
-    return range.start().columnOffset();
+    return start.columnOffset();
   }
 
   @Override
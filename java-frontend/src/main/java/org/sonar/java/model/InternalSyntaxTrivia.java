@@ -22,6 +22,7 @@ package org.sonar.java.model;
 import java.util.List;
 import javax.annotation.Nonnull;
 import org.sonar.java.model.location.InternalPosition;
+import org.sonar.plugins.java.api.location.Position;
 import org.sonar.plugins.java.api.location.Range;
 import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
@@ -30,15 +31,11 @@ import org.sonar.plugins.java.api.tree.TreeVisitor;
 public class InternalSyntaxTrivia extends JavaTree implements SyntaxTrivia {
 
   private final String comment;
-
-  @Nonnull
-  private final Range range;
+  private final Position start;
 
   public InternalSyntaxTrivia(String comment, int line, int columnOffset) {
     this.comment = comment;
-    range = comment.startsWith("/*")
-      ? Range.at(InternalPosition.atOffset(line, columnOffset), comment)
-      : Range.at(InternalPosition.atOffset(line, columnOffset), comment.length());
+    this.start = InternalPosition.atOffset(line, columnOffset);
   }
 
   @Override
@@ -48,7 +45,7 @@ public class InternalSyntaxTrivia extends JavaTree implements SyntaxTrivia {
 
   @Override
   public int startLine() {
-    return range.start().line();
+    return start.line();
   }
 
   @Override
@@ -77,18 +74,20 @@ public class InternalSyntaxTrivia extends JavaTree implements SyntaxTrivia {
 
   @Override
   public int getLine() {
-    return range.start().line();
+    return start.line();
   }
 
   @Override
   public int column() {
-    return range.start().columnOffset();
+    return start.columnOffset();
   }
 
   @Nonnull
   @Override
   public Range range() {
-    return range;
+    return comment.startsWith("/*")
+      ? Range.at(start, comment)
+      : Range.at(start, comment.length());
   }
 
 }
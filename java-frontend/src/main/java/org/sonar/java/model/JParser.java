@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -195,16 +196,23 @@ public class JParser {
 
     ASTUtils.mayTolerateMissingType(astNode.getAST());
 
-    setParents(tree);
+    // the nodes are indexed by kind in the same pass as their parents are set
+    TreeKindIndex.Builder kindIndex = new TreeKindIndex.Builder();
+    int rootPosition = kindIndex.enter(tree);
+    setParents(tree, kindIndex);
+    kindIndex.exit(rootPosition);
+    tree.setKindIndex(kindIndex.build());
     return tree;
   }
 
-  private static void setParents(Tree node) {
+  private static void setParents(Tree node, TreeKindIndex.Builder kindIndex) {
     Iterator<Tree> childrenIterator = iteratorFor(node);
     while (childrenIterator.hasNext()) {
-      Tree child = childrenIterator.next();
-      ((JavaTree) child).setParent(node);
-      setParents(child);
+      JavaTree child = (JavaTree) childrenIterator.next();
+      child.setParent(node);
+      int position = kindIndex.enter(child);
+      setParents(child, kindIndex);
+      kindIndex.exit(position);
     }
   }
 
@@ -248,6 +256,12 @@ public class JParser {
 
   private TokenManager tokenManager;
 
+  /**
+   * Texts of the tokens already converted, so that the tokens with the same text (keywords, operators, repeated identifiers) share
+   * a single string instead of one copy each.
+   */
+  private final Map<String, String> tokenTexts = new HashMap<>();
+
   private JSema sema;
 
   private final Deque<JLabelSymbol> labels = new LinkedList<>();
@@ -348,7 +362,7 @@ public class JParser {
     return new InternalSyntaxToken(
       compilationUnit.getLineNumber(t.originalStart),
       compilationUnit.getColumnNumber(t.originalStart),
-      t.toString(tokenManager.getSource()),
+      tokenTexts.computeIfAbsent(t.toString(tokenManager.getSource()), Function.identity()),
       collectComments(tokenIndex),
       false
     );
@@ -373,7 +387,10 @@ public class JParser {
     while (commentIndex > 0 && tokenManager.get(commentIndex - 1).isComment()) {
       commentIndex--;
     }
-    List<SyntaxTrivia> comments = new ArrayList<>();
+    if (commentIndex == tokenIndex) {
+      return Collections.emptyList();
+    }
+    List<SyntaxTrivia> comments = new ArrayList<>(tokenIndex - commentIndex);
     for (int i = commentIndex; i < tokenIndex; i++) {
       Token t = tokenManager.get(i);
       comments.add(new InternalSyntaxTrivia(
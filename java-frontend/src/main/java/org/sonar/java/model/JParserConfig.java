@@ -22,21 +22,25 @@ package org.sonar.java.model;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ClasspathEnvironment;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.FileASTRequestor;
 import org.sonar.api.batch.fs.InputFile;
@@ -61,10 +65,31 @@ public abstract class JParserConfig {
 
   final JavaVersion javaVersion;
   final List<File> classpath;
+  /**
+   * Compiler options and classpath entries only depend on the java version and the classpath. They are computed once and shared by all the
+   * parsers created from this configuration, which can be reused for all the batches of the analysis.
+   */
+  private final Map<String, String> compilerOptions;
+  private final String[] classpathEntries;
+  private final boolean includeRunningVMBootclasspath;
 
   private JParserConfig(JavaVersion javaVersion, List<File> classpath) {
     this.javaVersion = javaVersion;
     this.classpath = classpath;
+    this.compilerOptions = compilerOptions(javaVersion);
+    this.classpathEntries = classpath.stream()
+      .map(File::getAbsolutePath)
+      .toArray(String[]::new);
+    this.includeRunningVMBootclasspath = classpath.stream()
+      .noneMatch(f -> JRE_JARS.contains(f.getName()));
+  }
+
+  private JParserConfig(JParserConfig other) {
+    this.javaVersion = other.javaVersion;
+    this.classpath = other.classpath;
+    this.compilerOptions = other.compilerOptions;
+    this.classpathEntries = other.classpathEntries;
+    this.includeRunningVMBootclasspath = other.includeRunningVMBootclasspath;
   }
 
   public abstract void parse(Iterable<? extends InputFile> inputFiles, BooleanSupplier isCanceled,
@@ -107,8 +132,49 @@ public abstract class JParserConfig {
     }
   }
 
+  /**
+   * Parsers able to run concurrently with other parsers return a copy of this configuration, using the given lock to serialize
+   * the analysis of the converted compilation units. Other parsers ignore it.
+   */
+  public JParserConfig withAnalysisLock(Object analysisLock) {
+    return this;
+  }
+
+  /**
+   * Parsers able to run outside of the analysis thread return a copy of this configuration which does not record any performance
+   * measure, PerformanceMeasure not being thread-safe. Other parsers ignore it.
+   */
+  public JParserConfig withoutPerformanceMeasures() {
+    return this;
+  }
+
+  /**
+   * Releases the resources kept between batches, once all the files parsed with this configuration and its copies have been analyzed.
+   */
+  public void close() {
+    // nothing is kept between files by default
+  }
+
+  Map<String, String> compilerOptions() {
+    return new HashMap<>(compilerOptions);
+  }
+
+  ClasspathEnvironment classpathEnvironment() {
+    return new ClasspathEnvironment(classpathEntries, includeRunningVMBootclasspath);
+  }
+
   public ASTParser astParser() {
     ASTParser astParser = ASTParser.newParser(AST.getJLSLatest());
+    astParser.setCompilerOptions(compilerOptions());
+    astParser.setEnvironment(classpathEntries.clone(), new String[] {}, new String[] {}, includeRunningVMBootclasspath);
+
+    astParser.setResolveBindings(true);
+    astParser.setBindingsRecovery(true);
+
+    return astParser;
+  }
+
+  private static Map<String, String> compilerOptions(JavaVersion javaVersion) {
     Map<String, String> options = new HashMap<>();
     options.put(JavaCore.COMPILER_COMPLIANCE, javaVersion.effectiveJavaVersionAsString());
     options.put(JavaCore.COMPILER_SOURCE, javaVersion.effectiveJavaVersionAsString());
@@ -119,27 +185,61 @@ public abstract class JParserConfig {
     // enabling all supported compiler warnings
     JProblem.Type.compilerOptions()
       .forEach(option -> options.put(option, "warning"));
-
-    astParser.setCompilerOptions(options);
-
-    boolean includeRunningVMBootclasspath = classpath.stream()
-      .noneMatch(f -> JRE_JARS.contains(f.getName()));
-
-    astParser.setEnvironment(classpath.stream()
-      .map(File::getAbsolutePath)
-      .toArray(String[]::new), new String[] {}, new String[] {}, includeRunningVMBootclasspath);
-
-    astParser.setResolveBindings(true);
-    astParser.setBindingsRecovery(true);
-
-    return astParser;
+    return Collections.unmodifiableMap(options);
   }
 
   @VisibleForTesting
   static class Batch extends JParserConfig {
 
+    /**
+     * Lock shared by all the batches parsed concurrently, null when batches are parsed sequentially.
+     * Conversion and analysis of a compilation unit are done while holding it, so ECJ resolution of one batch
+     * overlaps with the analysis of the others while checks keep being executed one file at a time.
+     */
+    @Nullable
+    private final Object analysisLock;
+    /**
+     * False when the batch is parsed outside of the analysis thread, where nothing can be measured.
+     */
+    private final boolean measured;
+    /**
+     * Classpath entries shared by all the batches parsed with this configuration and its copies, so that the JAR files of the classpath
+     * are opened and indexed once instead of once per batch. Each batch leases entries until all its files have been analyzed: the lease
+     * replaces the environment cleaner of its ASTs. JAR files are only released when the configuration is closed (SONARJAVA-3609).
+     */
+    private final ClasspathEnvironment environment;
+
     Batch(JavaVersion javaVersion, List<File> classpath) {
       super(javaVersion, classpath);
+      this.analysisLock = null;
+      this.measured = true;
+      this.environment = classpathEnvironment();
+    }
+
+    private Batch(Batch other, @Nullable Object analysisLock, boolean measured) {
+      super(other);
+      this.analysisLock = analysisLock;
+      this.measured = measured;
+      this.environment = other.environment;
+    }
+
+    @Override
+    public void close() {
+      environment.close();
+    }
+
+    @Override
+    public JParserConfig withAnalysisLock(Object analysisLock) {
+      return new Batch(this, analysisLock, measured);
+    }
+
+    @Override
+    public JParserConfig withoutPerformanceMeasures() {
+      return new Batch(this, analysisLock, false);
+    }
+
+    private PerformanceMeasure.Duration measure(String name) {
+      return measured ? PerformanceMeasure.start(name) : PerformanceMeasure.IgnoredDuration.INSTANCE;
     }
 
     @Override
@@ -157,27 +257,43 @@ public abstract class JParserConfig {
         encodings.add(inputFile.charset().name());
       }
 
-      PerformanceMeasure.Duration batchPerformance = PerformanceMeasure.start("ParseAsBatch");
+      // PerformanceMeasure is not thread-safe, the parallel mode only measures the conversion and analysis of each file
+      PerformanceMeasure.Duration batchPerformance = analysisLock == null ? measure("ParseAsBatch") : null;
       ExecutionTimeReport executionTimeReport = new ExecutionTimeReport();
       ProgressMonitor monitor = new ProgressMonitor(isCanceled, analysisProgress);
+      ClasspathEnvironment.Lease lease = environment.lease();
+      AtomicBoolean leasedByAnAst = new AtomicBoolean(false);
 
       try {
-        astParser().createASTs(sourceFilePaths.toArray(new String[0]), encodings.toArray(new String[0]), new String[0], new FileASTRequestor() {
+        createASTs(lease, sourceFilePaths.toArray(new String[0]), encodings.toArray(new String[0]), new FileASTRequestor() {
           @Override
           public void acceptAST(String sourceFilePath, CompilationUnit ast) {
-            PerformanceMeasure.Duration convertDuration = PerformanceMeasure.start("Convert");
+            if (analysisLock == null) {
+              convertAndAnalyze(sourceFilePath, ast);
+            } else {
+              synchronized (analysisLock) {
+                convertAndAnalyze(sourceFilePath, ast);
+              }
+            }
+          }
+
+          private void convertAndAnalyze(String sourceFilePath, CompilationUnit ast) {
+            PerformanceMeasure.Duration convertDuration = measure("Convert");
             analyzedSourceFilePaths.add(sourceFilePath);
 
             InputFile inputFile = inputs.get(new File(sourceFilePath));
             executionTimeReport.start(inputFile);
             Result result;
             try {
-              result = new Result(JParser.convert(javaVersion.effectiveJavaVersionAsString(), inputFile.filename(), inputFile.contents(), ast));
+              JavaTree.CompilationUnitTreeImpl tree = JParser.convert(javaVersion.effectiveJavaVersionAsString(), inputFile.filename(), inputFile.contents(), ast);
+              tree.sema.setEnvironmentCleaner(lease);
+              leasedByAnAst.set(true);
+              result = new Result(tree);
             } catch (Exception e) {
               result = new Result(e);
             }
             convertDuration.stop();
-            PerformanceMeasure.Duration analyzeDuration = PerformanceMeasure.start("Analyze");
+            PerformanceMeasure.Duration analyzeDuration = measure("Analyze");
             action.accept(inputFile, result);
 
             executionTimeReport.end();
@@ -204,18 +320,28 @@ public abstract class JParserConfig {
       } finally {
         // ExecutionTimeReport will not include the parsing time by file when using batch mode.
         executionTimeReport.reportAsBatch();
-        batchPerformance.stop();
+        if (batchPerformance != null) {
+          batchPerformance.stop();
+        }
         monitor.done();
+        if (!leasedByAnAst.get()) {
+          lease.run();
+        }
       }
     }
 
+    @VisibleForTesting
+    void createASTs(ClasspathEnvironment.Lease lease, String[] sourceFilePaths, String[] encodings, FileASTRequestor requestor, ProgressMonitor monitor) {
+      lease.createASTs(compilerOptions(), sourceFilePaths, encodings, requestor, monitor);
+    }
+
     private void fallbackToFileByFileMode(List<InputFile> inputFiles, BooleanSupplier isCanceled, BiConsumer<InputFile, Result> action) {
       LOG.warn("Fallback to file by file analysis for {} files", inputFiles.size());
       for (InputFile inputFile : inputFiles) {
         if (isCanceled.getAsBoolean()) {
           break;
         }
-        FileByFile.parse(astParser(), inputFile, javaVersion, action);
+        FileByFile.parse(astParser(), inputFile, javaVersion, action, measure("JParser"));
       }
     }
 
@@ -246,7 +372,7 @@ public abstract class JParserConfig {
             break;
           }
           executionTimeReport.start(inputFile);
-          parse(astParser(), inputFile, javaVersion, action);
+          parse(astParser(), inputFile, javaVersion, action, PerformanceMeasure.start("JParser"));
           executionTimeReport.end();
           progressReport.nextFile();
         }
@@ -261,9 +387,9 @@ public abstract class JParserConfig {
       }
     }
 
-    private static void parse(ASTParser astParser, InputFile inputFile, JavaVersion javaVersion, BiConsumer<InputFile, Result> action) {
+    private static void parse(ASTParser astParser, InputFile inputFile, JavaVersion javaVersion, BiConsumer<InputFile, Result> action,
+      PerformanceMeasure.Duration parseDuration) {
       Result result;
-      PerformanceMeasure.Duration parseDuration = PerformanceMeasure.start("JParser");
       try {
         result = new Result(JParser.parse(astParser, javaVersion.effectiveJavaVersionAsString(), inputFile.filename(), inputFile.contents()));
       } catch (Exception e) {
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,6 +36,7 @@ import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.IPackageBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.sonar.java.annotations.VisibleForTesting;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.semantic.Type;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
@@ -52,6 +54,17 @@ public final class JSema implements Sema {
   private final Map<Symbol.TypeSymbol, JInitializerBlockSymbol> staticInitializerBlockSymbols = new HashMap<>();
   private final Map<IAnnotationBinding, JSymbolMetadata.JAnnotationInstance> annotations = new HashMap<>();
   private final Map<String, Type> nameToTypeCache = new HashMap<>();
+  /**
+   * Results of {@link JType#isSubtypeOf(Type)}, by sub type and then by super type. Types are unique per binding, hence compared by
+   * identity. Created on the first query, as many files never ask for one.
+   */
+  @Nullable
+  private Map<JType, Map<JType, Boolean>> subtypes;
+  /**
+   * Replaces the cleaner of the ECJ environment when the environment is not owned by this AST, see {@link JParserConfig}.
+   */
+  @Nullable
+  private Runnable environmentCleaner;
 
   JSema(AST ast) {
     this.ast = ast;
@@ -61,6 +74,22 @@ public final class JSema implements Sema {
     return types.computeIfAbsent(typeBinding, k -> new JType(this, JType.normalize(typeBinding)));
   }
 
+  boolean isSubtype(JType subtype, JType superType) {
+    if (subtypes == null) {
+      subtypes = new IdentityHashMap<>();
+    }
+    return subtypes.computeIfAbsent(subtype, k -> new IdentityHashMap<>())
+      .computeIfAbsent(superType, k -> JType.isSubtype(subtype.typeBinding, superType.typeBinding));
+  }
+
+  /**
+   * @return number of pairs of types whose subtyping has been computed
+   */
+  @VisibleForTesting
+  int memoizedSubtypeQueries() {
+    return subtypes == null ? 0 : subtypes.values().stream().mapToInt(Map::size).sum();
+  }
+
   List<Type> types(ITypeBinding[] typeBindings) {
     if (typeBindings.length == 0) {
       return Collections.emptyList();
@@ -147,7 +176,11 @@ public final class JSema implements Sema {
   }
 
   public Runnable getEnvironmentCleaner() {
-    return ASTUtils.getEnvironmentCleaner(ast);
+    return environmentCleaner != null ? environmentCleaner : ASTUtils.getEnvironmentCleaner(ast);
+  }
+
+  void setEnvironmentCleaner(Runnable environmentCleaner) {
+    this.environmentCleaner = environmentCleaner;
   }
 
   public Set<JProblem> undefinedTypes() {
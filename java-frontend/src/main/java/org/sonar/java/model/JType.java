@@ -60,10 +60,10 @@ final class JType implements Type, Type.ArrayType {
   @Override
   public boolean isSubtypeOf(Type superType) {
     return !superType.isUnknown()
-      && isSubtype(this.typeBinding, ((JType) superType).typeBinding);
+      && sema.isSubtype(this, (JType) superType);
   }
 
-  private static boolean isSubtype(ITypeBinding left, ITypeBinding right) {
+  static boolean isSubtype(ITypeBinding left, ITypeBinding right) {
     if (left.isRecovered()) {
       return false;
     }
@@ -158,6 +158,8 @@ public abstract class JavaTree implements Tree {
     private final ModuleDeclarationTree moduleDeclaration;
     private final SyntaxToken eofToken;
     public JSema sema;
+    @Nullable
+    private TreeKindIndex kindIndex;
 
     private final Map<JProblem.Type, Set<JWarning>> warnings = new EnumMap<>(JProblem.Type.class);
 
@@ -186,6 +188,20 @@ public abstract class JavaTree implements Tree {
       return types;
     }
 
+    /**
+     * Index of the nodes of this compilation unit by kind, built by {@link JParser}, or on first use for trees created otherwise.
+     */
+    public TreeKindIndex kindIndex() {
+      if (kindIndex == null) {
+        kindIndex = TreeKindIndex.of(this);
+      }
+      return kindIndex;
+    }
+
+    void setKindIndex(TreeKindIndex kindIndex) {
+      this.kindIndex = kindIndex;
+    }
+
     @Beta
     public List<JWarning> warnings(JProblem.Type type) {
       return Collections.unmodifiableList(new ArrayList<>(warnings.getOrDefault(type, Collections.emptySet())));
@@ -26,9 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Scanner;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.FilePredicates;
@@ -37,8 +34,6 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 
-import static java.lang.Integer.parseInt;
-
 /**
  * SMAP format is described by <a href="https://jcp.org/aboutJava/communityprocess/final/jsr045/index.html">JSR 45</a>
  * JSR 45 defines more generic format supporting translation from multiple languages, here we implement only subset used
@@ -48,36 +43,29 @@ import static java.lang.Integer.parseInt;
  */
 public class SmapFile {
 
-  private static final Pattern LINE_INFO = Pattern.compile("(?<inputStartLine>\\d+)" +
-    "(?:#(?<lineFileId>\\d+))?" +
-    "(?:,(?<repeatCount>\\d+))?:" +
-    "(?<outputStartLine>\\d+)" +
-    "(?:,(?<outputIncrement>\\d+))?");
-
   private static final Logger LOG = Loggers.get(SmapFile.class);
 
   private final Path generatedFile;
   private final Map<Integer, FileInfo> fileSection;
   private final List<LineInfo> lineSection;
-  private final Scanner sc;
 
   public SmapFile(Path rootDir, String smapString, Path uriRoot, FileSystem fileSystem) {
-    this.sc = new Scanner(smapString);
-    String header = sc.nextLine();
-    if (!"SMAP".equals(header)) {
+    LineReader reader = new LineReader(smapString);
+    String header = reader.nextLine();
+    String generatedFileName = reader.nextLine();
+    if (!"SMAP".equals(header) || generatedFileName == null) {
       throw new IllegalStateException("Not a source map");
     }
-    String generatedFileName = sc.nextLine();
     generatedFile = rootDir.resolve(generatedFileName);
-    String defaultStratum = sc.nextLine();
+    String defaultStratum = reader.nextLine();
     if (!"JSP".equals(defaultStratum)) {
       throw new IllegalStateException("Not a JSP source map");
     }
-    findSection("*S JSP");
-    findSection("*F");
-    fileSection = readFileSection(uriRoot, fileSystem);
-    findSection("*L");
-    lineSection = readLineSection();
+    findSection(reader, "*S JSP");
+    findSection(reader, "*F");
+    fileSection = readFileSection(reader, uriRoot, fileSystem);
+    findSection(reader, "*L");
+    lineSection = readLineSection(reader);
   }
 
   public Path getGeneratedFile() {
@@ -92,24 +80,15 @@ public class SmapFile {
     return lineSection;
   }
 
-  private List<LineInfo> readLineSection() {
+  private static List<LineInfo> readLineSection(LineReader reader) {
     List<LineInfo> result = new ArrayList<>();
     int lineFileId = 0;
-    while (sc.hasNext() && !sc.hasNext("\\*.")) {
-      String line = sc.nextLine();
-      Matcher matcher = LINE_INFO.matcher(line);
-      if (matcher.matches()) {
-        int inputStartLine = parseInt(matcher.group("inputStartLine"));
-        String lineFileIdGroup = matcher.group("lineFileId");
-        if (lineFileIdGroup != null) {
-          lineFileId = parseInt(lineFileIdGroup);
-        }
-        String repeatCountGroup = matcher.group("repeatCount");
-        int repeatCount = repeatCountGroup != null ? parseInt(repeatCountGroup) : 1;
-        int outputStartLine = parseInt(matcher.group("outputStartLine"));
-        String outputIncrementGroup = matcher.group("outputIncrement");
-        int outputIncrement = outputIncrementGroup != null ? parseInt(outputIncrementGroup) : 1;
-        result.add(new LineInfo(inputStartLine, lineFileId, repeatCount, outputStartLine, outputIncrement));
+    String line;
+    while ((line = reader.nextLineOfSection()) != null) {
+      LineInfo lineInfo = parseLineInfo(line, lineFileId);
+      if (lineInfo != null) {
+        lineFileId = lineInfo.lineFileId;
+        result.add(lineInfo);
       } else {
         LOG.warn("Invalid line info {}", line);
       }
@@ -117,29 +96,58 @@ public class SmapFile {
     return result;
   }
 
-  private void findSection(String section) {
-    while (sc.hasNextLine()) {
-      if (section.equals(sc.nextLine())) {
+  /**
+   * Parses "InputStartLine[#LineFileID][,RepeatCount]:OutputStartLine[,OutputLineIncrement]", the line file id defaulting to the one
+   * of the previous line info.
+   */
+  @CheckForNull
+  static LineInfo parseLineInfo(String line, int previousLineFileId) {
+    NumberReader reader = new NumberReader(line);
+    int inputStartLine = reader.nextNumber();
+    int lineFileId = reader.skip('#') ? reader.nextNumber() : previousLineFileId;
+    int repeatCount = reader.skip(',') ? reader.nextNumber() : 1;
+    if (!reader.skip(':')) {
+      return null;
+    }
+    int outputStartLine = reader.nextNumber();
+    int outputIncrement = reader.skip(',') ? reader.nextNumber() : 1;
+    if (!reader.isAtEnd() || inputStartLine < 0 || lineFileId < 0 || repeatCount < 0 || outputStartLine < 0 || outputIncrement < 0) {
+      return null;
+    }
+    return new LineInfo(inputStartLine, lineFileId, repeatCount, outputStartLine, outputIncrement);
+  }
+
+  private static void findSection(LineReader reader, String section) {
+    String line;
+    while ((line = reader.nextLine()) != null) {
+      if (section.equals(line)) {
         return;
       }
     }
     throw new IllegalStateException("Section " + section + " not found");
   }
 
-  private Map<Integer, FileInfo> readFileSection(Path uriRoot, FileSystem fileSystem) {
+  private static Map<Integer, FileInfo> readFileSection(LineReader reader, Path uriRoot, FileSystem fileSystem) {
     Map<Integer, FileInfo> result = new HashMap<>();
-    while (sc.hasNext() && !sc.hasNext("\\*.")) {
-      if (sc.hasNext("\\+")) {
-        sc.next();
-        int fileId = sc.nextInt();
-        String file = sc.next();
-        sc.nextLine();
-        String path = sc.nextLine();
+    String line;
+    while ((line = reader.nextLineOfSection()) != null) {
+      // "+ FileID FileName" followed by the path of the file, or "FileID FileName"
+      boolean withPath = line.startsWith("+");
+      String fileIdAndName = withPath ? line.substring(1).trim() : line.trim();
+      int separator = fileIdAndName.indexOf(' ');
+      int fileId = separator > 0 ? new NumberReader(fileIdAndName.substring(0, separator)).nextNumber() : -1;
+      if (fileId < 0) {
+        throw new IllegalStateException("Invalid file info " + line);
+      }
+      String file = fileIdAndName.substring(separator + 1).trim();
+      if (withPath) {
+        String path = reader.nextLine();
+        if (path == null) {
+          throw new IllegalStateException("Invalid file info " + line);
+        }
         InputFile inputFile = findFileWithPath(uriRoot.resolve(path), fileSystem);
         result.put(fileId, new FileInfo(fileId, file, path, inputFile));
       } else {
-        int fileId = sc.nextInt();
-        String file = sc.next();
         InputFile inputFile = findFileWithPath(uriRoot.resolve(file), fileSystem);
         result.put(fileId, new FileInfo(fileId, file, null, inputFile));
       }
@@ -253,4 +261,92 @@ public class SmapFile {
         '}';
     }
   }
+
+  /**
+   * Lines of a source map, without line terminators.
+   */
+  private static class LineReader {
+    private final String text;
+    private int position = 0;
+
+    LineReader(String text) {
+      this.text = text;
+    }
+
+    @CheckForNull
+    String nextLine() {
+      if (position >= text.length()) {
+        return null;
+      }
+      int end = text.indexOf('\n', position);
+      if (end < 0) {
+        end = text.length();
+      }
+      int lineEnd = end > position && text.charAt(end - 1) == '\r' ? (end - 1) : end;
+      String line = text.substring(position, lineEnd);
+      position = end + 1;
+      return line;
+    }
+
+    /**
+     * @return the next non-blank line of the current section, null when the next section starts
+     */
+    @CheckForNull
+    String nextLineOfSection() {
+      while (true) {
+        int start = position;
+        String line = nextLine();
+        if (line == null) {
+          return null;
+        }
+        if (line.startsWith("*")) {
+          position = start;
+          return null;
+        }
+        if (!line.trim().isEmpty()) {
+          return line;
+        }
+      }
+    }
+  }
+
+  /**
+   * Reader of the unsigned numbers and separators of a line.
+   */
+  private static class NumberReader {
+    private final String line;
+    private int position = 0;
+
+    NumberReader(String line) {
+      this.line = line;
+    }
+
+    /**
+     * @return the number at the current position, -1 when there is none or when it overflows
+     */
+    int nextNumber() {
+      long value = 0;
+      int start = position;
+      while (position < line.length() && line.charAt(position) >= '0' && line.charAt(position) <= '9') {
+        value = value * 10 + (line.charAt(position) - '0');
+        if (value > Integer.MAX_VALUE) {
+          return -1;
+        }
+        position++;
+      }
+      return position > start ? (int) value : -1;
+    }
+
+    boolean skip(char separator) {
+      if (position < line.length() && line.charAt(position) == separator) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    boolean isAtEnd() {
+      return position == line.length();
+    }
+  }
 }
@@ -0,0 +1,197 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Index of the syntax nodes of a tree by kind, answering "all the nodes of kind K under tree T" without visiting T.
+ *
+ * Nodes are numbered in document order (pre-order, the order in which a {@link org.sonar.plugins.java.api.tree.BaseTreeVisitor} visits
+ * them), so the nodes of a subtree form a contiguous range of numbers. For each kind, the numbers of the nodes of this kind are kept in
+ * a sorted array, and the nodes of a subtree are found by binary search. Tokens and trivia are not indexed.
+ *
+ * The index of a compilation unit is built by {@link JParser}, in the same pass as the parents of its nodes are set.
+ *
+ * Some nodes are shared by several parents in the tree (modifiers and type of variables declared together, for instance). As with a
+ * recursive visit, they are numbered once per parent.
+ */
+public final class TreeKindIndex {
+
+  private static final int[] NO_POSITIONS = new int[0];
+
+  private final Tree[] nodes;
+  private final int[] subtreeEnds;
+  private final Map<Tree, Integer> positions;
+  private final Map<Tree.Kind, int[]> positionsByKind;
+
+  private TreeKindIndex(Tree[] nodes, int[] subtreeEnds, Map<Tree, Integer> positions, Map<Tree.Kind, int[]> positionsByKind) {
+    this.nodes = nodes;
+    this.subtreeEnds = subtreeEnds;
+    this.positions = positions;
+    this.positionsByKind = positionsByKind;
+  }
+
+  public static TreeKindIndex of(Tree root) {
+    Builder builder = new Builder();
+    // iterative pre-order traversal: an integer entry marks the end of the subtree of the node at this position
+    Deque<Object> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      Object entry = stack.pop();
+      if (entry instanceof Integer) {
+        builder.exit((Integer) entry);
+        continue;
+      }
+      JavaTree tree = (JavaTree) entry;
+      int position = builder.enter(tree);
+      if (position < 0) {
+        continue;
+      }
+      stack.push(position);
+      List<Tree> children = tree.getChildren();
+      for (int i = children.size() - 1; i >= 0; i--) {
+        stack.push(children.get(i));
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return all the indexed nodes of the given kind, in document order.
+   */
+  public List<Tree> nodesOfKind(Tree.Kind kind) {
+    int[] kindPositions = positionsByKind.getOrDefault(kind, NO_POSITIONS);
+    return nodesAt(kindPositions, 0, kindPositions.length);
+  }
+
+  /**
+   * @return the nodes of the given kind strictly contained in the given tree, in document order. When the tree is not part of the
+   * indexed tree, its nodes are collected by visiting it.
+   */
+  public List<Tree> descendantsOfKind(Tree tree, Tree.Kind kind) {
+    Integer position = positions.get(tree);
+    if (position == null) {
+      return collect(tree, kind);
+    }
+    int[] kindPositions = positionsByKind.getOrDefault(kind, NO_POSITIONS);
+    int from = insertionPoint(kindPositions, position + 1);
+    int to = insertionPoint(kindPositions, subtreeEnds[position]);
+    return nodesAt(kindPositions, from, to);
+  }
+
+  public int size() {
+    return nodes.length;
+  }
+
+  private List<Tree> nodesAt(int[] kindPositions, int from, int to) {
+    if (from >= to) {
+      return Collections.emptyList();
+    }
+    List<Tree> result = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      result.add(nodes[kindPositions[i]]);
+    }
+    return result;
+  }
+
+  private static int insertionPoint(int[] sortedPositions, int position) {
+    int index = Arrays.binarySearch(sortedPositions, position);
+    return index >= 0 ? index : (-index - 1);
+  }
+
+  private static List<Tree> collect(Tree tree, Tree.Kind kind) {
+    if (((JavaTree) tree).isLeaf()) {
+      return Collections.emptyList();
+    }
+    List<Tree> result = new ArrayList<>();
+    Deque<Tree> stack = new ArrayDeque<>();
+    pushChildren(stack, tree);
+    while (!stack.isEmpty()) {
+      JavaTree node = (JavaTree) stack.pop();
+      if (!node.isLeaf()) {
+        if (node.kind() == kind) {
+          result.add(node);
+        }
+        pushChildren(stack, node);
+      }
+    }
+    return result;
+  }
+
+  private static void pushChildren(Deque<Tree> stack, Tree tree) {
+    List<Tree> children = ((JavaTree) tree).getChildren();
+    for (int i = children.size() - 1; i >= 0; i--) {
+      stack.push(children.get(i));
+    }
+  }
+
+  /**
+   * Numbers the nodes entered in pre-order, each node being exited once its subtree has been entered.
+   */
+  static final class Builder {
+
+    private final List<Tree> nodes = new ArrayList<>();
+    private final List<Integer> subtreeEnds = new ArrayList<>();
+    private final Map<Tree, Integer> positions = new IdentityHashMap<>();
+    private final Map<Tree.Kind, List<Integer>> positionsByKind = new EnumMap<>(Tree.Kind.class);
+
+    /**
+     * @return the number of the node, or -1 for leaves, which are not indexed
+     */
+    int enter(JavaTree tree) {
+      if (tree.isLeaf()) {
+        return -1;
+      }
+      int position = nodes.size();
+      nodes.add(tree);
+      subtreeEnds.add(position + 1);
+      positions.putIfAbsent(tree, position);
+      positionsByKind.computeIfAbsent(tree.kind(), k -> new ArrayList<>()).add(position);
+      return position;
+    }
+
+    void exit(int position) {
+      if (position >= 0) {
+        subtreeEnds.set(position, nodes.size());
+      }
+    }
+
+    TreeKindIndex build() {
+      Map<Tree.Kind, int[]> sortedPositionsByKind = new EnumMap<>(Tree.Kind.class);
+      positionsByKind.forEach((kind, kindPositions) -> sortedPositionsByKind.put(kind, kindPositions.stream().mapToInt(Integer::intValue).toArray()));
+      return new TreeKindIndex(
+        nodes.toArray(new Tree[0]),
+        subtreeEnds.stream().mapToInt(Integer::intValue).toArray(),
+        positions,
+        sortedPositionsByKind);
+    }
+  }
+
+}
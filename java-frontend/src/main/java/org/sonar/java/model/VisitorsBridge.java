@@ -26,13 +26,21 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.symbol.NewSymbol;
+import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -43,10 +51,15 @@ import org.sonar.java.EndOfAnalysisCheck;
 import org.sonar.java.ExceptionHandler;
 import org.sonar.java.IllegalRuleParameterException;
 import org.sonar.java.JavaVersionAwareVisitor;
+import org.sonar.java.RuleProfiler;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.annotations.VisibleForTesting;
 import org.sonar.java.ast.visitors.SonarSymbolTableVisitor;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.caching.AnalysisCache;
+import org.sonar.java.caching.CacheUtils;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.exceptions.ApiMismatchException;
 import org.sonar.java.exceptions.ThrowableUtils;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
@@ -74,6 +87,12 @@ public class VisitorsBridge {
   protected boolean inAndroidContext = false;
   private int fullyScannedFileCount = 0;
   private int skippedFileCount = 0;
+  @Nullable
+  private AnalysisCache analysisCache = null;
+  private boolean analysisCacheInitialized = false;
+  @Nullable
+  private RuleProfiler ruleProfiler = null;
+  private final Map<Boolean, Map<RuleKey, JavaCheck>> replayedChecksByRuleKey = new HashMap<>();
 
   @VisibleForTesting
   public VisitorsBridge(JavaFileScanner visitor) {
@@ -146,6 +165,26 @@ public class VisitorsBridge {
     return !(visitor instanceof EndOfAnalysisCheck) && visitor.getClass().getCanonicalName().startsWith("org.sonar.java.checks.");
   }
 
+  /**
+   * Like for skipping unchanged files, the checks of this plugin are known to keep no state between files, except the end of analysis
+   * checks: the issues they reported on a file are all there is to replay. This also holds for the symbolic execution checks.
+   */
+  static boolean canIssuesBeReplayed(Object visitor) {
+    String className = visitor.getClass().getName();
+    return !(visitor instanceof EndOfAnalysisCheck)
+      && (className.startsWith("org.sonar.java.checks.") || className.startsWith("org.sonar.java.se.checks."));
+  }
+
+  private static boolean canBeReplayed(Object visitor) {
+    if (visitor instanceof IssuableSubscriptionVisitorsRunner) {
+      return ((IssuableSubscriptionVisitorsRunner) visitor).subscriptionVisitors.stream().allMatch(VisitorsBridge::canBeReplayed);
+    }
+    if (visitor instanceof CacheableVisitor) {
+      return ((CacheableVisitor) visitor).canReplay();
+    }
+    return canIssuesBeReplayed(visitor);
+  }
+
   public JavaVersion getJavaVersion() {
     return javaVersion;
   }
@@ -158,6 +197,100 @@ public class VisitorsBridge {
     this.inAndroidContext = inAndroidContext;
   }
 
+  /**
+   * Replays the results of the previous analysis of the file, when they are available in the analysis cache and all the visitors
+   * which would scan the file are able to replay their results. The issues of the checks are replayed after the results of the
+   * cacheable visitors, as the issue filters have to know the replayed file before the issues are saved.
+   * @return true if the file has been replayed, meaning that it does not have to be parsed and visited anymore.
+   */
+  public boolean replayFromCache(InputFile inputFile) {
+    AnalysisCache cache = analysisCache();
+    if (cache == null || inputFile instanceof GeneratedFile) {
+      return false;
+    }
+    boolean fileCanBeSkipped = sonarComponents.fileCanBeSkipped(inputFile);
+    List<JavaFileScanner> scanners = getScanners(fileCanBeSkipped);
+    if (!canBeReplayed(scanners)) {
+      return false;
+    }
+    FileAnalysisRecord fileRecord = cache.read(sonarComponents.inputFileContents(inputFile));
+    if (fileRecord == null) {
+      return false;
+    }
+    PerformanceMeasure.Duration replayDuration = PerformanceMeasure.start("ReplayFromCache");
+    setCurrentFile(inputFile);
+    JavaTree.CompilationUnitTreeImpl emptyTree = new JavaTree.CompilationUnitTreeImpl(null, new ArrayList<>(), new ArrayList<>(), null, null);
+    JavaFileScannerContext context = createScannerContext(emptyTree, null, sonarComponents, false);
+    replaySonarSymbolTable(inputFile, fileRecord);
+    scanners.stream()
+      .filter(CacheableVisitor.class::isInstance)
+      .forEach(scanner -> ((CacheableVisitor) scanner).replay(context, fileRecord));
+    Map<RuleKey, JavaCheck> checksByRuleKey = replayedChecksByRuleKey.computeIfAbsent(fileCanBeSkipped, skipped -> checksByRuleKey(scanners));
+    sonarComponents.replayIssues(inputFile, fileRecord, checksByRuleKey);
+    replayDuration.stop();
+    return true;
+  }
+
+  private Map<RuleKey, JavaCheck> checksByRuleKey(List<JavaFileScanner> scanners) {
+    Map<RuleKey, JavaCheck> checksByRuleKey = new HashMap<>();
+    scanners.stream()
+      .<JavaCheck>flatMap(scanner -> scanner instanceof IssuableSubscriptionVisitorsRunner
+        ? ((IssuableSubscriptionVisitorsRunner) scanner).subscriptionVisitors.stream()
+        : Stream.of(scanner))
+      .forEach(check -> sonarComponents.getRuleKey(check).ifPresent(key -> checksByRuleKey.put(key, check)));
+    return checksByRuleKey;
+  }
+
+  @CheckForNull
+  private AnalysisCache analysisCache() {
+    if (!analysisCacheInitialized) {
+      analysisCacheInitialized = true;
+      if (sonarComponents != null && sonarComponents.isAnalysisCacheEnabled()) {
+        if (canBeReplayed(allScanners) || canBeReplayed(scannersThatCannotBeSkipped)) {
+          analysisCache = new AnalysisCache(sonarComponents.workDir(), analysisFingerprint());
+        } else {
+          LOG.info("The analysis cache is not used, as these visitors can not replay their results: {}", notCacheable(scannersThatCannotBeSkipped.isEmpty()
+            ? allScanners
+            : scannersThatCannotBeSkipped));
+        }
+      }
+    }
+    return analysisCache;
+  }
+
+  private RuleProfiler ruleProfiler() {
+    if (ruleProfiler == null) {
+      RuleProfiler sharedProfiler = sonarComponents != null ? sonarComponents.ruleProfiler() : null;
+      ruleProfiler = sharedProfiler != null ? sharedProfiler : new RuleProfiler(false);
+    }
+    return ruleProfiler;
+  }
+
+  private static boolean canBeReplayed(List<JavaFileScanner> scanners) {
+    return !scanners.isEmpty() && scanners.stream().allMatch(VisitorsBridge::canBeReplayed);
+  }
+
+  private static String notCacheable(List<JavaFileScanner> scanners) {
+    return scanners.stream()
+      .<JavaCheck>flatMap(scanner -> scanner instanceof IssuableSubscriptionVisitorsRunner
+        ? ((IssuableSubscriptionVisitorsRunner) scanner).subscriptionVisitors.stream()
+        : Stream.of(scanner))
+      .filter(visitor -> !canBeReplayed(visitor))
+      .map(visitor -> visitor.getClass().getSimpleName())
+      .collect(Collectors.joining(", "));
+  }
+
+  private String analysisFingerprint() {
+    StringBuilder fingerprint = new StringBuilder()
+      .append(VisitorsBridge.class.getPackage().getImplementationVersion()).append('\n')
+      .append(javaVersion.effectiveJavaVersionAsString()).append('\n')
+      .append(inAndroidContext).append('\n');
+    fingerprint.append(CacheUtils.classpathFingerprint(classpath));
+    allScanners.forEach(scanner -> fingerprint.append(scanner.getClass().getName()).append('\n'));
+    fingerprint.append(sonarComponents.activeRulesFingerprint());
+    return fingerprint.toString();
+  }
+
   public void visitFile(@Nullable Tree parsedTree, boolean fileCanBeSkipped) {
     if (fileCanBeSkipped) {
       skippedFileCount++;
@@ -169,29 +302,68 @@ public class VisitorsBridge {
     JavaTree.CompilationUnitTreeImpl tree = new JavaTree.CompilationUnitTreeImpl(null, new ArrayList<>(), new ArrayList<>(), null, null);
     compilationUnitDuration.stop();
 
-    PerformanceMeasure.Duration symbolTableDuration = PerformanceMeasure.start("SymbolTable");
     boolean fileParsed = parsedTree != null;
+    FileAnalysisRecord fileRecord = startRecording(fileParsed, fileCanBeSkipped);
+
+    PerformanceMeasure.Duration symbolTableDuration = PerformanceMeasure.start("SymbolTable");
     if (fileParsed && parsedTree.is(Tree.Kind.COMPILATION_UNIT)) {
       tree = (JavaTree.CompilationUnitTreeImpl) parsedTree;
-      createSonarSymbolTable(tree);
+      createSonarSymbolTable(tree, fileRecord);
     }
     symbolTableDuration.stop();
 
     JavaFileScannerContext javaFileScannerContext = createScannerContext(tree, tree.sema, sonarComponents, fileParsed);
     var scanners = getScanners(fileCanBeSkipped);
 
+    boolean scannersFailed = false;
     PerformanceMeasure.Duration scannersDuration = PerformanceMeasure.start("Scanners");
     for (JavaFileScanner scanner : scanners) {
       PerformanceMeasure.Duration scannerDuration = PerformanceMeasure.start(scanner);
+      // subscription visitors are measured one by one by their runner
+      RuleProfiler.Measure scannerMeasure = scanner instanceof IssuableSubscriptionVisitorsRunner ? null : ruleProfiler().start(scanner);
       try {
         runScanner(javaFileScannerContext, scanner);
       } catch (CheckFailureException e) {
+        scannersFailed = true;
         interruptIfFailFast(e);
       } finally {
+        if (scannerMeasure != null) {
+          scannerMeasure.stop();
+        }
         scannerDuration.stop();
       }
     }
     scannersDuration.stop();
+    if (ruleProfiler().isEnabled()) {
+      ruleProfiler().endFile(String.valueOf(currentFile));
+    }
+
+    if (fileRecord != null) {
+      sonarComponents.recordIssuesTo(null, null);
+      if (!scannersFailed) {
+        analysisCache.write(sonarComponents.inputFileContents(currentFile), fileRecord);
+      }
+    }
+  }
+
+  /**
+   * Files are only recorded when all the scanners visit them: the record of a file whose scanning was optimized would miss the issues
+   * of the skipped checks.
+   */
+  @CheckForNull
+  private FileAnalysisRecord startRecording(boolean fileParsed, boolean fileCanBeSkipped) {
+    AnalysisCache cache = analysisCache();
+    if (cache == null) {
+      return null;
+    }
+    FileAnalysisRecord fileRecord = fileParsed && !fileCanBeSkipped && !(currentFile instanceof GeneratedFile) ? new FileAnalysisRecord() : null;
+    allScanners.stream()
+      .filter(CacheableVisitor.class::isInstance)
+      .forEach(scanner -> ((CacheableVisitor) scanner).recordTo(fileRecord));
+    if (fileRecord != null) {
+      sonarComponents.recordIssuesTo(currentFile, fileRecord);
+    }
+    return fileRecord;
   }
 
   private void interruptIfFailFast(CheckFailureException e) {
@@ -253,16 +425,27 @@ public class VisitorsBridge {
       inAndroidContext);
   }
 
-  private void createSonarSymbolTable(CompilationUnitTree tree) {
+  private void createSonarSymbolTable(CompilationUnitTree tree, @Nullable FileAnalysisRecord fileRecord) {
     if (sonarComponents != null
       && !sonarComponents.isSonarLintContext()
       // don't provide semantic data (symbol highlighting) to SQ for generated files (jsp)
       && !(currentFile instanceof GeneratedFile)) {
-      SonarSymbolTableVisitor symVisitor = new SonarSymbolTableVisitor(sonarComponents.symbolizableFor(currentFile));
+      SonarSymbolTableVisitor symVisitor = new SonarSymbolTableVisitor(sonarComponents.symbolizableFor(currentFile), fileRecord);
       symVisitor.visitCompilationUnit(tree);
     }
   }
 
+  private void replaySonarSymbolTable(InputFile inputFile, FileAnalysisRecord fileRecord) {
+    NewSymbolTable newSymbolTable = sonarComponents.symbolizableFor(inputFile);
+    for (int[] symbol : fileRecord.symbols()) {
+      NewSymbol newSymbol = newSymbolTable.newSymbol(symbol[0], symbol[1], symbol[2], symbol[3]);
+      for (int i = 4; i + 3 < symbol.length; i += 4) {
+        newSymbol.newReference(symbol[i], symbol[i + 1], symbol[i + 2], symbol[i + 3]);
+      }
+    }
+    newSymbolTable.save();
+  }
+
   private List<JavaFileScanner> getScanners(boolean supportedScannersCanBeSkippedForThisFile) {
     return supportedScannersCanBeSkippedForThisFile ? scannersThatCannotBeSkipped : allScanners;
   }
@@ -286,14 +469,22 @@ public class VisitorsBridge {
     } else if (fullyScannedFileCount > 0) {
       LOG.info("Did not optimize analysis for any files, performed a full analysis for all {} files.", fullyScannedFileCount);
     }
+    if (analysisCache != null && analysisCache.hitCount() > 0) {
+      LOG.info("Replayed {} files from the analysis cache.", analysisCache.hitCount());
+    }
 
     allScanners.stream()
       .filter(EndOfAnalysisCheck.class::isInstance)
       .map(EndOfAnalysisCheck.class::cast)
       .forEach(EndOfAnalysisCheck::endOfAnalysis);
+
+    if (ruleProfiler != null && ruleProfiler.isEnabled()) {
+      // the profiler is shared with the other scanners: the report written by the last one covers all of them
+      ruleProfiler.writeReport(sonarComponents.workDir());
+    }
   }
 
-  private class IssuableSubscriptionVisitorsRunner implements JavaFileScanner, EndOfAnalysisCheck {
+  private class IssuableSubscriptionVisitorsRunner implements JavaFileScanner, EndOfAnalysisCheck, CacheableVisitor {
     private EnumMap<Tree.Kind, List<SubscriptionVisitor>> checks;
     private List<SubscriptionVisitor> subscriptionVisitors;
 
@@ -330,6 +521,20 @@ public class VisitorsBridge {
         .forEach(EndOfAnalysisCheck::endOfAnalysis);
     }
 
+    @Override
+    public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+      subscriptionVisitors.stream()
+        .filter(CacheableVisitor.class::isInstance)
+        .forEach(visitor -> ((CacheableVisitor) visitor).recordTo(fileRecord));
+    }
+
+    @Override
+    public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+      subscriptionVisitors.stream()
+        .filter(CacheableVisitor.class::isInstance)
+        .forEach(visitor -> ((CacheableVisitor) visitor).replay(context, fileRecord));
+    }
+
     private void visitChildren(Tree tree) throws CheckFailureException {
       JavaTree javaTree = (JavaTree) tree;
       if (!javaTree.isLeaf()) {
@@ -365,7 +570,12 @@ public class VisitorsBridge {
     private final void forEach(Collection<SubscriptionVisitor> visitors, Consumer<SubscriptionVisitor> callback) throws CheckFailureException {
       for (SubscriptionVisitor visitor : visitors) {
         PerformanceMeasure.Duration visitorDuration = PerformanceMeasure.start(visitor);
-        runScanner(() -> callback.accept(visitor), visitor);
+        RuleProfiler.Measure visitorMeasure = ruleProfiler().start(visitor);
+        try {
+          runScanner(() -> callback.accept(visitor), visitor);
+        } finally {
+          visitorMeasure.stop();
+        }
         visitorDuration.stop();
       }
     }
@@ -237,6 +237,22 @@ public class InternalJavaIssueBuilder implements JavaIssueBuilderExtended {
 
     newIssue.save();
     reported = true;
+    recordIssue(ruleKeyVal);
+  }
+
+  /**
+   * Quick fixes are not recorded: they are only reported in SonarLint, where the analysis cache is not used.
+   */
+  private void recordIssue(RuleKey ruleKey) {
+    AnalyzerMessage analyzerMessage = new AnalyzerMessage(rule, inputFile, textSpan, message, 0);
+    if (flows != null) {
+      for (List<JavaFileScannerContext.Location> flow : flows) {
+        analyzerMessage.flows.add(flow.stream()
+          .map(location -> new AnalyzerMessage(rule, inputFile, AnalyzerMessage.textSpanFor(location.syntaxNode), location.msg, 0))
+          .collect(Collectors.toList()));
+      }
+    }
+    sonarComponents.recordIssue(ruleKey, analyzerMessage, cost == null ? 0 : cost.doubleValue());
   }
 
   private void handleQuickFixes(RuleKey ruleKey, NewIssue newIssue) {
@@ -127,6 +127,16 @@ public interface JavaFileScannerContext {
    */
   List<Tree> getComplexityNodes(Tree tree);
 
+  /**
+   * Computes the list of syntax nodes of the given kind contained in the given tree, without visiting the tree when it belongs to the
+   * file under analysis.
+   * @param tree the tree in which to look for nodes, excluded from the result.
+   * @param kind the kind of the nodes to look for.
+   * @return the nodes of the given kind, in document order.
+   */
+  @Beta
+  List<Tree> getDescendantsOfKind(Tree tree, Tree.Kind kind);
+
   /**
    * Report an issue.
    * @param javaCheck check raising the issue
@@ -0,0 +1,134 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.eclipse.jdt.core.dom;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClasspathEnvironmentTest {
+
+  private static final String HELLO_JAR = new File("src/test/files/classpath/lib/hello.jar").getAbsolutePath();
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void entries_given_back_are_reused_by_the_next_batches() throws IOException {
+    String source = source("class A { org.sonar.tests.Hello hello; }");
+    ClasspathEnvironment environment = new ClasspathEnvironment(new String[] {HELLO_JAR}, false);
+
+    for (int i = 0; i < 2; i++) {
+      ClasspathEnvironment.Lease lease = environment.lease();
+      List<ITypeBinding> fieldTypes = fieldTypes(lease, source);
+      assertThat(fieldTypes).hasSize(1);
+      assertThat(fieldTypes.get(0).getQualifiedName()).isEqualTo("org.sonar.tests.Hello");
+      assertThat(fieldTypes.get(0).isRecovered()).isFalse();
+      lease.run();
+    }
+    assertThat(environment.openedEntries()).isEqualTo(1);
+    environment.close();
+  }
+
+  @Test
+  void batches_running_together_do_not_share_entries() throws IOException {
+    String source = source("class A { }");
+    ClasspathEnvironment environment = new ClasspathEnvironment(new String[] {HELLO_JAR}, false);
+    ClasspathEnvironment.Lease first = environment.lease();
+    fieldTypes(first, source);
+    ClasspathEnvironment.Lease second = environment.lease();
+    fieldTypes(second, source);
+    assertThat(environment.openedEntries()).isEqualTo(2);
+
+    first.run();
+    first.run();
+    fieldTypes(environment.lease(), source);
+    assertThat(environment.openedEntries()).isEqualTo(2);
+
+    second.run();
+    environment.close();
+  }
+
+  @Test
+  void entries_given_back_after_close_are_not_reused() throws IOException {
+    String source = source("class A { }");
+    ClasspathEnvironment environment = new ClasspathEnvironment(new String[] {HELLO_JAR}, false);
+    ClasspathEnvironment.Lease lease = environment.lease();
+    fieldTypes(lease, source);
+    environment.close();
+    assertThat(environment.openedEntries()).isZero();
+
+    lease.run();
+    fieldTypes(environment.lease(), source);
+    assertThat(environment.openedEntries()).isEqualTo(1);
+    environment.close();
+  }
+
+  @Test
+  void entries_are_not_opened_by_batches_without_files() {
+    ClasspathEnvironment environment = new ClasspathEnvironment(new String[] {HELLO_JAR}, false);
+    environment.lease().run();
+    assertThat(environment.openedEntries()).isZero();
+  }
+
+  @Test
+  void invalid_classpath() throws IOException {
+    String source = source("class A { }");
+    ClasspathEnvironment.Lease lease = new ClasspathEnvironment(new String[] {HELLO_JAR + "["}, false).lease();
+    assertThatThrownBy(() -> fieldTypes(lease, source))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("invalid environment settings");
+  }
+
+  private String source(String content) throws IOException {
+    Path file = tempDir.resolve("A.java");
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    return file.toString();
+  }
+
+  private static List<ITypeBinding> fieldTypes(ClasspathEnvironment.Lease lease, String source) {
+    Map<String, String> options = JavaCore.getOptions();
+    JavaCore.setComplianceOptions(JavaCore.VERSION_11, options);
+    List<ITypeBinding> types = new ArrayList<>();
+    lease.createASTs(options, new String[] {source}, new String[] {"UTF-8"}, new FileASTRequestor() {
+      @Override
+      public void acceptAST(String sourceFilePath, CompilationUnit ast) {
+        TypeDeclaration type = (TypeDeclaration) ast.types().get(0);
+        for (FieldDeclaration field : type.getFields()) {
+          types.add(field.getType().resolveBinding());
+        }
+      }
+    }, new NullProgressMonitor());
+    return types;
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.sonar.api.utils.log.LogTesterJUnit5;
+import org.sonar.api.utils.log.LoggerLevel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveBatchSizerTest {
+
+  @RegisterExtension
+  public LogTesterJUnit5 logTester = new LogTesterJUnit5();
+
+  private final FakeHeapMonitor heap = new FakeHeapMonitor();
+
+  @Test
+  void batch_size_fits_the_available_heap() {
+    heap.max = 1_000_000_000L;
+    heap.used = 200_000_000L;
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(heap, 500_000L);
+    // 500 MB available below 70% of the heap, 1000 bytes of heap per source byte
+    assertThat(sizer.nextBatchSize(100_000L, 100_000_000L, 0.0, 500_000L)).isEqualTo(500_000L);
+    // cheaper batches allow bigger batches, up to 4 times the initial size
+    assertThat(sizer.nextBatchSize(100_000L, 10_000_000L, 0.0, 500_000L)).isEqualTo(2_000_000L);
+    assertThat(logTester.logs(LoggerLevel.INFO)).containsExactly("Batch size changed from 500 KB to 2000 KB (heap per source byte: 100, GC overhead: 0%).");
+  }
+
+  @Test
+  void batch_size_shrinks_under_heap_pressure() {
+    heap.max = 1_000_000_000L;
+    heap.used = 650_000_000L;
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(heap, 500_000L);
+    assertThat(sizer.nextBatchSize(100_000L, 100_000_000L, 0.0, 500_000L)).isEqualTo(50_000L);
+    // no heap available anymore, batches are as small as possible
+    heap.used = 800_000_000L;
+    assertThat(sizer.nextBatchSize(100_000L, 100_000_000L, 0.0, 500_000L)).isEqualTo(10_000L);
+  }
+
+  @Test
+  void batch_size_is_halved_when_gc_overhead_is_high() {
+    heap.max = 1_000_000_000L;
+    heap.used = 200_000_000L;
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(heap, 500_000L);
+    assertThat(sizer.nextBatchSize(100_000L, 10_000_000L, 0.5, 500_000L)).isEqualTo(250_000L);
+  }
+
+  @Test
+  void measures_are_taken_between_start_and_end_of_batch() {
+    heap.max = 1_000_000_000L;
+    heap.used = 200_000_000L;
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(heap, 500_000L);
+    sizer.startBatch();
+    heap.used = 300_000_000L;
+    assertThat(sizer.endBatch(100_000L, 500_000L)).isEqualTo(400_000L);
+  }
+
+  @Test
+  void heap_usage_of_a_batch_is_its_highest_sample() {
+    heap.max = 1_000_000_000L;
+    heap.used = 200_000_000L;
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(heap, 500_000L);
+    sizer.startBatch();
+    heap.used = 300_000_000L;
+    sizer.sampleHeap();
+    // the heap used by the batch is released before its end
+    heap.used = 250_000_000L;
+    sizer.sampleHeap();
+    heap.used = 200_000_000L;
+    // 1000 bytes of heap per source byte, 500 MB available below 70% of the heap
+    assertThat(sizer.endBatch(100_000L, 500_000L)).isEqualTo(500_000L);
+  }
+
+  private static class FakeHeapMonitor implements AdaptiveBatchSizer.HeapMonitor {
+    long max;
+    long used;
+    long gcTime;
+
+    @Override
+    public long maxHeap() {
+      return max;
+    }
+
+    @Override
+    public long usedHeap() {
+      return used;
+    }
+
+    @Override
+    public long gcTimeMillis() {
+      return gcTime;
+    }
+  }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisProgressTest {
+
+  @Test
+  void sequential_batches() {
+    AnalysisProgress analysisProgress = new AnalysisProgress(30);
+    analysisProgress.startBatch(10);
+    assertThat(analysisProgress.isFirstBatch()).isTrue();
+    assertThat(analysisProgress.isLastBatch()).isFalse();
+    assertThat(analysisProgress.toGlobalPercentage(0.5)).isEqualTo(5 / 30.0);
+    analysisProgress.endBatch();
+
+    analysisProgress.startBatch(20);
+    assertThat(analysisProgress.isFirstBatch()).isFalse();
+    assertThat(analysisProgress.isLastBatch()).isTrue();
+    assertThat(analysisProgress.toGlobalPercentage(0.5)).isEqualTo(20 / 30.0);
+  }
+
+  @Test
+  void concurrent_batches_share_the_progress_of_the_analysis() {
+    AnalysisProgress analysisProgress = new AnalysisProgress(30);
+    AnalysisProgress first = analysisProgress.concurrentBatch();
+    AnalysisProgress second = analysisProgress.concurrentBatch();
+    first.startBatch(10);
+    second.startBatch(20);
+    assertThat(first.isFirstBatch()).isTrue();
+    assertThat(second.isFirstBatch()).isFalse();
+
+    first.endBatch();
+    assertThat(second.toGlobalPercentage(0.5)).isEqualTo(20 / 30.0);
+    // the end of the analysis is reported once all the concurrent batches are done
+    assertThat(second.isLastBatch()).isFalse();
+    second.endBatch();
+    assertThat(analysisProgress.toGlobalPercentage(0.0)).isEqualTo(1.0);
+  }
+
+}
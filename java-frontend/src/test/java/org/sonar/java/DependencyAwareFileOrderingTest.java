@@ -0,0 +1,114 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DependencyAwareFileOrderingTest {
+
+  @Test
+  void header_is_read_until_first_type_declaration() throws IOException {
+    DependencyAwareFileOrdering.FileHeader header = DependencyAwareFileOrdering.readHeader(
+      "/*\n" +
+        " * license\n" +
+        " */\n" +
+        "package org.foo;\n" +
+        "\n" +
+        "// comment\n" +
+        "import java.util.List;\n" +
+        "import static org.bar.Utils.method;\n" +
+        "import org.baz.*;\n" +
+        "@Deprecated\n" +
+        "class A {\n" +
+        "  import org.qix.Ignored;\n" +
+        "}\n");
+    assertThat(header.packageName).isEqualTo("org.foo");
+    assertThat(header.importedNames).containsExactly("java.util.List", "org.bar.Utils.method", "org.baz");
+  }
+
+  @Test
+  void declarations_around_block_comments_on_the_same_line() throws IOException {
+    DependencyAwareFileOrdering.FileHeader header = DependencyAwareFileOrdering.readHeader(
+      "/* license */ package org.foo;\n" +
+        "/* first */ /* second */ import java.util.List; /* trailing */\n" +
+        "import org.bar.Bar; /* starts here\n" +
+        " * and ends there */ import org.baz.Baz; import org.qix.Qix;\n" +
+        "/**/ import static org.bar.Utils.method;\n" +
+        "/* comment */ class A {\n" +
+        "  import org.qix.Ignored;\n" +
+        "}\n");
+    assertThat(header.packageName).isEqualTo("org.foo");
+    assertThat(header.importedNames).containsExactly("java.util.List", "org.bar.Bar", "org.baz.Baz", "org.qix.Qix", "org.bar.Utils.method");
+  }
+
+  @Test
+  void default_package() throws IOException {
+    DependencyAwareFileOrdering.FileHeader header = DependencyAwareFileOrdering.readHeader("class A {}");
+    assertThat(header.packageName).isEmpty();
+    assertThat(header.importedNames).isEmpty();
+  }
+
+  @Test
+  void dependencies_come_first_and_cycles_are_kept_together() {
+    InputFile a = inputFile("A.java", "package a;\nimport b.B;\nclass A {}");
+    InputFile b = inputFile("B.java", "package b;\nimport static c.C.method;\nclass B {}");
+    InputFile c = inputFile("C.java", "package c;\nimport b.*;\nclass C {}");
+    InputFile d = inputFile("D.java", "package d;\nimport java.util.List;\nclass D {}");
+    InputFile a2 = inputFile("A2.java", "package a;\nclass A2 {}");
+
+    List<InputFile> ordered = DependencyAwareFileOrdering.order(Arrays.asList(a, b, c, d, a2));
+
+    assertThat(ordered).hasSize(5);
+    // b and c depend on each other and come before a, depending on them
+    assertThat(ordered.subList(0, 2)).containsExactlyInAnyOrder(b, c);
+    assertThat(ordered.subList(2, 5)).containsExactly(a, a2, d);
+  }
+
+  @Test
+  void strongly_connected_components_in_dependency_order() {
+    Map<String, Set<String>> edges = new HashMap<>();
+    edges.put("1", new LinkedHashSet<>(Arrays.asList("2")));
+    edges.put("2", new LinkedHashSet<>(Arrays.asList("3")));
+    edges.put("3", new LinkedHashSet<>(Arrays.asList("2", "4")));
+    assertThat(DependencyAwareFileOrdering.stronglyConnectedComponents(Arrays.asList("1", "2", "3", "4", "5"), edges))
+      .hasSize(4)
+      .containsSubsequence(Arrays.asList("4"), Arrays.asList("3", "2"), Arrays.asList("1"), Arrays.asList("5"));
+  }
+
+  private static InputFile inputFile(String filename, String contents) {
+    return new TestInputFileBuilder("", filename)
+      .setContents(contents)
+      .setCharset(StandardCharsets.UTF_8)
+      .build();
+  }
+
+}
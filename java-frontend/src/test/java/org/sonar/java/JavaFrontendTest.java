@@ -287,6 +287,98 @@ class JavaFrontendTest {
     assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
   }
 
+  @Test
+  void test_several_batches_parsed_in_parallel() throws IOException {
+    MapSettings settings = new MapSettings();
+    settings.setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0L);
+    settings.setProperty(SonarComponents.SONAR_PARALLELISM_KEY, 2);
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B { A a; }", "class C {}");
+    assertThat(logTester.logs(LoggerLevel.INFO)).contains("Parsing batches using 2 parallel workers.");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(3);
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
+  @Test
+  void parallel_batches_report_the_progress_of_the_whole_analysis() throws IOException {
+    MapSettings settings = new MapSettings();
+    settings.setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0L);
+    settings.setProperty(SonarComponents.SONAR_PARALLELISM_KEY, 2);
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B { A a; }", "class C {}");
+    assertThat(logTester.logs(LoggerLevel.INFO))
+      .containsOnlyOnce("Starting batch processing.", "100% analyzed", "Batch processing: Done.");
+  }
+
+  @Test
+  void analysis_exception_should_stop_the_parallel_workers() throws IOException {
+    MapSettings settings = new MapSettings();
+    settings.setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0L);
+    settings.setProperty(SonarComponents.SONAR_PARALLELISM_KEY, 2);
+    mainCodeIssueScannerAndFilter.exceptionDuringScan = new IllegalRuleParameterException("Test AnalysisException", new NullPointerException());
+    assertThatThrownBy(() -> scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B {}", "class C {}", "class D {}", "class E {}"))
+      .isInstanceOf(AnalysisException.class)
+      .hasMessage("Bad configuration of rule parameter");
+    // only the batches started before the failure are analyzed, and none of them is still running
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isLessThan(5);
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+    assertThat(logTester.logs(LoggerLevel.INFO)).doesNotContain("Batch processing: Done.");
+  }
+
+  @Test
+  void should_handle_analysis_cancellation_with_parallel_workers() throws IOException {
+    MapSettings settings = new MapSettings();
+    settings.setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0L);
+    settings.setProperty(SonarComponents.SONAR_PARALLELISM_KEY, 2);
+    mainCodeIssueScannerAndFilter.isCancelled = true;
+    assertThatThrownBy(() -> scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B {}", "class C {}", "class D {}", "class E {}"))
+      .isInstanceOf(AnalysisException.class)
+      .hasMessage("Analysis cancelled")
+      .hasCauseInstanceOf(OperationCanceledException.class);
+    // at most the batch cancelling the analysis and the one analyzed concurrently
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isLessThanOrEqualTo(2);
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
+  @Test
+  void test_several_batches_with_pipelined_parsing_and_analysis() throws IOException {
+    MapSettings settings = new MapSettings();
+    settings.setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0L);
+    settings.setProperty(SonarComponents.SONAR_PIPELINE_QUEUE_SIZE_KEY, 1);
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B { A a; }", "class C {}");
+    assertThat(logTester.logs(LoggerLevel.INFO))
+      .contains("Pipelining parsing and analysis of batches, with at most 1 converted batches waiting for analysis.")
+      .anyMatch(log -> log.matches("Parsing took \\d+ ms and analysis \\d+ ms, overlapping for \\d+ ms\\."));
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(3);
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
+  @Test
+  void test_several_batches_with_adaptive_batch_size() throws IOException {
+    MapSettings settings = new MapSettings();
+    settings.setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 1L);
+    settings.setProperty(SonarComponents.SONAR_ADAPTIVE_BATCH_SIZE_KEY, true);
+    // files of 600 bytes: the first batch of 1 KB contains a single file
+    String padding = "/*" + "*".repeat(580) + "*/";
+    scan(settings, SONARQUBE_RUNTIME, "class A {}" + padding, "class B { A a; }" + padding, "class C {}" + padding, "class D {}" + padding);
+    assertThat(logTester.logs(LoggerLevel.INFO)).anyMatch(log -> log.startsWith("Batch size changed from 1 KB to 4 KB"));
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(4);
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
+  @Test
+  void test_several_batches_with_dependency_aware_ordering() throws IOException {
+    logTester.setLevel(LoggerLevel.DEBUG);
+    MapSettings settings = new MapSettings();
+    settings.setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0L);
+    settings.setProperty(SonarComponents.SONAR_DEPENDENCY_AWARE_BATCHES_KEY, true);
+    scan(settings, SONARQUBE_RUNTIME,
+      "package b; import a.A; class B { A a; }",
+      "package a; public class A {}",
+      "package c; class C {}");
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("Ordered 3 files from 3 packages in 3 clusters of dependent packages.");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(3);
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
   @Test
   void should_handle_analysis_cancellation() throws IOException {
     mainCodeIssueScannerAndFilter.isCancelled = true;
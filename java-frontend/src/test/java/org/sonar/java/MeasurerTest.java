@@ -20,6 +20,7 @@
 package org.sonar.java;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collections;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,6 +33,7 @@ import org.sonar.plugins.java.api.JavaCheck;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 class MeasurerTest {
 
@@ -86,6 +88,26 @@ class MeasurerTest {
     checkMetric("EmptyFile.java", "ncloc", 0);
   }
 
+  @Test
+  void metrics_and_no_sonar_lines_of_several_files() {
+    InputFile comments = TestUtils.inputFile(PathUtils.sanitize(new File(BASE_DIR, "Comments.java").getPath()));
+    InputFile linesOfCode = TestUtils.inputFile(PathUtils.sanitize(new File(BASE_DIR, "LinesOfCode.java").getPath()));
+    context.fileSystem().add(comments);
+    context.fileSystem().add(linesOfCode);
+
+    NoSonarFilter noSonarFilter = mock(NoSonarFilter.class);
+    Measurer measurer = new Measurer(context, noSonarFilter);
+    JavaFrontend frontend = new JavaFrontend(new JavaVersionImpl(), null, measurer, null, null, new JavaCheck[0]);
+
+    frontend.scan(Arrays.asList(comments, linesOfCode), Collections.emptyList(), Collections.emptyList());
+
+    verify(noSonarFilter).noSonarInFile(comments, Collections.singleton(15));
+    verify(noSonarFilter).noSonarInFile(linesOfCode, Collections.emptySet());
+    assertThat(context.measure(comments.key(), "comment_lines").value()).isEqualTo(3);
+    assertThat(context.measure(linesOfCode.key(), "comment_lines").value()).isEqualTo(0);
+    assertThat(context.measure(linesOfCode.key(), "ncloc").value()).isEqualTo(2);
+  }
+
   /**
    * Utility method to quickly get metric out of a file.
    */
@@ -0,0 +1,152 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.utils.log.LogTesterJUnit5;
+import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.check.Rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleProfilerTest {
+
+  @RegisterExtension
+  public LogTesterJUnit5 logTester = new LogTesterJUnit5();
+
+  private long time = 0;
+  private long allocatedBytes = 0;
+  private final RuleProfiler profiler = new RuleProfiler(true, () -> time, () -> time / 2, () -> allocatedBytes);
+
+  private void simulate(Object visitor, long durationMs, long allocatedKB) {
+    RuleProfiler.Measure measure = profiler.start(visitor);
+    time += durationMs * 1_000_000;
+    allocatedBytes += allocatedKB * 1024;
+    measure.stop();
+  }
+
+  @Test
+  void rules_are_reported_by_decreasing_cpu_time() {
+    Object cheap = new CheapRule();
+    Object expensive = new ExpensiveRule();
+    simulate(cheap, 1, 10);
+    simulate(expensive, 10, 100);
+    simulate(expensive, 20, 100);
+    profiler.endFile("f1");
+    simulate(cheap, 2, 10);
+    profiler.endFile("f2");
+    simulate(expensive, 40, 100);
+    profiler.endFile("f,3");
+
+    // percentiles are the upper bounds of the buckets of the histogram, capped by the slowest file
+    assertThat(profiler.report()).isEqualTo("" +
+      "rule,invocations,files,cpu_ms,allocated_kb,wall_ms,p50_file_ms,p99_file_ms,slowest_file_ms,slowest_file\n" +
+      "Expensive,3,2,35.000,300,70.000,31.457,40.000,40.000,\"f,3\"\n" +
+      "Cheap,2,2,1.500,20,3.000,1.049,2.000,2.000,f2\n");
+  }
+
+  @Test
+  void visitors_which_are_not_rules_are_reported_by_class_name() {
+    simulate(new Object(), 1, 0);
+    profiler.endFile("f1");
+    assertThat(profiler.report()).contains("\njava.lang.Object,1,1,");
+  }
+
+  @Test
+  void several_visitors_of_the_same_rule_are_reported_together() {
+    simulate(new CheapRule(), 1, 0);
+    simulate(new CheapRule(), 1, 0);
+    profiler.endFile("f1");
+    assertThat(profiler.report()).contains("\nCheap,2,1,");
+  }
+
+  @Test
+  void report_is_written_to_the_given_directory(@TempDir Path workDir) throws IOException {
+    simulate(new CheapRule(), 1, 0);
+    profiler.endFile("f1");
+    profiler.writeReport(workDir.toFile());
+
+    Path report = workDir.resolve(RuleProfiler.REPORT_FILE_NAME);
+    assertThat(new String(Files.readAllBytes(report), StandardCharsets.UTF_8)).isEqualTo(profiler.report());
+    assertThat(logTester.logs(LoggerLevel.INFO)).containsExactly("Rule profiling report written to " + report);
+  }
+
+  @Test
+  void report_failure_is_logged(@TempDir Path workDir) {
+    simulate(new CheapRule(), 1, 0);
+    profiler.writeReport(new File(workDir.toFile(), "missing"));
+    assertThat(workDir).isEmptyDirectory();
+    assertThat(logTester.logs(LoggerLevel.WARN)).hasSize(1);
+    assertThat(logTester.logs(LoggerLevel.WARN).get(0)).startsWith("Unable to write the rule profiling report to ");
+  }
+
+  @Test
+  void disabled_profiler_measures_nothing(@TempDir Path workDir) {
+    RuleProfiler disabled = new RuleProfiler(false);
+    assertThat(disabled.isEnabled()).isFalse();
+    disabled.start(new CheapRule()).stop();
+    disabled.endFile("f1");
+    disabled.writeReport(workDir.toFile());
+    assertThat(workDir).isEmptyDirectory();
+  }
+
+  @Test
+  void profiler_measures_the_current_thread() {
+    RuleProfiler actual = new RuleProfiler(true);
+    RuleProfiler.Measure measure = actual.start(new CheapRule());
+    measure.stop();
+    actual.endFile("f1");
+    assertThat(actual.report()).contains("\nCheap,1,1,");
+  }
+
+  @Test
+  void percentiles_are_approximated() {
+    RuleProfiler.LatencyHistogram histogram = new RuleProfiler.LatencyHistogram();
+    assertThat(histogram.percentile(0.5)).isZero();
+    for (long i = 1; i <= 1000; i++) {
+      histogram.add(i * 1000);
+    }
+    assertThat(histogram.percentile(0.5)).isBetween(500_000L, 562_500L);
+    assertThat(histogram.percentile(0.99)).isBetween(990_000L, 1_000_000L);
+    assertThat(histogram.percentile(1.0)).isEqualTo(1_000_000L);
+
+    RuleProfiler.LatencyHistogram small = new RuleProfiler.LatencyHistogram();
+    small.add(-1);
+    small.add(3);
+    assertThat(small.percentile(0.5)).isZero();
+    assertThat(small.percentile(0.99)).isEqualTo(3);
+  }
+
+  @Rule(key = "Cheap")
+  private static class CheapRule {
+  }
+
+  @Rule(key = "Expensive")
+  private static class ExpensiveRule {
+  }
+
+}
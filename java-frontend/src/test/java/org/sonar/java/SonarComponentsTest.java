@@ -74,6 +74,7 @@ import org.sonar.api.utils.log.LogAndArguments;
 import org.sonar.api.utils.log.LogTesterJUnit5;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.check.Rule;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.classpath.ClasspathForMain;
 import org.sonar.java.classpath.ClasspathForTest;
 import org.sonar.java.exceptions.ApiMismatchException;
@@ -420,6 +421,50 @@ class SonarComponentsTest {
     assertThat(context.allIssues()).isNotEmpty();
   }
 
+  @Test
+  void recorded_issues_are_replayed() {
+    JavaCheck expectedCheck = new CustomCheck();
+    CheckRegistrar expectedRegistrar = getRegistrar(expectedCheck);
+    RuleKey ruleKey = RuleKey.of("MyRepo", "CustomCheck");
+    InputFile inputFile = new TestInputFileBuilder("", "file.java")
+      .initMetadata("class A {\n"
+        + "  void foo() {\n"
+        + "    System.out.println();\n"
+        + "  }\n"
+        + "}\n").build();
+
+    SensorContextTester context = SensorContextTester.create(new File(""));
+    SonarComponents sonarComponents = new SonarComponents(fileLinesContextFactory, context.fileSystem(), null, null, checkFactory, new CheckRegistrar[]{expectedRegistrar});
+    sonarComponents.setSensorContext(context);
+    FileAnalysisRecord fileRecord = new FileAnalysisRecord();
+    sonarComponents.recordIssuesTo(inputFile, fileRecord);
+    AnalyzerMessage issueWithFlow = new AnalyzerMessage(expectedCheck, inputFile, new AnalyzerMessage.TextSpan(3, 4, 3, 24), "message", 0);
+    issueWithFlow.flows.add(Collections.singletonList(new AnalyzerMessage(expectedCheck, inputFile, new AnalyzerMessage.TextSpan(2, 7, 2, 10), "flow", 0)));
+    sonarComponents.reportIssue(issueWithFlow, ruleKey, inputFile, 2.0);
+    sonarComponents.reportIssue(new AnalyzerMessage(expectedCheck, inputFile, null, "file message", 0), ruleKey, inputFile, null);
+    sonarComponents.reportIssue(new AnalyzerMessage(expectedCheck, inputFile, 4, "line message", 0), RuleKey.of("MyRepo", "Other"), inputFile, null);
+    sonarComponents.recordIssuesTo(null, null);
+    sonarComponents.reportIssue(new AnalyzerMessage(expectedCheck, inputFile, 5, "not recorded", 0), ruleKey, inputFile, null);
+    assertThat(fileRecord.issues()).extracting(FileAnalysisRecord.Issue::message).containsExactly("message", "file message", "line message");
+
+    SensorContextTester replayContext = SensorContextTester.create(new File(""));
+    sonarComponents.setSensorContext(replayContext);
+    sonarComponents.replayIssues(inputFile, fileRecord, Collections.singletonMap(ruleKey, expectedCheck));
+
+    List<Issue> issues = new ArrayList<>(replayContext.allIssues());
+    assertThat(issues).hasSize(2);
+    assertThat(issues.get(0).ruleKey()).isEqualTo(ruleKey);
+    assertThat(issues.get(0).gap()).isEqualTo(2.0);
+    assertThat(issues.get(0).primaryLocation().message()).isEqualTo("message");
+    assertThat(issues.get(0).primaryLocation().textRange()).isEqualTo(inputFile.newRange(3, 4, 3, 24));
+    assertThat(issues.get(0).flows()).hasSize(1);
+    assertThat(issues.get(0).flows().get(0).locations().get(0).message()).isEqualTo("flow");
+    assertThat(issues.get(0).flows().get(0).locations().get(0).textRange()).isEqualTo(inputFile.newRange(2, 7, 2, 10));
+    assertThat(issues.get(1).gap()).isNull();
+    assertThat(issues.get(1).primaryLocation().message()).isEqualTo("file message");
+    assertThat(issues.get(1).primaryLocation().textRange()).isNull();
+  }
+
   @Test
   void cancellation() {
     SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
@@ -655,6 +700,134 @@ class SonarComponentsTest {
     assertThat(sonarComponents.getBatchModeSizeInKB()).isEqualTo(1000);
   }
 
+  @Test
+  void parallelism_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    assertThat(sonarComponents.getParallelism()).isEqualTo(1);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    // default value
+    assertThat(sonarComponents.getParallelism()).isEqualTo(1);
+
+    settings.setProperty("sonar.java.experimental.parallelism", "4");
+    assertThat(sonarComponents.getParallelism()).isEqualTo(4);
+
+    // invalid values fall back to sequential parsing
+    settings.setProperty("sonar.java.experimental.parallelism", "-2");
+    assertThat(sonarComponents.getParallelism()).isEqualTo(1);
+
+    // autoscan analyzes everything in a single batch
+    settings.setProperty("sonar.java.experimental.parallelism", "4");
+    settings.setProperty("sonar.internal.analysis.autoscan", "true");
+    assertThat(sonarComponents.getParallelism()).isEqualTo(1);
+  }
+
+  @Test
+  void adaptive_batch_size_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    assertThat(sonarComponents.isAdaptiveBatchSizeEnabled()).isFalse();
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.isAdaptiveBatchSizeEnabled()).isFalse();
+
+    settings.setProperty(SonarComponents.SONAR_ADAPTIVE_BATCH_SIZE_KEY, "true");
+    assertThat(sonarComponents.isAdaptiveBatchSizeEnabled()).isTrue();
+  }
+
+  @Test
+  void dependency_aware_batching_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    assertThat(sonarComponents.isDependencyAwareBatchingEnabled()).isFalse();
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.isDependencyAwareBatchingEnabled()).isFalse();
+
+    settings.setProperty("sonar.java.experimental.dependencyAwareBatches", "true");
+    assertThat(sonarComponents.isDependencyAwareBatchingEnabled()).isTrue();
+  }
+
+  @Test
+  void method_behaviors_persistence_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    assertThat(sonarComponents.isMethodBehaviorsPersistenceEnabled()).isFalse();
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.isMethodBehaviorsPersistenceEnabled()).isFalse();
+
+    settings.setProperty("sonar.java.experimental.persistMethodBehaviors", "true");
+    assertThat(sonarComponents.isMethodBehaviorsPersistenceEnabled()).isTrue();
+  }
+
+  @Test
+  void method_behaviors_sharing_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    assertThat(sonarComponents.isMethodBehaviorsSharingEnabled()).isFalse();
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+    assertThat(sonarComponents.isMethodBehaviorsSharingEnabled()).isFalse();
+
+    settings.setProperty("sonar.java.experimental.shareMethodBehaviors", "true");
+    assertThat(sonarComponents.isMethodBehaviorsSharingEnabled()).isTrue();
+
+    settings.setProperty("sonar.java.experimental.shareMethodBehaviors", "false");
+    settings.setProperty("sonar.java.experimental.persistMethodBehaviors", "true");
+    assertThat(sonarComponents.isMethodBehaviorsSharingEnabled()).isTrue();
+  }
+
+  @Test
+  void rule_profiling_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    assertThat(sonarComponents.isRuleProfilingEnabled()).isFalse();
+
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+    assertThat(sonarComponents.isRuleProfilingEnabled()).isFalse();
+
+    settings.setProperty("sonar.java.experimental.ruleProfiling", "true");
+    assertThat(sonarComponents.isRuleProfilingEnabled()).isTrue();
+    RuleProfiler ruleProfiler = sonarComponents.ruleProfiler();
+    assertThat(ruleProfiler.isEnabled()).isTrue();
+    assertThat(sonarComponents.ruleProfiler()).isSameAs(ruleProfiler);
+  }
+
+  @Test
+  void symbolic_execution_strategy_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    assertThat(sonarComponents.symbolicExecutionStrategy()).isEmpty();
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.symbolicExecutionStrategy()).isEmpty();
+
+    settings.setProperty("sonar.java.experimental.symbolicExecutionStrategy", "coverage");
+    assertThat(sonarComponents.symbolicExecutionStrategy()).contains("coverage");
+  }
+
+  @Test
+  void pipeline_queue_size_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    assertThat(sonarComponents.getPipelineQueueSize()).isZero();
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    // default value: no pipelining
+    assertThat(sonarComponents.getPipelineQueueSize()).isZero();
+
+    settings.setProperty("sonar.java.experimental.pipelineQueueSize", "8");
+    assertThat(sonarComponents.getPipelineQueueSize()).isEqualTo(8);
+
+    settings.setProperty("sonar.java.experimental.pipelineQueueSize", "-1");
+    assertThat(sonarComponents.getPipelineQueueSize()).isZero();
+
+    settings.setProperty("sonar.java.experimental.pipelineQueueSize", "8");
+    settings.setProperty("sonar.internal.analysis.autoscan", "true");
+    assertThat(sonarComponents.getPipelineQueueSize()).isZero();
+  }
+
   @Test
   void skipUnchangedFiles_returns_result_from_context() throws ApiMismatchException {
     SensorContextTester sensorContextTester = SensorContextTester.create(new File(""));
@@ -0,0 +1,132 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.caching;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisCacheTest {
+
+  @TempDir
+  File workDir;
+
+  @Test
+  void records_are_read_back_for_same_content_and_fingerprint() {
+    AnalysisCache cache = new AnalysisCache(workDir, "fingerprint");
+    FileAnalysisRecord fileRecord = new FileAnalysisRecord();
+    fileRecord.addHighlighting(1, 0, 1, 5, TypeOfText.KEYWORD);
+    fileRecord.addSymbol(new int[] {1, 6, 1, 7, 3, 4, 3, 5});
+    fileRecord.addMeasure("ncloc", 3);
+    fileRecord.setLinesData(Arrays.asList(1, 2, 3), Collections.singletonList(2));
+    fileRecord.setNoSonarLines(Collections.singletonList(3));
+    fileRecord.addClassNames(Collections.singletonList("org/foo/A"));
+    cache.write("class A {}", fileRecord);
+
+    FileAnalysisRecord readRecord = cache.read("class A {}");
+    assertThat(readRecord).isNotNull();
+    assertThat(readRecord.highlightingRanges()).containsExactly(new int[] {1, 0, 1, 5});
+    assertThat(readRecord.highlightingTypes()).containsExactly(TypeOfText.KEYWORD);
+    assertThat(readRecord.symbols()).containsExactly(new int[] {1, 6, 1, 7, 3, 4, 3, 5});
+    assertThat(readRecord.measures()).containsEntry("ncloc", 3).hasSize(1);
+    assertThat(readRecord.linesOfCode()).containsExactly(1, 2, 3);
+    assertThat(readRecord.executableLines()).containsExactly(2);
+    assertThat(readRecord.noSonarLines()).containsExactly(3);
+    assertThat(readRecord.classNames()).containsExactly("org/foo/A");
+    assertThat(cache.hitCount()).isEqualTo(1);
+    assertThat(cache.missCount()).isZero();
+  }
+
+  @Test
+  void issues_and_check_data_are_read_back() {
+    AnalysisCache cache = new AnalysisCache(workDir, "fingerprint");
+    FileAnalysisRecord fileRecord = new FileAnalysisRecord();
+    FileAnalysisRecord.Issue issue = new FileAnalysisRecord.Issue("java:S1", "message", new int[] {1, 0, 1, 5}, 2.0);
+    issue.addFlow(Arrays.asList(new FileAnalysisRecord.Location(new int[] {2, 1, 2, 3}, "first"), new FileAnalysisRecord.Location(new int[] {3, 1, 3, 3}, null)));
+    fileRecord.addIssue(issue);
+    fileRecord.addIssue(new FileAnalysisRecord.Issue("java:S2", "on file", null, null));
+    fileRecord.addCheckData("S3.package", "org.foo");
+    fileRecord.addCheckData("S3.package", "org.bar");
+    cache.write("class A {}", fileRecord);
+
+    FileAnalysisRecord readRecord = cache.read("class A {}");
+    assertThat(readRecord).isNotNull();
+    assertThat(readRecord.issues()).hasSize(2);
+    FileAnalysisRecord.Issue readIssue = readRecord.issues().get(0);
+    assertThat(readIssue.ruleKey()).isEqualTo("java:S1");
+    assertThat(readIssue.message()).isEqualTo("message");
+    assertThat(readIssue.range()).containsExactly(1, 0, 1, 5);
+    assertThat(readIssue.cost()).isEqualTo(2.0);
+    assertThat(readIssue.flows()).hasSize(1);
+    assertThat(readIssue.flows().get(0)).extracting(FileAnalysisRecord.Location::range).containsExactly(new int[] {2, 1, 2, 3}, new int[] {3, 1, 3, 3});
+    assertThat(readIssue.flows().get(0)).extracting(FileAnalysisRecord.Location::message).containsExactly("first", null);
+    FileAnalysisRecord.Issue issueOnFile = readRecord.issues().get(1);
+    assertThat(issueOnFile.range()).isNull();
+    assertThat(issueOnFile.cost()).isNull();
+    assertThat(issueOnFile.flows()).isEmpty();
+    assertThat(readRecord.checkData("S3.package")).containsExactly("org.foo", "org.bar");
+    assertThat(readRecord.checkData("S4.package")).isEmpty();
+  }
+
+  @Test
+  void changed_content_or_fingerprint_are_cache_misses() {
+    new AnalysisCache(workDir, "fingerprint").write("class A {}", new FileAnalysisRecord());
+
+    AnalysisCache cache = new AnalysisCache(workDir, "fingerprint");
+    assertThat(cache.read("class A { }")).isNull();
+    assertThat(new AnalysisCache(workDir, "other fingerprint").read("class A {}")).isNull();
+    assertThat(cache.read("class A {}")).isNotNull();
+    assertThat(cache.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  void entries_of_a_fingerprint_share_a_directory() throws IOException {
+    new AnalysisCache(workDir, "fingerprint").write("class A {}", new FileAnalysisRecord());
+    new AnalysisCache(workDir, "fingerprint").write("class B {}", new FileAnalysisRecord());
+    new AnalysisCache(workDir, "other fingerprint").write("class A {}", new FileAnalysisRecord());
+
+    try (Stream<Path> directories = Files.list(workDir.toPath().resolve(AnalysisCache.CACHE_DIRECTORY_NAME))) {
+      assertThat(directories.map(directory -> directory.toFile().list().length)).containsExactlyInAnyOrder(2, 1);
+    }
+  }
+
+  @Test
+  void corrupted_entries_are_cache_misses() throws IOException {
+    AnalysisCache cache = new AnalysisCache(workDir, "fingerprint");
+    cache.write("class A {}", new FileAnalysisRecord());
+    Path cacheDirectory = workDir.toPath().resolve(AnalysisCache.CACHE_DIRECTORY_NAME);
+    try (Stream<Path> entries = Files.walk(cacheDirectory)) {
+      Path entry = entries.filter(Files::isRegularFile).findFirst().orElseThrow(IllegalStateException::new);
+      Files.write(entry, new byte[] {0, 0, 0, 42});
+    }
+    assertThat(cache.read("class A {}")).isNull();
+    assertThat(cache.missCount()).isEqualTo(1);
+  }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.caching;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheUtilsTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void sha256() {
+    assertThat(CacheUtils.sha256("abc"))
+      .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad")
+      .isEqualTo(CacheUtils.sha256("abc".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void classpath_fingerprint_changes_with_the_entries() throws IOException {
+    File jar = tempDir.resolve("lib.jar").toFile();
+    Files.write(jar.toPath(), new byte[] {1, 2});
+    String fingerprint = CacheUtils.classpathFingerprint(Arrays.asList(jar, tempDir.resolve("classes").toFile()));
+    assertThat(fingerprint).startsWith(jar.getAbsolutePath() + ":2:").hasLineCount(2);
+
+    Files.write(jar.toPath(), new byte[] {1, 2, 3});
+    assertThat(CacheUtils.classpathFingerprint(Arrays.asList(jar, tempDir.resolve("classes").toFile()))).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  void write_atomically_replaces_the_target() throws IOException {
+    Path target = tempDir.resolve("dir").resolve("target");
+    CacheUtils.writeAtomically(target, out -> out.write(1));
+    CacheUtils.writeAtomically(target, out -> out.write(2));
+    assertThat(Files.readAllBytes(target)).containsExactly(2);
+    assertThat(listFiles(target.getParent())).containsExactly(target);
+  }
+
+  @Test
+  void interrupted_write_keeps_the_previous_content() throws IOException {
+    Path target = tempDir.resolve("target");
+    CacheUtils.writeAtomically(target, out -> out.write(1));
+    assertThatThrownBy(() -> CacheUtils.writeAtomically(target, out -> {
+      out.write(2);
+      throw new IOException("Boom");
+    })).hasMessage("Boom");
+    assertThat(Files.readAllBytes(target)).containsExactly(1);
+    assertThat(listFiles(tempDir)).containsExactly(target);
+  }
+
+  private static Object[] listFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.toArray();
+    }
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.cfg;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BitVectorDataflowTest {
+
+  private static final String METHOD = "void foo(boolean b, int n) {" +
+    "  try {" +
+    "    while (n > 0) {" +
+    "      if (b) { a(); continue; } else { c(); }" +
+    "      n--;" +
+    "    }" +
+    "  } catch (RuntimeException e) {" +
+    "    d();" +
+    "  }" +
+    "  for (int i = 0; i < n; i++) { if (b) break; }" +
+    "}";
+
+  private static CFG buildCFG(String methodCode) {
+    CompilationUnitTree cut = JParserTestUtils.parse("class A { " + methodCode + " void a() {} void c() {} void d() {} }");
+    MethodTree tree = ((MethodTree) ((ClassTree) cut.types().get(0)).members().get(0));
+    return (CFG) tree.cfg();
+  }
+
+  @Test
+  void forward_facts_reach_all_the_blocks_reachable_from_the_block_generating_them() {
+    CFG cfg = buildCFG(METHOD);
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    BitVectorDataflow dataflow = BitVectorDataflow.solve(cfg, BitVectorDataflow.Direction.FORWARD, ownIndex(blocks), block -> new BitSet());
+
+    for (CFG.Block block : blocks) {
+      BitSet expectedIn = new BitSet();
+      for (CFG.Block other : blocks) {
+        if (other.successors().stream().anyMatch(s -> reaches(s, block)) || other.exceptions().stream().anyMatch(s -> reaches(s, block))) {
+          expectedIn.set(blocks.indexOf(other));
+        }
+      }
+      assertThat(dataflow.in(block)).as("in of B" + block.id()).isEqualTo(expectedIn);
+      BitSet expectedOut = (BitSet) expectedIn.clone();
+      expectedOut.set(blocks.indexOf(block));
+      assertThat(dataflow.out(block)).as("out of B" + block.id()).isEqualTo(expectedOut);
+    }
+  }
+
+  @Test
+  void backward_facts_reach_all_the_blocks_from_which_the_block_generating_them_is_reachable() {
+    CFG cfg = buildCFG(METHOD);
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    BitVectorDataflow dataflow = BitVectorDataflow.solve(cfg, BitVectorDataflow.Direction.BACKWARD, ownIndex(blocks), block -> new BitSet());
+
+    for (CFG.Block block : blocks) {
+      BitSet expectedOut = new BitSet();
+      for (CFG.Block other : blocks) {
+        if (block.successors().stream().anyMatch(s -> reaches(s, other)) || block.exceptions().stream().anyMatch(s -> reaches(s, other))) {
+          expectedOut.set(blocks.indexOf(other));
+        }
+      }
+      assertThat(dataflow.out(block)).as("out of B" + block.id()).isEqualTo(expectedOut);
+    }
+    assertThat(dataflow.out(cfg.exitBlock())).isEqualTo(new BitSet());
+  }
+
+  @Test
+  void killed_facts_do_not_flow_through_blocks() {
+    CFG cfg = buildCFG(METHOD);
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    // each block kills the facts of all the other blocks: only the facts of the direct predecessors are in
+    Function<CFG.Block, BitSet> killOthers = block -> {
+      BitSet kill = new BitSet();
+      kill.set(0, blocks.size());
+      kill.clear(blocks.indexOf(block));
+      return kill;
+    };
+    BitVectorDataflow dataflow = BitVectorDataflow.solve(cfg, BitVectorDataflow.Direction.FORWARD, ownIndex(blocks), killOthers);
+
+    for (CFG.Block block : blocks) {
+      BitSet expectedIn = new BitSet();
+      block.predecessors().forEach(predecessor -> expectedIn.set(blocks.indexOf(predecessor)));
+      assertThat(dataflow.in(block)).as("in of B" + block.id()).isEqualTo(expectedIn);
+    }
+  }
+
+  @Test
+  void blocks_outside_of_the_cfg_have_no_facts() {
+    CFG cfg = buildCFG(METHOD);
+    CFG other = buildCFG("void bar() { a(); }");
+    BitVectorDataflow dataflow = BitVectorDataflow.solve(cfg, BitVectorDataflow.Direction.BACKWARD, block -> new BitSet(), block -> new BitSet());
+    assertThat(dataflow.in(other.entryBlock())).isNull();
+    assertThat(dataflow.out(other.entryBlock())).isNull();
+  }
+
+  private static Function<CFG.Block, BitSet> ownIndex(List<CFG.Block> blocks) {
+    return block -> {
+      BitSet gen = new BitSet();
+      gen.set(blocks.indexOf(block));
+      return gen;
+    };
+  }
+
+  private static boolean reaches(CFG.Block from, CFG.Block to) {
+    Deque<CFG.Block> workList = new ArrayDeque<>();
+    Set<CFG.Block> visited = new HashSet<>();
+    workList.push(from);
+    while (!workList.isEmpty()) {
+      CFG.Block block = workList.pop();
+      if (block == to) {
+        return true;
+      }
+      if (visited.add(block)) {
+        block.successors().forEach(workList::push);
+        block.exceptions().forEach(workList::push);
+      }
+    }
+    return false;
+  }
+
+}
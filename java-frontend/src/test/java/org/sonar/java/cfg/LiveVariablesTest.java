@@ -21,6 +21,7 @@ package org.sonar.java.cfg;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.sonar.java.model.JParserTestUtils;
 import org.sonar.plugins.java.api.semantic.Symbol;
@@ -29,6 +30,7 @@ import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class LiveVariablesTest {
 
@@ -136,6 +138,19 @@ class LiveVariablesTest {
     assertFieldsByMethodEntry("void foo(int a) { B that = new B(); foo(that.field1); }");
   }
 
+  @Test
+  void results_are_shared_by_the_users_of_a_cfg() {
+    CFG cfg = buildCFG("void foo(int a) { int i = field1; while (a > 0) { a--; } foo(i); }");
+    assertThat(cfg.liveVariables()).isSameAs(cfg.liveVariables());
+    assertThat(cfg.liveVariablesWithFields()).isSameAs(cfg.liveVariablesWithFields()).isNotSameAs(cfg.liveVariables());
+    assertThat(cfg.liveVariables().getIn(cfg.entryBlock())).extracting(Symbol::name).containsExactly("a");
+    assertThat(cfg.liveVariablesWithFields().getIn(cfg.entryBlock())).extracting(Symbol::name).containsExactlyInAnyOrder("a", "field1");
+    assertThat(cfg.loops()).isSameAs(cfg.loops()).hasSize(1);
+
+    Set<Symbol> in = cfg.liveVariables().getIn(cfg.entryBlock());
+    assertThatThrownBy(in::clear).isInstanceOf(UnsupportedOperationException.class);
+  }
+
   private void assertFieldsByMethodEntry(String methodCode, String ...inEntryNames) {
     CFG cfg = buildCFG(methodCode);
     LiveVariables liveVariables = LiveVariables.analyzeWithFields(cfg);
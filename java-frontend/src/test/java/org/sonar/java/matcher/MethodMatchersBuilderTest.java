@@ -0,0 +1,51 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.matcher;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.java.api.semantic.MethodMatchers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MethodMatchersBuilderTest {
+
+  @Test
+  void accepted_names() {
+    assertThat(acceptedNames(new MethodMatchersBuilder().ofAnyType().names("a", "b").withAnyParameters().build()))
+      .containsExactlyInAnyOrder("a", "b");
+    assertThat(acceptedNames(new MethodMatchersBuilder().ofAnyType().names("a").addWithoutParametersMatcher().addParametersMatcher("int").build()))
+      .containsExactly("a");
+    assertThat(acceptedNames(new MethodMatchersBuilder().ofAnyType().constructor().withAnyParameters().build()))
+      .containsExactly(MethodMatchers.CONSTRUCTOR);
+  }
+
+  @Test
+  void any_name_accepted() {
+    assertThat(((MethodMatchersBuilder) new MethodMatchersBuilder().ofAnyType().anyName().withAnyParameters().build()).acceptedNames()).isEmpty();
+    assertThat(((MethodMatchersBuilder) new MethodMatchersBuilder().ofAnyType().names(MethodMatchers.ANY).withAnyParameters().build()).acceptedNames()).isEmpty();
+    assertThat(((MethodMatchersBuilder) new MethodMatchersBuilder().ofAnyType().name("a"::equals).withAnyParameters().build()).acceptedNames()).isEmpty();
+  }
+
+  private static Set<String> acceptedNames(MethodMatchers matchers) {
+    return ((MethodMatchersBuilder) matchers).acceptedNames().get();
+  }
+
+}
@@ -89,6 +89,14 @@ class DefaultJavaFileScannerContextTest {
     assertThat(context.getComplexityNodes(compilationUnitTree)).isEmpty();
   }
 
+  @Test
+  void get_descendants_of_kind() {
+    assertThat(context.getDescendantsOfKind(compilationUnitTree, Tree.Kind.CLASS))
+      .containsExactlyElementsOf(((JavaTree.CompilationUnitTreeImpl) compilationUnitTree).kindIndex().nodesOfKind(Tree.Kind.CLASS))
+      .isNotEmpty();
+    assertThat(context.getDescendantsOfKind(compilationUnitTree, Tree.Kind.SWITCH_STATEMENT)).isEmpty();
+  }
+
   @Test
   void get_tree() {
     assertThat(context.getTree()).isEqualTo(compilationUnitTree);
@@ -138,6 +138,62 @@ class GeneratedFileTest {
     assertThat(sourceMap.getLocation(207, 209)).isEmpty();
   }
 
+  @Test
+  void generated_lines_with_the_same_location_are_stored_as_ranges() {
+    String smap = "SMAP\n" +
+      "index_jsp.java\n" +
+      "JSP\n" +
+      "*S JSP\n" +
+      "*F\n" +
+      "+ 0 index.jsp\n" +
+      "index.jsp\n" +
+      "*L\n" +
+      "5:10,100\n" +
+      "1:200,3\n" +
+      "2:201\n" +
+      "7,2:300\n" +
+      "*E\n";
+
+    InputFile inputFile = inputFileFromPath(tmp.resolve("src/main/webapp/index.jsp"));
+    fs.add(inputFile);
+    GeneratedFile generatedFile = new GeneratedFile(tmp.resolve("index_jsp.java"));
+    generatedFile.addSmap(new SmapFile(tmp, smap, tmp.resolve("src/main/webapp"), fs));
+
+    GeneratedFile.SourceMapImpl sourceMap = ((GeneratedFile.SourceMapImpl) generatedFile.sourceMap());
+    // 10-109, 200, 201 (mapped twice), 202, 300 and 301
+    assertThat(sourceMap.rangeCount()).isEqualTo(6);
+    assertLocation(sourceMap.getLocation(10, 10), 5, 5);
+    assertLocation(sourceMap.getLocation(50, 109), 5, 5);
+    assertThat(sourceMap.getLocation(9, 10)).isEmpty();
+    assertThat(sourceMap.getLocation(110, 110)).isEmpty();
+    assertLocation(sourceMap.getLocation(200, 200), 1, 1);
+    assertLocation(sourceMap.getLocation(201, 201), 1, 2);
+    assertLocation(sourceMap.getLocation(200, 202), 1, 1);
+    assertLocation(sourceMap.getLocation(300, 301), 7, 8);
+    assertThat(sourceMap.getLocation(1, 1)).isEmpty();
+    assertThat(sourceMap.getLocation(302, 302)).isEmpty();
+  }
+
+  @Test
+  void source_map_without_mapped_files_is_empty() {
+    String smap = "SMAP\n" +
+      "index_jsp.java\n" +
+      "JSP\n" +
+      "*S JSP\n" +
+      "*F\n" +
+      "+ 0 index.jsp\n" +
+      "index.jsp\n" +
+      "*L\n" +
+      "1,6:116,0\n" +
+      "*E\n";
+    GeneratedFile generatedFile = new GeneratedFile(tmp.resolve("index_jsp.java"));
+    generatedFile.addSmap(new SmapFile(tmp, smap, tmp, fs));
+
+    GeneratedFile.SourceMapImpl sourceMap = ((GeneratedFile.SourceMapImpl) generatedFile.sourceMap());
+    assertThat(sourceMap.rangeCount()).isZero();
+    assertThat(sourceMap.getLocation(116, 116)).isEmpty();
+  }
+
   private void assertLocation(Optional<SourceMap.Location> location, int expectedStart, int expectedEnd) {
     assertThat(location).isPresent();
     SourceMap.Location loc = location.get();
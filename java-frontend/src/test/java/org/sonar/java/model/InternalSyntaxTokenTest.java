@@ -59,6 +59,14 @@ class InternalSyntaxTokenTest {
       .isEqualTo(Range.at(10,8,13, 4));
   }
 
+  @Test
+  void range_is_computed_from_start_position() {
+    InternalSyntaxToken token = token(42, 22, "foo");
+    assertThat(token.range()).isEqualTo(token.range());
+    assertThat(token.range().start()).isSameAs(token.range().start());
+    assertThat(new InternalSyntaxToken(token).range()).isEqualTo(token.range());
+  }
+
   private static InternalSyntaxToken token(int line, int column, String value) {
     int columnOffset = column - 1;
     return new InternalSyntaxToken(line, columnOffset, value, Collections.emptyList(), false);
@@ -19,7 +19,16 @@
  */
 package org.sonar.java.model;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.eclipse.jdt.core.dom.ClasspathEnvironment;
 import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.AnalysisProgress;
+import org.sonar.java.TestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.sonar.java.model.JParserConfig.shouldEnablePreviewFlag;
@@ -38,4 +47,65 @@ class JParserConfigTest {
     assertThat(shouldEnablePreviewFlag(JavaVersionImpl.fromString("1.8"))).isFalse();
   }
 
+  @Test
+  void batch_configuration_with_analysis_lock_is_a_copy() {
+    JParserConfig config = JParserConfig.Mode.BATCH.create(new JavaVersionImpl(11), Collections.singletonList(new File("target/classes")));
+    JParserConfig lockedConfig = config.withAnalysisLock(new Object());
+    assertThat(lockedConfig).isNotSameAs(config);
+    assertThat(lockedConfig.classpath).isSameAs(config.classpath);
+    assertThat(lockedConfig.javaVersion).isSameAs(config.javaVersion);
+  }
+
+  @Test
+  void file_by_file_configuration_ignores_analysis_lock() {
+    JParserConfig config = JParserConfig.Mode.FILE_BY_FILE.create(new JavaVersionImpl(11), Collections.emptyList());
+    assertThat(config.withAnalysisLock(new Object())).isSameAs(config);
+    assertThat(config.withoutPerformanceMeasures()).isSameAs(config);
+  }
+
+  @Test
+  void batch_configuration_without_performance_measures_is_a_copy() {
+    JParserConfig config = JParserConfig.Mode.BATCH.create(new JavaVersionImpl(11), Collections.singletonList(new File("target/classes")));
+    JParserConfig unmeasuredConfig = config.withoutPerformanceMeasures();
+    assertThat(unmeasuredConfig).isNotSameAs(config);
+    assertThat(unmeasuredConfig.classpath).isSameAs(config.classpath);
+  }
+
+  @Test
+  void batch_configuration_without_performance_measures_parses_and_converts() throws Exception {
+    InputFile inputFile = TestUtils.inputFile("src/test/files/metrics/Classes.java");
+    List<JavaTree.CompilationUnitTreeImpl> trees = new ArrayList<>();
+    JParserConfig.Mode.BATCH.create(new JavaVersionImpl(11), Collections.emptyList())
+      .withoutPerformanceMeasures()
+      .parse(Collections.singletonList(inputFile), () -> false, new AnalysisProgress(1), (input, result) -> {
+        try {
+          trees.add(result.get());
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      });
+    assertThat(trees).hasSize(1);
+  }
+
+  @Test
+  void batches_lease_the_shared_classpath_environment() throws Exception {
+    InputFile inputFile = TestUtils.inputFile("src/test/files/metrics/Classes.java");
+    JParserConfig config = JParserConfig.Mode.BATCH.create(new JavaVersionImpl(11), Collections.singletonList(new File("target/classes")));
+    List<Runnable> cleaners = new ArrayList<>();
+    for (JParserConfig batchConfig : Arrays.asList(config, config.withAnalysisLock(new Object()))) {
+      batchConfig.parse(Collections.singletonList(inputFile), () -> false, new AnalysisProgress(1), (input, result) -> {
+        try {
+          cleaners.add(result.get().sema.getEnvironmentCleaner());
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      });
+      cleaners.get(cleaners.size() - 1).run();
+    }
+    assertThat(cleaners)
+      .hasSize(2)
+      .allMatch(ClasspathEnvironment.Lease.class::isInstance);
+    config.close();
+  }
+
 }
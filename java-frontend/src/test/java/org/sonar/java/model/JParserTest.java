@@ -43,6 +43,8 @@ import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 import org.apache.commons.io.FileUtils;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ClasspathEnvironment;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.api.io.TempDir;
@@ -51,6 +53,7 @@ import org.mockito.Mockito;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.log.LogTesterJUnit5;
 import org.sonar.java.AnalysisProgress;
+import org.sonar.java.ProgressMonitor;
 import org.sonar.java.TestUtils;
 import org.sonar.java.model.JavaTree.CompilationUnitTreeImpl;
 import org.sonar.java.model.declaration.ClassTreeImpl;
@@ -62,6 +65,8 @@ import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.EnumConstantTree;
 import org.sonar.plugins.java.api.tree.ForStatementTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.TryStatementTree;
 import org.sonar.plugins.java.api.tree.VariableTree;
@@ -408,11 +413,11 @@ class JParserTest {
     }
 
     @Override
-    public ASTParser astParser() {
+    void createASTs(ClasspathEnvironment.Lease lease, String[] sourceFilePaths, String[] encodings, FileASTRequestor requestor, ProgressMonitor monitor) {
       if (!exceptions.isEmpty()) {
         throw exceptions.pop();
       }
-      return super.astParser();
+      super.createASTs(lease, sourceFilePaths, encodings, requestor, monitor);
     }
 
   }
@@ -499,6 +504,22 @@ class JParserTest {
     assertThat(( (ArrayTypeTree) variableTree.type()).openBracketToken()).isNotNull();
   }
 
+  @Test
+  void tokens_share_texts_and_empty_trivia() {
+    CompilationUnitTree unit = parse("class A { int a; int b; /* c */ int a() { return a; } }");
+    List<Tree> members = ((ClassTree) unit.types().get(0)).members();
+    SyntaxToken firstInt = members.get(0).firstToken();
+    SyntaxToken secondInt = members.get(1).firstToken();
+    SyntaxToken thirdInt = members.get(2).firstToken();
+
+    assertThat(secondInt.text()).isEqualTo("int").isSameAs(firstInt.text());
+    assertThat(((VariableTree) members.get(0)).simpleName().name()).isSameAs(((MethodTree) members.get(2)).simpleName().name());
+    assertThat(firstInt.trivias()).isEmpty();
+    assertThat(secondInt.trivias()).isSameAs(firstInt.trivias());
+    assertThat(thirdInt.trivias()).extracting(SyntaxTrivia::comment).containsExactly("/* c */");
+    assertThat(thirdInt.trivias().get(0).range()).isEqualTo(Range.at(1, 25, 1, 32));
+  }
+
   private Path createFakeJrtFs(Path tempFolder) throws IOException {
     // We have to put a fake JrtFileSystemProvider in the JAR to make JrtFsLoader crash and by this way verify that this is truely our JAR
     // that was loaded
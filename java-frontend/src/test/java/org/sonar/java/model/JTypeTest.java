@@ -209,6 +209,51 @@ class JTypeTest {
       .isSameAs(type("java.lang.Object"));
   }
 
+  @Test
+  void erasure_of_parameterized_type() {
+    JavaTree.CompilationUnitTreeImpl cu = test("class C { java.util.List<String> f; }");
+    ClassTreeImpl c = (ClassTreeImpl) cu.types().get(0);
+    VariableTreeImpl f = (VariableTreeImpl) c.members().get(0);
+    Type type = f.type().symbolType();
+    assertThat(type.erasure())
+      .isSameAs(type.erasure())
+      .is("java.util.List");
+  }
+
+  @Test
+  void subtype_queries_are_repeatable() {
+    JType string = type("java.lang.String");
+    JType charSequence = type("java.lang.CharSequence");
+    for (int i = 0; i < 2; i++) {
+      assertThat(string.isSubtypeOf("java.lang.CharSequence")).isTrue();
+      assertThat(string.isSubtypeOf(charSequence)).isTrue();
+      assertThat(charSequence.isSubtypeOf(string)).isFalse();
+      assertThat(string.isSubtypeOf("java.lang.Integer")).isFalse();
+      assertThat(string.isSubtypeOf("org.unknown.Type")).isFalse();
+      assertThat(string.isSubtypeOf(Symbols.unknownType)).isFalse();
+    }
+  }
+
+  @Test
+  void subtype_queries_are_memoized() {
+    JType string = type("java.lang.String");
+    JType charSequence = type("java.lang.CharSequence");
+    int memoized = sema.memoizedSubtypeQueries();
+
+    assertThat(string.isSubtypeOf(charSequence)).isTrue();
+    assertThat(sema.memoizedSubtypeQueries()).isEqualTo(memoized + 1);
+    // same pair of types, queried by instance and by name: answered by the memo
+    assertThat(string.isSubtypeOf(charSequence)).isTrue();
+    assertThat(string.isSubtypeOf("java.lang.CharSequence")).isTrue();
+    assertThat(sema.memoizedSubtypeQueries()).isEqualTo(memoized + 1);
+
+    assertThat(charSequence.isSubtypeOf(string)).isFalse();
+    assertThat(sema.memoizedSubtypeQueries()).isEqualTo(memoized + 2);
+    // unknown types are never looked up
+    assertThat(string.isSubtypeOf(Symbols.unknownType)).isFalse();
+    assertThat(sema.memoizedSubtypeQueries()).isEqualTo(memoized + 2);
+  }
+
   @Test
   void elementType() {
     assertThat(type("int[][]").elementType())
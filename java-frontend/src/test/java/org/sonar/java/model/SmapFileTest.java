@@ -119,6 +119,63 @@ class SmapFileTest {
     assertThat(logTester.logs(LoggerLevel.WARN)).contains("Invalid line info invalid line info");
   }
 
+  @Test
+  void line_info_parsing() {
+    assertThat(SmapFile.parseLineInfo("12:34", 3)).isEqualTo(new SmapFile.LineInfo(12, 3, 1, 34, 1));
+    assertThat(SmapFile.parseLineInfo("12#4,5:34,6", 3)).isEqualTo(new SmapFile.LineInfo(12, 4, 5, 34, 6));
+    assertThat(SmapFile.parseLineInfo("12,5:34", 3)).isEqualTo(new SmapFile.LineInfo(12, 3, 5, 34, 1));
+    assertThat(SmapFile.parseLineInfo("2147483647:1", 0)).isEqualTo(new SmapFile.LineInfo(Integer.MAX_VALUE, 0, 1, 1, 1));
+
+    assertThat(SmapFile.parseLineInfo("", 0)).isNull();
+    assertThat(SmapFile.parseLineInfo("12", 0)).isNull();
+    assertThat(SmapFile.parseLineInfo("12:", 0)).isNull();
+    assertThat(SmapFile.parseLineInfo(":34", 0)).isNull();
+    assertThat(SmapFile.parseLineInfo("12#:34", 0)).isNull();
+    assertThat(SmapFile.parseLineInfo("12,:34", 0)).isNull();
+    assertThat(SmapFile.parseLineInfo("12:34,", 0)).isNull();
+    assertThat(SmapFile.parseLineInfo("12:34 ", 0)).isNull();
+    assertThat(SmapFile.parseLineInfo("12 :34", 0)).isNull();
+    assertThat(SmapFile.parseLineInfo("-12:34", 0)).isNull();
+    assertThat(SmapFile.parseLineInfo("2147483648:1", 0)).isNull();
+  }
+
+  @Test
+  void windows_line_endings() {
+    String sourceMap = "SMAP\r\n" +
+      "test_jsp.java\r\n" +
+      "JSP\r\n" +
+      "*S JSP\r\n" +
+      "*F\r\n" +
+      "+ 0 test.jsp\r\n" +
+      "WEB-INF/test.jsp\r\n" +
+      "*L\r\n" +
+      "1,5:116,0\r\n" +
+      "\r\n" +
+      "123#0:207\r\n" +
+      "*E\r\n";
+    SmapFile smap = new SmapFile(temporaryFolder, sourceMap, temporaryFolder, new DefaultFileSystem(temporaryFolder));
+    assertThat(smap.getGeneratedFile()).isEqualTo(temporaryFolder.resolve("test_jsp.java"));
+    assertThat(smap.getFileSection()).containsExactly(entry(0, new SmapFile.FileInfo(0, "test.jsp", "WEB-INF/test.jsp", null)));
+    assertThat(smap.getLineSection()).containsExactly(
+      new SmapFile.LineInfo(1, 0, 5, 116, 0),
+      new SmapFile.LineInfo(123, 0, 1, 207, 1));
+    assertThat(logTester.logs(LoggerLevel.WARN)).isEmpty();
+  }
+
+  @Test
+  void invalid_file_info() {
+    Path p = Paths.get("file.class.smap");
+    assertThatThrownBy(() -> new SmapFile(p, "SMAP\ntest.jsp\nJSP\n*S JSP\n*F\nfile.jsp\n*L\n", null, null))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Invalid file info file.jsp");
+    assertThatThrownBy(() -> new SmapFile(p, "SMAP\ntest.jsp\nJSP\n*S JSP\n*F\n+ 0 file.jsp", null, null))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Invalid file info + 0 file.jsp");
+    assertThatThrownBy(() -> new SmapFile(p, "SMAP\n", null, null))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Not a source map");
+  }
+
   @Test
   void lineinfo_hashcode_equals_tostring() {
     SmapFile.LineInfo lineInfo = new SmapFile.LineInfo(1, 0, 1, 1, 1);
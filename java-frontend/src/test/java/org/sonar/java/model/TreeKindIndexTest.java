@@ -0,0 +1,138 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TreeKindIndexTest {
+
+  private static final String SOURCE = "class A {\n" +
+    "  void f() {\n" +
+    "    g(h(1));\n" +
+    "    int a = 1, b = i();\n" +
+    "  }\n" +
+    "  void g(Object o) {\n" +
+    "    new Object() { void j() { k(); } };\n" +
+    "  }\n" +
+    "  int h(int x) { return x; }\n" +
+    "  int i() { return h(2); }\n" +
+    "  void k() { }\n" +
+    "}\n";
+
+  @Test
+  void nodes_are_indexed_in_document_order() {
+    CompilationUnitTree cut = JParserTestUtils.parse(SOURCE);
+    TreeKindIndex index = TreeKindIndex.of(cut);
+
+    List<Tree> invocations = index.nodesOfKind(Tree.Kind.METHOD_INVOCATION);
+    assertThat(invocations).extracting(TreeKindIndexTest::methodName).containsExactly("g", "h", "i", "k", "h");
+    assertThat(index.nodesOfKind(Tree.Kind.METHOD)).hasSize(6);
+    assertThat(index.nodesOfKind(Tree.Kind.COMPILATION_UNIT)).containsExactly(cut);
+    assertThat(index.nodesOfKind(Tree.Kind.TOKEN)).isEmpty();
+    assertThat(index.nodesOfKind(Tree.Kind.SWITCH_STATEMENT)).isEmpty();
+  }
+
+  @Test
+  void descendants_are_nodes_of_the_subtree() {
+    CompilationUnitTree cut = JParserTestUtils.parse(SOURCE);
+    TreeKindIndex index = TreeKindIndex.of(cut);
+    ClassTree classTree = (ClassTree) cut.types().get(0);
+    MethodTree f = (MethodTree) classTree.members().get(0);
+    MethodTree g = (MethodTree) classTree.members().get(1);
+    MethodTree k = (MethodTree) classTree.members().get(4);
+
+    assertThat(index.descendantsOfKind(f, Tree.Kind.METHOD_INVOCATION)).extracting(TreeKindIndexTest::methodName).containsExactly("g", "h", "i");
+    assertThat(index.descendantsOfKind(g, Tree.Kind.METHOD_INVOCATION)).extracting(TreeKindIndexTest::methodName).containsExactly("k");
+    assertThat(index.descendantsOfKind(g, Tree.Kind.METHOD)).hasSize(1);
+    assertThat(index.descendantsOfKind(k, Tree.Kind.METHOD_INVOCATION)).isEmpty();
+    // the tree itself is not part of its descendants
+    assertThat(index.descendantsOfKind(f, Tree.Kind.METHOD)).isEmpty();
+    // tokens are not indexed
+    assertThat(index.descendantsOfKind(f.simpleName().identifierToken(), Tree.Kind.METHOD_INVOCATION)).isEmpty();
+  }
+
+  @Test
+  void descendants_match_a_recursive_visit() {
+    CompilationUnitTree cut = JParserTestUtils.parse(SOURCE);
+    TreeKindIndex index = TreeKindIndex.of(cut);
+    for (Tree.Kind kind : new Tree.Kind[] {Tree.Kind.METHOD_INVOCATION, Tree.Kind.VARIABLE, Tree.Kind.PRIMITIVE_TYPE, Tree.Kind.IDENTIFIER}) {
+      for (Tree method : index.nodesOfKind(Tree.Kind.METHOD)) {
+        assertThat(index.descendantsOfKind(method, kind)).containsExactlyElementsOf(collect(method, kind));
+      }
+    }
+  }
+
+  @Test
+  void trees_outside_of_the_index_are_visited() {
+    CompilationUnitTree indexed = JParserTestUtils.parse(SOURCE);
+    CompilationUnitTree other = JParserTestUtils.parse(SOURCE);
+    TreeKindIndex index = TreeKindIndex.of(indexed);
+
+    assertThat(index.descendantsOfKind(other, Tree.Kind.METHOD_INVOCATION))
+      .hasSize(5)
+      .doesNotContainAnyElementsOf(index.nodesOfKind(Tree.Kind.METHOD_INVOCATION));
+  }
+
+  @Test
+  void index_of_compilation_unit_is_computed_once() {
+    JavaTree.CompilationUnitTreeImpl cut = (JavaTree.CompilationUnitTreeImpl) JParserTestUtils.parse(SOURCE);
+    assertThat(cut.kindIndex()).isSameAs(cut.kindIndex());
+    assertThat(cut.kindIndex().size()).isEqualTo(TreeKindIndex.of(cut).size());
+  }
+
+  @Test
+  void index_of_compilation_unit_is_built_by_the_parser() {
+    JavaTree.CompilationUnitTreeImpl cut = (JavaTree.CompilationUnitTreeImpl) JParserTestUtils.parse(SOURCE);
+    TreeKindIndex index = cut.kindIndex();
+    TreeKindIndex visited = TreeKindIndex.of(cut);
+    for (Tree.Kind kind : Tree.Kind.values()) {
+      assertThat(index.nodesOfKind(kind)).containsExactlyElementsOf(visited.nodesOfKind(kind));
+    }
+    Tree f = index.nodesOfKind(Tree.Kind.METHOD).get(0);
+    assertThat(index.descendantsOfKind(f, Tree.Kind.METHOD_INVOCATION)).extracting(TreeKindIndexTest::methodName).containsExactly("g", "h", "i");
+  }
+
+  private static String methodName(Tree tree) {
+    return ExpressionUtils.methodName((MethodInvocationTree) tree).name();
+  }
+
+  private static List<Tree> collect(Tree tree, Tree.Kind kind) {
+    List<Tree> result = new ArrayList<>();
+    for (Tree child : ((JavaTree) tree).getChildren()) {
+      if (!((JavaTree) child).isLeaf()) {
+        if (child.is(kind)) {
+          result.add(child);
+        }
+        result.addAll(collect(child, kind));
+      }
+    }
+    return result;
+  }
+
+}
@@ -20,18 +20,27 @@
 package org.sonar.java.model;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
 import org.assertj.core.api.Fail;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
 import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.log.LogAndArguments;
 import org.sonar.api.utils.log.LogTesterJUnit5;
 import org.sonar.api.utils.log.LoggerLevel;
@@ -39,14 +48,19 @@ import org.sonar.java.AnalysisException;
 import org.sonar.java.CheckFailureException;
 import org.sonar.java.EndOfAnalysisCheck;
 import org.sonar.java.JavaVersionAwareVisitor;
+import org.sonar.java.RuleProfiler;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.TestUtils;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.caching.AnalysisCache;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.checks.EndOfAnalysisVisitor;
 import org.sonar.java.checks.VisitorThatCanBeSkipped;
 import org.sonar.java.exceptions.ApiMismatchException;
 import org.sonar.java.notchecks.VisitorNotInChecksPackage;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaVersion;
@@ -58,8 +72,11 @@ import org.sonar.plugins.java.api.tree.Tree.Kind;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -452,6 +469,151 @@ class VisitorsBridgeTest {
       .isEqualTo("Optimized analysis for 1 of 1 files.");
   }
 
+  @Test
+  void endOfAnalysis_writes_rule_profile_when_enabled(@TempDir Path workDir) throws IOException {
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    doReturn(new RuleProfiler(true)).when(sonarComponents).ruleProfiler();
+    doReturn(mock(NewSymbolTable.class, RETURNS_DEEP_STUBS)).when(sonarComponents).symbolizableFor(any());
+    doReturn(workDir.toFile()).when(sonarComponents).workDir();
+    VisitorsBridge visitorsBridge = new VisitorsBridge(
+      Arrays.asList(new ProfiledScanner(), new ProfiledClassVisitor()),
+      Collections.emptyList(),
+      sonarComponents
+    );
+    visitorsBridge.setCurrentFile(INPUT_FILE);
+    visitorsBridge.visitFile(JParserTestUtils.parse("class A { class B {} }"), false);
+    visitorsBridge.endOfAnalysis();
+
+    List<String> report = Files.readAllLines(workDir.resolve(RuleProfiler.REPORT_FILE_NAME), StandardCharsets.UTF_8);
+    assertThat(report).hasSize(3);
+    assertThat(report.get(0)).startsWith("rule,invocations,files,");
+    // the subscription visitor is invoked when entering and leaving the file, and when entering and leaving each class
+    assertThat(report.subList(1, 3)).anyMatch(line -> line.startsWith("P1,1,1,")).anyMatch(line -> line.startsWith("P2,6,1,"));
+  }
+
+  @Test
+  void rule_profile_covers_the_scanners_sharing_the_profiler(@TempDir Path workDir) throws IOException {
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    doReturn(new RuleProfiler(true)).when(sonarComponents).ruleProfiler();
+    doReturn(workDir.toFile()).when(sonarComponents).workDir();
+    VisitorsBridge mainBridge = new VisitorsBridge(Collections.singletonList(new ProfiledScanner()), Collections.emptyList(), sonarComponents);
+    VisitorsBridge generatedBridge = new VisitorsBridge(Collections.singletonList(new ProfiledClassVisitor()), Collections.emptyList(), sonarComponents);
+    mainBridge.setCurrentFile(new GeneratedFile(workDir.resolve("A.java")));
+    mainBridge.visitFile(JParserTestUtils.parse("class A { }"), false);
+    generatedBridge.setCurrentFile(new GeneratedFile(workDir.resolve("B.java")));
+    generatedBridge.visitFile(JParserTestUtils.parse("class B { }"), false);
+    mainBridge.endOfAnalysis();
+    generatedBridge.endOfAnalysis();
+
+    List<String> report = Files.readAllLines(workDir.resolve(RuleProfiler.REPORT_FILE_NAME), StandardCharsets.UTF_8);
+    assertThat(report.subList(1, report.size())).hasSize(2).anyMatch(line -> line.startsWith("P1,1,1,")).anyMatch(line -> line.startsWith("P2,4,1,"));
+  }
+
+  @Test
+  void analysis_cache_replays_unchanged_files(@TempDir Path workDir) {
+    SonarComponents sonarComponents = analysisCacheSonarComponents(workDir, "class A { class B {} }", "rules");
+    CachedClassCounter firstCounter = new CachedClassCounter();
+    VisitorsBridge firstAnalysis = new VisitorsBridge(Collections.singletonList(firstCounter), Collections.emptyList(), sonarComponents);
+    assertThat(firstAnalysis.replayFromCache(INPUT_FILE)).isFalse();
+    firstAnalysis.setCurrentFile(INPUT_FILE);
+    firstAnalysis.visitFile(JParserTestUtils.parse("class A { class B {} }"), false);
+    assertThat(firstCounter.scannedFiles).isEqualTo(1);
+
+    CachedClassCounter secondCounter = new CachedClassCounter();
+    VisitorsBridge secondAnalysis = new VisitorsBridge(Collections.singletonList(secondCounter), Collections.emptyList(), sonarComponents);
+    assertThat(secondAnalysis.replayFromCache(INPUT_FILE)).isTrue();
+    assertThat(secondCounter.scannedFiles).isZero();
+    assertThat(secondCounter.replayedClasses).containsExactly(2);
+  }
+
+  @Test
+  void analysis_cache_misses_changed_files(@TempDir Path workDir) {
+    VisitorsBridge firstAnalysis = new VisitorsBridge(Collections.singletonList(new CachedClassCounter()), Collections.emptyList(),
+      analysisCacheSonarComponents(workDir, "class A { }", "rules"));
+    firstAnalysis.setCurrentFile(INPUT_FILE);
+    firstAnalysis.visitFile(JParserTestUtils.parse("class A { }"), false);
+
+    CachedClassCounter counter = new CachedClassCounter();
+    VisitorsBridge secondAnalysis = new VisitorsBridge(Collections.singletonList(counter), Collections.emptyList(),
+      analysisCacheSonarComponents(workDir, "class A { class B {} }", "rules"));
+    assertThat(secondAnalysis.replayFromCache(INPUT_FILE)).isFalse();
+    assertThat(counter.replayedClasses).isEmpty();
+  }
+
+  @Test
+  void analysis_cache_is_invalidated_when_active_rules_change(@TempDir Path workDir) {
+    VisitorsBridge firstAnalysis = new VisitorsBridge(Collections.singletonList(new CachedClassCounter()), Collections.emptyList(),
+      analysisCacheSonarComponents(workDir, "class A { }", "rules"));
+    firstAnalysis.setCurrentFile(INPUT_FILE);
+    firstAnalysis.visitFile(JParserTestUtils.parse("class A { }"), false);
+
+    VisitorsBridge secondAnalysis = new VisitorsBridge(Collections.singletonList(new CachedClassCounter()), Collections.emptyList(),
+      analysisCacheSonarComponents(workDir, "class A { }", "rules with another parameter"));
+    assertThat(secondAnalysis.replayFromCache(INPUT_FILE)).isFalse();
+  }
+
+  @Test
+  void analysis_cache_is_not_used_with_visitors_unable_to_replay(@TempDir Path workDir) {
+    SonarComponents sonarComponents = analysisCacheSonarComponents(workDir, "class A { }", "rules");
+    List<JavaFileScanner> visitors = Arrays.asList(new CachedClassCounter(), new ProfiledScanner());
+    VisitorsBridge firstAnalysis = new VisitorsBridge(visitors, Collections.emptyList(), sonarComponents);
+    firstAnalysis.setCurrentFile(INPUT_FILE);
+    firstAnalysis.visitFile(JParserTestUtils.parse("class A { }"), false);
+
+    assertThat(new VisitorsBridge(visitors, Collections.emptyList(), sonarComponents).replayFromCache(INPUT_FILE)).isFalse();
+    assertThat(workDir.resolve(AnalysisCache.CACHE_DIRECTORY_NAME)).doesNotExist();
+    assertThat(logTester.logs(LoggerLevel.INFO)).contains("The analysis cache is not used, as these visitors can not replay their results: ProfiledScanner");
+  }
+
+  @Test
+  void analysis_cache_replays_the_issues_of_checks(@TempDir Path workDir) {
+    SonarComponents sonarComponents = analysisCacheSonarComponents(workDir, "class A { }", "rules");
+    VisitorThatCanBeSkipped check = new VisitorThatCanBeSkipped();
+    doReturn(Optional.of(RuleKey.of("java", "S1"))).when(sonarComponents).getRuleKey(check);
+    List<JavaCheck> visitors = Arrays.asList(new CachedClassCounter(), check);
+    VisitorsBridge firstAnalysis = new VisitorsBridge(visitors, Collections.emptyList(), sonarComponents);
+    firstAnalysis.setCurrentFile(INPUT_FILE);
+    firstAnalysis.visitFile(JParserTestUtils.parse("class A { }"), false);
+    verify(sonarComponents).recordIssuesTo(eq(INPUT_FILE), notNull());
+    verify(sonarComponents).recordIssuesTo(null, null);
+
+    assertThat(new VisitorsBridge(visitors, Collections.emptyList(), sonarComponents).replayFromCache(INPUT_FILE)).isTrue();
+    verify(sonarComponents).replayIssues(eq(INPUT_FILE), notNull(), eq(Collections.singletonMap(RuleKey.of("java", "S1"), check)));
+  }
+
+  @Test
+  void analysis_cache_does_not_record_files_whose_scanning_is_optimized(@TempDir Path workDir) throws ApiMismatchException {
+    SonarComponents sonarComponents = analysisCacheSonarComponents(workDir, "class A { }", "rules");
+    doReturn(true).when(sonarComponents).canSkipUnchangedFiles();
+    List<JavaCheck> visitors = Arrays.asList(new CachedClassCounter(), new VisitorThatCanBeSkipped());
+    VisitorsBridge firstAnalysis = new VisitorsBridge(visitors, Collections.emptyList(), sonarComponents);
+    firstAnalysis.setCurrentFile(INPUT_FILE);
+    firstAnalysis.visitFile(JParserTestUtils.parse("class A { }"), true);
+
+    verify(sonarComponents, never()).recordIssuesTo(eq(INPUT_FILE), any());
+    assertThat(new VisitorsBridge(visitors, Collections.emptyList(), sonarComponents).replayFromCache(INPUT_FILE)).isFalse();
+  }
+
+  @Test
+  void analysis_cache_is_not_used_with_end_of_analysis_checks_unable_to_replay(@TempDir Path workDir) {
+    SonarComponents sonarComponents = analysisCacheSonarComponents(workDir, "class A { }", "rules");
+    List<JavaCheck> visitors = Arrays.asList(new CachedClassCounter(), new VisitorThatCanBeSkipped(), new EndOfAnalysisVisitor());
+    VisitorsBridge visitorsBridge = new VisitorsBridge(visitors, Collections.emptyList(), sonarComponents);
+
+    assertThat(visitorsBridge.replayFromCache(INPUT_FILE)).isFalse();
+    assertThat(logTester.logs(LoggerLevel.INFO)).contains("The analysis cache is not used, as these visitors can not replay their results: EndOfAnalysisVisitor");
+  }
+
+  private static SonarComponents analysisCacheSonarComponents(Path workDir, String fileContents, String activeRulesFingerprint) {
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    doReturn(true).when(sonarComponents).isAnalysisCacheEnabled();
+    doReturn(workDir.toFile()).when(sonarComponents).workDir();
+    doReturn(fileContents).when(sonarComponents).inputFileContents(any());
+    doReturn(activeRulesFingerprint).when(sonarComponents).activeRulesFingerprint();
+    doReturn(mock(NewSymbolTable.class, RETURNS_DEEP_STUBS)).when(sonarComponents).symbolizableFor(any());
+    return sonarComponents;
+  }
+
   private static String ruleKeyFromErrorLog(String errorLog) {
     String newString = errorLog.substring("Unable to run check class ".length(), errorLog.indexOf(" on file"));
     if (newString.contains("SymbolicExecutionVisitor")) {
@@ -566,6 +728,46 @@ class VisitorsBridgeTest {
     }
   }
 
+  @org.sonar.check.Rule(key = "P1")
+  private static class ProfiledScanner implements JavaFileScanner {
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      // do nothing
+    }
+  }
+
+  private static class CachedClassCounter implements JavaFileScanner, CacheableVisitor {
+    private FileAnalysisRecord fileRecord;
+    private int scannedFiles = 0;
+    private final List<Integer> replayedClasses = new ArrayList<>();
+
+    @Override
+    public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+      this.fileRecord = fileRecord;
+    }
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      scannedFiles++;
+      if (fileRecord != null) {
+        fileRecord.addMeasure("classes", ((JavaTree.CompilationUnitTreeImpl) context.getTree()).kindIndex().nodesOfKind(Tree.Kind.CLASS).size());
+      }
+    }
+
+    @Override
+    public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+      replayedClasses.add(fileRecord.measures().get("classes"));
+    }
+  }
+
+  @org.sonar.check.Rule(key = "P2")
+  private static class ProfiledClassVisitor extends IssuableSubscriptionVisitor {
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return Collections.singletonList(Tree.Kind.CLASS);
+    }
+  }
+
   private static class VisitorWithIncompatibleVersion extends IssuableSubscriptionVisitor implements EndOfAnalysisCheck, JavaVersionAwareVisitor {
     @Override
     public List<Kind> nodesToVisit() {
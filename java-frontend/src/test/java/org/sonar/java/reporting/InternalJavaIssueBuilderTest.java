@@ -33,6 +33,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -78,7 +79,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class InternalJavaIssueBuilderTest {
@@ -239,6 +242,31 @@ class InternalJavaIssueBuilderTest {
     assertThat(location2.inputComponent()).isEqualTo(inputFile);
   }
 
+  @Test
+  void test_reported_issue_is_recorded() {
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    when(sonarComponents.context()).thenReturn(sensorContextTester);
+    when(sonarComponents.getRuleKey(any())).thenReturn(Optional.of(RULE_KEY));
+    ClassTree tree = (ClassTree) compilationUnitTree.types().get(0);
+
+    new InternalJavaIssueBuilder(inputFile, sonarComponents)
+      .forRule(CHECK)
+      .onTree(tree.simpleName())
+      .withMessage("msg")
+      .withSecondaries(Collections.singletonList(new JavaFileScannerContext.Location("secondary", tree.members().get(0))))
+      .report();
+
+    ArgumentCaptor<AnalyzerMessage> recorded = ArgumentCaptor.forClass(AnalyzerMessage.class);
+    verify(sonarComponents).recordIssue(eq(RULE_KEY), recorded.capture(), eq(0.0));
+    AnalyzerMessage analyzerMessage = recorded.getValue();
+    assertThat(analyzerMessage.getMessage()).isEqualTo("msg");
+    assertThat(analyzerMessage.getInputComponent()).isEqualTo(inputFile);
+    assertThat(analyzerMessage.primaryLocation()).isEqualTo(AnalyzerMessage.textSpanFor(tree.simpleName()));
+    assertThat(analyzerMessage.flows).hasSize(1);
+    assertThat(analyzerMessage.flows.get(0).get(0).getMessage()).isEqualTo("secondary");
+    assertThat(analyzerMessage.flows.get(0).get(0).primaryLocation()).isEqualTo(new AnalyzerMessage.TextSpan(4, 2, 4, 13));
+  }
+
   @Test
   void test_report_issue_on_range() {
     ClassTree tree = (ClassTree) compilationUnitTree.types().get(0);
@@ -146,6 +146,40 @@ class MethodMatchersTest {
       .containsExactly(11);
   }
 
+  @Test
+  void test_or_of_names_and_name_predicates() {
+    String source = "" +
+      /* 01 */ "interface A {\n" +
+      /* 02 */ "  void a(int x);\n" +
+      /* 03 */ "  void aa(int x);\n" +
+      /* 04 */ "  void b(int x);\n" +
+      /* 05 */ "}\n" +
+      /* 06 */ "class Main {\n" +
+      /* 07 */ "  void main(A a) {\n" +
+      /* 08 */ "    a.a(12);\n" +
+      /* 09 */ "    a.aa(12);\n" +
+      /* 10 */ "    a.b(12);\n" +
+      /* 11 */ "    new Main();\n" +
+      /* 12 */ "  }\n" +
+      /* 13 */ "} \n";
+
+    MethodMatchers namesAndPredicate = MethodMatchers.or(
+      MethodMatchers.create().ofTypes("A").names("a").withAnyParameters().build(),
+      MethodMatchers.create().ofTypes("A").name("B"::equalsIgnoreCase).withAnyParameters().build());
+    assertThat(findMatchesOnTree(source, namesAndPredicate)).containsExactly(2, 4, 8, 10);
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(
+      MethodMatchers.create().ofTypes("A").names("a").withAnyParameters().build(),
+      MethodMatchers.or(
+        MethodMatchers.create().ofTypes("Main").constructor().withAnyParameters().build(),
+        MethodMatchers.none()),
+      MethodMatchers.create().ofTypes("A").name(name -> name.endsWith("b")).withAnyParameters().build())))
+      .containsExactly(2, 4, 8, 10, 11);
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(
+      MethodMatchers.create().ofTypes("A").names("a", "aa").withAnyParameters().build(),
+      MethodMatchers.create().ofTypes("A").names("aa", "b").withAnyParameters().build())))
+      .containsExactly(2, 3, 4, 8, 9, 10);
+  }
+
   @Test
   void test_parameters() {
     String source = "" +
@@ -37,9 +37,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import javax.servlet.jsp.JspFactory;
 import org.apache.jasper.JasperException;
 import org.apache.jasper.JspCompilationContext;
@@ -65,6 +72,17 @@ import org.sonar.java.model.SmapFile;
 public class Jasper {
 
   private static final String SONAR_EXCLUSIONS_PROPERTY = "sonar.exclusions";
+  /**
+   * Number of JSP files transpiled concurrently. By default (or when set to 1 or less), JSP files are transpiled sequentially.
+   */
+  public static final String SONAR_JSP_PARALLELISM_KEY = "sonar.java.experimental.jspParallelism";
+  /**
+   * Directory where the servlets generated from the JSP files are kept between analyses, to reuse them for the JSP files which did not
+   * change, nor the files they include, nor the tag libraries. Relative paths are resolved against the base directory of the module.
+   * It has to be outside of the working directory, which the scanner deletes at the beginning of each analysis. When not set, servlets
+   * are generated in the working directory and never reused.
+   */
+  public static final String SONAR_JSP_CACHE_DIRECTORY_KEY = "sonar.java.experimental.jspCacheDirectory";
 
   private static final Logger LOG = Loggers.get(Jasper.class);
 
@@ -82,7 +100,8 @@ public class Jasper {
     Path uriRoot = findWebInfParentDirectory(sensorContext.fileSystem())
       .orElse(sensorContext.fileSystem().baseDir().getAbsoluteFile().toPath());
     LOG.debug("Context root set to {}", uriRoot);
-    Path outputDir = outputDir(sensorContext);
+    Path cacheDirectory = cacheDirectory(sensorContext);
+    Path outputDir = cacheDirectory != null ? cacheDirectory : outputDir(sensorContext);
     // Jasper internally calls Thread#getContextClassLoader to instantiate some classes. ContextClassLoader is set by scanner
     // and doesn't contain plugin jar, so we need to configure ContextClassLoader with the class loader of the plugin to be able
     // to run Jasper. Original classloader is restored in finally.
@@ -94,26 +113,49 @@ public class Jasper {
       JspCServletContext servletContext = new ServletContext(uriRoot.toUri().toURL(), classLoader);
       JasperOptions options = getJasperOptions(outputDir, servletContext);
       JspRuntimeContext runtimeContext = new JspRuntimeContext(servletContext, options);
+      JspCache cache = cacheDirectory != null ? new JspCache(outputDir, uriRoot, javaClasspath) : null;
 
       boolean errorTranspiling = false;
       Map<Path, GeneratedFile> generatedJavaFiles = new HashMap<>();
+      List<Transpilation> transpilations = new ArrayList<>();
       for (InputFile jsp : jspFiles) {
         try {
-          transpileJsp(jsp.path(), uriRoot, classLoader, servletContext, options, runtimeContext, javaExclusionFilter)
-            .ifPresent(generatedFile -> generatedJavaFiles.put(generatedFile, new GeneratedFile(generatedFile)));
+          Transpilation transpilation = prepareTranspilation(jsp, uriRoot, classLoader, servletContext, options, runtimeContext);
+          if (javaExclusionFilter.test(transpilation.javaFileName)) {
+            continue;
+          }
+          JspCache.Entry cachedEntry = cache != null ? cache.read(jsp.path(), transpilation.javaFile) : null;
+          if (cachedEntry != null) {
+            GeneratedFile generatedFile = new GeneratedFile(transpilation.javaFile);
+            generatedFile.addSmap(new SmapFile(cachedEntry.smapRoot, cachedEntry.smap, uriRoot, sensorContext.fileSystem()));
+            generatedJavaFiles.put(transpilation.javaFile, generatedFile);
+          } else {
+            transpilations.add(transpilation);
+          }
         } catch (Exception | LinkageError e) {
           errorTranspiling = true;
-          StringWriter w = new StringWriter();
-          e.printStackTrace(new PrintWriter(w));
-          LOG.debug("Error transpiling {}. Error:\n{}", jsp, w.toString());
+          logTranspilationError(jsp, e);
         }
       }
+      int parallelism = parallelism(sensorContext);
+      Map<Path, InputFile> transpiledJspFiles = parallelism > 1
+        ? transpileInParallel(transpilations, classLoader, parallelism)
+        : transpile(transpilations);
+      errorTranspiling |= transpiledJspFiles.size() < transpilations.size();
+      transpiledJspFiles.keySet().forEach(javaFile -> generatedJavaFiles.put(javaFile, new GeneratedFile(javaFile)));
       if (errorTranspiling) {
         LOG.warn("Some JSP pages failed to transpile. Enable debug log for details.");
       }
       runtimeContext.getSmaps().values().forEach(smap ->
-        processSourceMap(uriRoot, generatedJavaFiles, smap, sensorContext.fileSystem()));
+        processSourceMap(uriRoot, generatedJavaFiles, smap, sensorContext.fileSystem(), transpiledJspFiles, cache));
+      if (cache != null && cache.hitCount() > 0) {
+        LOG.info("Reused the servlets generated for {} unchanged JSP files.", cache.hitCount());
+      }
       return generatedJavaFiles.values();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.warn("Transpilation of JSP files was interrupted.");
+      return Collections.emptyList();
     } catch (Exception e) {
       LOG.warn("Failed to transpile JSP files.", e);
       return Collections.emptyList();
@@ -122,6 +164,30 @@ public class Jasper {
     }
   }
 
+  @CheckForNull
+  static Path cacheDirectory(SensorContext sensorContext) {
+    Optional<String> property = sensorContext.config().get(SONAR_JSP_CACHE_DIRECTORY_KEY);
+    if (!property.isPresent()) {
+      return null;
+    }
+    Path directory = sensorContext.fileSystem().baseDir().toPath().resolve(property.get()).toAbsolutePath().normalize();
+    if (directory.startsWith(sensorContext.fileSystem().workDir().toPath().toAbsolutePath().normalize())) {
+      LOG.warn("JSP cache directory {} is ignored: it is deleted at the beginning of each analysis with the working directory.", directory);
+      return null;
+    }
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      LOG.warn("Failed to create the JSP cache directory {}, generated servlets will not be reused.", directory);
+      return null;
+    }
+    return directory;
+  }
+
+  private static int parallelism(SensorContext sensorContext) {
+    return Math.max(1, sensorContext.config().getInt(SONAR_JSP_PARALLELISM_KEY).orElse(1));
+  }
+
   private static boolean isAllJavaJspExcluded(List<String> sonarExclusions) {
     return sonarExclusions.contains("**/*_jsp.java");
   }
@@ -140,29 +206,114 @@ public class Jasper {
     };
   }
 
-  private static void processSourceMap(Path uriRoot, Map<Path, GeneratedFile> generatedJavaFiles, SmapStratum smap, FileSystem fileSystem) {
+  private static void processSourceMap(Path uriRoot, Map<Path, GeneratedFile> generatedJavaFiles, SmapStratum smap, FileSystem fileSystem,
+    Map<Path, InputFile> transpiledJspFiles, @Nullable JspCache cache) {
     Path smapRoot = Paths.get(smap.getClassFileName()).getParent();
-    SmapFile smapFile = new SmapFile(smapRoot, smap.getSmapString(), uriRoot, fileSystem);
-    GeneratedFile generatedFile = generatedJavaFiles.get(smapFile.getGeneratedFile());
+    String smapString = smap.getSmapString();
+    SmapFile smapFile = new SmapFile(smapRoot, smapString, uriRoot, fileSystem);
+    Path javaFile = smapFile.getGeneratedFile();
+    GeneratedFile generatedFile = generatedJavaFiles.get(javaFile);
     if (generatedFile != null) {
       generatedFile.addSmap(smapFile);
+      InputFile jsp = transpiledJspFiles.get(javaFile);
+      if (cache != null && jsp != null) {
+        cache.write(jsp.path(), javaFile, smapRoot, smapString);
+      }
     }
   }
 
-  private static Optional<Path> transpileJsp(Path jsp, Path uriRoot, ClassLoader classLoader, JspCServletContext servletContext,
-    JasperOptions options, JspRuntimeContext runtimeContext, Predicate<String> javaExclusionFilter) throws Exception {
-    LOG.debug("Transpiling JSP: {}", jsp);
+  private static Transpilation prepareTranspilation(InputFile jsp, Path uriRoot, ClassLoader classLoader, JspCServletContext servletContext,
+    JasperOptions options, JspRuntimeContext runtimeContext) {
     // on windows we need to replace \ in path to / to form uri (see org.apache.jasper.JspC#processFile)
-    String jspUri = "/" + uriRoot.relativize(jsp).toString().replace('\\', '/');
+    String jspUri = "/" + uriRoot.relativize(jsp.path()).toString().replace('\\', '/');
     JspCompilationContext compilationContext = new JspCompilationContext(jspUri, options, servletContext, null, runtimeContext);
-    String javaFileName = compilationContext.getServletJavaFileName();
-    if (javaExclusionFilter.test(javaFileName)) {
-      return Optional.empty();
-    }
     compilationContext.setClassLoader(classLoader);
-    Compiler compiler = compilationContext.createCompiler();
-    compiler.compile(false, true);
-    return Optional.of(Paths.get(javaFileName));
+    return new Transpilation(jsp, compilationContext);
+  }
+
+  /**
+   * @return the JSP files which were successfully transpiled, by generated file
+   */
+  private static Map<Path, InputFile> transpile(List<Transpilation> transpilations) {
+    Map<Path, InputFile> transpiledJspFiles = new HashMap<>();
+    for (Transpilation transpilation : transpilations) {
+      if (transpilation.run()) {
+        transpiledJspFiles.put(transpilation.javaFile, transpilation.jsp);
+      }
+    }
+    return transpiledJspFiles;
+  }
+
+  /**
+   * Transpiles the JSP files on a pool of workers, each JSP file having its own compilation context. As in a servlet container, the
+   * runtime context is shared by all the workers: it synchronizes the compilation of the tag files used by several JSP files.
+   */
+  private static Map<Path, InputFile> transpileInParallel(List<Transpilation> transpilations, ClassLoader classLoader, int parallelism)
+    throws InterruptedException {
+    LOG.debug("Transpiling {} JSP files using {} parallel workers.", transpilations.size(), parallelism);
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+      Thread thread = new Thread(runnable, "sonar-java-jsp-transpiler");
+      thread.setDaemon(true);
+      // same context class loader as the current thread, see generateFiles
+      thread.setContextClassLoader(classLoader);
+      return thread;
+    });
+    try {
+      List<Future<Boolean>> results = executor.invokeAll(transpilations.stream()
+        .map(transpilation -> (Callable<Boolean>) transpilation::run)
+        .collect(Collectors.toList()));
+      Map<Path, InputFile> transpiledJspFiles = new HashMap<>();
+      for (int i = 0; i < transpilations.size(); i++) {
+        Transpilation transpilation = transpilations.get(i);
+        if (succeeded(transpilation, results.get(i))) {
+          transpiledJspFiles.put(transpilation.javaFile, transpilation.jsp);
+        }
+      }
+      return transpiledJspFiles;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static boolean succeeded(Transpilation transpilation, Future<Boolean> result) throws InterruptedException {
+    try {
+      return result.get();
+    } catch (ExecutionException e) {
+      logTranspilationError(transpilation.jsp, e.getCause());
+      return false;
+    }
+  }
+
+  private static void logTranspilationError(InputFile jsp, Throwable e) {
+    StringWriter w = new StringWriter();
+    e.printStackTrace(new PrintWriter(w));
+    LOG.debug("Error transpiling {}. Error:\n{}", jsp, w.toString());
+  }
+
+  private static class Transpilation {
+    private final InputFile jsp;
+    private final JspCompilationContext compilationContext;
+    private final String javaFileName;
+    private final Path javaFile;
+
+    Transpilation(InputFile jsp, JspCompilationContext compilationContext) {
+      this.jsp = jsp;
+      this.compilationContext = compilationContext;
+      this.javaFileName = compilationContext.getServletJavaFileName();
+      this.javaFile = Paths.get(javaFileName);
+    }
+
+    boolean run() {
+      LOG.debug("Transpiling JSP: {}", jsp.path());
+      try {
+        Compiler compiler = compilationContext.createCompiler();
+        compiler.compile(false, true);
+        return true;
+      } catch (Exception | LinkageError e) {
+        logTranspilationError(jsp, e);
+        return false;
+      }
+    }
   }
 
   JasperOptions getJasperOptions(Path outputDir, JspCServletContext servletContext) {
@@ -0,0 +1,241 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.jsp;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import org.apache.jasper.JspCompilationContext;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.caching.CacheUtils;
+
+/**
+ * On-disk cache of the servlets generated from the JSP files, stored in the output directory of Jasper, which is kept between analyses
+ * (see {@link Jasper#SONAR_JSP_CACHE_DIRECTORY_KEY}). The entry of a JSP file records the hashes of the files listed in its source map
+ * (the JSP file and the files it statically includes) and of the generated servlet.
+ * The servlet generated by the previous analysis is reused when none of these files changed, and neither did the fingerprint of the
+ * cache: tag files, tag library descriptors and deployment descriptors of WEB-INF, classpath, Jasper and analyzer versions.
+ */
+class JspCache {
+
+  private static final Logger LOG = Loggers.get(JspCache.class);
+
+  static final String CACHE_DIRECTORY_NAME = "sonar-jsp-cache";
+
+  // to be incremented when the format of the entries changes
+  private static final int FORMAT_VERSION = 1;
+
+  private final Path cacheDirectory;
+  private final Path uriRoot;
+  private final String fingerprint;
+  private int hitCount = 0;
+  private int missCount = 0;
+
+  JspCache(Path outputDir, Path uriRoot, List<File> classpath) {
+    this.cacheDirectory = outputDir.resolve(CACHE_DIRECTORY_NAME);
+    this.uriRoot = uriRoot;
+    this.fingerprint = CacheUtils.sha256(fingerprint(uriRoot, classpath));
+  }
+
+  static class Entry {
+    final Path smapRoot;
+    final String smap;
+
+    Entry(Path smapRoot, String smap) {
+      this.smapRoot = smapRoot;
+      this.smap = smap;
+    }
+  }
+
+  /**
+   * @return the source map of the servlet generated from the given JSP file by a previous analysis, when this servlet is still valid
+   */
+  @CheckForNull
+  Entry read(Path jsp, Path javaFile) {
+    Path entry = entry(jsp);
+    if (!Files.isRegularFile(entry)) {
+      missCount++;
+      return null;
+    }
+    try (InputStream inputStream = Files.newInputStream(entry);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream))) {
+      if (in.readInt() != FORMAT_VERSION || !fingerprint.equals(in.readUTF())) {
+        missCount++;
+        return null;
+      }
+      int sourceCount = in.readInt();
+      for (int i = 0; i < sourceCount; i++) {
+        Path source = uriRoot.resolve(in.readUTF());
+        if (!in.readUTF().equals(hash(source))) {
+          missCount++;
+          return null;
+        }
+      }
+      if (!in.readUTF().equals(hash(javaFile))) {
+        missCount++;
+        return null;
+      }
+      Path smapRoot = Paths.get(in.readUTF());
+      String smap = readString(in, Files.size(entry));
+      hitCount++;
+      return new Entry(smapRoot, smap);
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Unable to read JSP cache entry {}: {}", entry, e.getMessage());
+      missCount++;
+      return null;
+    }
+  }
+
+  void write(Path jsp, Path javaFile, Path smapRoot, String smap) {
+    List<String> sources = sourcePaths(smap);
+    if (sources.isEmpty()) {
+      // without the list of the files the servlet depends on, it would never be generated again
+      return;
+    }
+    Path entry = entry(jsp);
+    try {
+      CacheUtils.writeAtomically(entry, outputStream -> {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(fingerprint);
+        out.writeInt(sources.size());
+        for (String source : sources) {
+          out.writeUTF(source);
+          out.writeUTF(hash(uriRoot.resolve(source)));
+        }
+        out.writeUTF(hash(javaFile));
+        out.writeUTF(smapRoot.toString());
+        writeString(out, smap);
+      });
+    } catch (IOException e) {
+      LOG.debug("Unable to write JSP cache entry {}: {}", entry, e.getMessage());
+    }
+  }
+
+  int hitCount() {
+    return hitCount;
+  }
+
+  int missCount() {
+    return missCount;
+  }
+
+  private Path entry(Path jsp) {
+    return cacheDirectory.resolve(CacheUtils.sha256(jsp.toAbsolutePath().toString()));
+  }
+
+  /**
+   * Paths, relative to the context root, of the files of the "*F" section of a source map generated by Jasper.
+   */
+  static List<String> sourcePaths(String smap) {
+    List<String> paths = new ArrayList<>();
+    String[] lines = smap.split("\r?\n");
+    int index = 0;
+    while (index < lines.length && !"*F".equals(lines[index])) {
+      index++;
+    }
+    index++;
+    while (index < lines.length && !lines[index].startsWith("*")) {
+      String line = lines[index];
+      if (line.startsWith("+")) {
+        // "+ <id> <name>" followed by the path of the file
+        index++;
+        if (index < lines.length) {
+          paths.add(lines[index]);
+        }
+      } else {
+        // "<id> <path>"
+        paths.add(line.substring(line.indexOf(' ') + 1));
+      }
+      index++;
+    }
+    return paths;
+  }
+
+  private static String fingerprint(Path uriRoot, List<File> classpath) {
+    StringBuilder fingerprint = new StringBuilder()
+      .append(FORMAT_VERSION).append('\n')
+      .append(Jasper.class.getPackage().getImplementationVersion()).append('\n')
+      .append(JspCompilationContext.class.getPackage().getImplementationVersion()).append('\n')
+      .append(CacheUtils.classpathFingerprint(classpath));
+    Path webInf = uriRoot.resolve("WEB-INF");
+    if (Files.isDirectory(webInf)) {
+      try (Stream<Path> files = Files.walk(webInf)) {
+        List<Path> descriptors = files.filter(JspCache::isTagLibraryOrDescriptor).sorted().collect(Collectors.toList());
+        for (Path descriptor : descriptors) {
+          fingerprint.append(uriRoot.relativize(descriptor)).append(':').append(hash(descriptor)).append('\n');
+        }
+      } catch (IOException e) {
+        // the servlets can not be reused if the tag libraries are not known
+        LOG.debug("Unable to list the tag libraries of {}: {}", webInf, e.getMessage());
+        fingerprint.append(System.nanoTime());
+      }
+    }
+    return fingerprint.toString();
+  }
+
+  private static boolean isTagLibraryOrDescriptor(Path path) {
+    String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+    return (name.endsWith(".tag") || name.endsWith(".tagx") || name.endsWith(".tld") || name.endsWith(".xml")) && Files.isRegularFile(path);
+  }
+
+  private static String hash(Path file) {
+    if (!Files.isRegularFile(file)) {
+      return "";
+    }
+    try {
+      return CacheUtils.sha256(Files.readAllBytes(file));
+    } catch (IOException e) {
+      return "";
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    // source maps of large pages exceed the 64KB limit of writeUTF
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in, long maxLength) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > maxLength) {
+      throw new IOException("Invalid string length " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
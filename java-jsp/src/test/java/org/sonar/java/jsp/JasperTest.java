@@ -305,6 +305,81 @@ class JasperTest {
 
   }
 
+  @Test
+  void test_parallel_transpilation() throws Exception {
+    SensorContextTester ctx = jspContext(JSP_SOURCE);
+    addJspFile(ctx, "<h2>Other page</h2>", webInf.resolve("jsp/other.jsp"));
+    addJspFile(ctx, "<%=", webInf.resolve("jsp/failing.jsp"));
+    ctx.setSettings(new MapSettings().setProperty(Jasper.SONAR_JSP_PARALLELISM_KEY, "2"));
+    Collection<GeneratedFile> generatedFiles = new Jasper().generateFiles(ctx, emptyList());
+
+    assertThat(generatedFiles).extracting(GeneratedFile::filename).containsExactlyInAnyOrder("test_jsp.java", "other_jsp.java");
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("Transpiling 3 JSP files using 2 parallel workers.");
+    assertThat(logTester.logs(LoggerLevel.WARN)).contains("Some JSP pages failed to transpile. Enable debug log for details.");
+  }
+
+  @Test
+  void test_cache() throws Exception {
+    SensorContextTester ctx = jspContext("<%@ include file=\"header.jspf\" %>\n" + JSP_SOURCE);
+    Path header = createJspFile("<h1>Header</h1>", webInf.resolve("jsp/header.jspf"));
+    ctx.setSettings(new MapSettings().setProperty(Jasper.SONAR_JSP_CACHE_DIRECTORY_KEY, "jsp-cache"));
+    Collection<GeneratedFile> generatedFiles = new Jasper().generateFiles(ctx, emptyList());
+    assertThat(generatedFiles).hasSize(1);
+    // servlets are generated in the cache directory, out of the working directory deleted by the scanner
+    assertThat(generatedFiles.iterator().next().path()).startsWith(tempFolder.resolve("jsp-cache").toAbsolutePath());
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).anyMatch(line -> line.startsWith("Transpiling JSP: ") && line.endsWith("test.jsp"));
+
+    // nothing changed: the servlet and the source map of the previous analysis are reused
+    logTester.clear();
+    generatedFiles = new Jasper().generateFiles(ctx, emptyList());
+    assertThat(generatedFiles).hasSize(1);
+    GeneratedFile generatedFile = generatedFiles.iterator().next();
+    assertThat(Files.readAllLines(generatedFile.path())).anyMatch(line -> line.contains("<h1>Header</h1>"));
+    assertThat(generatedFile.sourceMap()).isNotNull();
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).noneMatch(line -> line.startsWith("Transpiling JSP"));
+    assertThat(logTester.logs(LoggerLevel.INFO)).containsExactly("Reused the servlets generated for 1 unchanged JSP files.");
+
+    // the included file changed: the JSP is transpiled again
+    logTester.clear();
+    Files.write(header, "<h1>New header</h1>".getBytes(StandardCharsets.UTF_8));
+    generatedFiles = new Jasper().generateFiles(ctx, emptyList());
+    assertThat(generatedFiles).hasSize(1);
+    assertThat(Files.readAllLines(generatedFiles.iterator().next().path())).anyMatch(line -> line.contains("<h1>New header</h1>"));
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).anyMatch(line -> line.startsWith("Transpiling JSP: ") && line.endsWith("test.jsp"));
+    assertThat(logTester.logs(LoggerLevel.INFO)).isEmpty();
+  }
+
+  @Test
+  void cache_directory_in_working_directory_is_ignored() throws Exception {
+    SensorContextTester ctx = jspContext(JSP_SOURCE);
+    ctx.setSettings(new MapSettings().setProperty(Jasper.SONAR_JSP_CACHE_DIRECTORY_KEY, workDir.resolve("jsp-cache").toString()));
+    assertThat(Jasper.cacheDirectory(ctx)).isNull();
+    assertThat(logTester.logs(LoggerLevel.WARN)).containsExactly("JSP cache directory " + workDir.resolve("jsp-cache").toAbsolutePath().normalize()
+      + " is ignored: it is deleted at the beginning of each analysis with the working directory.");
+
+    Collection<GeneratedFile> generatedFiles = new Jasper().generateFiles(ctx, emptyList());
+    assertThat(generatedFiles).hasSize(1);
+    assertThat(generatedFiles.iterator().next().path()).startsWith(workDir.resolve("jsp"));
+  }
+
+  @Test
+  void cache_directory_which_can_not_be_created_is_ignored() throws Exception {
+    SensorContextTester ctx = jspContext(JSP_SOURCE);
+    Files.createFile(tempFolder.resolve("jsp-cache"));
+    ctx.setSettings(new MapSettings().setProperty(Jasper.SONAR_JSP_CACHE_DIRECTORY_KEY, "jsp-cache"));
+    assertThat(Jasper.cacheDirectory(ctx)).isNull();
+    assertThat(logTester.logs(LoggerLevel.WARN)).containsExactly("Failed to create the JSP cache directory "
+      + tempFolder.resolve("jsp-cache").toAbsolutePath().normalize() + ", generated servlets will not be reused.");
+  }
+
+  private void addJspFile(SensorContextTester ctx, String jspSource, Path path) throws IOException {
+    Path file = createJspFile(jspSource, path);
+    ctx.fileSystem().add(TestInputFileBuilder.create("", tempFolder.toFile(), file.toFile())
+      .setLanguage("jsp")
+      .setContents(jspSource)
+      .build());
+  }
+
   private SensorContextTester jspContext(String jspSource) throws IOException {
     return jspContext(jspSource, webInf.resolve("jsp/test.jsp"));
   }
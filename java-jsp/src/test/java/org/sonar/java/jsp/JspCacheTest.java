@@ -0,0 +1,141 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.jsp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JspCacheTest {
+
+  private static final String SMAP = "SMAP\n" +
+    "test_jsp.java\n" +
+    "JSP\n" +
+    "*S JSP\n" +
+    "*F\n" +
+    "+ 0 test.jsp\n" +
+    "WEB-INF/jsp/test.jsp\n" +
+    "1 WEB-INF/jsp/header.jspf\n" +
+    "*L\n" +
+    "1,5:116,0\n" +
+    "*E\n";
+
+  @TempDir
+  Path uriRoot;
+
+  @TempDir
+  Path outputDir;
+
+  private Path jsp;
+  private Path header;
+  private Path javaFile;
+
+  @BeforeEach
+  void setUp() {
+    jsp = write(uriRoot.resolve("WEB-INF/jsp/test.jsp"), "<h2>Hello</h2>");
+    header = write(uriRoot.resolve("WEB-INF/jsp/header.jspf"), "<h1>Header</h1>");
+    javaFile = write(outputDir.resolve("org/apache/jsp/WEB_002dINF/jsp/test_jsp.java"), "class test_jsp {}");
+  }
+
+  @Test
+  void source_paths_are_read_from_the_file_section() {
+    assertThat(JspCache.sourcePaths(SMAP)).containsExactly("WEB-INF/jsp/test.jsp", "WEB-INF/jsp/header.jspf");
+    assertThat(JspCache.sourcePaths(SMAP.replace("\n", "\r\n"))).containsExactly("WEB-INF/jsp/test.jsp", "WEB-INF/jsp/header.jspf");
+    assertThat(JspCache.sourcePaths("SMAP\ntest_jsp.java\nJSP\n*S JSP\n*F\n+ 0 test.jsp")).isEmpty();
+    assertThat(JspCache.sourcePaths("SMAP\n")).isEmpty();
+  }
+
+  @Test
+  void entries_are_reused_until_a_source_changes() {
+    JspCache cache = new JspCache(outputDir, uriRoot, Collections.emptyList());
+    assertThat(cache.read(jsp, javaFile)).isNull();
+    cache.write(jsp, javaFile, javaFile.getParent(), SMAP);
+
+    JspCache.Entry entry = new JspCache(outputDir, uriRoot, Collections.emptyList()).read(jsp, javaFile);
+    assertThat(entry).isNotNull();
+    assertThat(entry.smapRoot).isEqualTo(javaFile.getParent());
+    assertThat(entry.smap).isEqualTo(SMAP);
+
+    write(header, "<h1>New header</h1>");
+    JspCache otherCache = new JspCache(outputDir, uriRoot, Collections.emptyList());
+    assertThat(otherCache.read(jsp, javaFile)).isNull();
+    assertThat(otherCache.hitCount()).isZero();
+    assertThat(otherCache.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  void entries_are_not_reused_when_the_generated_file_changed() throws IOException {
+    new JspCache(outputDir, uriRoot, Collections.emptyList()).write(jsp, javaFile, javaFile.getParent(), SMAP);
+    write(javaFile, "class test_jsp { int modified; }");
+    assertThat(new JspCache(outputDir, uriRoot, Collections.emptyList()).read(jsp, javaFile)).isNull();
+    Files.delete(javaFile);
+    assertThat(new JspCache(outputDir, uriRoot, Collections.emptyList()).read(jsp, javaFile)).isNull();
+  }
+
+  @Test
+  void entries_are_not_reused_when_the_fingerprint_changed() {
+    new JspCache(outputDir, uriRoot, Collections.emptyList()).write(jsp, javaFile, javaFile.getParent(), SMAP);
+
+    List<File> classpath = Collections.singletonList(write(uriRoot.resolve("lib.jar"), "jar").toFile());
+    assertThat(new JspCache(outputDir, uriRoot, classpath).read(jsp, javaFile)).isNull();
+
+    write(uriRoot.resolve("WEB-INF/tags/mytag.tag"), "<h3>Tag</h3>");
+    assertThat(new JspCache(outputDir, uriRoot, Collections.emptyList()).read(jsp, javaFile)).isNull();
+  }
+
+  @Test
+  void entries_without_sources_are_not_written() {
+    JspCache cache = new JspCache(outputDir, uriRoot, Collections.emptyList());
+    cache.write(jsp, javaFile, javaFile.getParent(), "SMAP\n");
+    assertThat(outputDir.resolve(JspCache.CACHE_DIRECTORY_NAME)).doesNotExist();
+  }
+
+  @Test
+  void invalid_entries_are_ignored() throws IOException {
+    JspCache cache = new JspCache(outputDir, uriRoot, Collections.emptyList());
+    cache.write(jsp, javaFile, javaFile.getParent(), SMAP);
+    try (Stream<Path> entries = Files.list(outputDir.resolve(JspCache.CACHE_DIRECTORY_NAME))) {
+      entries.forEach(entry -> write(entry, "garbage"));
+    }
+    assertThat(cache.read(jsp, javaFile)).isNull();
+    assertThat(cache.missCount()).isEqualTo(1);
+  }
+
+  private static Path write(Path path, String content) {
+    try {
+      Files.createDirectories(path.getParent());
+      Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return path;
+  }
+
+}
@@ -38,15 +38,28 @@ public class StaxParser {
   private SurefireStaxHandler streamHandler;
 
   public StaxParser(UnitTestIndex index) {
+    this(index, createInputFactory());
+  }
+
+  /**
+   * Parser sharing the given input factory, which is thread-safe once configured: parsers of different threads can share it.
+   */
+  StaxParser(UnitTestIndex index, SMInputFactory inf) {
     this.streamHandler = new SurefireStaxHandler(index);
+    this.inf = inf;
+  }
+
+  static SMInputFactory createInputFactory() {
     XMLInputFactory xmlInputFactory = SafeStaxParserFactory.createXMLInputFactory();
     if (xmlInputFactory instanceof WstxInputFactory) {
       WstxInputFactory wstxInputfactory = (WstxInputFactory) xmlInputFactory;
       wstxInputfactory.configureForLowMemUsage();
       wstxInputfactory.getConfig().setUndeclaredEntityResolver((String publicID, String systemID, String baseURI, String namespace) -> namespace);
       wstxInputfactory.setProperty(WstxInputProperties.P_MAX_ATTRIBUTE_SIZE, Integer.MAX_VALUE);
+      // text which is not read (captured output of the tests, for instance) is skipped instead of being buffered
+      wstxInputfactory.setProperty(WstxInputProperties.P_LAZY_PARSING, true);
     }
-    this.inf = new SMInputFactory(xmlInputFactory);
+    return new SMInputFactory(xmlInputFactory);
   }
 
   public void parse(File xmlFile) throws XMLStreamException {
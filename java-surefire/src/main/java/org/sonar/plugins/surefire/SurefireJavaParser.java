@@ -26,10 +26,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.xml.stream.XMLStreamException;
 import org.apache.commons.lang3.StringUtils;
+import org.codehaus.staxmate.SMInputFactory;
 import org.sonar.api.batch.ScannerSide;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
@@ -48,6 +54,11 @@ import org.sonar.plugins.surefire.data.UnitTestIndex;
 @ScannerSide
 public class SurefireJavaParser {
 
+  /**
+   * Number of report files parsed concurrently. By default (or when set to 1 or less), report files are parsed sequentially.
+   */
+  public static final String SUREFIRE_PARALLELISM_KEY = "sonar.java.experimental.surefireParallelism";
+
   private static final Logger LOGGER = Loggers.get(SurefireJavaParser.class);
   private final JavaResourceLocator javaResourceLocator;
 
@@ -92,20 +103,73 @@ public class SurefireJavaParser {
   }
 
   private void parseFiles(SensorContext context, List<File> reports) {
-    UnitTestIndex index = new UnitTestIndex();
-    parseFiles(reports, index);
+    int parallelism = reports.size() > 1 ? parallelism(context) : 1;
+    UnitTestIndex index = parallelism > 1
+      ? parseFilesInParallel(reports, parallelism)
+      : parseFiles(reports);
     sanitize(index);
     save(index, context);
   }
 
-  private static void parseFiles(List<File> reports, UnitTestIndex index) {
+  private static int parallelism(SensorContext context) {
+    return Math.max(1, context.config().getInt(SUREFIRE_PARALLELISM_KEY).orElse(1));
+  }
+
+  private static UnitTestIndex parseFiles(List<File> reports) {
+    UnitTestIndex index = new UnitTestIndex();
     StaxParser parser = new StaxParser(index);
     for (File report : reports) {
-      try {
-        parser.parse(report);
-      } catch (XMLStreamException e) {
-        throw new AnalysisException("Fail to parse the Surefire report: " + report, e);
+      parse(parser, report);
+    }
+    return index;
+  }
+
+  /**
+   * Parses each report file into its own index on a pool of workers. The indexes are merged in the order of the report files, so that
+   * the result is the one of a sequential parsing, whatever the scheduling of the workers.
+   */
+  private static UnitTestIndex parseFilesInParallel(List<File> reports, int parallelism) {
+    LOGGER.debug("Parsing {} Surefire reports using {} parallel workers.", reports.size(), parallelism);
+    SMInputFactory inputFactory = StaxParser.createInputFactory();
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+      Thread thread = new Thread(runnable, "sonar-java-surefire-parser");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<Future<UnitTestIndex>> results = reports.stream()
+        .map(report -> executor.submit((Callable<UnitTestIndex>) () -> {
+          UnitTestIndex reportIndex = new UnitTestIndex();
+          parse(new StaxParser(reportIndex, inputFactory), report);
+          return reportIndex;
+        }))
+        .collect(Collectors.toList());
+      UnitTestIndex index = new UnitTestIndex();
+      for (Future<UnitTestIndex> result : results) {
+        index.merge(result.get());
+      }
+      return index;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Parsing of the Surefire reports was interrupted", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof AnalysisException) {
+        throw (AnalysisException) cause;
       }
+      // errors (out of memory, for instance) are the only failures not wrapped by parse
+      throw new AnalysisException("Fail to parse the Surefire reports", cause);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void parse(StaxParser parser, File report) {
+    try {
+      parser.parse(report);
+    } catch (XMLStreamException | RuntimeException e) {
+      // the error has to name the report, whichever thread parses it
+      throw new AnalysisException("Fail to parse the Surefire report: " + report, e);
     }
   }
 
@@ -89,26 +89,31 @@ public class SurefireStaxHandler {
     String time = testCaseCursor.getAttrValue("time");
     Long duration = null;
 
-    SMInputCursor childNode = testCaseCursor.descendantElementCursor();
-    if (childNode.getNext() != null) {
+    // the captured output of the test (system-out and system-err elements), which can be large, is skipped without being read
+    SMInputCursor childNode = testCaseCursor.childElementCursor();
+    boolean hasStatus = false;
+    while (childNode.getNext() != null) {
+      if (hasStatus) {
+        continue;
+      }
       String elementName = childNode.getLocalName();
       if ("skipped".equals(elementName)) {
         status = UnitTestResult.STATUS_SKIPPED;
         // bug with surefire reporting wrong time for skipped tests
         duration = 0L;
+        hasStatus = true;
 
       } else if ("failure".equals(elementName)) {
         status = UnitTestResult.STATUS_FAILURE;
         setStackAndMessage(detail, childNode);
+        hasStatus = true;
 
       } else if ("error".equals(elementName)) {
         status = UnitTestResult.STATUS_ERROR;
         setStackAndMessage(detail, childNode);
+        hasStatus = true;
       }
     }
-    while (childNode.getNext() != null) {
-      // make sure we loop till the end of the elements cursor
-    }
     if (duration == null) {
       duration = getTimeAttributeInMS(time);
     }
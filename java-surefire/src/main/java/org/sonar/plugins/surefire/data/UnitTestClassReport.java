@@ -44,8 +44,8 @@ public final class UnitTestClassReport {
 
   public UnitTestClassReport add(UnitTestResult result) {
     initResults();
-    boolean hasName = results.stream().map(UnitTestResult::getName).anyMatch(result.getName()::equals);
-    if (hasName && StringUtils.contains(result.getName(), "$")) {
+    // only the results of inner classes are deduplicated, do not look for the name of the other ones in the results
+    if (StringUtils.contains(result.getName(), "$") && results.stream().map(UnitTestResult::getName).anyMatch(result.getName()::equals)) {
       return this;
     }
     results.add(result);
@@ -66,6 +66,15 @@ public class UnitTestIndex {
     return null;
   }
 
+  /**
+   * Adds the results of the given index, which must not be used afterwards: its class reports may be reused by this index.
+   * Merging the indexes of several reports in the order of the reports gives the same index as parsing these reports in sequence.
+   */
+  public UnitTestIndex merge(UnitTestIndex other) {
+    other.indexByClassname.forEach((classname, report) -> indexByClassname.merge(classname, report, UnitTestClassReport::add));
+    return this;
+  }
+
   public void remove(String classname) {
     indexByClassname.remove(classname);
   }
@@ -20,22 +20,32 @@
 package org.sonar.plugins.surefire;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Metric;
 import org.sonar.api.utils.log.LogTesterJUnit5;
 import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.java.AnalysisException;
 import org.sonar.plugins.java.api.JavaResourceLocator;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -197,6 +207,58 @@ class SurefireJavaParserTest {
     assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("Resource not found: org.sonar.Foo");
   }
 
+  @Test
+  void reports_parsed_in_parallel_give_the_same_measures() throws URISyntaxException {
+    List<File> dirs = getDirs("multipleReports", "innerClasses", "nestedInnerClasses", "innerClassExtraFile", "junitParameterizedTests",
+      "negativeTestTime");
+    SensorContextTester sequentialContext = mockContext();
+    parser.collect(sequentialContext, dirs, true);
+    SensorContextTester parallelContext = mockContext();
+    parallelContext.settings().setProperty(SurefireJavaParser.SUREFIRE_PARALLELISM_KEY, 4);
+    parser.collect(parallelContext, dirs, true);
+
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).anyMatch(log -> log.matches("Parsing \\d+ Surefire reports using 4 parallel workers."));
+    List<Metric<?>> metrics = Arrays.asList(CoreMetrics.TESTS, CoreMetrics.SKIPPED_TESTS, CoreMetrics.TEST_ERRORS, CoreMetrics.TEST_FAILURES,
+      CoreMetrics.TEST_EXECUTION_TIME);
+    for (String component : Arrays.asList(":ch.hortis.sonar.mvn.mc.MetricsCollectorRegistryTest", ":ch.hortis.sonar.mvn.mc.CloverCollectorTest",
+      ":org.apache.commons.collections.bidimap.AbstractTestBidiMap", ":com.example.project.CalculatorTests", ":java.Foo")) {
+      assertThat(parallelContext.measures(component)).hasSize(5);
+      for (Metric<?> metric : metrics) {
+        assertThat(parallelContext.measure(component, metric).value()).as(component + " " + metric.getKey())
+          .isEqualTo(sequentialContext.measure(component, metric).value());
+      }
+    }
+  }
+
+  @Test
+  void invalid_report_parsed_in_parallel_fails_the_analysis(@TempDir Path reportsDir) throws IOException {
+    Files.write(reportsDir.resolve("TEST-org.sonar.Foo.xml"), "<testsuite name=\"org.sonar.Foo\"><testcase name=\"a\" time=\"0.01\"/></testsuite>".getBytes(StandardCharsets.UTF_8));
+    Path invalidReport = reportsDir.resolve("TEST-org.sonar.Bar.xml");
+    Files.write(invalidReport, "<testsuite name=\"org.sonar.Bar\"><testcase".getBytes(StandardCharsets.UTF_8));
+    SensorContextTester context = mockContext();
+    context.settings().setProperty(SurefireJavaParser.SUREFIRE_PARALLELISM_KEY, 2);
+    List<File> dirs = Collections.singletonList(reportsDir.toFile());
+
+    assertThatThrownBy(() -> parser.collect(context, dirs, true))
+      .isInstanceOf(AnalysisException.class)
+      .hasMessage("Fail to parse the Surefire report: " + invalidReport.toFile());
+  }
+
+  @Test
+  void report_failing_in_parallel_is_named_in_the_error(@TempDir Path reportsDir) throws IOException {
+    Files.write(reportsDir.resolve("TEST-org.sonar.Foo.xml"), "<testsuite name=\"org.sonar.Foo\"><testcase name=\"a\" time=\"0.01\"/></testsuite>".getBytes(StandardCharsets.UTF_8));
+    // a test case which is not skipped must have a time
+    Path failingReport = reportsDir.resolve("TEST-org.sonar.Bar.xml");
+    Files.write(failingReport, "<testsuite name=\"org.sonar.Bar\"><testcase name=\"b\"/></testsuite>".getBytes(StandardCharsets.UTF_8));
+    SensorContextTester context = mockContext();
+    context.settings().setProperty(SurefireJavaParser.SUREFIRE_PARALLELISM_KEY, 2);
+    List<File> dirs = Collections.singletonList(reportsDir.toFile());
+
+    assertThatThrownBy(() -> parser.collect(context, dirs, true))
+      .isInstanceOf(AnalysisException.class)
+      .hasMessage("Fail to parse the Surefire report: " + failingReport.toFile());
+  }
+
   private static List<File> getDirs(String... directoryNames) throws URISyntaxException {
     return Stream.of(directoryNames)
       .map(directoryName -> new File("src/test/resources/org/sonar/plugins/surefire/api/SurefireParserTest/" + directoryName))
@@ -117,6 +117,30 @@ class SurefireStaxHandlerTest {
     assertThat(publicClass.getTests()).isEqualTo(4);
   }
 
+  @Test
+  void captured_output_is_ignored() throws XMLStreamException {
+    parse("capturedOutput.xml");
+    UnitTestClassReport report = index.get("org.sonar.Foo");
+    assertThat(report.getTests()).isEqualTo(4);
+    assertThat(report.getFailures()).isEqualTo(1);
+    assertThat(report.getErrors()).isEqualTo(1);
+    assertThat(report.getSkipped()).isEqualTo(1);
+    assertThat(report.getDurationMilliseconds()).isEqualTo(30L);
+
+    UnitTestResult ok = report.getResults().get(0);
+    assertThat(ok.getStatus()).isEqualTo(UnitTestResult.STATUS_OK);
+    assertThat(ok.getMessage()).isNull();
+    assertThat(ok.getStackTrace()).isNull();
+
+    // the status element can follow the captured output
+    UnitTestResult failure = report.getResults().get(1);
+    assertThat(failure.getStatus()).isEqualTo(UnitTestResult.STATUS_FAILURE);
+    assertThat(failure.getMessage()).isEqualTo("expected true");
+    assertThat(failure.getStackTrace()).isEqualTo("java.lang.AssertionError: expected true");
+    assertThat(report.getResults().get(2).getStatus()).isEqualTo(UnitTestResult.STATUS_ERROR);
+    assertThat(report.getResults().get(3).getStatus()).isEqualTo(UnitTestResult.STATUS_SKIPPED);
+  }
+
   @Test
   void output_of_junit_5_2_test_without_display_name() throws XMLStreamException {
     parse("TEST-#29.xml");
@@ -109,4 +109,24 @@ class UnitTestIndexTest {
 
     assertThat(index.size()).isZero();
   }
+
+  @Test
+  void shouldMergeIndexes() {
+    UnitTestIndex index = new UnitTestIndex();
+    index.index("org.sonar.Foo").add(new UnitTestResult().setName("test1").setStatus(UnitTestResult.STATUS_OK).setDurationMilliseconds(500L));
+    UnitTestIndex other = new UnitTestIndex();
+    other.index("org.sonar.Foo").add(new UnitTestResult().setName("test2").setStatus(UnitTestResult.STATUS_FAILURE).setDurationMilliseconds(200L));
+    UnitTestClassReport barReport = other.index("org.sonar.Bar");
+    barReport.add(new UnitTestResult().setName("test3").setStatus(UnitTestResult.STATUS_SKIPPED).setDurationMilliseconds(0L));
+
+    assertThat(index.merge(other)).isSameAs(index);
+
+    assertThat(index.size()).isEqualTo(2);
+    UnitTestClassReport fooReport = index.get("org.sonar.Foo");
+    assertThat(fooReport.getTests()).isEqualTo(2);
+    assertThat(fooReport.getFailures()).isEqualTo(1);
+    assertThat(fooReport.getDurationMilliseconds()).isEqualTo(500L + 200L);
+    assertThat(fooReport.getResults()).extracting(UnitTestResult::getName).containsExactly("test1", "test2");
+    assertThat(index.get("org.sonar.Bar")).isSameAs(barReport);
+  }
 }
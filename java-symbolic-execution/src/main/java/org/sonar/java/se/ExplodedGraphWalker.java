@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -134,6 +135,8 @@ public class ExplodedGraphWalker {
 
   @VisibleForTesting
   Deque<ExplodedGraph.Node> workList;
+  private ExplorationStrategy explorationStrategy = ExplorationStrategy.DFS;
+  private Set<Integer> coveredBlocks;
   ExplodedGraph.Node node;
   ProgramPoint programPosition;
   ProgramState programState;
@@ -227,13 +230,14 @@ public class ExplodedGraphWalker {
     checkerDispatcher.init(tree, cfg);
 
     PerformanceMeasure.Duration liveVariablesDuration = PerformanceMeasure.start("LiveVariables.analyze");
-    liveVariables = LiveVariables.analyze(cfg);
+    liveVariables = cfg.liveVariables();
     liveVariablesDuration.stop();
 
     explodedGraph = new ExplodedGraph();
     methodTree = tree;
     constraintManager = new ConstraintManager();
     workList = new LinkedList<>();
+    coveredBlocks = new HashSet<>();
     // Linked hashSet is required to guarantee order of yields to be generated
     endOfExecutionPath = new LinkedHashSet<>();
     programState = ProgramState.EMPTY_STATE;
@@ -246,9 +250,10 @@ public class ExplodedGraphWalker {
       if (steps > maxSteps()) {
         throwMaxSteps(tree);
       }
-      // LIFO:
+      // head of the work list, the order depends on the exploration strategy
       setNode(workList.removeFirst());
       CFG.Block block = (CFG.Block) programPosition.block;
+      coveredBlocks.add(block.id());
       if (block.successors().isEmpty()) {
         endOfExecutionPath.add(node);
         continue;
@@ -289,6 +294,7 @@ public class ExplodedGraphWalker {
     endOfExecutionDuration.stop();
     // Cleanup:
     workList = null;
+    coveredBlocks = null;
     node = null;
     programState = null;
     constraintManager = null;
@@ -1224,7 +1230,7 @@ public class ExplodedGraphWalker {
       }
     }
     checkExplodedGraphTooBig(programState);
-    ProgramState ps = programState.visitedPoint(programPoint, nbOfExecution + 1);
+    ProgramState ps = cleanUpAtJoinPoint(programPoint, programState).visitedPoint(programPoint, nbOfExecution + 1);
     ExplodedGraph.Node cachedNode = explodedGraph.node(programPoint, ps);
     if (!cachedNode.isNew() && exitPath == cachedNode.exitPath) {
       // has been enqueued earlier
@@ -1233,7 +1239,23 @@ public class ExplodedGraphWalker {
     }
     cachedNode.exitPath = exitPath;
     cachedNode.addParent(node, methodYield);
-    workList.addFirst(cachedNode);
+    explorationStrategy.enqueue(workList, cachedNode, coveredBlocks);
+  }
+
+  /**
+   * States reaching a join point from different predecessors have been cleaned up with the live variables of each predecessor, and
+   * can still hold values of variables which are only live on the other successors of these predecessors. Removing the variables which
+   * are not live when entering the block, as well as the constraints left on their values, allows states only differing by such values to
+   * share the same node.
+   * Method exits are left untouched, as end of execution path checks are run on them.
+   */
+  private ProgramState cleanUpAtJoinPoint(ProgramPoint programPoint, ProgramState programState) {
+    CFG.Block block = (CFG.Block) programPoint.block;
+    if (!cleanup || liveVariables == null || programPoint.i != 0 || block.predecessors().size() < 2 || block.successors().isEmpty()) {
+      return programState;
+    }
+    Collection<SymbolicValue> protectedSVs = methodBehavior == null ? Collections.emptyList() : methodBehavior.parameters();
+    return programState.cleanupDeadSymbols(liveVariables.getIn(block), protectedSVs).cleanupConstraints(protectedSVs);
   }
 
   private static boolean isRestartingForEachLoop(ProgramPoint programPoint) {
@@ -1249,6 +1271,17 @@ public class ExplodedGraphWalker {
     }
   }
 
+  void setExplorationStrategy(ExplorationStrategy explorationStrategy) {
+    this.explorationStrategy = explorationStrategy;
+  }
+
+  /**
+   * @return the number of nodes of the exploded graph of the last explored method, complete or not.
+   */
+  public int explodedGraphSize() {
+    return explodedGraph == null ? 0 : explodedGraph.nodes().size();
+  }
+
   @VisibleForTesting
   protected int maxSteps() {
     return MAX_STEPS;
@@ -1267,8 +1300,14 @@ public class ExplodedGraphWalker {
 
     @VisibleForTesting
     final List<SECheck> seChecks = new ArrayList<>();
+    private final ExplorationStrategy explorationStrategy;
 
     public ExplodedGraphWalkerFactory(List<SECheck> activeSEChecks) {
+      this(activeSEChecks, ExplorationStrategy.DFS);
+    }
+
+    public ExplodedGraphWalkerFactory(List<SECheck> activeSEChecks, ExplorationStrategy explorationStrategy) {
+      this.explorationStrategy = explorationStrategy;
       List<SECheck> checks = new ArrayList<>(activeSEChecks);
 
       // This order of the mandatory SE checks is required by the ExplodedGraphWalker
@@ -1286,7 +1325,9 @@ public class ExplodedGraphWalker {
     }
 
     public ExplodedGraphWalker createWalker(BehaviorCache behaviorCache, JavaFileScannerContext context) {
-      return new ExplodedGraphWalker(seChecks, behaviorCache, context);
+      ExplodedGraphWalker walker = new ExplodedGraphWalker(seChecks, behaviorCache, context);
+      walker.setExplorationStrategy(explorationStrategy);
+      return walker;
     }
 
     @SuppressWarnings("unchecked")
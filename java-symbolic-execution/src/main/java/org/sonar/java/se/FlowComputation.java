@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -163,7 +164,8 @@ public class FlowComputation {
   }
 
   private Set<Flow> run(final ExplodedGraph.Node node, PSet<Symbol> trackedSymbols) {
-    Set<Flow> flows = new HashSet<>();
+    // flows are kept in the order they are found
+    Set<Flow> flows = new LinkedHashSet<>();
     Deque<ExecutionPath> workList = new ArrayDeque<>();
     SameConstraints sameConstraints = new SameConstraints(node, trackedSymbols, domains);
     node.edges().stream().flatMap(e -> startPath(e, trackedSymbols, sameConstraints)).forEach(workList::push);
@@ -740,7 +742,7 @@ public class FlowComputation {
           .addAll(changingNameArgumentsMessages)
           .addAll(passedArgumentsMessages)
           .build())
-        .collect(Collectors.toSet());
+        .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
     private boolean isMethodInvocationNode(ExplodedGraph.Node node) {
@@ -19,42 +19,129 @@
  */
 package org.sonar.java.se;
 
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.EndOfAnalysisCheck;
 import org.sonar.java.annotations.VisibleForTesting;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.caching.CacheUtils;
+import org.sonar.java.caching.CacheableVisitor;
+import org.sonar.java.caching.FileAnalysisRecord;
 import org.sonar.java.model.JUtils;
 import org.sonar.java.se.checks.SECheck;
 import org.sonar.java.se.xproc.BehaviorCache;
+import org.sonar.java.se.xproc.BehaviorStore;
 import org.sonar.java.se.xproc.MethodBehavior;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
-public class SymbolicExecutionVisitor extends SubscriptionVisitor {
+/**
+ * Explores the methods of each file, one after the other, in the order of their declaration.
+ *
+ * Methods are explored sequentially on purpose: SE checks keep the state of the method being explored in their fields, and walkers
+ * query the semantic model, whose bindings are lazily resolved by ECJ and are not thread-safe. Files of different batches are
+ * parsed concurrently with {@link org.sonar.java.SonarComponents#SONAR_PARALLELISM_KEY} instead.
+ *
+ * Nothing has to be recorded for the analysis cache: the issues of the SE checks are replayed like the issues of the other checks.
+ * Replaying a file only validates the persisted behaviors it declares, see {@link BehaviorStore}.
+ */
+public class SymbolicExecutionVisitor extends SubscriptionVisitor implements EndOfAnalysisCheck, CacheableVisitor {
   private static final Logger LOG = Loggers.get(SymbolicExecutionVisitor.class);
 
   @VisibleForTesting
   public final BehaviorCache behaviorCache;
   private final ExplodedGraphWalker.ExplodedGraphWalkerFactory egwFactory;
+  @Nullable
+  private final BehaviorStore behaviorStore;
+  @Nullable
+  private final File persistedBehaviors;
+  private final ExplorationStrategy explorationStrategy;
+  private int exploredMethods = 0;
+  private int interruptedMethods = 0;
+  private long explodedGraphNodes = 0L;
 
   public SymbolicExecutionVisitor(List<SECheck> seChecks) {
-    egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(seChecks);
-    this.behaviorCache = new BehaviorCache();
+    this(seChecks, null, null);
+  }
+
+  /**
+   * @param behaviorStore when not null, method behaviors computed in a file are reused when analyzing the next files
+   * @param persistedBehaviors when not null, file from which the store is loaded, and to which it is saved at the end of the analysis
+   */
+  public SymbolicExecutionVisitor(List<SECheck> seChecks, @Nullable BehaviorStore behaviorStore, @Nullable File persistedBehaviors) {
+    this(seChecks, behaviorStore, persistedBehaviors, ExplorationStrategy.DFS);
+  }
+
+  /**
+   * @param explorationStrategy order in which the nodes of the exploded graphs are explored
+   */
+  public SymbolicExecutionVisitor(List<SECheck> seChecks, @Nullable BehaviorStore behaviorStore, @Nullable File persistedBehaviors,
+    ExplorationStrategy explorationStrategy) {
+    egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(seChecks, explorationStrategy);
+    this.explorationStrategy = explorationStrategy;
+    this.behaviorStore = behaviorStore;
+    this.persistedBehaviors = behaviorStore != null ? persistedBehaviors : null;
+    this.behaviorCache = new BehaviorCache(behaviorStore);
+    if (this.persistedBehaviors != null) {
+      behaviorStore.load(this.persistedBehaviors);
+    }
   }
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
     behaviorCache.cleanup();
+    if (persistedBehaviors != null) {
+      behaviorStore.startFile(context.getInputFile().key(), contentHash(context));
+    }
     behaviorCache.setFileContext(this);
     super.scanFile(context);
   }
 
+  @Override
+  public void recordTo(@Nullable FileAnalysisRecord fileRecord) {
+    // nothing to record, see class documentation
+  }
+
+  /**
+   * Behaviors shared between files can not be computed for replayed files: they are only available when persisted between analyses.
+   */
+  @Override
+  public boolean canReplay() {
+    return behaviorStore == null || persistedBehaviors != null;
+  }
+
+  @Override
+  public void replay(JavaFileScannerContext context, FileAnalysisRecord fileRecord) {
+    if (persistedBehaviors != null) {
+      behaviorStore.validate(context.getInputFile().key(), contentHash(context));
+    }
+  }
+
+  private static String contentHash(JavaFileScannerContext context) {
+    return CacheUtils.sha256(context.getFileContent());
+  }
+
+  @Override
+  public void endOfAnalysis() {
+    // behaviors of the last analyzed file
+    behaviorCache.cleanup();
+    if (behaviorStore != null && persistedBehaviors != null) {
+      behaviorStore.save(persistedBehaviors);
+    }
+    if (exploredMethods > 0) {
+      LOG.debug("[SE] Explored {} methods using {} strategy, {} interrupted, {} exploded graph nodes.",
+        exploredMethods, explorationStrategy, interruptedMethods, explodedGraphNodes);
+    }
+  }
+
   @Override
   public List<Tree.Kind> nodesToVisit() {
     return Arrays.asList(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR);
@@ -78,10 +165,15 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
       } else {
         walker.visitMethod(methodTree);
       }
+      exploredMethods++;
+      explodedGraphNodes += walker.explodedGraphSize();
     } catch (ExplodedGraphWalker.MaximumStepsReachedException
       | ExplodedGraphWalker.ExplodedGraphTooBigException
       | ExplodedGraphWalker.MaximumStartingStatesException exception) {
       LOG.debug("Could not complete symbolic execution: {}", exception.getMessage());
+      exploredMethods++;
+      interruptedMethods++;
+      explodedGraphNodes += walker.explodedGraphSize();
       if (LOG.isTraceEnabled()) {
         StringWriter sw = new StringWriter();
         exception.printStackTrace(new PrintWriter(sw));
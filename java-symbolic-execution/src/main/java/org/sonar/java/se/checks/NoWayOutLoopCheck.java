@@ -274,7 +274,7 @@ public class NoWayOutLoopCheck extends SECheck {
     private final boolean threadRunMethod;
 
     MethodContext(MethodTree tree, CFG cfg) {
-      loopStarts = CFGLoop.getCFGLoops(cfg);
+      loopStarts = cfg.loops();
       threadRunMethod = THREAD_RUN_MATCHER.matches(tree);
     }
 
@@ -30,14 +30,17 @@ import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 public abstract class SECheck implements JavaFileScanner {
 
-  protected Set<SEIssue> issues = new HashSet<>();
+  /**
+   * Issues are reported in the order they have been raised, which only depends on the order in which methods are explored.
+   */
+  protected Set<SEIssue> issues = new LinkedHashSet<>();
 
   public void init(MethodTree methodTree, CFG cfg) {
 
@@ -94,7 +97,7 @@ public abstract class SECheck implements JavaFileScanner {
     public SEIssue(Tree tree, String message, Set<Flow> flows) {
       this.tree = tree;
       this.message = message;
-      this.flows = new HashSet<>(flows);
+      this.flows = new LinkedHashSet<>(flows);
     }
 
     public Tree getTree() {
@@ -105,13 +108,19 @@ public abstract class SECheck implements JavaFileScanner {
       return message;
     }
 
+    /**
+     * Flows are returned in the order they have been reported, so that secondary locations do not depend on hash codes.
+     */
     public Set<List<JavaFileScannerContext.Location>> getFlows() {
-      Set<List<JavaFileScannerContext.Location>> nonExceptionalFlows = flows.stream().filter(Flow::isNonExceptional).map(Flow::elements).collect(Collectors.toSet());
+      Set<List<JavaFileScannerContext.Location>> nonExceptionalFlows = flows.stream()
+        .filter(Flow::isNonExceptional)
+        .map(Flow::elements)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
       if (!nonExceptionalFlows.isEmpty()) {
         // keep only the non-exceptional flows and ignore exceptional ones
         return nonExceptionalFlows;
       }
-      return flows.stream().map(Flow::elements).collect(Collectors.toSet());
+      return flows.stream().map(Flow::elements).collect(Collectors.toCollection(LinkedHashSet::new));
     }
   }
 }
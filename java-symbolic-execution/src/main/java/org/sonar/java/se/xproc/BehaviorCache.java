@@ -52,12 +52,28 @@ public class BehaviorCache {
   @VisibleForTesting
   public final Map<String, MethodBehavior> behaviors = new LinkedHashMap<>();
   private Map<String, MethodBehavior> hardcodedBehaviors = null;
+  @Nullable
+  private final BehaviorStore behaviorStore;
+
+  public BehaviorCache() {
+    this(null);
+  }
+
+  /**
+   * @param behaviorStore project-wide store receiving the behaviors computed for each file, and queried for methods declared in other files
+   */
+  public BehaviorCache(@Nullable BehaviorStore behaviorStore) {
+    this.behaviorStore = behaviorStore;
+  }
 
   public void setFileContext(@Nullable SymbolicExecutionVisitor sev) {
     this.sev = sev;
   }
 
   public void cleanup() {
+    if (behaviorStore != null) {
+      behaviors.values().forEach(behaviorStore::add);
+    }
     behaviors.clear();
   }
 
@@ -100,7 +116,7 @@ public class BehaviorCache {
       }
     }
 
-    return hardcodedBehaviors().get(signature);
+    return storedOrHardcoded(signature);
   }
 
   /**
@@ -116,7 +132,18 @@ public class BehaviorCache {
     if (mb != null) {
       return mb;
     }
-    // check for hardcoded signatures
+    // check for behaviors computed in other files, and hardcoded signatures
+    return storedOrHardcoded(signature);
+  }
+
+  @CheckForNull
+  private MethodBehavior storedOrHardcoded(String signature) {
+    if (behaviorStore != null) {
+      MethodBehavior mb = behaviorStore.get(signature);
+      if (mb != null) {
+        return mb;
+      }
+    }
     return hardcodedBehaviors().get(signature);
   }
 
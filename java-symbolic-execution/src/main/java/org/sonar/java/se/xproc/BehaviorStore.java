@@ -0,0 +1,234 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.caching.CacheUtils;
+import org.sonar.java.se.constraint.BooleanConstraint;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
+import org.sonar.java.se.constraint.ObjectConstraint;
+
+/**
+ * Project-wide store of method behaviors, filled with the behaviors computed while analyzing each file and queried when a method
+ * declared in another file is invoked.
+ *
+ * Behaviors computed from sources are attached to the exploded graph of the file they come from. They are stored as detached copies,
+ * using the format of the hardcoded behaviors ({@link MethodBehaviorJsonAdapter}). Behaviors which can not be represented in this format
+ * without loss (constraints of other domains, yields based on checks) are not stored.
+ *
+ * Behaviors are persisted with the fingerprint of the analysis which computed them (plugin version, classpath...), and with the content
+ * hash of their declaring file. Persisted behaviors are all ignored when the fingerprint changed, and are only queried once their
+ * declaring file has been found unchanged ({@link #validate(String, String)}).
+ *
+ * The store is bounded: once full, the least recently stored behaviors are dropped first.
+ */
+public class BehaviorStore {
+
+  private static final Logger LOG = Loggers.get(BehaviorStore.class);
+
+  static final int DEFAULT_MAX_SIZE = 50_000;
+
+  private final Gson gson = MethodBehaviorJsonAdapter.gson();
+  private final String fingerprint;
+  private final Map<String, StoredBehavior> behaviors;
+  private final Map<String, List<StoredBehavior>> persistedBehaviorsByFile = new HashMap<>();
+  @Nullable
+  private String currentFile;
+  @Nullable
+  private String currentContentHash;
+
+  public BehaviorStore() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public BehaviorStore(int maxSize) {
+    this("", maxSize);
+  }
+
+  /**
+   * @param fingerprint identifies the configuration of the analysis, behaviors persisted with another fingerprint are not loaded
+   */
+  public BehaviorStore(String fingerprint) {
+    this(fingerprint, DEFAULT_MAX_SIZE);
+  }
+
+  public BehaviorStore(String fingerprint, int maxSize) {
+    this.fingerprint = fingerprint;
+    behaviors = new LinkedHashMap<String, StoredBehavior>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, StoredBehavior> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Behaviors added next are declared in the given file. Its persisted behaviors are dropped, they are computed again.
+   */
+  public void startFile(String fileKey, String contentHash) {
+    currentFile = fileKey;
+    currentContentHash = contentHash;
+    persistedBehaviorsByFile.remove(fileKey);
+  }
+
+  public void add(MethodBehavior behavior) {
+    if (!behavior.isComplete() || !isStorable(behavior)) {
+      return;
+    }
+    try {
+      MethodBehavior detached = gson.fromJson(gson.toJsonTree(behavior), MethodBehavior.class);
+      // re-inserted so that the most recently computed behaviors are the last to be dropped
+      behaviors.remove(behavior.signature());
+      behaviors.put(behavior.signature(), new StoredBehavior(currentFile, currentContentHash, detached));
+    } catch (RuntimeException e) {
+      LOG.debug("[SE] Unable to store the behavior of {}: {}", behavior.signature(), e.getMessage());
+    }
+  }
+
+  @CheckForNull
+  public MethodBehavior get(String signature) {
+    StoredBehavior stored = behaviors.get(signature);
+    return stored != null ? stored.behavior : null;
+  }
+
+  public int size() {
+    return behaviors.size();
+  }
+
+  /**
+   * Makes the persisted behaviors declared in the given file available, when the file did not change since they were computed.
+   * Otherwise, they are dropped.
+   */
+  public void validate(String fileKey, String contentHash) {
+    List<StoredBehavior> persisted = persistedBehaviorsByFile.remove(fileKey);
+    if (persisted == null) {
+      return;
+    }
+    for (StoredBehavior stored : persisted) {
+      if (contentHash.equals(stored.contentHash)) {
+        behaviors.put(stored.behavior.signature(), stored);
+      }
+    }
+  }
+
+  /**
+   * Loads the behaviors persisted by a previous analysis with the same fingerprint. They are not available until their declaring file
+   * is validated, and they are replaced as soon as the same methods are computed again.
+   */
+  public void load(File file) {
+    if (!file.isFile()) {
+      return;
+    }
+    try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      PersistedBehaviors persisted = gson.fromJson(reader, PersistedBehaviors.class);
+      if (persisted == null || !fingerprint.equals(persisted.fingerprint)) {
+        LOG.debug("[SE] Ignoring method behaviors from {}, they have been computed by an analysis with another configuration.", file);
+        return;
+      }
+      persisted.behaviors.stream()
+        .filter(stored -> stored.file != null && stored.contentHash != null && stored.behavior != null)
+        .forEach(stored -> persistedBehaviorsByFile.computeIfAbsent(stored.file, k -> new ArrayList<>()).add(stored));
+      LOG.debug("[SE] Loaded {} method behaviors from {}.", persisted.behaviors.size(), file);
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("[SE] Unable to load method behaviors from {}: {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * Saves the behaviors computed or validated during this analysis. Persisted behaviors of files which have not been analyzed are dropped.
+   */
+  public void save(File file) {
+    PersistedBehaviors persisted = new PersistedBehaviors(fingerprint, behaviors.values().stream()
+      .filter(stored -> stored.file != null)
+      .collect(Collectors.toList()));
+    try {
+      CacheUtils.writeAtomically(file.toPath(), out -> {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        gson.toJson(persisted, PersistedBehaviors.class, writer);
+        writer.flush();
+      });
+      LOG.debug("[SE] Saved {} method behaviors to {}.", persisted.behaviors.size(), file);
+    } catch (IOException e) {
+      LOG.debug("[SE] Unable to save method behaviors to {}: {}", file, e.getMessage());
+    }
+  }
+
+  private static boolean isStorable(MethodBehavior behavior) {
+    for (MethodYield methodYield : behavior.yields()) {
+      if (methodYield.getClass() != HappyPathYield.class && methodYield.getClass() != ExceptionalYield.class) {
+        return false;
+      }
+      if (methodYield.parametersConstraints.size() != behavior.methodArity()
+        || !methodYield.parametersConstraints.stream().allMatch(BehaviorStore::isStorable)) {
+        return false;
+      }
+      if (methodYield instanceof HappyPathYield && !isStorable(((HappyPathYield) methodYield).resultConstraint())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isStorable(@Nullable ConstraintsByDomain constraints) {
+    return constraints == null || constraints.stream().allMatch(constraint -> constraint instanceof ObjectConstraint || constraint instanceof BooleanConstraint);
+  }
+
+  private static class PersistedBehaviors {
+    private String fingerprint;
+    private List<StoredBehavior> behaviors;
+
+    private PersistedBehaviors(String fingerprint, List<StoredBehavior> behaviors) {
+      this.fingerprint = fingerprint;
+      this.behaviors = behaviors;
+    }
+  }
+
+  private static class StoredBehavior {
+    @Nullable
+    private String file;
+    @Nullable
+    private String contentHash;
+    private MethodBehavior behavior;
+
+    private StoredBehavior(@Nullable String file, @Nullable String contentHash, MethodBehavior behavior) {
+      this.file = file;
+      this.contentHash = contentHash;
+      this.behavior = behavior;
+    }
+  }
+
+}
@@ -0,0 +1,26 @@
+abstract class JoinPointCleanup {
+
+  abstract boolean cond();
+  abstract Object get();
+  abstract void use(Object o);
+  abstract void join();
+
+  void dead_variables_are_merged() {
+    boolean c = cond();
+    Object x = get();
+    if (c) {
+      Object z = x;
+    }
+    join();
+  }
+
+  void live_variables_are_kept() {
+    Object y = get();
+    Object x = get();
+    if (y == null) {
+      Object z = x;
+    }
+    join();
+    use(y);
+  }
+}
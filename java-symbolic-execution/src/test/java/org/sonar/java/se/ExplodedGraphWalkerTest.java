@@ -23,12 +23,16 @@ import com.google.common.reflect.ClassPath;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.sonar.java.cfg.CFG;
 import org.sonar.java.checks.verifier.TestUtils;
 import org.sonar.java.model.JUtils;
@@ -68,6 +72,7 @@ import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -118,6 +123,92 @@ class ExplodedGraphWalkerTest {
         .isGreaterThan(steps[1]);
   }
 
+  @Test
+  void states_only_differing_by_dead_variables_are_merged_at_join_points() {
+    JoinPointProbe probe = JoinPointProbe.run("src/test/files/se/JoinPointCleanup.java");
+
+    // both branches of "if (c)" reach the same node, as neither "c" nor "x" is live anymore
+    assertThat(probe.statesAtJoin.get("dead_variables_are_merged")).hasSize(1);
+  }
+
+  @Test
+  void constraints_of_live_variables_are_kept_at_join_points() {
+    JoinPointProbe probe = JoinPointProbe.run("src/test/files/se/JoinPointCleanup.java");
+
+    List<ProgramState> states = probe.statesAtJoin.get("live_variables_are_kept");
+    Symbol y = probe.localVariables.get("live_variables_are_kept").get("y");
+    Symbol x = probe.localVariables.get("live_variables_are_kept").get("x");
+    assertThat(states).hasSize(2);
+    assertThat(states.stream().map(state -> state.getConstraint(state.getValue(y), ObjectConstraint.class)))
+      .containsExactlyInAnyOrder(ObjectConstraint.NULL, ObjectConstraint.NOT_NULL);
+    // "x" is only used on one branch: it is removed from the state coming from the other one too
+    assertThat(states).allMatch(state -> state.getValue(x) == null);
+  }
+
+  /**
+   * Collects the program states reaching the invocations of "join()", by name of the method containing them.
+   */
+  private static class JoinPointProbe extends SECheck {
+
+    private final Map<String, List<ProgramState>> statesAtJoin = new HashMap<>();
+    private final Map<String, Map<String, Symbol>> localVariables = new HashMap<>();
+    private final Set<ExplodedGraph.Node> visitedNodes = new HashSet<>();
+    private String methodName;
+
+    static JoinPointProbe run(String fileName) {
+      JoinPointProbe probe = new JoinPointProbe();
+      SECheckVerifier.newVerifier()
+        .onFile(fileName)
+        .withCheck(new SymbolicExecutionVisitor(Collections.singletonList(probe)))
+        .withClassPath(SETestUtils.CLASS_PATH)
+        .verifyNoIssues();
+      return probe;
+    }
+
+    @Override
+    public void init(MethodTree methodTree, CFG cfg) {
+      methodName = methodTree.simpleName().name();
+      Map<String, Symbol> variables = new HashMap<>();
+      methodTree.block().body().stream()
+        .filter(statement -> statement.is(Tree.Kind.VARIABLE))
+        .map(VariableTree.class::cast)
+        .forEach(variable -> variables.put(variable.simpleName().name(), variable.symbol()));
+      localVariables.put(methodName, variables);
+    }
+
+    @Override
+    public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
+      if (syntaxNode.is(Tree.Kind.METHOD_INVOCATION)
+        && "join".equals(((MethodInvocationTree) syntaxNode).symbol().name())
+        && visitedNodes.add(context.getNode())) {
+        statesAtJoin.computeIfAbsent(methodName, k -> new ArrayList<>()).add(context.getState());
+      }
+      return context.getState();
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(ExplorationStrategy.class)
+  void exploration_strategies_explore_whole_methods(ExplorationStrategy strategy) {
+    final int[] nodes = new int[1];
+    SECheckVerifier.newVerifier()
+      .onFile("src/test/files/se/SeEngineTestCleanupState.java")
+      .withChecks(new SymbolicExecutionVisitor(Collections.emptyList()) {
+        @Override
+        public void visitNode(Tree tree) {
+          ExplodedGraphWalker explodedGraphWalker = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(Collections.emptyList(), strategy)
+            .createWalker(this.behaviorCache, context);
+          MethodTree methodTree = (MethodTree) tree;
+          explodedGraphWalker.visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
+          assertThat(explodedGraphWalker.workList).isNull();
+          nodes[0] += explodedGraphWalker.explodedGraphSize();
+        }
+      })
+      .withClassPath(SETestUtils.CLASS_PATH)
+      .verifyNoIssues();
+    assertThat(nodes[0]).isPositive();
+  }
+
   @Test
   void reproducer() throws Exception {
     SECheckVerifier.newVerifier()
@@ -0,0 +1,94 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.sonar.api.utils.log.LogTesterJUnit5;
+import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.java.cfg.CFG;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExplorationStrategyTest {
+
+  @RegisterExtension
+  public LogTesterJUnit5 logTester = new LogTesterJUnit5();
+
+  private final ExplodedGraph explodedGraph = new ExplodedGraph();
+  private final CFG.Block exit = new CFG.Block(0);
+  private final CFG.Block covered = blockTo(1, exit);
+  private final CFG.Block notCovered = blockTo(2, exit);
+
+  @Test
+  void strategy_from_name() {
+    assertThat(ExplorationStrategy.fromName(null)).isEqualTo(ExplorationStrategy.DFS);
+    assertThat(ExplorationStrategy.fromName("dfs")).isEqualTo(ExplorationStrategy.DFS);
+    assertThat(ExplorationStrategy.fromName(" Coverage ")).isEqualTo(ExplorationStrategy.COVERAGE);
+    assertThat(logTester.logs()).isEmpty();
+  }
+
+  @Test
+  void unknown_strategy_falls_back_to_dfs_with_a_warning() {
+    assertThat(ExplorationStrategy.fromName("unknown")).isEqualTo(ExplorationStrategy.DFS);
+    assertThat(logTester.logs(LoggerLevel.WARN))
+      .containsExactly("Unknown symbolic execution strategy 'unknown', falling back to DFS. Supported strategies are: dfs, coverage.");
+  }
+
+  @Test
+  void dfs_explores_last_enqueued_node_first() {
+    Deque<ExplodedGraph.Node> workList = new ArrayDeque<>();
+    ExplodedGraph.Node first = node(covered);
+    ExplodedGraph.Node second = node(notCovered);
+    ExplorationStrategy.DFS.enqueue(workList, first, Collections.emptySet());
+    ExplorationStrategy.DFS.enqueue(workList, second, Collections.emptySet());
+    assertThat(workList).containsExactly(second, first);
+  }
+
+  @Test
+  void coverage_postpones_covered_blocks() {
+    Set<Integer> coveredBlocks = new HashSet<>(Collections.singleton(covered.id()));
+    coveredBlocks.add(exit.id());
+    Deque<ExplodedGraph.Node> workList = new ArrayDeque<>();
+    ExplodedGraph.Node toNotCovered = node(notCovered);
+    ExplodedGraph.Node toCovered = node(covered);
+    ExplodedGraph.Node toExit = node(exit);
+    ExplorationStrategy.COVERAGE.enqueue(workList, toNotCovered, coveredBlocks);
+    ExplorationStrategy.COVERAGE.enqueue(workList, toCovered, coveredBlocks);
+    ExplorationStrategy.COVERAGE.enqueue(workList, toExit, coveredBlocks);
+    assertThat(workList).containsExactly(toExit, toNotCovered, toCovered);
+  }
+
+  private ExplodedGraph.Node node(CFG.Block block) {
+    return explodedGraph.node(new ProgramPoint(block), ProgramState.EMPTY_STATE);
+  }
+
+  private static CFG.Block blockTo(int id, CFG.Block successor) {
+    CFG.Block block = new CFG.Block(id);
+    block.addExitSuccessor(successor);
+    return block;
+  }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.checks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.se.Flow;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SECheckTest {
+
+  private final Tree tree = mock(Tree.class);
+
+  @Test
+  void flows_are_returned_in_reporting_order() {
+    List<Flow> flows = flows(50, false);
+    SECheck check = new SECheck() { };
+    check.reportIssue(tree, "message", new LinkedHashSet<>(flows.subList(0, 25)));
+    // flows reported on the same tree are merged after the previous ones
+    check.reportIssue(tree, "message", new LinkedHashSet<>(flows.subList(25, 50)));
+
+    assertThat(check.issues).hasSize(1);
+    assertThat(check.issues.iterator().next().getFlows())
+      .containsExactlyElementsOf(flows.stream().map(Flow::elements).collect(Collectors.toList()));
+  }
+
+  @Test
+  void exceptional_flows_are_ignored_when_there_are_non_exceptional_ones() {
+    List<Flow> exceptionalFlows = flows(10, true);
+    List<Flow> nonExceptionalFlows = flows(10, false);
+    Set<Flow> allFlows = new LinkedHashSet<>();
+    for (int i = 0; i < 10; i++) {
+      allFlows.add(exceptionalFlows.get(i));
+      allFlows.add(nonExceptionalFlows.get(i));
+    }
+
+    assertThat(new SECheck.SEIssue(tree, "message", allFlows).getFlows())
+      .containsExactlyElementsOf(nonExceptionalFlows.stream().map(Flow::elements).collect(Collectors.toList()));
+    assertThat(new SECheck.SEIssue(tree, "message", new LinkedHashSet<>(exceptionalFlows)).getFlows())
+      .containsExactlyElementsOf(exceptionalFlows.stream().map(Flow::elements).collect(Collectors.toList()));
+  }
+
+  private static List<Flow> flows(int count, boolean exceptional) {
+    List<Flow> flows = new ArrayList<>();
+    IntStream.range(0, count).forEach(i -> {
+      Flow.Builder builder = Flow.builder().add(new JavaFileScannerContext.Location("flow " + i, mock(Tree.class)));
+      if (exceptional) {
+        builder.setAsExceptional();
+      }
+      flows.add(builder.build());
+    });
+    return flows;
+  }
+
+}
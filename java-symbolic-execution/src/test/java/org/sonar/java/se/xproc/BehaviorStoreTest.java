@@ -0,0 +1,298 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2022 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.caching.FileAnalysisRecord;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.se.SymbolicExecutionVisitor;
+import org.sonar.java.se.checks.DivisionByZeroCheck;
+import org.sonar.java.se.checks.NullDereferenceCheck;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
+import org.sonar.java.se.constraint.ObjectConstraint;
+import org.sonar.java.se.utils.JParserTestUtils;
+import org.sonar.java.se.utils.SETestUtils;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.java.se.utils.SETestUtils.createSymbolicExecutionVisitor;
+
+class BehaviorStoreTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void computed_behaviors_are_stored_when_cache_is_cleaned_up() {
+    BehaviorStore store = new BehaviorStore();
+    SymbolicExecutionVisitor sev = createSymbolicExecutionVisitor("src/test/resources/se/MethodBehavior.java", new NullDereferenceCheck());
+    BehaviorCache cache = new BehaviorCache(store);
+    cache.behaviors.putAll(sev.behaviorCache.behaviors);
+    MethodBehavior computed = cache.behaviors.get("MethodBehavior#foo(Z)Z");
+
+    cache.cleanup();
+
+    assertThat(cache.behaviors).isEmpty();
+    assertThat(store.size()).isPositive();
+    MethodBehavior stored = store.get("MethodBehavior#foo(Z)Z");
+    assertThat(stored).isNotNull().isNotSameAs(computed);
+    assertThat(stored.isComplete()).isTrue();
+    assertThat(stored.yields()).hasSameSizeAs(computed.yields());
+    // behaviors computed in other files are available without any computation
+    assertThat(cache.peek("MethodBehavior#foo(Z)Z")).isSameAs(stored);
+    assertThat(cache.get("MethodBehavior#foo(Z)Z")).isSameAs(stored);
+  }
+
+  @Test
+  void incomplete_behaviors_are_not_stored() {
+    BehaviorStore store = new BehaviorStore();
+    store.add(new MethodBehavior("A#foo()V", false));
+    assertThat(store.size()).isZero();
+  }
+
+  @Test
+  void behaviors_with_constraints_of_other_domains_are_not_stored() {
+    BehaviorStore store = new BehaviorStore();
+    MethodBehavior behavior = new MethodBehavior("A#foo(Ljava/lang/Object;)V", false);
+    HappyPathYield methodYield = new HappyPathYield(behavior);
+    methodYield.parametersConstraints.add(ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL));
+    behavior.addYield(methodYield);
+    behavior.completed();
+    store.add(behavior);
+    assertThat(store.size()).isEqualTo(1);
+
+    MethodBehavior otherBehavior = new MethodBehavior("A#bar(I)V", false);
+    HappyPathYield otherYield = new HappyPathYield(otherBehavior);
+    otherYield.parametersConstraints.add(ConstraintsByDomain.empty().put(DivisionByZeroCheck.ZeroConstraint.ZERO));
+    otherBehavior.addYield(otherYield);
+    otherBehavior.completed();
+    store.add(otherBehavior);
+    assertThat(store.size()).isEqualTo(1);
+    assertThat(store.get("A#bar(I)V")).isNull();
+  }
+
+  @Test
+  void behaviors_are_persisted() {
+    BehaviorStore store = new BehaviorStore("fingerprint");
+    store.startFile("A.java", "hash");
+    MethodBehavior behavior = new MethodBehavior("A#foo(Ljava/lang/Object;)V", false);
+    HappyPathYield methodYield = new HappyPathYield(behavior);
+    methodYield.parametersConstraints.add(ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL));
+    behavior.addYield(methodYield);
+    behavior.completed();
+    store.add(behavior);
+
+    File file = tempDir.resolve("behaviors.json").toFile();
+    store.save(file);
+    BehaviorStore loaded = new BehaviorStore("fingerprint");
+    loaded.load(file);
+    // not available until the declaring file is found unchanged
+    assertThat(loaded.size()).isZero();
+    assertThat(loaded.get("A#foo(Ljava/lang/Object;)V")).isNull();
+
+    loaded.validate("A.java", "hash");
+    assertThat(loaded.size()).isEqualTo(1);
+    MethodBehavior loadedBehavior = loaded.get("A#foo(Ljava/lang/Object;)V");
+    assertThat(loadedBehavior).isNotNull();
+    assertThat(loadedBehavior.yields()).hasSize(1);
+    assertThat(loadedBehavior.yields().get(0).parametersConstraints.get(0).hasConstraint(ObjectConstraint.NOT_NULL)).isTrue();
+  }
+
+  @Test
+  void persisted_behaviors_of_changed_files_are_dropped() {
+    File file = tempDir.resolve("behaviors.json").toFile();
+    BehaviorStore store = new BehaviorStore("fingerprint");
+    store.startFile("A.java", "hash A");
+    store.add(notNullParameterBehavior("A#a(Ljava/lang/Object;)V"));
+    store.startFile("B.java", "hash B");
+    store.add(notNullParameterBehavior("B#b(Ljava/lang/Object;)V"));
+    store.save(file);
+
+    BehaviorStore loaded = new BehaviorStore("fingerprint");
+    loaded.load(file);
+    loaded.validate("A.java", "new hash A");
+    loaded.validate("B.java", "hash B");
+    assertThat(loaded.get("A#a(Ljava/lang/Object;)V")).isNull();
+    assertThat(loaded.get("B#b(Ljava/lang/Object;)V")).isNotNull();
+    // validated only once
+    loaded.validate("A.java", "hash A");
+    assertThat(loaded.get("A#a(Ljava/lang/Object;)V")).isNull();
+  }
+
+  @Test
+  void persisted_behaviors_of_analyzed_files_are_dropped() {
+    File file = tempDir.resolve("behaviors.json").toFile();
+    BehaviorStore store = new BehaviorStore("fingerprint");
+    store.startFile("A.java", "hash A");
+    store.add(notNullParameterBehavior("A#a(Ljava/lang/Object;)V"));
+    store.add(notNullParameterBehavior("A#b(Ljava/lang/Object;)V"));
+    store.save(file);
+
+    BehaviorStore loaded = new BehaviorStore("fingerprint");
+    loaded.load(file);
+    loaded.startFile("A.java", "hash A");
+    loaded.add(notNullParameterBehavior("A#a(Ljava/lang/Object;)V"));
+    loaded.validate("A.java", "hash A");
+    assertThat(loaded.get("A#a(Ljava/lang/Object;)V")).isNotNull();
+    assertThat(loaded.get("A#b(Ljava/lang/Object;)V")).isNull();
+
+    // behaviors of files which have been neither analyzed nor replayed are not saved again
+    loaded.save(file);
+    BehaviorStore reloaded = new BehaviorStore("fingerprint");
+    reloaded.load(file);
+    reloaded.validate("A.java", "hash A");
+    assertThat(reloaded.size()).isEqualTo(1);
+  }
+
+  @Test
+  void behaviors_persisted_with_another_fingerprint_are_ignored() {
+    File file = tempDir.resolve("behaviors.json").toFile();
+    BehaviorStore store = new BehaviorStore("fingerprint");
+    store.startFile("A.java", "hash");
+    store.add(notNullParameterBehavior("A#a(Ljava/lang/Object;)V"));
+    store.save(file);
+
+    BehaviorStore loaded = new BehaviorStore("other fingerprint");
+    loaded.load(file);
+    loaded.validate("A.java", "hash");
+    assertThat(loaded.size()).isZero();
+  }
+
+  @Test
+  void replayed_files_validate_the_persisted_behaviors() throws IOException {
+    File file = tempDir.resolve("behaviors.json").toFile();
+    String source = "src/test/resources/se/MethodBehavior.java";
+    SymbolicExecutionVisitor sev = new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorStore("fingerprint"), file);
+    sev.scanFile(scannerContext(source));
+    sev.endOfAnalysis();
+    assertThat(file).isFile();
+
+    BehaviorStore changed = new BehaviorStore("fingerprint");
+    new SymbolicExecutionVisitor(Collections.emptyList(), changed, file).replay(replayContext(source, "changed"), mock(FileAnalysisRecord.class));
+    assertThat(changed.get("MethodBehavior#foo(Z)Z")).isNull();
+    // hash of the content of the file when it was analyzed
+    BehaviorStore replayed = new BehaviorStore("fingerprint");
+    new SymbolicExecutionVisitor(Collections.emptyList(), replayed, file)
+      .replay(replayContext(source, SETestUtils.inputFile(source).contents()), mock(FileAnalysisRecord.class));
+    assertThat(replayed.get("MethodBehavior#foo(Z)Z")).isNotNull();
+  }
+
+  private static JavaFileScannerContext scannerContext(String fileName) {
+    InputFile inputFile = SETestUtils.inputFile(fileName);
+    JavaTree.CompilationUnitTreeImpl cut = (JavaTree.CompilationUnitTreeImpl) JParserTestUtils.parse(inputFile.file(), SETestUtils.CLASS_PATH);
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    when(sonarComponents.inputFileContents(inputFile)).thenAnswer(invocation -> inputFile.contents());
+    return new DefaultJavaFileScannerContext(cut, inputFile, cut.sema, sonarComponents, new JavaVersionImpl(8), true, false);
+  }
+
+  private static JavaFileScannerContext replayContext(String fileName, String content) {
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    when(context.getInputFile()).thenReturn(SETestUtils.inputFile(fileName));
+    when(context.getFileContent()).thenReturn(content);
+    return context;
+  }
+
+  @Test
+  void behaviors_with_unknown_exception_types_are_stored() {
+    BehaviorStore store = new BehaviorStore();
+    MethodBehavior behavior = new MethodBehavior("A#foo()V", false);
+    ExceptionalYield methodYield = new ExceptionalYield(behavior);
+    methodYield.setExceptionType(null);
+    behavior.addYield(methodYield);
+    behavior.completed();
+    store.add(behavior);
+
+    MethodBehavior stored = store.get("A#foo()V");
+    assertThat(stored).isNotNull();
+    assertThat(stored.yields()).hasSize(1);
+    assertThat(((ExceptionalYield) stored.yields().get(0)).getExceptionType()).isNull();
+  }
+
+  @Test
+  void behaviors_failing_to_be_copied_are_skipped() {
+    BehaviorStore store = new BehaviorStore();
+    MethodBehavior behavior = new MethodBehavior("A#foo()V", false);
+    behavior.setDeclaredExceptions(null);
+    behavior.completed();
+    store.add(behavior);
+    assertThat(store.size()).isZero();
+
+    store.add(notNullParameterBehavior("A#bar(Ljava/lang/Object;)V"));
+    assertThat(store.size()).isEqualTo(1);
+  }
+
+  @Test
+  void least_recently_stored_behaviors_are_dropped_first() {
+    BehaviorStore store = new BehaviorStore(2);
+    store.startFile("A.java", "hash");
+    store.add(notNullParameterBehavior("A#a(Ljava/lang/Object;)V"));
+    store.add(notNullParameterBehavior("A#b(Ljava/lang/Object;)V"));
+    store.add(notNullParameterBehavior("A#a(Ljava/lang/Object;)V"));
+    store.add(notNullParameterBehavior("A#c(Ljava/lang/Object;)V"));
+
+    assertThat(store.size()).isEqualTo(2);
+    assertThat(store.get("A#b(Ljava/lang/Object;)V")).isNull();
+    assertThat(store.get("A#a(Ljava/lang/Object;)V")).isNotNull();
+    assertThat(store.get("A#c(Ljava/lang/Object;)V")).isNotNull();
+
+    File file = tempDir.resolve("behaviors.json").toFile();
+    store.save(file);
+    BehaviorStore loaded = new BehaviorStore(1);
+    loaded.load(file);
+    loaded.validate("A.java", "hash");
+    assertThat(loaded.size()).isEqualTo(1);
+    assertThat(loaded.get("A#c(Ljava/lang/Object;)V")).isNotNull();
+  }
+
+  private static MethodBehavior notNullParameterBehavior(String signature) {
+    MethodBehavior behavior = new MethodBehavior(signature, false);
+    HappyPathYield methodYield = new HappyPathYield(behavior);
+    methodYield.parametersConstraints.add(ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL));
+    behavior.addYield(methodYield);
+    behavior.completed();
+    return behavior;
+  }
+
+  @Test
+  void missing_or_invalid_persisted_behaviors_are_ignored() throws IOException {
+    BehaviorStore store = new BehaviorStore();
+    store.load(tempDir.resolve("missing.json").toFile());
+    assertThat(store.size()).isZero();
+
+    Path invalid = tempDir.resolve("invalid.json");
+    Files.write(invalid, Collections.singletonList("{ not a list"), StandardCharsets.UTF_8);
+    store.load(invalid.toFile());
+    assertThat(store.size()).isZero();
+  }
+
+}
@@ -24,6 +24,7 @@ import com.google.gson.annotations.SerializedName;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -132,7 +133,15 @@ public class JavaRulesDefinition implements RulesDefinition {
   @Nullable
   static RuleMetadata readRuleMetadata(String metadataKey) {
     URL resource = JavaRulesDefinition.class.getResource(RESOURCE_BASE_PATH + "/" + metadataKey + "_java.json");
-    return resource != null ? GSON.fromJson(readResource(resource), RuleMetadata.class) : null;
+    if (resource == null) {
+      return null;
+    }
+    // parsed from the stream, without first copying the file line by line
+    try (Reader reader = new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8)) {
+      return GSON.fromJson(reader, RuleMetadata.class);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read: " + resource, e);
+    }
   }
 
   private static String readRuleHtmlDescription(String metadataKey) {
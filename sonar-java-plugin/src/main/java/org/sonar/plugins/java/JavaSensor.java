@@ -45,13 +45,16 @@ import org.sonar.java.JavaFrontend;
 import org.sonar.java.Measurer;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.java.caching.CacheUtils;
 import org.sonar.java.checks.CheckList;
 import org.sonar.java.filters.PostAnalysisIssueFilter;
 import org.sonar.java.jsp.Jasper;
 import org.sonar.java.model.GeneratedFile;
 import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.se.ExplorationStrategy;
 import org.sonar.java.se.SymbolicExecutionVisitor;
 import org.sonar.java.se.checks.SECheck;
+import org.sonar.java.se.xproc.BehaviorStore;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaResourceLocator;
 import org.sonar.plugins.java.api.JavaVersion;
@@ -65,6 +68,7 @@ public class JavaSensor implements Sensor {
   private static final String PERFORMANCE_MEASURE_ACTIVATION_PROPERTY = "sonar.java.performance.measure";
   private static final String PERFORMANCE_MEASURE_FILE_PATH_PROPERTY = "sonar.java.performance.measure.path";
   private static final String PERFORMANCE_MEASURE_DESTINATION_FILE = "sonar.java.performance.measure.json";
+  private static final String METHOD_BEHAVIORS_FILE = "se-method-behaviors.json";
 
   private final SonarComponents sonarComponents;
   private final FileSystem fs;
@@ -108,8 +112,9 @@ public class JavaSensor implements Sensor {
 
     Measurer measurer = new Measurer(context, noSonarFilter);
 
-    JavaFrontend frontend = new JavaFrontend(getJavaVersion(), sonarComponents, measurer, javaResourceLocator, postAnalysisIssueFilter,
-      insertSymbolicExecutionVisitor(sonarComponents.mainChecks()));
+    JavaVersion javaVersion = getJavaVersion();
+    JavaFrontend frontend = new JavaFrontend(javaVersion, sonarComponents, measurer, javaResourceLocator, postAnalysisIssueFilter,
+      insertSymbolicExecutionVisitor(sonarComponents.mainChecks(), createBehaviorStore(javaVersion), persistedMethodBehaviors(context), explorationStrategy()));
     frontend.scan(getSourceFiles(), getTestFiles(), runJasper(context));
 
     sensorDuration.stop();
@@ -148,8 +153,44 @@ public class JavaSensor implements Sensor {
       .start("JavaSensor");
   }
 
+  /**
+   * Method behaviors are only shared between files of the same analysis on demand, as issues then depend on the order of the files.
+   */
+  @Nullable
+  private BehaviorStore createBehaviorStore(JavaVersion javaVersion) {
+    return sonarComponents.isMethodBehaviorsSharingEnabled() ? new BehaviorStore(methodBehaviorsFingerprint(javaVersion)) : null;
+  }
+
+  /**
+   * Persisted behaviors computed by another version of the plugin, or with another classpath, are not reused.
+   */
+  private String methodBehaviorsFingerprint(JavaVersion javaVersion) {
+    return CacheUtils.sha256(JavaSensor.class.getPackage().getImplementationVersion() + "\n"
+      + javaVersion.effectiveJavaVersionAsString() + "\n"
+      + CacheUtils.classpathFingerprint(sonarComponents.getJavaClasspath()));
+  }
+
+  @Nullable
+  private File persistedMethodBehaviors(SensorContext context) {
+    File workDir = context.fileSystem().workDir();
+    if (!sonarComponents.isMethodBehaviorsPersistenceEnabled() || workDir == null) {
+      return null;
+    }
+    return new File(workDir, METHOD_BEHAVIORS_FILE);
+  }
+
+  private ExplorationStrategy explorationStrategy() {
+    return ExplorationStrategy.fromName(sonarComponents.symbolicExecutionStrategy().orElse(null));
+  }
+
   @VisibleForTesting
   static JavaCheck[] insertSymbolicExecutionVisitor(List<JavaCheck> checks) {
+    return insertSymbolicExecutionVisitor(checks, null, null, ExplorationStrategy.DFS);
+  }
+
+  @VisibleForTesting
+  static JavaCheck[] insertSymbolicExecutionVisitor(List<JavaCheck> checks, @Nullable BehaviorStore behaviorStore, @Nullable File persistedBehaviors,
+    ExplorationStrategy explorationStrategy) {
     List<SECheck> seChecks = checks.stream()
       .filter(SECheck.class::isInstance)
       .map(SECheck.class::cast)
@@ -159,7 +200,7 @@ public class JavaSensor implements Sensor {
     }
     List<JavaCheck> newList = new ArrayList<>(checks);
     // insert an instance of SymbolicExecutionVisitor before the first SECheck
-    newList.add(newList.indexOf(seChecks.get(0)), new SymbolicExecutionVisitor(seChecks));
+    newList.add(newList.indexOf(seChecks.get(0)), new SymbolicExecutionVisitor(seChecks, behaviorStore, persistedBehaviors, explorationStrategy));
     return newList.toArray(new JavaCheck[0]);
   }
 
@@ -20,13 +20,14 @@
 package org.sonar.plugins.java;
 
 import com.google.gson.Gson;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -85,14 +86,19 @@ public class JavaSonarWayProfile implements BuiltInQualityProfilesDefinition {
     return result;
   }
 
+  /**
+   * @return the Sonar way profile, parsed once and shared by the rules definition, the built-in profile and the sensor
+   */
   static Profile readProfile() {
-    URL resource = JavaSonarWayProfile.class.getResource("/org/sonar/l10n/java/rules/java/Sonar_way_profile.json");
-    return new Gson().fromJson(readResource(resource), Profile.class);
+    return SonarWayProfileHolder.PROFILE;
   }
 
-  private static String readResource(URL resource) {
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
-      return reader.lines().collect(Collectors.joining("\n"));
+  private static Profile parseProfile() {
+    URL resource = JavaSonarWayProfile.class.getResource("/org/sonar/l10n/java/rules/java/Sonar_way_profile.json");
+    try (Reader reader = new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8)) {
+      Profile profile = new Gson().fromJson(reader, Profile.class);
+      profile.ruleKeys = Collections.unmodifiableSet(profile.ruleKeys);
+      return profile;
     } catch (IOException e) {
       throw new IllegalStateException("Failed to read: " + resource, e);
     }
@@ -141,6 +147,10 @@ public class JavaSonarWayProfile implements BuiltInQualityProfilesDefinition {
     }
   }
 
+  private static final class SonarWayProfileHolder {
+    private static final Profile PROFILE = parseProfile();
+  }
+
   static class Profile {
     String name;
     Set<String> ruleKeys;
@@ -32,6 +32,7 @@ import org.sonar.api.utils.log.LogTesterJUnit5;
 import org.sonar.api.utils.log.LoggerLevel;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.sonar.plugins.java.JavaSonarWayProfile.DBD_RULES_CLASS_NAME;
 
 class JavaSonarWayProfileTest {
@@ -65,6 +66,16 @@ class JavaSonarWayProfileTest {
     assertThat(activeRules.get(0).overriddenSeverity()).isNull();
   }
 
+  @Test
+  void sonar_way_profile_is_read_once() {
+    JavaSonarWayProfile.Profile profile = JavaSonarWayProfile.readProfile();
+    assertThat(profile.name).isEqualTo("Sonar way");
+    assertThat(profile.ruleKeys).contains("S116");
+    assertThat(JavaSonarWayProfile.readProfile()).isSameAs(profile);
+    Set<String> ruleKeys = profile.ruleKeys;
+    assertThatThrownBy(() -> ruleKeys.add("S42")).isInstanceOf(UnsupportedOperationException.class);
+  }
+
   @Test
   void should_activate_hotspots_when_supported() {
     JavaSonarWayProfile profileDef = new JavaSonarWayProfile();